@@ -5,8 +5,7 @@
 package com.dumbdogdiner.stickyapi.bukkit.command;
 
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
 
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
@@ -18,6 +17,8 @@ import org.bukkit.command.PluginIdentifiableCommand;
 import org.bukkit.command.TabCompleter;
 
 import com.dumbdogdiner.stickyapi.StickyAPI;
+import com.dumbdogdiner.stickyapi.bukkit.util.ServerUtil;
+import com.dumbdogdiner.stickyapi.common.scheduler.TaskFuture;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nullable;
@@ -82,30 +83,20 @@ public abstract class AsyncCommand extends Command implements PluginIdentifiable
             throw new CommandException(String.format("Cannot execute command \"%s\" in plugin %s - plugin is disabled.",
                     commandLabel, this.owner.getDescription().getFullName()));
 
-        AsyncCommand self = this;
-        FutureTask<Boolean> t = new FutureTask<>(new Callable<Boolean>() {
-            @Override
-            public Boolean call() {
-                try {
-                    ExitCode resultingExitCode = self.executeCommand(sender, commandLabel, args);
-
-                    if (resultingExitCode == null) {
-                        throw new IllegalArgumentException("A null exit code was returned");
-                    }
-
-                    if (resultingExitCode.getMessage() != null) {
-                        sender.sendMessage(ChatColor.RED + resultingExitCode.getMessage());
-                    }
-                } catch (Throwable ex) {
-                    ex.printStackTrace();
-                    throw new CommandException("Unhandled exception executing command '" + commandLabel + "' in plugin "
-                            + self.owner.getDescription().getFullName(), ex);
-                }
-                return true;
+        TaskFuture.supplyAsync(() -> executeCommand(sender, commandLabel, args), StickyAPI.getPool(),
+                ServerUtil.getMainThreadExecutor(owner)).thenAcceptSync(resultingExitCode -> {
+            if (resultingExitCode == null) {
+                throw new IllegalArgumentException("A null exit code was returned");
             }
-        });
 
-        StickyAPI.getPool().execute(t);
+            if (resultingExitCode.getMessage() != null) {
+                sender.sendMessage(ChatColor.RED + resultingExitCode.getMessage());
+            }
+        }).exceptionally(ex -> {
+            StickyAPI.getLogger().log(Level.SEVERE, "Unhandled exception executing command '" + commandLabel
+                    + "' in plugin " + owner.getDescription().getFullName(), ex);
+            return null;
+        });
 
         return true; // we always return true, we don't care what bukkit thinks
     }
@@ -4,22 +4,26 @@
  */
 package com.dumbdogdiner.stickyapi.bukkit.command;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.FutureTask;
+import java.util.UUID;
+import java.util.logging.Level;
 
 import com.dumbdogdiner.stickyapi.StickyAPI;
+import com.dumbdogdiner.stickyapi.bukkit.util.ServerUtil;
 import com.dumbdogdiner.stickyapi.bukkit.util.SoundUtil;
+import com.dumbdogdiner.stickyapi.common.arguments.ArgumentSchema;
 import com.dumbdogdiner.stickyapi.common.arguments.Arguments;
+import com.dumbdogdiner.stickyapi.common.arguments.ParsedArguments;
 import com.dumbdogdiner.stickyapi.common.command.CommandBuilder;
 import com.dumbdogdiner.stickyapi.common.command.ExitCode;
 import com.dumbdogdiner.stickyapi.common.ServerVersion;
+import com.dumbdogdiner.stickyapi.common.scheduler.TaskFuture;
 import com.dumbdogdiner.stickyapi.common.util.NotificationType;
 import com.dumbdogdiner.stickyapi.common.util.reflection.ReflectionUtil;
-import com.dumbdogdiner.stickyapi.common.util.StringUtil;
 import com.google.common.collect.ImmutableList;
 
 import org.bukkit.command.Command;
@@ -39,9 +43,6 @@ import org.jetbrains.annotations.NotNull;
  */
 public class BukkitCommandBuilder extends CommandBuilder<BukkitCommandBuilder> {
 
-    // Hmm...
-    HashMap<CommandSender, Long> cooldownSenders = new HashMap<>();
-
     Executor executor;
     TabExecutor tabExecutor;
 
@@ -53,6 +54,11 @@ public class BukkitCommandBuilder extends CommandBuilder<BukkitCommandBuilder> {
         public ExitCode apply(CommandSender sender, Arguments args, HashMap<String, String> vars);
     }
 
+    @FunctionalInterface
+    public interface ParsedExecutor {
+        public ExitCode apply(CommandSender sender, ParsedArguments args, HashMap<String, String> vars);
+    }
+
     public interface TabExecutor {
         public java.util.List<String> apply(CommandSender sender, String commandLabel, Arguments args);
     }
@@ -77,23 +83,36 @@ public class BukkitCommandBuilder extends CommandBuilder<BukkitCommandBuilder> {
         this.owner = owner;
     }
 
-    private void performAsynchronousExecution(CommandSender sender, org.bukkit.command.Command command, String label,
-            List<String> args) {
-        StickyAPI.getPool().execute(new FutureTask<Void>(() -> {
-            performExecution(sender, command, label, args);
+    /**
+     * Execute this command on the pool, then handle its exit code back on the main
+     * thread.
+     */
+    private void performAsynchronousExecution(Plugin plugin, CommandSender sender, org.bukkit.command.Command command,
+            String label, List<String> args) {
+        TaskFuture.supplyAsync(() -> performExecution(plugin, sender, command, label, args), StickyAPI.getPool(),
+                ServerUtil.getMainThreadExecutor(plugin)).thenAcceptSync(handleExitCode -> {
+            if (handleExitCode != null) {
+                handleExitCode.run();
+            }
+        }).exceptionally(e -> {
+            StickyAPI.getLogger().log(Level.SEVERE, "Unhandled exception executing command '" + label + "' in plugin "
+                    + plugin.getDescription().getFullName(), e);
             return null;
-        }));
+        });
     }
 
     /**
-     * Execute this command. Checks for existing sub-commands, and runs the error
-     * handler if anything goes wrong.
+     * Execute this command. Checks for existing sub-commands.
+     * 
+     * @return What to run to handle the exit code - running the error handler if
+     *         anything went wrong, and playing a sound - or null if a sub-command
+     *         was handed off to run asynchronously
      */
-    private void performExecution(CommandSender sender, org.bukkit.command.Command command, String label,
-            List<String> args) {
+    private Runnable performExecution(Plugin plugin, CommandSender sender, org.bukkit.command.Command command,
+            String label, List<String> args) {
         // look for subcommands
-        if (args.size() > 0 && getSubCommands().containsKey(args.get(0))) {
-            BukkitCommandBuilder subCommand = (BukkitCommandBuilder) getSubCommands().get(args.get(0));
+        BukkitCommandBuilder subCommand = args.size() > 0 ? getSubCommand(args.get(0)) : null;
+        if (subCommand != null) {
             if (!getSynchronous() && subCommand.getSynchronous()) {
                 throw new RuntimeException("Attempted to asynchronously execute a synchronous sub-command!");
             }
@@ -105,12 +124,10 @@ public class BukkitCommandBuilder extends CommandBuilder<BukkitCommandBuilder> {
 
             // spawn async command from sync
             if (getSynchronous() && !subCommand.getSynchronous()) {
-                subCommand.performAsynchronousExecution(sender, command, label, argsClone);
-            } else {
-                subCommand.performExecution(sender, command, label, argsClone);
+                subCommand.performAsynchronousExecution(plugin, sender, command, label, argsClone);
+                return null;
             }
-
-            return;
+            return subCommand.performExecution(plugin, sender, command, label, argsClone);
         }
 
         ExitCode exitCode;
@@ -121,19 +138,13 @@ public class BukkitCommandBuilder extends CommandBuilder<BukkitCommandBuilder> {
         variables.put("player", sender.getName());
         variables.put("uuid", (sender instanceof Player) ? ((Player) sender).getUniqueId().toString() : "");
         variables.put("cooldown", getCooldown().toString());
-        variables.put("cooldown_remaining",
-                cooldownSenders.containsKey(sender)
-                        ? String.valueOf(getCooldown() - (System.currentTimeMillis() - cooldownSenders.get(sender)))
-                        : "0");
+        // Start the sender's cooldowns, if they have passed
+        long cooldownRemaining = getCooldowns().tryAcquire(idOf(sender));
+        variables.put("cooldown_remaining", String.valueOf(cooldownRemaining));
         try {
-            if (cooldownSenders.containsKey(sender)
-                    && ((System.currentTimeMillis() - cooldownSenders.get(sender)) < getCooldown())) {
+            if (cooldownRemaining > 0) {
                 exitCode = ExitCode.EXIT_COOLDOWN;
             } else {
-
-                // Add our sender and their command execution time to our hashmap of coolness
-                cooldownSenders.put(sender, System.currentTimeMillis());
-
                 // If the user does not have permission to execute the sub command, don't let
                 // them execute and return permission denied
                 if (this.getPermission() != null && !sender.hasPermission(this.getPermission())) {
@@ -149,6 +160,12 @@ public class BukkitCommandBuilder extends CommandBuilder<BukkitCommandBuilder> {
             e.printStackTrace();
         }
 
+        ExitCode result = exitCode;
+        return () -> handleExitCode(result, sender, a, variables);
+    }
+
+    private void handleExitCode(ExitCode exitCode, CommandSender sender, Arguments a,
+            HashMap<String, String> variables) {
         // run the error handler - something made a fucky wucky uwu
         if (exitCode != ExitCode.EXIT_SUCCESS) {
             if (exitCode == ExitCode.EXIT_INFO) {
@@ -173,6 +190,29 @@ public class BukkitCommandBuilder extends CommandBuilder<BukkitCommandBuilder> {
         return this;
     }
 
+    /**
+     * Set the schema of the command's arguments, and an executor that receives
+     * them parsed. If the arguments do not match the schema, the error handler is
+     * run with {@link ExitCode#EXIT_INVALID_SYNTAX}, and the <code>usage</code>
+     * and <code>argument</code> variables set.
+     * 
+     * @param schema   of the arguments
+     * @param executor to set
+     * @return {@link CommandBuilder}
+     */
+    public BukkitCommandBuilder onExecute(@NotNull ArgumentSchema schema, @NotNull ParsedExecutor executor) {
+        arguments(schema);
+        return onExecute((sender, args, vars) -> {
+            ParsedArguments parsed = getArgumentPlan().parse(args.getRawArgs());
+            if (!parsed.valid()) {
+                vars.put("usage", getUsage());
+                vars.put("argument", parsed.getInvalidatedBy());
+                return ExitCode.EXIT_INVALID_SYNTAX;
+            }
+            return executor.apply(sender, parsed, vars);
+        });
+    }
+
     /**
      * Set the tab complete executor of the command
      * 
@@ -208,6 +248,9 @@ public class BukkitCommandBuilder extends CommandBuilder<BukkitCommandBuilder> {
             this.synchronous(false);
         }
 
+        compileArguments();
+        OnlinePlayerIndex.track(plugin);
+
         BukkitCommandBuilder that = this;
 
         // Execute the command by creating a new CommandExecutor and passing the
@@ -217,9 +260,12 @@ public class BukkitCommandBuilder extends CommandBuilder<BukkitCommandBuilder> {
             public boolean onCommand(CommandSender sender, org.bukkit.command.Command command, String label,
                     String[] args) {
                 if (that.getSynchronous()) {
-                    performExecution(sender, command, label, Arrays.asList(args));
+                    Runnable handleExitCode = performExecution(plugin, sender, command, label, Arrays.asList(args));
+                    if (handleExitCode != null) {
+                        handleExitCode.run();
+                    }
                 } else {
-                    performAsynchronousExecution(sender, command, label, Arrays.asList(args));
+                    performAsynchronousExecution(plugin, sender, command, label, Arrays.asList(args));
                 }
                 return true;
             }
@@ -228,29 +274,7 @@ public class BukkitCommandBuilder extends CommandBuilder<BukkitCommandBuilder> {
         command.setTabCompleter(new TabCompleter() {
             @Override
             public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
-                if (tabExecutor == null) {
-                    if (args.length == 0) {
-                        return ImmutableList.of();
-                    }
-
-                    String lastWord = args[args.length - 1];
-
-                    Player senderPlayer = sender instanceof Player ? (Player) sender : null;
-
-                    ArrayList<String> matchedPlayers = new ArrayList<String>();
-                    for (Player player : sender.getServer().getOnlinePlayers()) {
-                        String name = player.getName();
-                        if ((senderPlayer == null || senderPlayer.canSee(player))
-                                && StringUtil.startsWithIgnoreCase(name, lastWord)) {
-                            matchedPlayers.add(name);
-                        }
-                    }
-
-                    Collections.sort(matchedPlayers, String.CASE_INSENSITIVE_ORDER);
-                    return matchedPlayers;
-                } else {
-                    return tabExecutor.apply(sender, alias, new Arguments(Arrays.asList(args)));
-                }
+                return complete(sender, alias, args, 0);
             }
         });
 
@@ -263,6 +287,33 @@ public class BukkitCommandBuilder extends CommandBuilder<BukkitCommandBuilder> {
         return command;
     }
 
+    /**
+     * Tab complete the arguments from the given index on. Without a tab executor,
+     * this completes the names of sub-commands and online players, and passes on
+     * to the sub-command named by the arguments, if any.
+     */
+    private List<String> complete(CommandSender sender, String alias, String[] args, int from) {
+        if (tabExecutor != null) {
+            return tabExecutor.apply(sender, alias, new Arguments(Arrays.asList(args).subList(from, args.length)));
+        }
+        if (args.length == from) {
+            return ImmutableList.of();
+        }
+
+        String lastWord = args[args.length - 1];
+        if (args.length == from + 1) {
+            List<String> matches = new ArrayList<>(completeSubCommand(lastWord));
+            matches.addAll(OnlinePlayerIndex.complete(sender, lastWord));
+            return matches;
+        }
+
+        BukkitCommandBuilder subCommand = getSubCommand(args[from]);
+        if (subCommand != null) {
+            return subCommand.complete(sender, alias, args, from + 1);
+        }
+        return OnlinePlayerIndex.complete(sender, lastWord);
+    }
+
     /**
      * Build the command!
      * 
@@ -304,6 +355,17 @@ public class BukkitCommandBuilder extends CommandBuilder<BukkitCommandBuilder> {
         this.register(this.owner);
     }
 
+    /**
+     * Get the ID to track a sender's cooldowns by - a player's unique ID, or one
+     * made from the name of any other sender.
+     */
+    private static UUID idOf(CommandSender sender) {
+        if (sender instanceof Player) {
+            return ((Player) sender).getUniqueId();
+        }
+        return UUID.nameUUIDFromBytes(sender.getName().getBytes(StandardCharsets.UTF_8));
+    }
+
     private void _playSound(CommandSender sender, NotificationType type) {
         if (!this.getPlaySound())
             return;
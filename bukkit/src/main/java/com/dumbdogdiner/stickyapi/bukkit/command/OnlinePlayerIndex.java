@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.bukkit.command;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.dumbdogdiner.stickyapi.common.command.NameIndex;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A prefix index of the names of online players, shared by every command's tab
+ * completion and kept up to date as players join and quit.
+ */
+public final class OnlinePlayerIndex {
+    private OnlinePlayerIndex() {
+    }
+
+    private static final NameIndex names = new NameIndex();
+    private static final Set<Plugin> plugins = new LinkedHashSet<>();
+    private static Plugin tracker = null;
+    private static Listener listener = null;
+
+    /**
+     * Start keeping the index up to date, listening for players joining and
+     * quitting with the given plugin. If the index is already kept up to date, the
+     * plugin is remembered so it can take over listening when the plugin currently
+     * listening is disabled.
+     * 
+     * @param plugin The plugin to listen with
+     */
+    public static synchronized void track(@NotNull Plugin plugin) {
+        plugins.add(plugin);
+        if (tracker == null) {
+            listen(plugin);
+        }
+    }
+
+    private static void listen(Plugin plugin) {
+        tracker = plugin;
+
+        names.clear();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            names.add(player.getName());
+        }
+
+        listener = new Listener() {
+            @EventHandler(priority = EventPriority.LOWEST)
+            public void onJoin(PlayerJoinEvent event) {
+                names.add(event.getPlayer().getName());
+            }
+
+            @EventHandler(priority = EventPriority.MONITOR)
+            public void onQuit(PlayerQuitEvent event) {
+                names.remove(event.getPlayer().getName());
+            }
+
+            @EventHandler
+            public void onDisable(PluginDisableEvent event) {
+                untrack(event.getPlugin());
+            }
+        };
+        Bukkit.getPluginManager().registerEvents(listener, plugin);
+    }
+
+    private static synchronized void untrack(Plugin plugin) {
+        plugins.remove(plugin);
+        if (tracker != plugin) {
+            return;
+        }
+
+        HandlerList.unregisterAll(listener);
+        tracker = null;
+        listener = null;
+
+        // Hand the listener over to another plugin that is still enabled
+        for (Iterator<Plugin> it = plugins.iterator(); it.hasNext();) {
+            Plugin next = it.next();
+            if (next.isEnabled()) {
+                listen(next);
+                return;
+            }
+            it.remove();
+        }
+
+        // Nothing is left to listen with, so complete() scans the online players
+        names.clear();
+    }
+
+    /**
+     * Get the names of online players starting with a prefix, ignoring case,
+     * sorted without regard to case.
+     * 
+     * @param prefix The prefix
+     * @return {@link List}
+     */
+    @NotNull
+    public static List<String> complete(@NotNull String prefix) {
+        return isTracking() ? names.complete(prefix) : scan(prefix);
+    }
+
+    /**
+     * Get the names of online players starting with a prefix that a sender can
+     * see, ignoring case, sorted without regard to case.
+     * 
+     * @param sender The sender completing the name
+     * @param prefix The prefix
+     * @return {@link List}
+     */
+    @NotNull
+    public static List<String> complete(@NotNull CommandSender sender, @NotNull String prefix) {
+        List<String> matches = complete(prefix);
+        if (!(sender instanceof Player)) {
+            return matches;
+        }
+
+        Player viewer = (Player) sender;
+        var visible = new ArrayList<String>(matches.size());
+        for (String name : matches) {
+            Player player = Bukkit.getPlayerExact(name);
+            if (player != null && viewer.canSee(player)) {
+                visible.add(name);
+            }
+        }
+        return visible;
+    }
+
+    private static synchronized boolean isTracking() {
+        return tracker != null;
+    }
+
+    private static List<String> scan(String prefix) {
+        var matches = new ArrayList<String>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            String name = player.getName();
+            if (name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                matches.add(name);
+            }
+        }
+        matches.sort(String.CASE_INSENSITIVE_ORDER);
+        return matches;
+    }
+}
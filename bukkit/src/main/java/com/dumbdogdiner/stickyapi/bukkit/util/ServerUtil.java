@@ -4,6 +4,8 @@
  */
 package com.dumbdogdiner.stickyapi.bukkit.util;
 
+import java.util.concurrent.Executor;
+
 import javax.annotation.Nullable;
 
 import com.destroystokyo.paper.Title;
@@ -14,6 +16,7 @@ import com.dumbdogdiner.stickyapi.common.util.reflection.ReflectionUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.Server;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 
 import net.md_5.bungee.api.chat.TextComponent;
@@ -58,4 +61,16 @@ public class ServerUtil {
             player.sendTitle(title);
         }
     }
+
+    /**
+     * Get an executor that runs tasks on the server's main thread, on the next
+     * tick. Use it as the synchronous executor of a
+     * {@link com.dumbdogdiner.stickyapi.common.scheduler.TaskFuture}.
+     * 
+     * @param plugin The plugin to schedule the tasks for
+     * @return {@link Executor}
+     */
+    public static Executor getMainThreadExecutor(@NotNull Plugin plugin) {
+        return task -> plugin.getServer().getScheduler().runTask(plugin, task);
+    }
 }
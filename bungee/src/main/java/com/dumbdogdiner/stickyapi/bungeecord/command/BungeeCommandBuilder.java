@@ -4,22 +4,23 @@
  */
 package com.dumbdogdiner.stickyapi.bungeecord.command;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
+import java.util.UUID;
 import java.util.TreeMap;
 import java.util.concurrent.FutureTask;
 
 import com.dumbdogdiner.stickyapi.StickyAPI;
 import com.dumbdogdiner.stickyapi.bungeecord.packet.PacketRegistration;
 import com.dumbdogdiner.stickyapi.bungeecord.util.SoundUtil;
+import com.dumbdogdiner.stickyapi.common.arguments.ArgumentSchema;
 import com.dumbdogdiner.stickyapi.common.arguments.Arguments;
+import com.dumbdogdiner.stickyapi.common.arguments.ParsedArguments;
 import com.dumbdogdiner.stickyapi.common.command.ExitCode;
 import com.dumbdogdiner.stickyapi.common.command.CommandBuilder;
 import com.dumbdogdiner.stickyapi.common.util.NotificationType;
-import com.dumbdogdiner.stickyapi.common.util.StringUtil;
 import com.google.common.collect.ImmutableList;
 
 import org.jetbrains.annotations.NotNull;
@@ -33,9 +34,6 @@ import net.md_5.bungee.api.plugin.Plugin;
 @SuppressWarnings("deprecation") // PacketRegistration is deprecated
 public class BungeeCommandBuilder extends CommandBuilder<BungeeCommandBuilder> {
 
-    // Hmm...
-    HashMap<CommandSender, Long> cooldownSenders = new HashMap<>();
-
     Executor executor;
     TabExecutor tabExecutor;
 
@@ -47,6 +45,11 @@ public class BungeeCommandBuilder extends CommandBuilder<BungeeCommandBuilder> {
         public ExitCode apply(CommandSender sender, Arguments args, TreeMap<String, String> vars);
     }
 
+    @FunctionalInterface
+    public interface ParsedExecutor {
+        public ExitCode apply(CommandSender sender, ParsedArguments args, TreeMap<String, String> vars);
+    }
+
     public interface TabExecutor {
         public java.util.List<String> apply(CommandSender sender, String commandLabel, Arguments args);
     }
@@ -105,8 +108,8 @@ public class BungeeCommandBuilder extends CommandBuilder<BungeeCommandBuilder> {
      */
     private void performExecution(CommandSender sender, BungeeCommandBuilder builder, String label, List<String> args) {
         // look for subcommands
-        if (args.size() > 0 && getSubCommands().containsKey(args.get(0))) {
-            BungeeCommandBuilder subCommand = (BungeeCommandBuilder) getSubCommands().get(args.get(0));
+        BungeeCommandBuilder subCommand = args.size() > 0 ? getSubCommand(args.get(0)) : null;
+        if (subCommand != null) {
             if (!getSynchronous() && subCommand.getSynchronous()) {
                 throw new RuntimeException("Attempted to asynchronously execute a synchronous sub-command!");
             }
@@ -135,19 +138,13 @@ public class BungeeCommandBuilder extends CommandBuilder<BungeeCommandBuilder> {
         variables.put("uuid", (sender instanceof ProxiedPlayer) ? ((ProxiedPlayer) sender).getUniqueId().toString()
                 : "00000000-0000-0000-0000-000000000000");
         variables.put("cooldown", getCooldown().toString());
-        variables.put("cooldown_remaining",
-                cooldownSenders.containsKey(sender)
-                        ? String.valueOf(getCooldown() - (System.currentTimeMillis() - cooldownSenders.get(sender)))
-                        : "0");
+        // Start the sender's cooldowns, if they have passed
+        long cooldownRemaining = getCooldowns().tryAcquire(idOf(sender));
+        variables.put("cooldown_remaining", String.valueOf(cooldownRemaining));
         try {
-            if (cooldownSenders.containsKey(sender)
-                    && ((System.currentTimeMillis() - cooldownSenders.get(sender)) < getCooldown())) {
+            if (cooldownRemaining > 0) {
                 exitCode = ExitCode.EXIT_COOLDOWN;
             } else {
-
-                // Add our sender and their command execution time to our hashmap of coolness
-                cooldownSenders.put(sender, System.currentTimeMillis());
-
                 // If the user does not have permission to execute the sub command, don't let
                 // them execute and return permission denied
                 if (this.getPermission() != null && !sender.hasPermission(this.getPermission())) {
@@ -186,6 +183,29 @@ public class BungeeCommandBuilder extends CommandBuilder<BungeeCommandBuilder> {
         return this;
     }
 
+    /**
+     * Set the schema of the command's arguments, and an executor that receives
+     * them parsed. If the arguments do not match the schema, the error handler is
+     * run with {@link ExitCode#EXIT_INVALID_SYNTAX}, and the <code>usage</code>
+     * and <code>argument</code> variables set.
+     * 
+     * @param schema   of the arguments
+     * @param executor to set
+     * @return {@link BungeeCommandBuilder}
+     */
+    public BungeeCommandBuilder onExecute(@NotNull ArgumentSchema schema, @NotNull ParsedExecutor executor) {
+        arguments(schema);
+        return onExecute((sender, args, vars) -> {
+            ParsedArguments parsed = getArgumentPlan().parse(args.getRawArgs());
+            if (!parsed.valid()) {
+                vars.put("usage", getUsage());
+                vars.put("argument", parsed.getInvalidatedBy());
+                return ExitCode.EXIT_INVALID_SYNTAX;
+            }
+            return executor.apply(sender, parsed, vars);
+        });
+    }
+
     /**
      * Set the tab complete executor of the command
      * 
@@ -216,6 +236,8 @@ public class BungeeCommandBuilder extends CommandBuilder<BungeeCommandBuilder> {
      * @return {@link Command}
      */
     public Command build(Plugin plugin) {
+        compileArguments();
+        OnlinePlayerIndex.track(plugin);
         return new TabableCommand(this);
     }
 
@@ -249,29 +271,46 @@ public class BungeeCommandBuilder extends CommandBuilder<BungeeCommandBuilder> {
 
         @Override
         public Iterable<String> onTabComplete(net.md_5.bungee.api.CommandSender sender, String[] args) {
-            if (builder.tabExecutor != null)
-                return builder.tabExecutor.apply(sender, builder.getName(), new Arguments(Arrays.asList(args)));
-            else {
-                if (args.length == 0) {
-                    return ImmutableList.of();
-                }
+            return builder.complete(sender, args, 0);
+        }
+    }
 
-                String lastWord = args[args.length - 1];
+    /**
+     * Tab complete the arguments from the given index on. Without a tab executor,
+     * this completes the names of sub-commands and connected players, and passes
+     * on to the sub-command named by the arguments, if any.
+     */
+    private List<String> complete(CommandSender sender, String[] args, int from) {
+        if (tabExecutor != null) {
+            return tabExecutor.apply(sender, getName(), new Arguments(Arrays.asList(args).subList(from, args.length)));
+        }
+        if (args.length == from) {
+            return ImmutableList.of();
+        }
 
-                ProxiedPlayer senderPlayer = sender instanceof ProxiedPlayer ? (ProxiedPlayer) sender : null;
+        String lastWord = args[args.length - 1];
+        if (args.length == from + 1) {
+            List<String> matches = new ArrayList<>(completeSubCommand(lastWord));
+            matches.addAll(OnlinePlayerIndex.complete(lastWord));
+            return matches;
+        }
 
-                ArrayList<String> matchedPlayers = new ArrayList<String>();
-                for (ProxiedPlayer player : ProxyServer.getInstance().getPlayers()) {
-                    String name = player.getName();
-                    if ((senderPlayer == null) && StringUtil.startsWithIgnoreCase(name, lastWord)) {
-                        matchedPlayers.add(name);
-                    }
-                }
+        BungeeCommandBuilder subCommand = getSubCommand(args[from]);
+        if (subCommand != null) {
+            return subCommand.complete(sender, args, from + 1);
+        }
+        return OnlinePlayerIndex.complete(lastWord);
+    }
 
-                Collections.sort(matchedPlayers, String.CASE_INSENSITIVE_ORDER);
-                return matchedPlayers;
-            }
+    /**
+     * Get the ID to track a sender's cooldowns by - a player's unique ID, or one
+     * made from the name of any other sender.
+     */
+    private static UUID idOf(CommandSender sender) {
+        if (sender instanceof ProxiedPlayer) {
+            return ((ProxiedPlayer) sender).getUniqueId();
         }
+        return UUID.nameUUIDFromBytes(sender.getName().getBytes(StandardCharsets.UTF_8));
     }
 
     private void _playSound(CommandSender sender, NotificationType type) {
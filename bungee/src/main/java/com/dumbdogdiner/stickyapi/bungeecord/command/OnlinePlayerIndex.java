@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.bungeecord.command;
+
+import java.util.List;
+
+import com.dumbdogdiner.stickyapi.common.command.NameIndex;
+
+import org.jetbrains.annotations.NotNull;
+
+import net.md_5.bungee.api.ProxyServer;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.event.PlayerDisconnectEvent;
+import net.md_5.bungee.api.event.PostLoginEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.api.plugin.Plugin;
+import net.md_5.bungee.event.EventHandler;
+import net.md_5.bungee.event.EventPriority;
+
+/**
+ * A prefix index of the names of players connected to the proxy, shared by
+ * every command's tab completion and kept up to date as players connect and
+ * disconnect.
+ */
+public final class OnlinePlayerIndex {
+    private OnlinePlayerIndex() {
+    }
+
+    private static final NameIndex names = new NameIndex();
+    private static boolean tracking = false;
+
+    /**
+     * Start keeping the index up to date, listening for players connecting and
+     * disconnecting with the given plugin. Does nothing if the index is already
+     * kept up to date.
+     * 
+     * @param plugin The plugin to listen with
+     */
+    public static synchronized void track(@NotNull Plugin plugin) {
+        if (tracking) {
+            return;
+        }
+        tracking = true;
+
+        for (ProxiedPlayer player : ProxyServer.getInstance().getPlayers()) {
+            names.add(player.getName());
+        }
+
+        ProxyServer.getInstance().getPluginManager().registerListener(plugin, new Listener() {
+            @EventHandler(priority = EventPriority.LOWEST)
+            public void onPostLogin(PostLoginEvent event) {
+                names.add(event.getPlayer().getName());
+            }
+
+            @EventHandler(priority = EventPriority.HIGHEST)
+            public void onDisconnect(PlayerDisconnectEvent event) {
+                names.remove(event.getPlayer().getName());
+            }
+        });
+    }
+
+    /**
+     * Get the names of connected players starting with a prefix, ignoring case,
+     * sorted without regard to case.
+     * 
+     * @param prefix The prefix
+     * @return {@link List}
+     */
+    @NotNull
+    public static List<String> complete(@NotNull String prefix) {
+        return names.complete(prefix);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.translation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link Translation#translateColors(String, String)} with the
+ * implementation it replaced, which looked every prefix up with
+ * {@link String#indexOf(String, int)} and edited a copy of the message.
+ * <p>
+ * The messages only use legacy codes, which both implementations translate
+ * the same way.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranslateColorsBenchmark {
+    @Param({ "plain", "prefix", "dense" })
+    public String kind;
+
+    private String message;
+
+    @Setup
+    public void setup() {
+        switch (kind) {
+        case "plain":
+            message = "Welcome to the server! There are no color codes in this message at all.";
+            break;
+        case "prefix":
+            message = "&b&lStickyCommands &8&l» &bWoosh! You're at the top, {player}!";
+            break;
+        default:
+            message = "&aG&br&ca&dd&ei&fe&1n&2t &3t&4e&5x&6t &7w&8i&9t&0h &lm&oa&nn&my &rc&ao&bd&ce&ds";
+            break;
+        }
+    }
+
+    @Benchmark
+    public String tableDriven() {
+        return Translation.translateColors("&", message);
+    }
+
+    @Benchmark
+    public String previous() {
+        return previousTranslateColors("&", message);
+    }
+
+    /**
+     * The implementation of <code>translateColors</code> before it was made
+     * table-driven, kept as it was for comparison.
+     */
+    @SuppressWarnings("deprecation")
+    private static String previousTranslateColors(String chars, String message) {
+        if (message == null)
+            return null;
+
+        if (chars == null)
+            return message;
+
+        // Don't allocate if we don't have to.
+        if (!message.contains(chars))
+            return message;
+
+        StringBuilder retstr = new StringBuilder(message);
+        for (int pos = message.indexOf(chars); pos != -1; pos = message.indexOf(chars, pos)) {
+            if (pos + 1 > message.length())
+                break;
+
+            // Make sure the next char is valid hex as Minecraft uses a hexidecimal number
+            if (Translation.isxdigit(message.charAt(pos + 1))) {
+                // Now we replace the starting char with our special char.
+                retstr.setCharAt(pos, Translation.SPECIAL_CHAR);
+                pos += 2;
+            } else // Skip 2 characters, invalid sequence.
+                pos += 2;
+        }
+
+        return retstr.toString();
+    }
+}
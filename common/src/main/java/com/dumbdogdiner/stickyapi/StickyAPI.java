@@ -8,9 +8,15 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.logging.Logger;
 
+import com.dumbdogdiner.stickyapi.common.scheduler.ExecutorStrategy;
+import com.dumbdogdiner.stickyapi.common.scheduler.InstrumentedExecutor;
+import com.dumbdogdiner.stickyapi.common.scheduler.TaskMonitor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
 import lombok.Getter;
 import lombok.Setter;
 
@@ -27,9 +33,45 @@ public class StickyAPI {
     @Getter
     public static Logger logger = Logger.getLogger("StickyAPI");
 
+    /**
+     * The strategy that the pool was created with, see
+     * {@link #setExecutorStrategy(ExecutorStrategy)}.
+     * 
+     * @return {@link ExecutorStrategy}
+     */
+    @Getter
+    private static ExecutorStrategy executorStrategy = ExecutorStrategy.fromSystemProperty();
+
     @Getter
     @Setter
-    private static ExecutorService pool = Executors.newCachedThreadPool();
+    private static ExecutorService pool = new InstrumentedExecutor("StickyAPI", executorStrategy.create());
+
+    /**
+     * Replace the pool with a new one following the given strategy. The old pool
+     * is shut down once it has finished the tasks already submitted to it.
+     * 
+     * @param strategy The strategy to create the new pool with
+     */
+    public static void setExecutorStrategy(@NotNull ExecutorStrategy strategy) {
+        ExecutorService old = pool;
+        pool = new InstrumentedExecutor("StickyAPI", strategy.create());
+        executorStrategy = strategy;
+        old.shutdown();
+    }
+
+    /**
+     * Get the monitor recording the tasks run on the pool - their queue depth,
+     * wait and run times, and counts per task.
+     * 
+     * @return {@link TaskMonitor}, or null if the pool was replaced with
+     *         {@link #setPool(ExecutorService)} by one that is not an
+     *         {@link InstrumentedExecutor}
+     */
+    @Nullable
+    public static TaskMonitor getPoolMonitor() {
+        ExecutorService current = pool;
+        return current instanceof InstrumentedExecutor ? ((InstrumentedExecutor) current).getMonitor() : null;
+    }
 
     // Build Info Start
 
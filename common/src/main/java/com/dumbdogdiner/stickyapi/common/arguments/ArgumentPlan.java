@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.arguments;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.dumbdogdiner.stickyapi.common.arguments.ArgumentSchema.Parameter;
+import com.dumbdogdiner.stickyapi.common.arguments.ArgumentSchema.Type;
+import com.dumbdogdiner.stickyapi.common.util.TimeUtil;
+
+import org.jetbrains.annotations.NotNull;
+
+import lombok.Getter;
+
+/**
+ * A compiled {@link ArgumentSchema}. Parsing runs through the tokens once: each
+ * token is either a flag, or is matched against the positional argument the
+ * plan is at, moving the plan on to the next argument. Everything that can be
+ * worked out from the schema alone - the slot each value is stored in, which
+ * tokens may be flags, and the usage string - is worked out when compiling.
+ * <p>
+ * Plans are immutable and may be shared between threads.
+ */
+public final class ArgumentPlan {
+    /**
+     * The usage string for the arguments, such as
+     * <code>&lt;player&gt; [time] &lt;reason...&gt; [-s]</code>.
+     * 
+     * @return {@link String}
+     */
+    @Getter
+    private final String usage;
+
+    private final Parameter[] parameters;
+    private final Parameter[] positional;
+    private final int[] positionalSlots;
+    private final Parameter[] flags;
+    private final int[] flagSlots;
+
+    /**
+     * The first character of every flag, to rule out most tokens without
+     * comparing them against each flag.
+     */
+    private final String flagStarts;
+
+    /**
+     * Maps argument names to the slot their value is stored in.
+     */
+    final Map<String, Integer> slots;
+
+    ArgumentPlan(Parameter[] parameters) {
+        this.parameters = parameters;
+        var slots = new HashMap<String, Integer>();
+        var positional = new ArrayList<Integer>();
+        var flags = new ArrayList<Integer>();
+        var flagStarts = new StringBuilder();
+        var usage = new StringBuilder();
+        Parameter sentence = null;
+        Parameter optionalString = null;
+
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            if (slots.put(parameter.name, i) != null) {
+                throw new IllegalStateException("Duplicate argument name '" + parameter.name + "'");
+            }
+
+            if (usage.length() > 0) {
+                usage.append(' ');
+            }
+            usage.append(parameter.required ? '<' : '[');
+            usage.append(parameter.type == Type.FLAG ? parameter.flag : parameter.name);
+            usage.append(parameter.type == Type.SENTENCE ? "..." : "");
+            usage.append(parameter.required ? '>' : ']');
+
+            if (parameter.type == Type.FLAG) {
+                if (parameter.flag.isEmpty()) {
+                    throw new IllegalStateException("Flag '" + parameter.name + "' is empty");
+                }
+                if (flagStarts.indexOf(parameter.flag.substring(0, 1)) == -1) {
+                    flagStarts.append(parameter.flag.charAt(0));
+                }
+                flags.add(i);
+                continue;
+            }
+
+            if (sentence != null) {
+                throw new IllegalStateException(
+                        "Argument '" + parameter.name + "' follows sentence '" + sentence.name + "'");
+            }
+            if (parameter.required && optionalString != null) {
+                throw new IllegalStateException("Required argument '" + parameter.name
+                        + "' follows optional string '" + optionalString.name + "', which would always take its place");
+            }
+            if (parameter.type == Type.SENTENCE) {
+                sentence = parameter;
+            } else if (parameter.type == Type.STRING && !parameter.required) {
+                optionalString = parameter;
+            }
+            positional.add(i);
+        }
+
+        this.slots = Collections.unmodifiableMap(slots);
+        this.usage = usage.toString();
+        this.flagStarts = flagStarts.toString();
+        this.positionalSlots = positional.stream().mapToInt(Integer::intValue).toArray();
+        this.flagSlots = flags.stream().mapToInt(Integer::intValue).toArray();
+        this.positional = new Parameter[positionalSlots.length];
+        for (int i = 0; i < positionalSlots.length; i++) {
+            this.positional[i] = parameters[positionalSlots[i]];
+        }
+        this.flags = new Parameter[flagSlots.length];
+        for (int i = 0; i < flagSlots.length; i++) {
+            this.flags[i] = parameters[flagSlots[i]];
+        }
+    }
+
+    /**
+     * Parse arguments that are already split.
+     * 
+     * @param args The arguments to parse
+     * @return {@link ParsedArguments}
+     */
+    @NotNull
+    public ParsedArguments parse(@NotNull List<String> args) {
+        return parse(new Tokens(args));
+    }
+
+    /**
+     * Parse a command line, splitting it into arguments on whitespace.
+     * 
+     * @param line The command line to parse, without the command itself
+     * @return {@link ParsedArguments}
+     */
+    @NotNull
+    public ParsedArguments parse(@NotNull String line) {
+        return parse(new Tokens(line));
+    }
+
+    private ParsedArguments parse(Tokens tokens) {
+        Object[] values = new Object[parameters.length];
+        int[] sources = new int[parameters.length];
+        int state = 0;
+        StringBuilder sentence = null;
+
+        for (int token = 0; token < tokens.size(); token++) {
+            int flag = findFlag(tokens, token);
+            if (flag >= 0) {
+                values[flagSlots[flag]] = flags[flag].flag;
+                sources[flagSlots[flag]] = -1;
+                continue;
+            }
+
+            if (sentence != null) {
+                tokens.appendTo(sentence.append(' '), token);
+                continue;
+            }
+
+            while (state < positional.length) {
+                Parameter parameter = positional[state];
+                int slot = positionalSlots[state];
+                if (parameter.type == Type.SENTENCE) {
+                    sentence = new StringBuilder();
+                    tokens.appendTo(sentence, token);
+                    sources[slot] = -1;
+                    break;
+                }
+
+                state++;
+                Object value = parse(parameter, tokens, token);
+                if (value != null) {
+                    values[slot] = value;
+                    sources[slot] = token;
+                    break;
+                }
+                if (parameter.required) {
+                    return new ParsedArguments(this, tokens, values, sources, parameter.name);
+                }
+            }
+            // Tokens after the last argument are ignored
+        }
+
+        if (sentence != null) {
+            values[positionalSlots[state]] = sentence.toString();
+        }
+
+        for (int i = 0; i < parameters.length; i++) {
+            if (values[i] == null) {
+                if (parameters[i].required) {
+                    return new ParsedArguments(this, tokens, values, sources, parameters[i].name);
+                }
+                values[i] = parameters[i].fallback;
+                sources[i] = -1;
+            }
+        }
+        return new ParsedArguments(this, tokens, values, sources, null);
+    }
+
+    private int findFlag(Tokens tokens, int token) {
+        if (flags.length == 0 || tokens.length(token) == 0
+                || flagStarts.indexOf(tokens.charAt(token, 0)) == -1) {
+            return -1;
+        }
+        for (int i = 0; i < flags.length; i++) {
+            if (tokens.matches(token, flags[i].flag)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Object parse(Parameter parameter, Tokens tokens, int token) {
+        switch (parameter.type) {
+        case STRING:
+            return tokens.text(token);
+        case INT:
+            int value = tokens.parseInt(token);
+            return value < 0 ? null : value;
+        case DURATION:
+            long duration = tokens.parseDuration(token);
+            return duration < 0 ? null : duration;
+        case UUID:
+            return tokens.parseUUID(token);
+        case TIMESTAMP:
+            return TimeUtil.toTimestamp(tokens.text(token));
+        case CUSTOM:
+            return parameter.parser.apply(tokens.text(token));
+        default:
+            throw new IllegalStateException("Cannot parse a single token as " + parameter.type);
+        }
+    }
+}
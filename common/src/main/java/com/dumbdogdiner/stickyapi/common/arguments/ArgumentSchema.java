@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.arguments;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A declarative description of a command's arguments. Unlike
+ * {@link Arguments}, which parses as its methods are called, a schema is
+ * declared once and compiled into an {@link ArgumentPlan} that parses every
+ * invocation of the command:
+ * 
+ * <pre>
+ * ArgumentPlan plan = new ArgumentSchema().requiredString("player").optionalDuration("time")
+ *         .requiredSentence("reason").optionalFlag("silent", "-s").compile();
+ * ParsedArguments args = plan.parse(input);
+ * </pre>
+ * 
+ * Positional arguments are matched in the order they are declared. An optional
+ * argument that does not match the next token is skipped, and the token is
+ * tried against the argument after it. Flags may appear anywhere.
+ */
+public class ArgumentSchema {
+    final List<Parameter> parameters = new ArrayList<>();
+
+    /**
+     * The kinds of argument a schema can contain.
+     */
+    enum Type {
+        FLAG, STRING, INT, DURATION, UUID, TIMESTAMP, SENTENCE, CUSTOM
+    }
+
+    /**
+     * A single declared argument.
+     */
+    static final class Parameter {
+        final String name;
+        final Type type;
+        final boolean required;
+        final Object fallback;
+        final String flag;
+        final Function<String, ?> parser;
+
+        Parameter(String name, Type type, boolean required, Object fallback, String flag,
+                Function<String, ?> parser) {
+            this.name = name;
+            this.type = type;
+            this.required = required;
+            this.fallback = fallback;
+            this.flag = flag;
+            this.parser = parser;
+        }
+    }
+
+    private ArgumentSchema add(String name, Type type, boolean required, Object fallback, String flag,
+            Function<String, ?> parser) {
+        parameters.add(new Parameter(name, type, required, fallback, flag, parser));
+        return this;
+    }
+
+    /**
+     * Add an optional flag.
+     * 
+     * @param flag The name of this flag, and flag to match
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema optionalFlag(@NotNull String flag) {
+        return optionalFlag(flag, flag);
+    }
+
+    /**
+     * Add an optional flag.
+     * 
+     * @param name The name of this flag
+     * @param flag The flag to match
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema optionalFlag(@NotNull String name, @NotNull String flag) {
+        return add(name, Type.FLAG, false, null, flag, null);
+    }
+
+    /**
+     * Add a required flag.
+     * 
+     * @param name The name of this flag
+     * @param flag The flag to match
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema requiredFlag(@NotNull String name, @NotNull String flag) {
+        return add(name, Type.FLAG, true, null, flag, null);
+    }
+
+    /**
+     * Add an optional string argument.
+     * 
+     * @param name The name of this string
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema optionalString(@NotNull String name) {
+        return add(name, Type.STRING, false, null, null, null);
+    }
+
+    /**
+     * Add an optional string argument with a default value.
+     * 
+     * @param name     The name of this string
+     * @param fallback The value to use if the argument is not given
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema optionalString(@NotNull String name, @NotNull String fallback) {
+        return add(name, Type.STRING, false, fallback, null, null);
+    }
+
+    /**
+     * Add a required string argument.
+     * 
+     * @param name The name of this string
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema requiredString(@NotNull String name) {
+        return add(name, Type.STRING, true, null, null, null);
+    }
+
+    /**
+     * Add an optional sentence argument, taking every remaining argument. It must
+     * be the last positional argument.
+     * 
+     * @param name The name of this sentence
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema optionalSentence(@NotNull String name) {
+        return add(name, Type.SENTENCE, false, null, null, null);
+    }
+
+    /**
+     * Add an optional sentence argument with a default value, taking every
+     * remaining argument. It must be the last positional argument.
+     * 
+     * @param name     The name of this sentence
+     * @param fallback The value to use if the argument is not given
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema optionalSentence(@NotNull String name, @NotNull String fallback) {
+        return add(name, Type.SENTENCE, false, fallback, null, null);
+    }
+
+    /**
+     * Add a required sentence argument, taking every remaining argument. It must
+     * be the last positional argument.
+     * 
+     * @param name The name of this sentence
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema requiredSentence(@NotNull String name) {
+        return add(name, Type.SENTENCE, true, null, null, null);
+    }
+
+    /**
+     * Add an optional integer argument.
+     * 
+     * @param name The name of this integer
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema optionalInt(@NotNull String name) {
+        return add(name, Type.INT, false, null, null, null);
+    }
+
+    /**
+     * Add an optional integer argument with a default value.
+     * 
+     * @param name     The name of this integer
+     * @param fallback The value to use if the argument is not given
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema optionalInt(@NotNull String name, int fallback) {
+        return add(name, Type.INT, false, fallback, null, null);
+    }
+
+    /**
+     * Add a required integer argument.
+     * 
+     * @param name The name of this integer
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema requiredInt(@NotNull String name) {
+        return add(name, Type.INT, true, null, null, null);
+    }
+
+    /**
+     * Add an optional duration argument. (e.g. 1w2d5s)
+     * 
+     * @param name The name of this duration
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema optionalDuration(@NotNull String name) {
+        return add(name, Type.DURATION, false, null, null, null);
+    }
+
+    /**
+     * Add a required duration argument. (e.g. 1w2d5s)
+     * 
+     * @param name The name of this duration
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema requiredDuration(@NotNull String name) {
+        return add(name, Type.DURATION, true, null, null, null);
+    }
+
+    /**
+     * Add an optional timestamp argument, given as a duration from now. (e.g.
+     * 1w2d5s)
+     * 
+     * @param name The name of this timestamp
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema optionalTimeString(@NotNull String name) {
+        return add(name, Type.TIMESTAMP, false, null, null, null);
+    }
+
+    /**
+     * Add a required timestamp argument, given as a duration from now. (e.g.
+     * 1w2d5s)
+     * 
+     * @param name The name of this timestamp
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema requiredTimeString(@NotNull String name) {
+        return add(name, Type.TIMESTAMP, true, null, null, null);
+    }
+
+    /**
+     * Add an optional UUID argument.
+     * 
+     * @param name The name of this UUID
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema optionalUUID(@NotNull String name) {
+        return add(name, Type.UUID, false, null, null, null);
+    }
+
+    /**
+     * Add a required UUID argument.
+     * 
+     * @param name The name of this UUID
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema requiredUUID(@NotNull String name) {
+        return add(name, Type.UUID, true, null, null, null);
+    }
+
+    /**
+     * Add an optional argument parsed by the given function, such as a player
+     * lookup. The argument does not match if the function returns null.
+     * 
+     * @param name   The name of this argument
+     * @param parser The function parsing the argument
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema optional(@NotNull String name, @NotNull Function<String, ?> parser) {
+        return add(name, Type.CUSTOM, false, null, null, parser);
+    }
+
+    /**
+     * Add a required argument parsed by the given function, such as a player
+     * lookup. The argument does not match if the function returns null.
+     * 
+     * @param name   The name of this argument
+     * @param parser The function parsing the argument
+     * @return {@link ArgumentSchema}
+     */
+    public ArgumentSchema required(@NotNull String name, @NotNull Function<String, ?> parser) {
+        return add(name, Type.CUSTOM, true, null, null, parser);
+    }
+
+    /**
+     * Check this schema and compile it into a plan that can parse arguments.
+     * Later changes to this schema do not affect the plan.
+     * 
+     * @return {@link ArgumentPlan}
+     * @throws IllegalStateException If two arguments share a name, an argument
+     *                               follows a sentence, or a required argument
+     *                               follows an optional string that would
+     *                               always take its place
+     */
+    @NotNull
+    public ArgumentPlan compile() {
+        return new ArgumentPlan(parameters.toArray(new Parameter[0]));
+    }
+}
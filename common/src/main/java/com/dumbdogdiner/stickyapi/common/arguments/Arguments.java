@@ -6,13 +6,13 @@ package com.dumbdogdiner.stickyapi.common.arguments;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
 
 import com.dumbdogdiner.stickyapi.common.util.Debugger;
-import com.dumbdogdiner.stickyapi.common.util.NumberUtil;
 import com.dumbdogdiner.stickyapi.common.util.TimeUtil;
 
 import lombok.Getter;
@@ -21,24 +21,40 @@ import org.jetbrains.annotations.Nullable;
 
 /**
  * Utility class for handling command arguments.
+ * <p>
+ * The input is split into tokens once, and each argument is parsed straight
+ * from its token into a typed value - integers, durations and UUIDs are read
+ * from the characters of the token, without creating any strings on the way.
+ * Values that need a platform lookup, such as players, can be parsed with
+ * {@link #required(String, Function)}:
+ * 
+ * <pre>
+ * Arguments args = new Arguments(input).required("target", Bukkit::getPlayerExact).optionalDuration("time");
+ * Player target = args.getValue("target", Player.class);
+ * </pre>
  */
 public class Arguments {
-    @Getter
-    private List<String> rawArgs;
+    private static final Debugger debug = new Debugger(Arguments.class);
 
-    @Getter
-    private ArrayList<String> unparsedArgs;
-    private HashMap<String, String> parsedArgs = new HashMap<>();
+    private final Tokens tokens;
+
+    /**
+     * The indices of the tokens that have not been removed yet, in order.
+     */
+    private final int[] unparsed;
+    private int unparsedCount;
+
+    private List<String> rawArgs;
+    private final HashMap<String, Object> parsedArgs = new HashMap<>();
 
     @Getter
     private String invalidatedBy;
 
     private int position = 0;
     private boolean valid = true;
-    private final Debugger debug = new Debugger(getClass());
 
     public void invalidate(@NotNull String name) {
-        debug.print("Invalidated by argument " + name);
+        debug.print("Invalidated by argument %s", name);
         invalidatedBy = name;
         valid = false;
     }
@@ -59,10 +75,62 @@ public class Arguments {
      * @since 2.0
      */
     public Arguments(@NotNull List<String> args) {
-        unparsedArgs = new ArrayList<String>(args);
+        this(new Tokens(args));
         rawArgs = Collections.unmodifiableList(args);
     }
 
+    /**
+     * Construct a new argument class from a command line, splitting it into
+     * arguments on whitespace.
+     * 
+     * @param line The command line to parse, without the command itself
+     */
+    public Arguments(@NotNull String line) {
+        this(new Tokens(line));
+    }
+
+    private Arguments(Tokens tokens) {
+        this.tokens = tokens;
+        unparsed = new int[tokens.size()];
+        for (int i = 0; i < unparsed.length; i++) {
+            unparsed[i] = i;
+        }
+        unparsedCount = unparsed.length;
+    }
+
+    /**
+     * Get every argument, parsed or not.
+     * 
+     * @return An unmodifiable list of arguments
+     */
+    @NotNull
+    public List<String> getRawArgs() {
+        if (rawArgs == null) {
+            var args = new ArrayList<String>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                args.add(tokens.text(i));
+            }
+            rawArgs = Collections.unmodifiableList(args);
+        }
+        return rawArgs;
+    }
+
+    /**
+     * Get the arguments that were not removed by optional arguments or flags.
+     * Required arguments leave their tokens in place.
+     * 
+     * @return A copy of the unparsed arguments
+     */
+    @NotNull
+    public ArrayList<String> getUnparsedArgs() {
+        var args = new ArrayList<String>(unparsedCount);
+        for (int i = 0; i < unparsedCount; i++) {
+            args.add(tokens.text(unparsed[i]));
+        }
+        return args;
+    }
+
+
     /**
      * Create an optional flag.
      * 
@@ -82,17 +150,17 @@ public class Arguments {
      * @return {@link com.dumbdogdiner.stickyapi.common.arguments.Arguments}
      */
     public Arguments optionalFlag(@NotNull String name, @NotNull String flag) {
-        debug.print("Looking for optional flag " + name + "...");
-        int index = unparsedArgs.indexOf(flag);
+        debug.print("Looking for optional flag %s...", name);
+        int index = indexOf(flag);
         if (index == -1) {
             debug.print("Could not find flag");
             return this;
         }
 
-        debug.print("Found flag at position " + index + " - new args size = " + unparsedArgs.size());
+        parsedArgs.put(name, flag);
+        remove(index, 1);
 
-        parsedArgs.put(name, unparsedArgs.get(index));
-        unparsedArgs.remove(index);
+        debug.print("Found flag at position %s - new args size = %s", index, unparsedCount);
 
         return this;
     }
@@ -105,31 +173,30 @@ public class Arguments {
      * @return {@link com.dumbdogdiner.stickyapi.common.arguments.Arguments}
      */
     public Arguments requiredFlag(@NotNull String name, @NotNull String flag) {
-        debug.print("Looking for required flag " + name + "...");
-        int index = unparsedArgs.indexOf(flag);
+        debug.print("Looking for required flag %s...", name);
+        int index = indexOf(flag);
         if (index == -1) {
             invalidate(name);
             debug.print("Could not find flag - marking as invalid");
             return this;
         }
 
-        debug.print("Found flag at position " + String.valueOf(index));
+        debug.print("Found flag at position %s", index);
 
-        parsedArgs.put(name, unparsedArgs.get(index));
-        unparsedArgs.remove(index);
+        parsedArgs.put(name, flag);
+        remove(index, 1);
 
         return this;
     }
 
     private Arguments optionalStringImplementation(String name, String fallback) {
-        debug.print("Looking for optional string " + name + "...");
-        if (unparsedArgs.size() > position) {
-            parsedArgs.put(name, unparsedArgs.get(position));
-            unparsedArgs.remove(position);
-            debug.print("Found string at position " + String.valueOf(position) + " - new args size = "
-                    + String.valueOf(unparsedArgs.size()));
+        debug.print("Looking for optional string %s...", name);
+        if (unparsedCount > position) {
+            parsedArgs.put(name, tokens.text(unparsed[position]));
+            remove(position, 1);
+            debug.print("Found string at position %s - new args size = %s", position, unparsedCount);
         } else {
-            debug.print("Could not find string, using default value of " + fallback);
+            debug.print("Could not find string, using default value of %s", fallback);
             parsedArgs.put(name, fallback);
         }
 
@@ -165,11 +232,11 @@ public class Arguments {
      * @return {@link com.dumbdogdiner.stickyapi.common.arguments.Arguments}
      */
     public Arguments requiredString(String name) {
-        debug.print("Looking for required string " + name + "...");
+        debug.print("Looking for required string %s...", name);
 
-        if (unparsedArgs.size() > position) {
-            parsedArgs.put(name, unparsedArgs.get(position));
-            debug.print("Found string at position " + String.valueOf(position));
+        if (unparsedCount > position) {
+            parsedArgs.put(name, tokens.text(unparsed[position]));
+            debug.print("Found string at position %s", position);
             position++;
         } else {
             debug.print("Could not find string - marking as invalid");
@@ -181,32 +248,25 @@ public class Arguments {
 
     private Arguments optionalSentenceImplementation(String name, String fallback, int length) {
         int end = position + length;
-        debug.print("Looking for optional sentence - start = " + String.valueOf(position) + ", end = "
-                + String.valueOf(end) + ", length = " + String.valueOf(length));
+        debug.print("Looking for optional sentence - start = %s, end = %s, length = %s", position, end, length);
 
         if (position >= end) {
-            debug.print("Start cannot be greater than or equal to end, using default value of " + fallback);
+            debug.print("Start cannot be greater than or equal to end, using default value of %s", fallback);
             parsedArgs.put(name, fallback);
             return this;
         }
 
-        if (unparsedArgs.size() < position + length) {
-            debug.print("Could not find sentence of appropriate length (args are size " + String.valueOf(position)
-                    + ") using default value of " + fallback);
+        if (unparsedCount < end) {
+            debug.print("Could not find sentence of appropriate length (args are size %s) using default value of %s",
+                    unparsedCount, fallback);
             parsedArgs.put(name, fallback);
             return this;
         }
 
-        String concatenated = String.join(" ",
-                Arrays.copyOfRange(unparsedArgs.toArray(new String[unparsedArgs.size()]), position, end));
-        parsedArgs.put(name, concatenated);
-
-        if (end > position) {
-            unparsedArgs.subList(position, end).clear();
-        }
+        parsedArgs.put(name, tokens.join(unparsed, position, end));
+        remove(position, length);
 
-        debug.print("Found sentence of length " + String.valueOf(length) + " - new args size = "
-                + String.valueOf(unparsedArgs.size()));
+        debug.print("Found sentence of length %s - new args size = %s", length, unparsedCount);
 
         return this;
     }
@@ -219,8 +279,8 @@ public class Arguments {
      * @return {@link com.dumbdogdiner.stickyapi.common.arguments.Arguments}
      */
     public Arguments optionalSentence(@NotNull String name) {
-        debug.print("Using default length: " + String.valueOf(unparsedArgs.size() - position));
-        return optionalSentence(name, unparsedArgs.size() - position);
+        debug.print("Using default length: %s", unparsedCount - position);
+        return optionalSentence(name, unparsedCount - position);
     }
 
     /**
@@ -232,8 +292,8 @@ public class Arguments {
      * @return {@link com.dumbdogdiner.stickyapi.common.arguments.Arguments}
      */
     public Arguments optionalSentence(@NotNull String name, @Nullable String fallback) {
-        debug.print("Using default length: " + String.valueOf(unparsedArgs.size() - position));
-        return optionalSentence(name, fallback, unparsedArgs.size() - position);
+        debug.print("Using default length: %s", unparsedCount - position);
+        return optionalSentence(name, fallback, unparsedCount - position);
     }
 
     /**
@@ -248,7 +308,7 @@ public class Arguments {
         if (fallback != null) {
             return optionalSentenceImplementation(name, fallback, length);
         } else {
-            debug.print("Explicit fallback string of null attempted for parameter " + name + ", argument not added.");
+            debug.print("Explicit fallback string of null attempted for parameter %s, argument not added.", name);
             return this;
         }
     }
@@ -273,8 +333,8 @@ public class Arguments {
      * @return {@link com.dumbdogdiner.stickyapi.common.arguments.Arguments}
      */
     public Arguments requiredSentence(@NotNull String name) {
-        debug.print("Using default length: " + String.valueOf(unparsedArgs.size() - position));
-        return requiredSentence(name, unparsedArgs.size() - position);
+        debug.print("Using default length: %s", unparsedCount - position);
+        return requiredSentence(name, unparsedCount - position);
     }
 
     /**
@@ -286,8 +346,7 @@ public class Arguments {
      */
     public Arguments requiredSentence(@NotNull String name, @NotNull int length) {
         int end = position + length;
-        debug.print("Looking for required sentence - start = " + String.valueOf(position) + ", end = "
-                + String.valueOf(end) + ", length = " + String.valueOf(length));
+        debug.print("Looking for required sentence - start = %s, end = %s, length = %s", position, end, length);
 
         // Usually means there aren't enough args left
         if (position >= end) {
@@ -296,20 +355,18 @@ public class Arguments {
             return this;
         }
 
-        if (unparsedArgs.size() < position + length) {
+        if (unparsedCount < end) {
             invalidate(name);
-            debug.print("Could not find sentence of appropriate length (args are size "
-                    + String.valueOf(unparsedArgs.size()) + ") - marking as invalid");
+            debug.print("Could not find sentence of appropriate length (args are size %s) - marking as invalid",
+                    unparsedCount);
             return this;
         }
 
-        String concatenated = String.join(" ",
-                Arrays.copyOfRange(unparsedArgs.toArray(new String[unparsedArgs.size()]), position, end));
-        parsedArgs.put(name, concatenated);
+        parsedArgs.put(name, tokens.join(unparsed, position, end));
 
         position += length;
 
-        debug.print("Found sentence of length " + String.valueOf(length));
+        debug.print("Found sentence of length %s", length);
 
         return this;
     }
@@ -321,12 +378,13 @@ public class Arguments {
      * @return {@link com.dumbdogdiner.stickyapi.common.arguments.Arguments}
      */
     public Arguments optionalTimeString(@NotNull String name) {
-        debug.print("Looking for optional timestamp " + name + "...");
-        if (unparsedArgs.size() > position && TimeUtil.toTimestamp(unparsedArgs.get(position)) != null) {
-            parsedArgs.put(name, String.valueOf(TimeUtil.toTimestamp(unparsedArgs.get(position)).getTime()));
-            unparsedArgs.remove(position);
-            debug.print("Found timestamp at position " + String.valueOf(position) + " - new args size = "
-                    + String.valueOf(unparsedArgs.size()));
+        debug.print("Looking for optional timestamp %s...", name);
+        Timestamp timestamp = unparsedCount > position ? TimeUtil.toTimestamp(tokens.text(unparsed[position]))
+                : null;
+        if (timestamp != null) {
+            parsedArgs.put(name, timestamp);
+            remove(position, 1);
+            debug.print("Found timestamp at position %s - new args size = %s", position, unparsedCount);
         } else
             debug.print("Could not find timestamp");
 
@@ -340,12 +398,13 @@ public class Arguments {
      * @return {@link com.dumbdogdiner.stickyapi.common.arguments.Arguments}
      */
     public Arguments requiredTimeString(@NotNull String name) {
-        debug.print("Looking for required timestamp " + name + "...");
-        if (unparsedArgs.size() > position && TimeUtil.toTimestamp(unparsedArgs.get(position)) != null) {
-            parsedArgs.put(name, String.valueOf(TimeUtil.toTimestamp(unparsedArgs.get(position)).getTime()));
+        debug.print("Looking for required timestamp %s...", name);
+        Timestamp timestamp = unparsedCount > position ? TimeUtil.toTimestamp(tokens.text(unparsed[position]))
+                : null;
+        if (timestamp != null) {
+            parsedArgs.put(name, timestamp);
             position++;
-            debug.print("Found timestamp at position " + String.valueOf(position) + " - new args size = "
-                    + String.valueOf(unparsedArgs.size()));
+            debug.print("Found timestamp at position %s - new args size = %s", position, unparsedCount);
         } else {
             debug.print("Could not find timestamp");
             invalidate(name);
@@ -354,16 +413,18 @@ public class Arguments {
         return this;
     }
 
-    private Arguments optionalIntImplementation(@NotNull String name, @NotNull Integer fallback) {
-        debug.print("Looking for optional integer " + name + "...");
-        if (unparsedArgs.size() > position && NumberUtil.isNumeric(unparsedArgs.get(position))) {
-            parsedArgs.put(name, unparsedArgs.get(position));
+    private Arguments optionalIntImplementation(@NotNull String name, @Nullable Integer fallback) {
+        debug.print("Looking for optional integer %s...", name);
+        int value = unparsedCount > position ? tokens.parseInt(unparsed[position]) : -1;
+        if (value >= 0) {
+            parsedArgs.put(name, new Parsed(unparsed[position], value));
             position++;
-            debug.print("Found int at position " + String.valueOf(position) + " - new args size = "
-                    + String.valueOf(unparsedArgs.size()));
+            debug.print("Found int at position %s - new args size = %s", position, unparsedCount);
+        } else if (fallback != null) {
+            debug.print("Could not find int, using default value of %s", fallback);
+            parsedArgs.put(name, fallback);
         } else {
-            debug.print("Could not find int, using default value of " + fallback);
-            parsedArgs.put(name, fallback.toString());
+            debug.print("Could not find int");
         }
 
         return this;
@@ -391,7 +452,7 @@ public class Arguments {
         if (fallback != null) {
             return optionalIntImplementation(name, fallback);
         } else {
-            debug.print("Explicit fallback integer of null attempted for parameter " + name + ", argument not added.");
+            debug.print("Explicit fallback integer of null attempted for parameter %s, argument not added.", name);
             return this;
         }
     }
@@ -403,13 +464,13 @@ public class Arguments {
      * @return {@link com.dumbdogdiner.stickyapi.common.arguments.Arguments}
      */
     public Arguments requiredInt(@NotNull String name) {
-        debug.print("Looking for optional required " + name + "...");
+        debug.print("Looking for required integer %s...", name);
 
-        if (unparsedArgs.size() > position && NumberUtil.isNumeric(unparsedArgs.get(position))) {
-            parsedArgs.put(name, unparsedArgs.get(position));
+        int value = unparsedCount > position ? tokens.parseInt(unparsed[position]) : -1;
+        if (value >= 0) {
+            parsedArgs.put(name, new Parsed(unparsed[position], value));
             position++;
-            debug.print("Found int at position " + String.valueOf(position) + " - new args size = "
-                    + String.valueOf(unparsedArgs.size()));
+            debug.print("Found int at position %s - new args size = %s", position, unparsedCount);
         } else {
             debug.print("Could not find int - marking as invalid");
             invalidate(name);
@@ -425,13 +486,13 @@ public class Arguments {
      * @return {@link com.dumbdogdiner.stickyapi.common.arguments.Arguments}
      */
     public Arguments optionalDuration(@NotNull String name) {
-        debug.print("Looking for optional duration " + name + "...");
+        debug.print("Looking for optional duration %s...", name);
 
-        if (unparsedArgs.size() > position && TimeUtil.duration(unparsedArgs.get(position)).isPresent()) {
-            parsedArgs.put(name, unparsedArgs.get(position));
-            unparsedArgs.remove(position);
-            debug.print("Found duration at position " + String.valueOf(position) + " - new args size = "
-                    + String.valueOf(unparsedArgs.size()));
+        long duration = unparsedCount > position ? tokens.parseDuration(unparsed[position]) : -1;
+        if (duration >= 0) {
+            parsedArgs.put(name, new Parsed(unparsed[position], duration));
+            remove(position, 1);
+            debug.print("Found duration at position %s - new args size = %s", position, unparsedCount);
         } else
             debug.print("Could not find duration");
 
@@ -445,13 +506,13 @@ public class Arguments {
      * @return {@link com.dumbdogdiner.stickyapi.common.arguments.Arguments}
      */
     public Arguments requiredDuration(@NotNull String name) {
-        debug.print("Looking for required duration " + name + "...");
+        debug.print("Looking for required duration %s...", name);
 
-        if (unparsedArgs.size() > position && TimeUtil.duration(unparsedArgs.get(position)).isPresent()) {
-            parsedArgs.put(name, unparsedArgs.get(position));
+        long duration = unparsedCount > position ? tokens.parseDuration(unparsed[position]) : -1;
+        if (duration >= 0) {
+            parsedArgs.put(name, new Parsed(unparsed[position], duration));
             position++;
-            debug.print("Found duration at position " + String.valueOf(position) + " - new args size = "
-                    + String.valueOf(unparsedArgs.size()));
+            debug.print("Found duration at position %s - new args size = %s", position, unparsedCount);
         } else {
             debug.print("Could not find duration - marking as invalid");
             invalidate(name);
@@ -460,17 +521,119 @@ public class Arguments {
         return this;
     }
 
+    /**
+     * Create an optional UUID argument, in its standard
+     * <code>8-4-4-4-12</code> hexadecimal form.
+     * 
+     * @param name The name of the UUID to create
+     * @return {@link com.dumbdogdiner.stickyapi.common.arguments.Arguments}
+     */
+    public Arguments optionalUUID(@NotNull String name) {
+        debug.print("Looking for optional UUID %s...", name);
+
+        UUID uuid = unparsedCount > position ? tokens.parseUUID(unparsed[position]) : null;
+        if (uuid != null) {
+            parsedArgs.put(name, new Parsed(unparsed[position], uuid));
+            remove(position, 1);
+            debug.print("Found UUID at position %s - new args size = %s", position, unparsedCount);
+        } else
+            debug.print("Could not find UUID");
+
+        return this;
+    }
+
+    /**
+     * Create a required UUID argument, in its standard
+     * <code>8-4-4-4-12</code> hexadecimal form.
+     * 
+     * @param name The name of the UUID to create
+     * @return {@link com.dumbdogdiner.stickyapi.common.arguments.Arguments}
+     */
+    public Arguments requiredUUID(@NotNull String name) {
+        debug.print("Looking for required UUID %s...", name);
+
+        UUID uuid = unparsedCount > position ? tokens.parseUUID(unparsed[position]) : null;
+        if (uuid != null) {
+            parsedArgs.put(name, new Parsed(unparsed[position], uuid));
+            position++;
+            debug.print("Found UUID at position %s", position);
+        } else {
+            debug.print("Could not find UUID - marking as invalid");
+            invalidate(name);
+        }
+
+        return this;
+    }
+
+    /**
+     * Create an optional argument parsed by the given function, such as a player
+     * lookup. The argument is not found if the function returns null.
+     * 
+     * @param name   The name of the argument to create
+     * @param parser The function parsing the argument
+     * @return {@link com.dumbdogdiner.stickyapi.common.arguments.Arguments}
+     */
+    public Arguments optional(@NotNull String name, @NotNull Function<String, ?> parser) {
+        debug.print("Looking for optional argument %s...", name);
+
+        Object value = unparsedCount > position ? parser.apply(tokens.text(unparsed[position])) : null;
+        if (value != null) {
+            parsedArgs.put(name, new Parsed(unparsed[position], value));
+            remove(position, 1);
+            debug.print("Found argument at position %s - new args size = %s", position, unparsedCount);
+        } else
+            debug.print("Could not find argument");
+
+        return this;
+    }
+
+    /**
+     * Create a required argument parsed by the given function, such as a player
+     * lookup. The arguments are invalid if the function returns null.
+     * 
+     * @param name   The name of the argument to create
+     * @param parser The function parsing the argument
+     * @return {@link com.dumbdogdiner.stickyapi.common.arguments.Arguments}
+     */
+    public Arguments required(@NotNull String name, @NotNull Function<String, ?> parser) {
+        debug.print("Looking for required argument %s...", name);
+
+        Object value = unparsedCount > position ? parser.apply(tokens.text(unparsed[position])) : null;
+        if (value != null) {
+            parsedArgs.put(name, new Parsed(unparsed[position], value));
+            position++;
+            debug.print("Found argument at position %s", position);
+        } else {
+            debug.print("Could not find argument - marking as invalid");
+            invalidate(name);
+        }
+
+        return this;
+    }
+
     /**
      * Fetch a parsed argument from this arguments object.
      * <p>
-     * Returns the argument, if it exists
+     * Returns the argument, if it exists. Typed arguments are returned as they
+     * were given, except for timestamps, which are returned in milliseconds since
+     * the epoch.
      * 
      * @param name The name of the argument to fetch
      * @return {@link java.lang.String}
      * @since 2.0
      */
     public String getString(@NotNull String name) {
-        return parsedArgs.get(name);
+        Object value = parsedArgs.get(name);
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof Parsed) {
+            return tokens.text(((Parsed) value).token);
+        }
+        if (value instanceof Timestamp) {
+            return String.valueOf(((Timestamp) value).getTime());
+        }
+        return value.toString();
     }
 
     /**
@@ -487,6 +650,22 @@ public class Arguments {
         return getString(name);
     }
 
+    /**
+     * Fetch the typed value of an argument, such as one created with
+     * {@link #required(String, Function)}.
+     * <p>
+     * Returns the value, if it exists and is of the given type
+     * 
+     * @param name The name of the argument to fetch
+     * @param type The type of the value
+     * @return The value
+     */
+    @Nullable
+    public <T> T getValue(@NotNull String name, @NotNull Class<T> type) {
+        Object value = value(name);
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+
     /**
      * Fetch a timestamp.
      * <p>
@@ -496,10 +675,12 @@ public class Arguments {
      * @return {@link java.sql.Timestamp}
      */
     public Timestamp getTimestamp(@NotNull String name) {
-        if (parsedArgs.get(name) == null) {
-            return null;
+        Object value = value(name);
+        if (value instanceof Timestamp) {
+            return (Timestamp) value;
         }
-        return new Timestamp(Long.parseLong(parsedArgs.get(name)));
+        Long time = getLong(name);
+        return time == null ? null : new Timestamp(time);
     }
 
     /**
@@ -511,8 +692,12 @@ public class Arguments {
      * @return {@link java.lang.Integer}
      */
     public Integer getInt(@NotNull String name) {
+        Object value = value(name);
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
         try {
-            return Integer.parseInt(parsedArgs.get(name));
+            return Integer.parseInt(getString(name));
         } catch (NumberFormatException e) {
             return null;
         }
@@ -527,8 +712,16 @@ public class Arguments {
      * @return {@link java.lang.Double}
      */
     public Double getDouble(@NotNull String name) {
+        Object value = value(name);
+        if (value instanceof Integer) {
+            return ((Integer) value).doubleValue();
+        }
+        String string = getString(name);
+        if (string == null) {
+            return null;
+        }
         try {
-            return Double.parseDouble(parsedArgs.get(name));
+            return Double.parseDouble(string);
         } catch (NumberFormatException e) {
             return null;
         }
@@ -543,13 +736,41 @@ public class Arguments {
      * @return {@link java.lang.Long}
      */
     public Long getLong(@NotNull String name) {
+        Object value = value(name);
+        if (value instanceof Integer) {
+            return ((Integer) value).longValue();
+        }
         try {
-            return Long.parseLong(parsedArgs.get(name));
+            return Long.parseLong(getString(name));
         } catch (NumberFormatException e) {
             return null;
         }
     }
 
+    /**
+     * Fetch a UUID.
+     * <p>
+     * Returns the argument, if it exists
+     * 
+     * @param name The name of the UUID to fetch
+     * @return {@link java.util.UUID}
+     */
+    public UUID getUUID(@NotNull String name) {
+        Object value = value(name);
+        if (value instanceof UUID) {
+            return (UUID) value;
+        }
+        String string = getString(name);
+        if (string == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(string);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Return whether an argument exists.
      * <p>
@@ -583,7 +804,7 @@ public class Arguments {
      * @return {@link java.lang.Boolean}
      */
     public Boolean getBoolean(@NotNull String name) {
-        return Boolean.valueOf(parsedArgs.get(name));
+        return Boolean.valueOf(getString(name));
     }
 
     /**
@@ -595,7 +816,50 @@ public class Arguments {
      * @return {@link java.lang.Long}
      */
     public Long getDuration(@NotNull String name) {
-        return TimeUtil.duration(parsedArgs.get(name)).isPresent() ? TimeUtil.duration(parsedArgs.get(name)).get()
-                : null;
+        Object value = value(name);
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        String string = getString(name);
+        if (string == null) {
+            return null;
+        }
+        long duration = TimeUtil.parseDuration(string, 0, string.length());
+        return duration < 0 ? null : duration;
+    }
+
+    private Object value(String name) {
+        Object value = parsedArgs.get(name);
+        return value instanceof Parsed ? ((Parsed) value).value : value;
+    }
+
+    /**
+     * Find the first unparsed token equal to the given one.
+     */
+    private int indexOf(String flag) {
+        for (int i = 0; i < unparsedCount; i++) {
+            if (tokens.matches(unparsed[i], flag)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void remove(int index, int count) {
+        System.arraycopy(unparsed, index + count, unparsed, index, unparsedCount - index - count);
+        unparsedCount -= count;
+    }
+
+    /**
+     * A typed argument, along with the token it was parsed from.
+     */
+    private static final class Parsed {
+        private final int token;
+        private final Object value;
+
+        private Parsed(int token, Object value) {
+            this.token = token;
+            this.value = value;
+        }
     }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.arguments;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+
+/**
+ * The immutable result of parsing arguments with an {@link ArgumentPlan}.
+ * Values are stored as the type they were declared as, so fetching them does
+ * not parse anything.
+ * <p>
+ * Fetching an argument that is not part of the schema throws an
+ * {@link IllegalArgumentException}, so that a misspelt name fails loudly rather
+ * than looking like a missing argument.
+ */
+public final class ParsedArguments {
+    private final ArgumentPlan plan;
+    private final Tokens tokens;
+    private final Object[] values;
+
+    /**
+     * The token each value was parsed from, or -1 if it was not parsed from a
+     * single token.
+     */
+    private final int[] sources;
+
+    /**
+     * The name of the argument that was missing or could not be parsed, or null
+     * if the arguments are valid.
+     * 
+     * @return {@link String}
+     */
+    @Getter
+    private final String invalidatedBy;
+
+    ParsedArguments(ArgumentPlan plan, Tokens tokens, Object[] values, int[] sources, String invalidatedBy) {
+        this.plan = plan;
+        this.tokens = tokens;
+        this.values = values;
+        this.sources = sources;
+        this.invalidatedBy = invalidatedBy;
+    }
+
+    /**
+     * Returns true if every required argument was given and could be parsed.
+     * 
+     * @return {@link Boolean}
+     */
+    public boolean valid() {
+        return invalidatedBy == null;
+    }
+
+    /**
+     * Get the usage string of the schema these arguments were parsed with.
+     * 
+     * @return {@link String}
+     */
+    @NotNull
+    public String getUsage() {
+        return plan.getUsage();
+    }
+
+    private int slot(String name) {
+        Integer slot = plan.slots.get(name);
+        if (slot == null) {
+            throw new IllegalArgumentException("No argument named '" + name + "' in schema " + plan.getUsage());
+        }
+        return slot;
+    }
+
+    /**
+     * Return whether an argument was given, or has a default value.
+     * 
+     * @param name The name of the argument
+     * @return {@link Boolean}
+     */
+    public boolean exists(@NotNull String name) {
+        return values[slot(name)] != null;
+    }
+
+    /**
+     * Return whether a flag is set.
+     * 
+     * @param name The name of the flag
+     * @return {@link Boolean}
+     */
+    public boolean getFlag(@NotNull String name) {
+        return exists(name);
+    }
+
+    /**
+     * Fetch the value of an argument.
+     * 
+     * @param name The name of the argument
+     * @param type The type of the value
+     * @return The value, or null if it was not given or is not of the given type
+     */
+    @Nullable
+    public <T> T getValue(@NotNull String name, @NotNull Class<T> type) {
+        Object value = values[slot(name)];
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+
+    /**
+     * Fetch an argument as it was given. Timestamps are returned in milliseconds
+     * since the epoch.
+     * 
+     * @param name The name of the argument
+     * @return {@link String}
+     */
+    @Nullable
+    public String getString(@NotNull String name) {
+        int slot = slot(name);
+        Object value = values[slot];
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof Timestamp) {
+            return String.valueOf(((Timestamp) value).getTime());
+        }
+        if (sources[slot] >= 0) {
+            return tokens.text(sources[slot]);
+        }
+        return value.toString();
+    }
+
+    /**
+     * Fetch an integer.
+     * 
+     * @param name The name of the integer
+     * @return {@link Integer}
+     */
+    @Nullable
+    public Integer getInt(@NotNull String name) {
+        return getValue(name, Integer.class);
+    }
+
+    /**
+     * Fetch a duration, in seconds.
+     * 
+     * @param name The name of the duration
+     * @return {@link Long}
+     */
+    @Nullable
+    public Long getDuration(@NotNull String name) {
+        return getValue(name, Long.class);
+    }
+
+    /**
+     * Fetch a timestamp.
+     * 
+     * @param name The name of the timestamp
+     * @return {@link Timestamp}
+     */
+    @Nullable
+    public Timestamp getTimestamp(@NotNull String name) {
+        return getValue(name, Timestamp.class);
+    }
+
+    /**
+     * Fetch a UUID.
+     * 
+     * @param name The name of the UUID
+     * @return {@link UUID}
+     */
+    @Nullable
+    public UUID getUUID(@NotNull String name) {
+        return getValue(name, UUID.class);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.arguments;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import com.dumbdogdiner.stickyapi.common.util.TimeUtil;
+
+/**
+ * Command arguments split into tokens, either given already split or as the
+ * start and end of each token in a command line. Tokens of a command line are
+ * only cut out as strings once they are needed as one, and can be parsed into
+ * numbers, durations and UUIDs in place.
+ */
+final class Tokens {
+    /**
+     * The command line the tokens were read from, or null if they were given
+     * already split.
+     */
+    private final String line;
+
+    /**
+     * The start and end of each token in {@link #line}.
+     */
+    private final int[] ranges;
+    private final String[] tokens;
+
+    Tokens(List<String> args) {
+        line = null;
+        ranges = null;
+        tokens = args.toArray(new String[0]);
+    }
+
+    /**
+     * Split a command line into tokens on whitespace.
+     */
+    Tokens(String line) {
+        this.line = line;
+        int[] found = new int[16];
+        int count = 0;
+        int i = 0;
+        while (i < line.length()) {
+            while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            if (i == line.length()) {
+                break;
+            }
+            if (count == found.length) {
+                found = Arrays.copyOf(found, count * 2);
+            }
+            found[count++] = i;
+            while (i < line.length() && !Character.isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            found[count++] = i;
+        }
+
+        ranges = found;
+        tokens = new String[count / 2];
+    }
+
+    int size() {
+        return tokens.length;
+    }
+
+    /**
+     * Get a token as a string, cutting it out of the command line the first time.
+     */
+    String text(int token) {
+        String text = tokens[token];
+        if (text == null) {
+            text = line.substring(ranges[token * 2], ranges[token * 2 + 1]);
+            tokens[token] = text;
+        }
+        return text;
+    }
+
+    int length(int token) {
+        return line != null ? ranges[token * 2 + 1] - ranges[token * 2] : tokens[token].length();
+    }
+
+    char charAt(int token, int index) {
+        return line != null ? line.charAt(ranges[token * 2] + index) : tokens[token].charAt(index);
+    }
+
+    /**
+     * Check whether a token is equal to the given string, without cutting it out.
+     */
+    boolean matches(int token, String value) {
+        if (line == null) {
+            return tokens[token].equals(value);
+        }
+        int start = ranges[token * 2];
+        return ranges[token * 2 + 1] - start == value.length() && line.startsWith(value, start);
+    }
+
+    void appendTo(StringBuilder builder, int token) {
+        if (line != null) {
+            builder.append(line, ranges[token * 2], ranges[token * 2 + 1]);
+        } else {
+            builder.append(tokens[token]);
+        }
+    }
+
+    /**
+     * Join tokens with spaces.
+     * 
+     * @param indices The tokens to join, in order
+     * @param from    The first index to join
+     * @param to      The index after the last index to join
+     */
+    String join(int[] indices, int from, int to) {
+        int length = Math.max(0, to - from - 1);
+        for (int i = from; i < to; i++) {
+            length += length(indices[i]);
+        }
+        var builder = new StringBuilder(length);
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                builder.append(' ');
+            }
+            appendTo(builder, indices[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Parse a token made of only digits as an integer.
+     * 
+     * @return The integer, or -1 if the token is not one
+     */
+    int parseInt(int token) {
+        int length = length(token);
+        if (length == 0) {
+            return -1;
+        }
+
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char ch = charAt(token, i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            value = value * 10 + (ch - '0');
+            if (value > Integer.MAX_VALUE) {
+                return -1;
+            }
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parse a token as a duration string.
+     * 
+     * @return The duration in seconds, or -1 if the token is not one
+     */
+    long parseDuration(int token) {
+        if (line != null) {
+            return TimeUtil.parseDuration(line, ranges[token * 2], ranges[token * 2 + 1]);
+        }
+        return TimeUtil.parseDuration(tokens[token], 0, tokens[token].length());
+    }
+
+    /**
+     * Parse a token as a UUID in its standard form.
+     * 
+     * @return The UUID, or null if the token is not one
+     */
+    UUID parseUUID(int token) {
+        if (length(token) != 36) {
+            return null;
+        }
+
+        long most = 0;
+        long least = 0;
+        int digits = 0;
+        for (int i = 0; i < 36; i++) {
+            char ch = charAt(token, i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (ch != '-') {
+                    return null;
+                }
+                continue;
+            }
+
+            int digit = Character.digit(ch, 16);
+            if (digit < 0) {
+                return null;
+            }
+            if (digits++ < 16) {
+                most = most << 4 | digit;
+            } else {
+                least = least << 4 | digit;
+            }
+        }
+        return new UUID(most, least);
+    }
+}
@@ -4,20 +4,62 @@
  */
 package com.dumbdogdiner.stickyapi.common.cache;
 
+import java.lang.ref.WeakReference;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Callable;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
+import com.dumbdogdiner.stickyapi.StickyAPI;
 import com.dumbdogdiner.stickyapi.common.util.Debugger;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import lombok.Getter;
 import lombok.Setter;
 
 /**
  * General purpose cache for caching things that should be cached.
+ * <p>
+ * Entries are kept in a {@link ConcurrentHashMap} for lock-free reads, and are
+ * additionally threaded onto an insertion-ordered linked list so that finding
+ * the oldest entry is a constant time operation.
+ * <p>
+ * Once the cache grows past <code>maxSize</code>, entries are evicted as chosen
+ * by its {@link EvictionPolicy} - oldest insertion first by default. Caches can
+ * also be bounded by total weight (e.g. approximate memory usage) with
+ * <code>maxWeight</code>, where each object is weighed by a {@link Weigher}.
+ * <p>
+ * Entries expire once they are older than <code>ttl</code> (or their own time
+ * to live, see {@link #put(Cacheable, long, TimeUnit)}), and optionally once
+ * they have not been read for <code>expireAfterAccess</code>. Expired entries
+ * are never returned, and are removed in the background by a timer wheel shared
+ * between all caches.
+ * <p>
+ * Objects can be looked up by properties other than their key through
+ * secondary indexes, see {@link #addIndex(String, Function)}.
+ * <p>
+ * Instead of dropping objects evicted for size or weight, a cache can spill
+ * them to an {@link OverflowTier} on disk, from which they are brought back
+ * on their next {@link #get(String)}.
+ * <p>
+ * Changes can be mirrored to another store, such as a database, with a
+ * {@link CacheWriter} - either immediately (write-through), or in batches
+ * (write-behind).
  */
 public class Cache<T extends Cacheable> {
     public interface Predicate<T extends Cacheable> {
@@ -31,43 +73,142 @@ public class Cache<T extends Cacheable> {
         boolean match(T object);
     }
 
-    private ConcurrentHashMap<String, T> objects = new ConcurrentHashMap<String, T>();
-    private ConcurrentHashMap<String, Long> objectInsertionTimestamps = new ConcurrentHashMap<String, Long>();
+    private final ConcurrentHashMap<String, CacheEntry<T>> entries = new ConcurrentHashMap<>();
 
+    /**
+     * Sentinel of the insertion-ordered entry list - <code>head.next</code> is the
+     * oldest entry, <code>head.prev</code> the newest. Guarded by
+     * <code>evictionLock</code>.
+     */
+    private final CacheEntry<T> head = CacheEntry.sentinel();
+
+    /**
+     * Lock guarding all structural modifications of this cache.
+     */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /**
+     * The policy deciding which entry to evict when this cache is full.
+     * 
+     * @return {@link EvictionPolicy}
+     */
+    @Getter
+    private EvictionPolicy<T> evictionPolicy = new FifoPolicy<>();
+
+    /**
+     * Secondary indexes by name. Replaced wholesale (under
+     * <code>evictionLock</code>) whenever an index is added or removed, so lookups
+     * can read it without locking.
+     */
+    private volatile Map<String, CacheIndex<T>> indexes = Collections.emptyMap();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder[] removalCounts = new LongAdder[RemovalCause.values().length];
+
+    /**
+     * The time to live of entries in this cache, in milliseconds. Values of 0 or
+     * less disable expiry after write.
+     * 
+     * @return {@link Long}
+     */
     @Getter
-    @Setter
     private Long ttl = (long) (30 * 60e3);
 
-    // private int memoryUsage = 0;
-    // @Getter @Setter
-    // private int maxMemoryUsage = 0;
+    /**
+     * The time after which entries that have not been read expire, in
+     * milliseconds. Values of 0 or less disable expiry after access.
+     * 
+     * @return {@link Long}
+     */
+    @Getter
+    private long expireAfterAccess = 0;
 
     @Getter
     @Setter
     private int maxSize = 0;
 
+    /**
+     * The maximum total weight of the objects in this cache, or 0 for no limit.
+     * With the default weigher, this is the approximate memory usage in bytes.
+     * 
+     * @return {@link Long}
+     */
     @Getter
-    private FutureTask<?> objectExpiryTask = new FutureTask<>(new Callable<Boolean>() {
-        @Override
-        public Boolean call() {
-            if (ttl <= 0) {
-                return false;
-            }
+    private long maxWeight = 0;
 
-            objectInsertionTimestamps.forEach((k, v) -> {
-                if (v + ttl < System.currentTimeMillis()) {
-                    debug.print("Evicting " + k + " from " + clazz.getSimpleName() + " cache");
-                    removeKey(k);
-                }
-            });
-            return true;
-        }
-    });
+    /**
+     * The weigher calculating the weight of each object, only used while
+     * <code>maxWeight</code> is set.
+     * 
+     * @return {@link Weigher}
+     */
+    @Getter
+    private Weigher<T> weigher = Weigher.memory();
+
+    /**
+     * The tier objects evicted for size or weight are spilled to, if any.
+     * 
+     * @return {@link OverflowTier}
+     */
+    @Getter
+    private volatile OverflowTier<T> overflowTier;
+
+    /**
+     * The writer mirroring changes to this cache, if any.
+     * 
+     * @return {@link CacheWriter}
+     */
+    @Getter
+    private volatile CacheWriter<T> writer;
+
+    /**
+     * Queue of pending writes, while the writer is used for write-behind.
+     */
+    private volatile WriteBehindQueue<T> writeBehind;
+
+    /**
+     * The total weight of the objects in this cache. Guarded by
+     * <code>evictionLock</code>.
+     */
+    private long weight = 0;
 
     private Class<T> clazz;
 
+    /**
+     * A weak reference to this cache, shared by its entries so that the timer wheel
+     * does not keep it reachable.
+     */
+    private final WeakReference<Cache<T>> self = new WeakReference<>(this);
+
+    /**
+     * The name this cache is registered under in the {@link CacheRegistry}.
+     * 
+     * @return {@link String}
+     */
+    @Getter
+    private final String name;
+
     public Cache(Class<T> clazz) {
+        this(clazz, clazz.getSimpleName());
+    }
+
+    /**
+     * Create a cache, registering it in the {@link CacheRegistry} under the given
+     * name (suffixed with a number if the name is taken).
+     * 
+     * @param clazz The type of object to cache
+     * @param name  The name to register this cache under
+     */
+    public Cache(Class<T> clazz, @NotNull String name) {
         this.clazz = clazz;
+        for (int i = 0; i < removalCounts.length; i++) {
+            removalCounts[i] = new LongAdder();
+        }
+        this.name = CacheRegistry.register(name, this);
     }
 
     private Debugger debug = new Debugger(getClass());
@@ -78,26 +219,332 @@ public class Cache<T extends Cacheable> {
      * @return The size of this cache.
      */
     public int size() {
-        return objects.size();
+        return entries.size();
     }
 
-    // /**
-    // * Get the memory usage of this cache, specifying the units of the returned
-    // value.
-    // * @param units The units the result
-    // * @return Approximate memory usage
-    // */
-    // public Double memoryUsage(MemoryUtil.Unit units) {
-    // return MemoryUtil.formatBits(memoryUsage, units);
-    // }
+    /**
+     * Get the total weight of the objects in this cache, as calculated by its
+     * weigher. Always 0 while <code>maxWeight</code> is not set.
+     * 
+     * @return The total weight of this cache
+     */
+    public long getWeight() {
+        evictionLock.lock();
+        try {
+            return weight;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Set the maximum total weight of the objects in this cache, evicting objects
+     * if it is already exceeded. Setting a limit weighs every object already in the
+     * cache.
+     * 
+     * @param maxWeight The maximum weight, or 0 for no limit
+     */
+    public void setMaxWeight(long maxWeight) {
+        evictionLock.lock();
+        try {
+            boolean enabled = this.maxWeight <= 0 && maxWeight > 0;
+            this.maxWeight = Math.max(0, maxWeight);
+            if (enabled) {
+                reweighAll();
+            } else if (this.maxWeight == 0) {
+                for (CacheEntry<T> entry = head.next; entry != head; entry = entry.next) {
+                    entry.weight = 0;
+                }
+                weight = 0;
+            }
+            evictToBounds();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Set the weigher calculating the weight of each object, re-weighing every
+     * object already in the cache.
+     * 
+     * @param weigher The weigher to use
+     */
+    public void setWeigher(@NotNull Weigher<T> weigher) {
+        evictionLock.lock();
+        try {
+            this.weigher = weigher;
+            if (maxWeight > 0) {
+                reweighAll();
+                evictToBounds();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Set the tier that objects evicted for size or weight are spilled to, rather
+     * than being dropped. Spilled objects keep their expiration time, and are moved
+     * back into this cache when they are next retrieved with {@link #get(String)}.
+     * Other lookups, such as indexes and {@link #size()}, only cover objects held
+     * in memory.
+     * 
+     * @param overflowTier The tier to spill to, or null to drop evicted objects
+     */
+    public void setOverflowTier(@Nullable OverflowTier<T> overflowTier) {
+        evictionLock.lock();
+        try {
+            this.overflowTier = overflowTier;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Write every object in this cache to its overflow tier, without removing
+     * them - e.g. before shutting down, so the tier can be reopened for a warm
+     * start.
+     */
+    public void spillAll() {
+        evictionLock.lock();
+        try {
+            if (overflowTier == null) {
+                return;
+            }
+            for (CacheEntry<T> entry = head.next; entry != head; entry = entry.next) {
+                spill(entry);
+            }
+            overflowTier.force();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Mirror changes to this cache with a writer, synchronously - objects stored
+     * with <code>put</code> or <code>update</code> are written before the call
+     * returns, and objects removed with <code>remove</code> are deleted. Writer
+     * failures are rethrown as a {@link CompletionException}.
+     * <p>
+     * Any pending write-behind changes of a previous writer are flushed first.
+     * 
+     * @param writer The writer to use, or null to stop mirroring changes
+     */
+    public void setWriter(@Nullable CacheWriter<T> writer) {
+        replaceWriter(writer, null);
+    }
+
+    /**
+     * Mirror changes to this cache with a writer, in batches. Changes are queued,
+     * keeping only the latest change per key, and written on
+     * {@link StickyAPI#getPool()} once <code>batchSize</code> keys are pending or
+     * every <code>interval</code>, whichever comes first. Failed batches are
+     * logged and retried with the next flush.
+     * <p>
+     * Any pending changes of a previous writer are flushed first.
+     * 
+     * @param writer    The writer to use
+     * @param batchSize The number of pending keys that triggers a flush
+     * @param interval  The time between periodic flushes
+     * @param unit      The unit of <code>interval</code>
+     */
+    public void setWriteBehind(@NotNull CacheWriter<T> writer, int batchSize, long interval,
+            @NotNull TimeUnit unit) {
+        replaceWriter(writer, new WriteBehindQueue<>(writer, batchSize, interval, unit));
+    }
+
+    /**
+     * Write every pending write-behind change now.
+     * 
+     * @return A future completing once the changes are written, or exceptionally
+     *         if the writer failed
+     */
+    public CompletableFuture<Void> flush() {
+        WriteBehindQueue<T> queue = writeBehind;
+        return queue == null ? CompletableFuture.completedFuture(null) : queue.flush();
+    }
+
+    private void replaceWriter(CacheWriter<T> writer, WriteBehindQueue<T> queue) {
+        WriteBehindQueue<T> previous;
+        evictionLock.lock();
+        try {
+            previous = this.writeBehind;
+            this.writer = writer;
+            this.writeBehind = queue;
+        } finally {
+            evictionLock.unlock();
+        }
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Pass a stored object on to the writer.
+     */
+    private void written(T object) {
+        WriteBehindQueue<T> queue = writeBehind;
+        CacheWriter<T> writer = this.writer;
+        if (queue != null) {
+            queue.write(object);
+        } else if (writer != null) {
+            try {
+                writer.write(object);
+            } catch (Exception e) {
+                throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+            }
+        }
+    }
+
+    /**
+     * Pass a removed key on to the writer.
+     */
+    private void deleted(String key) {
+        WriteBehindQueue<T> queue = writeBehind;
+        CacheWriter<T> writer = this.writer;
+        if (queue != null) {
+            queue.delete(key);
+        } else if (writer != null) {
+            try {
+                writer.delete(key);
+            } catch (Exception e) {
+                throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+            }
+        }
+    }
+
+    /**
+     * Set the time to live of entries in this cache. Applies to entries already in
+     * the cache, unless they were inserted with their own time to live.
+     * 
+     * @param ttl The time to live in milliseconds, or 0 to disable expiry after
+     *            write
+     */
+    public void setTtl(@NotNull Long ttl) {
+        this.ttl = ttl;
+        rescheduleAll();
+    }
+
+    /**
+     * Set the time after which entries that have not been read expire. Applies to
+     * entries already in the cache.
+     * 
+     * @param expireAfterAccess The time in milliseconds, or 0 to disable expiry
+     *                          after access
+     */
+    public void setExpireAfterAccess(long expireAfterAccess) {
+        this.expireAfterAccess = expireAfterAccess;
+        rescheduleAll();
+    }
+
+    /**
+     * Immediately expire every entry that is due, across all caches. This happens
+     * automatically about once a second, so there is usually no need to call this.
+     */
+    public void cleanUp() {
+        TimerWheel.shared().tick();
+    }
+
+    /**
+     * Get a task that runs {@link #cleanUp()}.
+     * 
+     * @return {@link FutureTask}
+     * @deprecated Expiry now runs automatically on a shared timer - use
+     *             {@link #cleanUp()} to force it instead.
+     */
+    @Deprecated
+    public FutureTask<?> getObjectExpiryTask() {
+        return new FutureTask<>(this::cleanUp, true);
+    }
+
+    /**
+     * Set the policy used to pick entries for eviction. Any entries already in the
+     * cache are handed over to the new policy in insertion order.
+     * 
+     * @param evictionPolicy The new policy, which must not be shared with another
+     *                       cache
+     */
+    public void setEvictionPolicy(@NotNull EvictionPolicy<T> evictionPolicy) {
+        evictionLock.lock();
+        try {
+            this.evictionPolicy.clear();
+            this.evictionPolicy = evictionPolicy;
+            for (CacheEntry<T> entry = head.next; entry != head; entry = entry.next) {
+                entry.policyPrev = null;
+                entry.policyNext = null;
+                entry.policyData = null;
+                evictionPolicy.onInsert(entry);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Get the number of lookups that found a cached entry.
+     * 
+     * @return {@link Long}
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Get the number of lookups that did not find a cached entry.
+     * 
+     * @return {@link Long}
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Get the ratio of lookups that found a cached entry, or 1 if there have been
+     * no lookups yet.
+     * 
+     * @return {@link Double}
+     */
+    public double getHitRate() {
+        long hits = getHitCount();
+        long requests = hits + getMissCount();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    /**
+     * Take a snapshot of the statistics of this cache.
+     * 
+     * @return {@link CacheStats}
+     */
+    public CacheStats getStats() {
+        long[] removals = new long[removalCounts.length];
+        for (int i = 0; i < removals.length; i++) {
+            removals[i] = removalCounts[i].sum();
+        }
+        return new CacheStats(name, hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadFailureCount.sum(),
+                totalLoadTime.sum(), removals, size(), getWeight(), maxSize, maxWeight);
+    }
+
+    /**
+     * Reset the statistics of this cache.
+     */
+    public void resetStats() {
+        hitCount.reset();
+        missCount.reset();
+        loadSuccessCount.reset();
+        loadFailureCount.reset();
+        totalLoadTime.reset();
+        for (LongAdder counter : removalCounts) {
+            counter.reset();
+        }
+    }
 
-    // /**
-    // * Get the approximate memory usage of this cache in kilobytes.
-    // * @return Approximate memory usage
-    // */
-    // public Double memoryUsage() {
-    // return memoryUsage(MemoryUtil.Unit.KILOBYTES);
-    // }
+    /**
+     * Record the outcome of loading an object, for {@link LoadingCache}.
+     */
+    void recordLoad(boolean success, long nanos) {
+        (success ? loadSuccessCount : loadFailureCount).increment();
+        totalLoadTime.add(nanos);
+    }
 
     /**
      * Retrieve an object from the cache.
@@ -107,12 +554,41 @@ public class Cache<T extends Cacheable> {
      */
     public T get(@NotNull String key) {
         debug.reset();
-        T object = objects.get(key);
+        CacheEntry<T> entry = entries.get(key);
+
+        if (entry == null) {
+            T promoted = promote(key);
+            (promoted == null ? missCount : hitCount).increment();
+            return promoted;
+        }
+
+        long now = System.currentTimeMillis();
+        if (entry.getExpirationTime() <= now) {
+            missCount.increment();
+            expire(entry);
+            return null;
+        }
 
-        if (object != null)
-            debug.print("Got cached entry for " + clazz.getSimpleName() + " with key " + key);
+        if (expireAfterAccess > 0) {
+            entry.accessTime = now;
+        }
 
-        return object;
+        hitCount.increment();
+        recordAccess(entry);
+        debug.print("Got cached entry for %s with key %s", name, key);
+        return entry.value;
+    }
+
+    /**
+     * Retrieve an object from the cache without counting it as a hit or miss, or
+     * as an access for eviction and expiry purposes.
+     * 
+     * @param key The key of the object
+     * @return The requested object, if it exists
+     */
+    public T peek(@NotNull String key) {
+        CacheEntry<T> entry = getEntryIfPresent(key);
+        return entry == null ? null : entry.value;
     }
 
     /**
@@ -121,11 +597,158 @@ public class Cache<T extends Cacheable> {
      * @return All values in the cache
      */
     public Collection<T> getAll() {
-        return objects.values();
+        return new AbstractCollection<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                Iterator<CacheEntry<T>> iterator = entries.values().iterator();
+                return new Iterator<T>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public T next() {
+                        return iterator.next().value;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+        };
+    }
+
+    /**
+     * Add a secondary index to this cache, allowing objects to be looked up by the
+     * value the extractor returns for them with {@link #find(String, Object)} and
+     * {@link #findAll(String, Object)}. Objects already in the cache are indexed
+     * immediately, and the index is kept up to date as objects are stored,
+     * removed, evicted or expired.
+     * <p>
+     * The extracted value is remembered per entry, so objects that change after
+     * being cached must be re-inserted with {@link #update(Cacheable)} to be
+     * re-indexed. Objects for which the extractor returns null are not indexed.
+     * 
+     * @param name      The name of the index
+     * @param extractor The function extracting the indexed value from an object,
+     *                  e.g. <code>Player::getName</code>
+     * @throws IllegalArgumentException If an index with this name already exists
+     */
+    public void addIndex(@NotNull String name, @NotNull Function<? super T, ?> extractor) {
+        evictionLock.lock();
+        try {
+            if (indexes.containsKey(name)) {
+                throw new IllegalArgumentException("Index " + name + " already exists");
+            }
+
+            CacheIndex<T> index = new CacheIndex<>(name, extractor, indexes.size());
+            for (CacheEntry<T> entry = head.next; entry != head; entry = entry.next) {
+                entry.indexKeys = Arrays.copyOf(entry.indexKeys, index.slot + 1);
+                index.add(entry);
+            }
+
+            Map<String, CacheIndex<T>> updated = new LinkedHashMap<>(indexes);
+            updated.put(name, index);
+            indexes = updated;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Remove a secondary index from this cache.
+     * 
+     * @param name The name of the index
+     * @return True if the index existed
+     */
+    public boolean removeIndex(@NotNull String name) {
+        evictionLock.lock();
+        try {
+            CacheIndex<T> removed = indexes.get(name);
+            if (removed == null) {
+                return false;
+            }
+
+            Map<String, CacheIndex<T>> updated = new LinkedHashMap<>(indexes);
+            updated.remove(name);
+            for (CacheIndex<T> index : updated.values()) {
+                if (index.slot > removed.slot) {
+                    index.slot--;
+                }
+            }
+            for (CacheEntry<T> entry = head.next; entry != head; entry = entry.next) {
+                Object[] keys = new Object[updated.size()];
+                System.arraycopy(entry.indexKeys, 0, keys, 0, removed.slot);
+                System.arraycopy(entry.indexKeys, removed.slot + 1, keys, removed.slot, keys.length - removed.slot);
+                entry.indexKeys = keys;
+            }
+            removed.clear();
+            indexes = updated;
+            return true;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Find the oldest object in the cache whose indexed value equals the given
+     * one, in constant time.
+     * 
+     * @param index The name of the index to search
+     * @param value The indexed value to look for
+     * @return The first matching object, if there is one
+     * @throws IllegalArgumentException If the index does not exist
+     */
+    public T find(@NotNull String index, @NotNull Object value) {
+        long now = System.currentTimeMillis();
+        for (Object match : getIndex(index).get(value)) {
+            @SuppressWarnings("unchecked")
+            CacheEntry<T> entry = (CacheEntry<T>) match;
+            if (entry.getExpirationTime() > now) {
+                return entry.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find every object in the cache whose indexed value equals the given one.
+     * 
+     * @param index The name of the index to search
+     * @param value The indexed value to look for
+     * @return The matching objects, oldest first
+     * @throws IllegalArgumentException If the index does not exist
+     */
+    public List<T> findAll(@NotNull String index, @NotNull Object value) {
+        Object[] matches = getIndex(index).get(value);
+        List<T> found = new ArrayList<>(matches.length);
+        long now = System.currentTimeMillis();
+        for (Object match : matches) {
+            @SuppressWarnings("unchecked")
+            CacheEntry<T> entry = (CacheEntry<T>) match;
+            if (entry.getExpirationTime() > now) {
+                found.add(entry.value);
+            }
+        }
+        return found;
+    }
+
+    private CacheIndex<T> getIndex(String name) {
+        CacheIndex<T> index = indexes.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("No index named " + name);
+        }
+        return index;
     }
 
     /**
      * Find an object using the given tester lambda.
+     * <p>
+     * This tests every object in the cache - prefer {@link #find(String, Object)}
+     * for lookups that happen often.
      * 
      * @param tester A cache tester implemented for any necessary criteria you are
      *               looking for
@@ -133,13 +756,14 @@ public class Cache<T extends Cacheable> {
      */
     public T find(@NotNull Predicate<T> tester) {
         debug.reset();
-        for (T object : objects.values()) {
+        for (CacheEntry<T> entry : entries.values()) {
+            T object = entry.value;
             if (tester.match(object)) {
-                debug.print("Found cached entry for " + clazz.getSimpleName() + " with key " + object.getKey());
+                debug.print("Found cached entry for %s with key %s", name, object.getKey());
                 return object;
             }
         }
-        debug.print("Failed to find " + clazz.getSimpleName() + " using parsed matcher");
+        debug.print("Failed to find %s using parsed matcher", name);
         return null;
     }
 
@@ -149,44 +773,79 @@ public class Cache<T extends Cacheable> {
      * @param object The object to store
      */
     public void put(@NotNull T object) {
-        debug.reset();
+        if (put(object, CacheEntry.INHERIT_TTL)) {
+            written(object);
+        }
+    }
 
-        if (objects.containsKey(object.getKey())) {
-            debug.print(
-                    "Skipping insertion for " + clazz.getSimpleName() + " " + object.getKey() + " - already exists.");
-            return;
+    /**
+     * Store an object in the cache with its own time to live, overriding the
+     * cache-wide <code>ttl</code>.
+     * 
+     * @param object The object to store
+     * @param ttl    The time to live of this object, or 0 to never expire it after
+     *               write
+     * @param unit   The unit of <code>ttl</code>
+     */
+    public void put(@NotNull T object, long ttl, @NotNull TimeUnit unit) {
+        if (put(object, Math.max(0, unit.toMillis(ttl)))) {
+            written(object);
         }
+    }
+
+    /**
+     * Insert an object, unless its key is already present.
+     * 
+     * @return True if the object was inserted
+     */
+    private boolean put(T object, long timeToLive) {
+        debug.reset();
 
-        if (maxSize > 0) {
-            while (objects.size() >= maxSize) {
-                removeOldestEntry();
+        // Weigh outside of the lock, as deep sizing can be slow
+        Weigher<T> weighedWith = maxWeight > 0 ? weigher : null;
+        long objectWeight = weighedWith == null ? 0 : weighedWith.weigh(object);
+
+        evictionLock.lock();
+        try {
+            CacheEntry<T> existing = entries.get(object.getKey());
+            if (existing != null) {
+                if (existing.getExpirationTime() > System.currentTimeMillis()) {
+                    debug.print("Skipping insertion for %s %s - already exists.", name, object.getKey());
+                    return false;
+                }
+                removeEntry(existing, RemovalCause.EXPIRED);
+            }
+
+            if (maxWeight <= 0) {
+                objectWeight = 0;
+            } else if (weighedWith != weigher) {
+                objectWeight = weigher.weigh(object);
             }
-        }
 
-        // This causes a StackOverflow, no big deal just remove this feature!
-        // Or, you know, fix memory util but that's more work than commenting a few
-        // lines
-        // which didn't really work in the first place
-        // int size = MemoryUtil.getSizeOf(object);
-        // if (maxMemoryUsage > 0 && memoryUsage + size > maxMemoryUsage) {
-        // Runnable memoryReleaser = new Runnable() {
-        // @Override
-        // public void run() {
-        // synchronized (this) {
-        // while (memoryUsage + size > maxMemoryUsage) {
-        // removeOldestEntry();
-        // }
-        // memoryUsage += size;
-        // debug.print("Released memory from " + clazz.getSimpleName() +" cache");
-        // }
-        // }
-        // };
-        // StickyAPI.getPool().submit(memoryReleaser);
-        // }
+            CacheEntry<T> entry = new CacheEntry<>(self, object.getKey(), object, timeToLive);
+            entry.weight = objectWeight;
+            weight += objectWeight;
+            entries.put(entry.key, entry);
+            entry.linkBefore(head);
+            Map<String, CacheIndex<T>> indexes = this.indexes;
+            entry.indexKeys = new Object[indexes.size()];
+            for (CacheIndex<T> index : indexes.values()) {
+                index.add(entry);
+            }
+            evictionPolicy.onInsert(entry);
+            TimerWheel.shared().schedule(entry);
+            if (overflowTier != null) {
+                unspill(entry.key);
+            }
+
+            // The policy may choose to reject the new entry itself.
+            evictToBounds();
+        } finally {
+            evictionLock.unlock();
+        }
 
-        objects.put(object.getKey(), object);
-        objectInsertionTimestamps.put(object.getKey(), System.currentTimeMillis());
-        debug.print("Created cached entry for " + clazz.getSimpleName() + " with key " + object.getKey());
+        debug.print("Created cached entry for %s with key %s", name, object.getKey());
+        return true;
     }
 
     /**
@@ -195,10 +854,28 @@ public class Cache<T extends Cacheable> {
      * @param object The object to update
      */
     public void update(@NotNull T object) {
-        if (objects.containsKey(object.getKey())) {
-            remove(object);
+        replace(object);
+        written(object);
+    }
+
+    /**
+     * Insert an object, replacing any object with the same key, without passing
+     * it on to the writer - e.g. because it was just loaded from the store the
+     * writer writes to.
+     * 
+     * @param object The object to insert
+     */
+    void replace(@NotNull T object) {
+        evictionLock.lock();
+        try {
+            CacheEntry<T> existing = entries.get(object.getKey());
+            if (existing != null) {
+                removeEntry(existing, RemovalCause.REPLACED);
+            }
+            put(object, CacheEntry.INHERIT_TTL);
+        } finally {
+            evictionLock.unlock();
         }
-        put(object);
     }
 
     /**
@@ -209,19 +886,26 @@ public class Cache<T extends Cacheable> {
      */
     public T remove(@NotNull T object) {
         debug.reset();
-        T didRemove = objects.remove(object.getKey());
+        T didRemove;
+
+        evictionLock.lock();
+        try {
+            CacheEntry<T> entry = entries.get(object.getKey());
+            didRemove = entry == null ? null : removeEntry(entry, RemovalCause.EXPLICIT);
+            if (overflowTier != null && unspill(object.getKey()) && didRemove == null) {
+                didRemove = object;
+            }
+        } finally {
+            evictionLock.unlock();
+        }
 
         if (didRemove == null) {
-            debug.print("Could not remove entry for " + clazz.getSimpleName() + " with key " + object.getKey()
-                    + " - does not exist");
+            debug.print("Could not remove entry for %s with key %s - does not exist", name, object.getKey());
             return null;
         }
 
-        // if (maxMemoryUsage > 0) {
-        // memoryUsage -= MemoryUtil.getSizeOf(object);
-        // }
-
-        debug.print("Removed entry for " + clazz.getSimpleName() + " with key " + object.getKey());
+        deleted(object.getKey());
+        debug.print("Removed entry for %s with key %s", name, object.getKey());
         return didRemove;
     }
 
@@ -232,12 +916,14 @@ public class Cache<T extends Cacheable> {
      * @return The removed object, if it exists
      */
     public T removeKey(@NotNull String key) {
-        T object = objects.get(key);
-        if (object == null) {
-            return null;
+        CacheEntry<T> entry = entries.get(key);
+        if (entry == null) {
+            OverflowTier<T> tier = overflowTier;
+            T spilled = tier == null ? null : tier.get(key);
+            return spilled == null ? null : remove(spilled);
         }
 
-        return remove(object);
+        return remove(entry.value);
     }
 
     /**
@@ -246,17 +932,12 @@ public class Cache<T extends Cacheable> {
      * @return The oldest entry in the cache, if it exists
      */
     public T getOldestEntry() {
-        String oldest = null;
-        Long oldestTimestamp = Long.MAX_VALUE;
-
-        for (String k : objectInsertionTimestamps.keySet()) {
-            Long v = objectInsertionTimestamps.get(k);
-            if (v < oldestTimestamp) {
-                oldest = k;
-                oldestTimestamp = v;
-            }
+        evictionLock.lock();
+        try {
+            return head.next == head ? null : head.next.value;
+        } finally {
+            evictionLock.unlock();
         }
-        return objects.get(oldest);
     }
 
     /**
@@ -265,6 +946,223 @@ public class Cache<T extends Cacheable> {
      * @return The oldest entry in the cache, if it exists
      */
     public T removeOldestEntry() {
-        return remove(getOldestEntry());
+        T removed;
+        evictionLock.lock();
+        try {
+            removed = head.next == head ? null : removeEntry(head.next, RemovalCause.EXPLICIT);
+        } finally {
+            evictionLock.unlock();
+        }
+
+        if (removed != null) {
+            deleted(removed.getKey());
+        }
+        return removed;
+    }
+
+    /**
+     * Look up the live entry for a key, without recording anything.
+     */
+    CacheEntry<T> getEntryIfPresent(String key) {
+        CacheEntry<T> entry = entries.get(key);
+        if (entry == null || entry.getExpirationTime() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Compute the time at which an entry expires, from its insertion and access
+     * times and the current settings of this cache.
+     */
+    long expirationTime(CacheEntry<T> entry) {
+        long expirationTime = Long.MAX_VALUE;
+
+        long timeToLive = entry.timeToLive == CacheEntry.INHERIT_TTL ? (ttl == null ? 0 : ttl) : entry.timeToLive;
+        if (timeToLive > 0) {
+            expirationTime = entry.insertionTime + timeToLive;
+        }
+
+        if (expireAfterAccess > 0) {
+            expirationTime = Math.min(expirationTime, entry.accessTime + expireAfterAccess);
+        }
+        return expirationTime;
+    }
+
+    /**
+     * Remove an entry if it has expired - otherwise (e.g. if it was read since it
+     * was last scheduled) schedule it again.
+     */
+    void expire(CacheEntry<T> entry) {
+        evictionLock.lock();
+        try {
+            if (entries.get(entry.key) != entry) {
+                return;
+            }
+
+            if (entry.getExpirationTime() > System.currentTimeMillis()) {
+                TimerWheel.shared().schedule(entry);
+                return;
+            }
+
+            debug.print("Evicting %s from %s cache", entry.key, name);
+            removeEntry(entry, RemovalCause.EXPIRED);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Move an object from the overflow tier back into this cache, keeping its
+     * expiration time.
+     */
+    private T promote(String key) {
+        if (overflowTier == null) {
+            return null;
+        }
+
+        evictionLock.lock();
+        try {
+            OverflowTier<T> tier = overflowTier;
+            CacheEntry<T> entry = entries.get(key);
+            if (entry != null || tier == null) {
+                // Raced with a put, or the tier was removed
+                return entry == null ? null : entry.value;
+            }
+
+            long expirationTime = tier.getExpirationTime(key);
+            T object = tier.get(key);
+            if (object == null) {
+                return null;
+            }
+
+            long timeToLive = expirationTime == Long.MAX_VALUE ? 0
+                    : Math.max(1, expirationTime - System.currentTimeMillis());
+            put(object, timeToLive);
+            return object;
+        } catch (RuntimeException e) {
+            StickyAPI.getLogger().warning("Could not read " + key + " from the overflow tier of " + name + ": " + e);
+            return null;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Write an entry to the overflow tier. Must be called while holding
+     * <code>evictionLock</code>.
+     */
+    private void spill(CacheEntry<T> entry) {
+        try {
+            overflowTier.put(entry.value, entry.getExpirationTime());
+        } catch (RuntimeException e) {
+            StickyAPI.getLogger()
+                    .warning("Could not spill " + entry.key + " to the overflow tier of " + name + ": " + e);
+        }
+    }
+
+    /**
+     * Remove a key from the overflow tier. Must be called while holding
+     * <code>evictionLock</code>.
+     *
+     * @return True if the tier held an object for the key
+     */
+    private boolean unspill(String key) {
+        try {
+            return overflowTier.remove(key);
+        } catch (RuntimeException e) {
+            StickyAPI.getLogger()
+                    .warning("Could not remove " + key + " from the overflow tier of " + name + ": " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Reschedule every entry after the expiry settings have changed.
+     */
+    private void rescheduleAll() {
+        evictionLock.lock();
+        try {
+            for (CacheEntry<T> entry = head.next; entry != head; entry = entry.next) {
+                TimerWheel.shared().schedule(entry);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Let the eviction policy know an entry was read. Reads never block on the
+     * eviction lock - if it is contended, the access simply goes unrecorded.
+     */
+    private void recordAccess(CacheEntry<T> entry) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            // Make sure the entry was not removed since it was looked up
+            if (entries.get(entry.key) == entry) {
+                evictionPolicy.onAccess(entry);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Evict entries until this cache is within its size and weight bounds. Must be
+     * called while holding <code>evictionLock</code>.
+     */
+    private void evictToBounds() {
+        while (true) {
+            RemovalCause cause;
+            if (maxSize > 0 && entries.size() > maxSize) {
+                cause = RemovalCause.SIZE;
+            } else if (maxWeight > 0 && weight > maxWeight) {
+                cause = RemovalCause.WEIGHT;
+            } else {
+                return;
+            }
+
+            CacheEntry<T> victim = evictionPolicy.victim();
+            if (victim == null) {
+                return;
+            }
+            removeEntry(victim, cause);
+        }
+    }
+
+    /**
+     * Recalculate the weight of every entry. Must be called while holding
+     * <code>evictionLock</code>.
+     */
+    private void reweighAll() {
+        weight = 0;
+        for (CacheEntry<T> entry = head.next; entry != head; entry = entry.next) {
+            entry.weight = weigher.weigh(entry.value);
+            weight += entry.weight;
+        }
+    }
+
+    /**
+     * Remove an entry from the map, the entry list, the eviction policy and the
+     * indexes. Must be called while holding <code>evictionLock</code>.
+     */
+    private T removeEntry(CacheEntry<T> entry, RemovalCause cause) {
+        entry.unlink();
+        evictionPolicy.onRemove(entry);
+        for (CacheIndex<T> index : indexes.values()) {
+            index.remove(entry);
+        }
+        TimerWheel.shared().deschedule(entry);
+        if (entries.remove(entry.key, entry)) {
+            if (overflowTier != null && (cause == RemovalCause.SIZE || cause == RemovalCause.WEIGHT)) {
+                spill(entry);
+            }
+            weight -= entry.weight;
+            removalCounts[cause.ordinal()].increment();
+            return entry.value;
+        }
+        return null;
     }
 }
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import java.lang.ref.WeakReference;
+
+import lombok.Getter;
+
+/**
+ * A single entry held by a {@link Cache}.
+ * <p>
+ * Entries double as nodes of three intrusive doubly-linked lists - the cache's
+ * own insertion-ordered list, one list owned by the cache's
+ * {@link EvictionPolicy}, and a bucket of the shared {@link TimerWheel}. This
+ * lets all of them be re-ordered in constant time without a separate lookup.
+ * The first two are guarded by the owning cache's eviction lock, the latter by
+ * the timer wheel. Entries are also grouped by their {@link CacheIndex}es.
+ */
+public final class CacheEntry<T extends Cacheable> {
+    /**
+     * The key this entry is stored under.
+     *
+     * @return {@link String}
+     */
+    @Getter
+    final String key;
+
+    /**
+     * The cached object.
+     *
+     * @return The cached object
+     */
+    @Getter
+    final T value;
+
+    /**
+     * The time at which this entry was inserted, in milliseconds since the epoch.
+     *
+     * @return {@link Long}
+     */
+    @Getter
+    final long insertionTime;
+
+    /**
+     * The time to live of this entry in milliseconds, or
+     * {@link #INHERIT_TTL} to use the cache's <code>ttl</code>.
+     */
+    final long timeToLive;
+
+    /**
+     * The time this entry was last read, only kept up to date while the cache
+     * expires entries after access.
+     */
+    volatile long accessTime;
+
+    /**
+     * The weight of this entry, while its cache is bounded by weight. Guarded by
+     * the owning cache's eviction lock.
+     */
+    long weight;
+
+    /**
+     * The owning cache, held weakly so that entries still scheduled on the shared
+     * {@link TimerWheel} do not keep a dropped cache reachable. Shared by every
+     * entry of the cache, and <code>null</code> for sentinels.
+     */
+    final WeakReference<Cache<T>> owner;
+
+    // Insertion-ordered list, owned by the cache
+    CacheEntry<T> prev;
+    CacheEntry<T> next;
+
+    // Policy-ordered list, owned by the built-in eviction policies
+    CacheEntry<T> policyPrev;
+    CacheEntry<T> policyNext;
+
+    /**
+     * Per-policy bookkeeping, e.g. the frequency bucket or queue this entry is in.
+     */
+    Object policyData;
+
+    /**
+     * The values this entry was indexed under, by {@link CacheIndex} slot.
+     */
+    Object[] indexKeys;
+
+    // Timer wheel bucket, owned by the timer wheel
+    CacheEntry<?> wheelPrev;
+    CacheEntry<?> wheelNext;
+
+    static final long INHERIT_TTL = -1;
+
+    CacheEntry(WeakReference<Cache<T>> owner, String key, T value, long timeToLive) {
+        this.owner = owner;
+        this.key = key;
+        this.value = value;
+        this.timeToLive = timeToLive;
+        this.insertionTime = System.currentTimeMillis();
+        this.accessTime = insertionTime;
+    }
+
+    /**
+     * Get the time at which this entry expires, in milliseconds since the epoch.
+     *
+     * @return The expiration time, or {@link Long#MAX_VALUE} if this entry never
+     *         expires (or its cache has been garbage collected)
+     */
+    public long getExpirationTime() {
+        Cache<T> cache = owner == null ? null : owner.get();
+        return cache == null ? Long.MAX_VALUE : cache.expirationTime(this);
+    }
+
+    /**
+     * Ask the owning cache to expire this entry, if it is still around.
+     */
+    void expire() {
+        Cache<T> cache = owner == null ? null : owner.get();
+        if (cache != null) {
+            cache.expire(this);
+        }
+    }
+
+    /**
+     * Create a sentinel entry, used as the head of a circular list.
+     */
+    static <T extends Cacheable> CacheEntry<T> sentinel() {
+        CacheEntry<T> sentinel = new CacheEntry<>(null, null, null, INHERIT_TTL);
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        sentinel.policyPrev = sentinel;
+        sentinel.policyNext = sentinel;
+        sentinel.wheelPrev = sentinel;
+        sentinel.wheelNext = sentinel;
+        return sentinel;
+    }
+
+    /**
+     * Link this entry in before the given entry.
+     */
+    void linkBefore(CacheEntry<T> other) {
+        prev = other.prev;
+        next = other;
+        other.prev.next = this;
+        other.prev = this;
+    }
+
+    /**
+     * Unlink this entry from the insertion-ordered list.
+     */
+    void unlink() {
+        if (next == null) {
+            return;
+        }
+        prev.next = next;
+        next.prev = prev;
+        prev = null;
+        next = null;
+    }
+
+    /**
+     * Link this entry in before the given entry on the policy-ordered list.
+     */
+    void policyLinkBefore(CacheEntry<T> other) {
+        policyPrev = other.policyPrev;
+        policyNext = other;
+        other.policyPrev.policyNext = this;
+        other.policyPrev = this;
+    }
+
+    /**
+     * Unlink this entry from the policy-ordered list.
+     */
+    void policyUnlink() {
+        if (policyNext == null) {
+            return;
+        }
+        policyPrev.policyNext = policyNext;
+        policyNext.policyPrev = policyPrev;
+        policyPrev = null;
+        policyNext = null;
+    }
+
+    /**
+     * Move this entry to the tail (most recent end) of the given policy list.
+     */
+    void policyMoveToTail(CacheEntry<T> sentinel) {
+        policyUnlink();
+        policyLinkBefore(sentinel);
+    }
+}
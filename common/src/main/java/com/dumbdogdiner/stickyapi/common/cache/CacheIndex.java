@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A secondary index of a {@link Cache}, mapping a value extracted from each
+ * cached object to the entries that produced it.
+ * <p>
+ * Each indexed value maps to a small copy-on-write array of entries in
+ * insertion order, so lookups are lock-free and never see a half-updated
+ * group. Modifications happen under the owning cache's eviction lock.
+ * <p>
+ * The value an entry was indexed under is remembered on the entry itself (in
+ * <code>indexKeys[slot]</code>), so the entry can be unindexed even if the
+ * cached object has since changed.
+ */
+final class CacheIndex<T extends Cacheable> {
+    private static final Object[] EMPTY = new Object[0];
+
+    final String name;
+    private final Function<? super T, ?> extractor;
+
+    /**
+     * The position of this index's value in each entry's <code>indexKeys</code>.
+     */
+    int slot;
+
+    private final ConcurrentHashMap<Object, Object[]> groups = new ConcurrentHashMap<>();
+
+    CacheIndex(String name, Function<? super T, ?> extractor, int slot) {
+        this.name = name;
+        this.extractor = extractor;
+        this.slot = slot;
+    }
+
+    /**
+     * Index an entry. Objects for which the extractor returns null are not
+     * indexed.
+     */
+    void add(CacheEntry<T> entry) {
+        Object key = extractor.apply(entry.value);
+        entry.indexKeys[slot] = key;
+        if (key == null) {
+            return;
+        }
+
+        Object[] group = groups.getOrDefault(key, EMPTY);
+        Object[] grown = Arrays.copyOf(group, group.length + 1);
+        grown[group.length] = entry;
+        groups.put(key, grown);
+    }
+
+    /**
+     * Unindex an entry, if it is indexed.
+     */
+    void remove(CacheEntry<T> entry) {
+        Object key = entry.indexKeys[slot];
+        if (key == null) {
+            return;
+        }
+
+        Object[] group = groups.get(key);
+        if (group == null) {
+            return;
+        }
+        for (int i = 0; i < group.length; i++) {
+            if (group[i] == entry) {
+                if (group.length == 1) {
+                    groups.remove(key);
+                } else {
+                    Object[] shrunk = new Object[group.length - 1];
+                    System.arraycopy(group, 0, shrunk, 0, i);
+                    System.arraycopy(group, i + 1, shrunk, i, shrunk.length - i);
+                    groups.put(key, shrunk);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get the entries indexed under a value, oldest first. The returned array must
+     * not be modified.
+     */
+    Object[] get(Object key) {
+        return groups.getOrDefault(key, EMPTY);
+    }
+
+    void clear() {
+        groups.clear();
+    }
+}
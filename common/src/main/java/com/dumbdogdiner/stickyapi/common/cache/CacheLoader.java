@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Loads objects into a {@link LoadingCache} when they are missing, e.g. from a
+ * database.
+ * <p>
+ * Only {@link #load(String)} must be implemented. Loaders backed by an
+ * asynchronous client should override {@link #asyncLoad(String, Executor)} (or
+ * be created with {@link #async(BiFunction)}), and loaders that can fetch many
+ * keys in one query should override {@link #loadAll(Collection)}.
+ */
+@FunctionalInterface
+public interface CacheLoader<T extends Cacheable> {
+    /**
+     * Load the object for a key. The returned object should have the same key.
+     * 
+     * @param key The key to load
+     * @return The loaded object, or null if there is none
+     * @throws Exception If the object could not be loaded
+     */
+    @Nullable
+    T load(@NotNull String key) throws Exception;
+
+    /**
+     * Load the object for a key asynchronously. By default, this runs
+     * {@link #load(String)} on the given executor.
+     * 
+     * @param key      The key to load
+     * @param executor The executor of the loading cache
+     * @return A future completing with the loaded object, or null if there is none
+     */
+    @NotNull
+    default CompletableFuture<T> asyncLoad(@NotNull String key, @NotNull Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return load(key);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Load the objects for many keys at once. By default, this calls
+     * {@link #load(String)} for each key.
+     * 
+     * @param keys The keys to load
+     * @return A map of keys to loaded objects - keys without an object may be left
+     *         out
+     * @throws Exception If the objects could not be loaded
+     */
+    @NotNull
+    default Map<String, T> loadAll(@NotNull Collection<String> keys) throws Exception {
+        Map<String, T> loaded = new HashMap<>();
+        for (String key : keys) {
+            T object = load(key);
+            if (object != null) {
+                loaded.put(key, object);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Reload an object that is due for refresh. By default, this calls
+     * {@link #load(String)}.
+     * 
+     * @param key      The key to reload
+     * @param oldValue The currently cached object
+     * @return The new object, or null to keep the current one
+     * @throws Exception If the object could not be reloaded
+     */
+    @Nullable
+    default T reload(@NotNull String key, @NotNull T oldValue) throws Exception {
+        return load(key);
+    }
+
+    /**
+     * Create a loader from an asynchronous loading function.
+     * 
+     * @param <T>    The type of object to load
+     * @param loader A function taking the key to load and the cache's executor
+     * @return {@link CacheLoader}
+     */
+    static <T extends Cacheable> CacheLoader<T> async(
+            @NotNull BiFunction<String, Executor, CompletableFuture<T>> loader) {
+        return new CacheLoader<T>() {
+            @Override
+            public T load(@NotNull String key) {
+                return loader.apply(key, Runnable::run).join();
+            }
+
+            @Override
+            public @NotNull CompletableFuture<T> asyncLoad(@NotNull String key, @NotNull Executor executor) {
+                return loader.apply(key, executor);
+            }
+        };
+    }
+}
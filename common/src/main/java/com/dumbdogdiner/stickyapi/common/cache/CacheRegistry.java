@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps track of every {@link Cache}, so that their statistics can be dumped
+ * (e.g. by a command) or scraped by a metrics exporter.
+ * <p>
+ * Caches register themselves when they are created, under the simple name of
+ * the class they cache (suffixed with a number if that name is taken).
+ * Caches are only weakly referenced, and drop out of the registry once they
+ * are garbage collected.
+ */
+public final class CacheRegistry {
+    private CacheRegistry() {
+    }
+
+    private static final ConcurrentHashMap<String, WeakReference<Cache<?>>> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Register a cache under a unique name, derived from the given one.
+     *
+     * @return The name the cache was registered under
+     */
+    static String register(@NotNull String name, @NotNull Cache<?> cache) {
+        WeakReference<Cache<?>> reference = new WeakReference<>(cache);
+        String unique = name;
+        for (int i = 2;; i++) {
+            WeakReference<Cache<?>> existing = caches.putIfAbsent(unique, reference);
+            if (existing == null) {
+                return unique;
+            }
+            // Reuse names of caches that have since been collected
+            if (existing.get() == null && caches.replace(unique, existing, reference)) {
+                return unique;
+            }
+            unique = name + "#" + i;
+        }
+    }
+
+    /**
+     * Remove a cache from the registry, e.g. when it is no longer used.
+     *
+     * @param name The name the cache is registered under
+     */
+    public static void unregister(@NotNull String name) {
+        caches.remove(name);
+    }
+
+    /**
+     * Get a registered cache by name.
+     *
+     * @param name The name the cache is registered under
+     * @return The cache, if it is registered
+     */
+    @Nullable
+    public static Cache<?> getCache(@NotNull String name) {
+        WeakReference<Cache<?>> reference = caches.get(name);
+        return reference == null ? null : reference.get();
+    }
+
+    /**
+     * Get every registered cache, sorted by name.
+     *
+     * @return {@link Map}
+     */
+    public static Map<String, Cache<?>> getCaches() {
+        Map<String, Cache<?>> live = new TreeMap<>();
+        Iterator<Map.Entry<String, WeakReference<Cache<?>>>> iterator = caches.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, WeakReference<Cache<?>>> entry = iterator.next();
+            Cache<?> cache = entry.getValue().get();
+            if (cache == null) {
+                iterator.remove();
+            } else {
+                live.put(entry.getKey(), cache);
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Take a snapshot of the statistics of every registered cache.
+     *
+     * @return {@link List}
+     */
+    public static List<CacheStats> getStats() {
+        List<CacheStats> stats = new ArrayList<>();
+        getCaches().values().forEach(cache -> stats.add(cache.getStats()));
+        return stats;
+    }
+
+    /**
+     * Format the statistics of every registered cache, one line per cache.
+     *
+     * @return {@link List}
+     */
+    public static List<String> dump() {
+        List<String> lines = new ArrayList<>();
+        getStats().forEach(stats -> lines.add(stats.toString()));
+        return lines;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.NotNull;
+
+import lombok.Getter;
+
+/**
+ * An immutable snapshot of the statistics of a {@link Cache}, see
+ * {@link Cache#getStats()}.
+ * <p>
+ * Counters are cumulative since the cache was created, or since
+ * {@link Cache#resetStats()} was last called.
+ */
+public final class CacheStats {
+    /**
+     * The name the cache is registered under.
+     *
+     * @return {@link String}
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * The number of lookups that found a cached object.
+     *
+     * @return {@link Long}
+     */
+    @Getter
+    private final long hitCount;
+
+    /**
+     * The number of lookups that did not find a cached object.
+     *
+     * @return {@link Long}
+     */
+    @Getter
+    private final long missCount;
+
+    /**
+     * The number of objects loaded successfully by a {@link LoadingCache}.
+     *
+     * @return {@link Long}
+     */
+    @Getter
+    private final long loadSuccessCount;
+
+    /**
+     * The number of loads by a {@link LoadingCache} that threw an exception.
+     *
+     * @return {@link Long}
+     */
+    @Getter
+    private final long loadFailureCount;
+
+    /**
+     * The total time spent loading objects, in nanoseconds.
+     *
+     * @return {@link Long}
+     */
+    @Getter
+    private final long totalLoadTime;
+
+    private final long[] removalCounts;
+
+    /**
+     * The number of objects in the cache.
+     *
+     * @return {@link Integer}
+     */
+    @Getter
+    private final int size;
+
+    /**
+     * The total weight of the objects in the cache, see {@link Weigher}.
+     *
+     * @return {@link Long}
+     */
+    @Getter
+    private final long weight;
+
+    /**
+     * The maximum size of the cache, or 0 for no limit.
+     *
+     * @return {@link Integer}
+     */
+    @Getter
+    private final int maxSize;
+
+    /**
+     * The maximum weight of the cache, or 0 for no limit.
+     *
+     * @return {@link Long}
+     */
+    @Getter
+    private final long maxWeight;
+
+    CacheStats(String name, long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+            long totalLoadTime, long[] removalCounts, int size, long weight, int maxSize, long maxWeight) {
+        this.name = name;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTime = totalLoadTime;
+        this.removalCounts = removalCounts;
+        this.size = size;
+        this.weight = weight;
+        this.maxSize = maxSize;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Get the number of lookups.
+     *
+     * @return {@link Long}
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * Get the ratio of lookups that found a cached object, or 1 if there have
+     * been no lookups.
+     *
+     * @return {@link Double}
+     */
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Get the average time it took to load an object, in nanoseconds.
+     *
+     * @return {@link Double}
+     */
+    public double getAverageLoadPenalty() {
+        long loads = loadSuccessCount + loadFailureCount;
+        return loads == 0 ? 0.0 : (double) totalLoadTime / loads;
+    }
+
+    /**
+     * Get the number of objects removed from the cache for the given reason.
+     *
+     * @param cause The reason of removal
+     * @return {@link Long}
+     */
+    public long getRemovalCount(@NotNull RemovalCause cause) {
+        return removalCounts[cause.ordinal()];
+    }
+
+    /**
+     * Get the number of objects the cache removed by itself - because they
+     * expired, or the cache was full.
+     *
+     * @return {@link Long}
+     */
+    public long getEvictionCount() {
+        long evictions = 0;
+        for (RemovalCause cause : RemovalCause.values()) {
+            if (cause.isEviction()) {
+                evictions += removalCounts[cause.ordinal()];
+            }
+        }
+        return evictions;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(name).append(": size=").append(size);
+        if (maxSize > 0) {
+            builder.append('/').append(maxSize);
+        }
+        if (maxWeight > 0) {
+            builder.append(" weight=").append(weight).append('/').append(maxWeight);
+        }
+        builder.append(String.format(" hits=%d misses=%d hitRate=%.2f%%", hitCount, missCount, getHitRate() * 100));
+        if (loadSuccessCount + loadFailureCount > 0) {
+            builder.append(String.format(" loads=%d failures=%d avgLoad=%.2fms", loadSuccessCount, loadFailureCount,
+                    getAverageLoadPenalty() / TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+        for (RemovalCause cause : RemovalCause.values()) {
+            builder.append(' ').append(cause.name().toLowerCase()).append('=')
+                    .append(removalCounts[cause.ordinal()]);
+        }
+        return builder.toString();
+    }
+}
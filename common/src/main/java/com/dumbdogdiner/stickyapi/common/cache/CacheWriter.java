@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import java.util.Collection;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Mirrors changes made to a {@link Cache} to another store, e.g. a database.
+ * <p>
+ * Objects stored with <code>put</code> or <code>update</code> are written, and
+ * objects removed with <code>remove</code> are deleted. Objects leaving the
+ * cache because they expired or were evicted are not deleted.
+ * <p>
+ * Writers used for write-behind should override {@link #writeAll(Collection)}
+ * and {@link #deleteAll(Collection)} to write each batch in one go.
+ */
+public interface CacheWriter<T extends Cacheable> {
+    /**
+     * Write an object that was stored in the cache.
+     * 
+     * @param object The object to write
+     * @throws Exception If the object could not be written
+     */
+    void write(@NotNull T object) throws Exception;
+
+    /**
+     * Delete an object that was removed from the cache.
+     * 
+     * @param key The key of the object
+     * @throws Exception If the object could not be deleted
+     */
+    void delete(@NotNull String key) throws Exception;
+
+    /**
+     * Write a batch of objects. By default, this calls {@link #write(Cacheable)}
+     * for each object.
+     * 
+     * @param objects The objects to write
+     * @throws Exception If the objects could not be written
+     */
+    default void writeAll(@NotNull Collection<T> objects) throws Exception {
+        for (T object : objects) {
+            write(object);
+        }
+    }
+
+    /**
+     * Delete a batch of objects. By default, this calls {@link #delete(String)}
+     * for each key.
+     * 
+     * @param keys The keys of the objects
+     * @throws Exception If the objects could not be deleted
+     */
+    default void deleteAll(@NotNull Collection<String> keys) throws Exception {
+        for (String key : keys) {
+            delete(key);
+        }
+    }
+}
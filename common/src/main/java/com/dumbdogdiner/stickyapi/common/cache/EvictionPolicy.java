@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decides which entry a {@link Cache} should evict once it grows past its
+ * maximum size.
+ * <p>
+ * A policy is owned by a single cache, and all of its methods are invoked while
+ * that cache's eviction lock is held - implementations do not need to be
+ * thread-safe themselves. Every method should run in constant time, since they
+ * are called on each insertion and (most) lookups.
+ *
+ * @see FifoPolicy
+ * @see LruPolicy
+ * @see LfuPolicy
+ * @see TinyLfuPolicy
+ */
+public interface EvictionPolicy<T extends Cacheable> {
+    /**
+     * Called after an entry has been inserted into the cache.
+     *
+     * @param entry The new entry
+     */
+    void onInsert(@NotNull CacheEntry<T> entry);
+
+    /**
+     * Called when an entry has been read from the cache.
+     * <p>
+     * Access recording is lossy - under heavy contention the cache may skip
+     * calling this rather than block a reader.
+     *
+     * @param entry The entry that was read
+     */
+    void onAccess(@NotNull CacheEntry<T> entry);
+
+    /**
+     * Called after an entry has been removed from the cache, for any reason.
+     *
+     * @param entry The removed entry
+     */
+    void onRemove(@NotNull CacheEntry<T> entry);
+
+    /**
+     * Select the next entry to evict. The entry is not removed from the policy
+     * until {@link #onRemove(CacheEntry)} is called.
+     *
+     * @return The entry to evict, or null if the policy is tracking no entries
+     */
+    @Nullable
+    CacheEntry<T> victim();
+
+    /**
+     * Forget every entry tracked by this policy.
+     */
+    void clear();
+}
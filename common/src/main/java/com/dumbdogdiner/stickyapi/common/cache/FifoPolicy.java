@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * First-in-first-out eviction - always evicts the oldest inserted entry. This
+ * is the default policy of {@link Cache}.
+ */
+public class FifoPolicy<T extends Cacheable> implements EvictionPolicy<T> {
+    protected final CacheEntry<T> head = CacheEntry.sentinel();
+
+    @Override
+    public void onInsert(@NotNull CacheEntry<T> entry) {
+        entry.policyLinkBefore(head);
+    }
+
+    @Override
+    public void onAccess(@NotNull CacheEntry<T> entry) {
+        // Insertion order is unaffected by reads.
+    }
+
+    @Override
+    public void onRemove(@NotNull CacheEntry<T> entry) {
+        entry.policyUnlink();
+    }
+
+    @Override
+    public @Nullable CacheEntry<T> victim() {
+        return head.policyNext == head ? null : head.policyNext;
+    }
+
+    @Override
+    public void clear() {
+        head.policyPrev = head;
+        head.policyNext = head;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+/**
+ * A probabilistic estimate of how often keys have been seen recently.
+ * <p>
+ * This is a count-min sketch of 4-bit counters, four counters per key, packed
+ * sixteen to a <code>long</code>. Once the number of recorded increments
+ * reaches ten times the table size, every counter is halved so that old
+ * popularity fades out over time.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+            0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private long[] table = new long[0];
+    private int tableMask;
+    private int sampleSize;
+    private int size;
+
+    /**
+     * Grow the sketch so that it can accurately track the given number of keys.
+     * Frequencies recorded so far are kept.
+     *
+     * @param maximumSize The number of keys to track
+     */
+    void ensureCapacity(long maximumSize) {
+        int maximum = (int) Math.min(Math.max(maximumSize, 16), Integer.MAX_VALUE >>> 1);
+        if (table.length >= maximum) {
+            return;
+        }
+
+        long[] grown = new long[Integer.highestOneBit(maximum - 1) << 1];
+        if (table.length > 0) {
+            // A counter at index i moves to an index that is i modulo the old
+            // length, so copying the old table into every slice of the new one
+            // keeps every key's counters. Other keys may be overestimated until
+            // the next reset, which a count-min sketch allows for.
+            for (int i = 0; i < grown.length; i++) {
+                grown[i] = table[i & tableMask];
+            }
+        }
+        table = grown;
+        tableMask = table.length - 1;
+        sampleSize = 10 * table.length;
+    }
+
+    /**
+     * Returns the estimated number of occurrences of a key, up to 15.
+     *
+     * @param key The key to look up
+     * @return {@link Integer}
+     */
+    int frequency(Object key) {
+        if (table.length == 0) {
+            return 0;
+        }
+
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Record an occurrence of a key.
+     *
+     * @param key The key to record
+     */
+    void increment(Object key) {
+        if (table.length == 0) {
+            return;
+        }
+
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Halve every counter, ageing out stale frequencies.
+     */
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size >>> 1) - (odd >>> 2);
+    }
+
+    private int indexOf(int hash, int depth) {
+        long h = (hash + SEEDS[depth]) * SEEDS[depth];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Least-frequently-used eviction - evicts the entry that has been read the
+ * fewest times, breaking ties by least recent use.
+ * <p>
+ * Entries are grouped into buckets of equal access count, kept in a list
+ * ordered by count, so every operation runs in constant time.
+ */
+public class LfuPolicy<T extends Cacheable> implements EvictionPolicy<T> {
+    /**
+     * A group of entries sharing the same access count.
+     */
+    private static final class Bucket<T extends Cacheable> {
+        final long frequency;
+        final CacheEntry<T> entries = CacheEntry.sentinel();
+        Bucket<T> prev;
+        Bucket<T> next;
+
+        Bucket(long frequency) {
+            this.frequency = frequency;
+        }
+
+        boolean isEmpty() {
+            return entries.policyNext == entries;
+        }
+
+        void insertAfter(Bucket<T> other) {
+            prev = other;
+            next = other.next;
+            other.next.prev = this;
+            other.next = this;
+        }
+
+        void remove() {
+            prev.next = next;
+            next.prev = prev;
+        }
+    }
+
+    /**
+     * Sentinel of the bucket list - <code>root.next</code> holds the least
+     * frequently used entries.
+     */
+    private final Bucket<T> root = new Bucket<>(0);
+
+    public LfuPolicy() {
+        clear();
+    }
+
+    @Override
+    public void onInsert(@NotNull CacheEntry<T> entry) {
+        Bucket<T> bucket = root.next;
+        if (bucket == root || bucket.frequency != 1) {
+            bucket = new Bucket<>(1);
+            bucket.insertAfter(root);
+        }
+        entry.policyLinkBefore(bucket.entries);
+        entry.policyData = bucket;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onAccess(@NotNull CacheEntry<T> entry) {
+        Bucket<T> current = (Bucket<T>) entry.policyData;
+        if (current == null) {
+            return;
+        }
+
+        Bucket<T> next = current.next;
+        if (next == root || next.frequency != current.frequency + 1) {
+            next = new Bucket<>(current.frequency + 1);
+            next.insertAfter(current);
+        }
+
+        entry.policyUnlink();
+        entry.policyLinkBefore(next.entries);
+        entry.policyData = next;
+
+        if (current.isEmpty()) {
+            current.remove();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onRemove(@NotNull CacheEntry<T> entry) {
+        Bucket<T> bucket = (Bucket<T>) entry.policyData;
+        entry.policyUnlink();
+        entry.policyData = null;
+
+        if (bucket != null && bucket.isEmpty()) {
+            bucket.remove();
+        }
+    }
+
+    @Override
+    public @Nullable CacheEntry<T> victim() {
+        return root.next == root ? null : root.next.entries.policyNext;
+    }
+
+    @Override
+    public void clear() {
+        root.prev = root;
+        root.next = root;
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import com.dumbdogdiner.stickyapi.StickyAPI;
+
+import org.jetbrains.annotations.NotNull;
+
+import lombok.Getter;
+
+/**
+ * A {@link Cache} that loads missing objects through a {@link CacheLoader}.
+ * <p>
+ * Concurrent requests for the same missing key are coalesced, so the loader is
+ * only called once per key at a time - every other caller waits for (and
+ * receives) the result of that load. Objects can optionally be refreshed in the
+ * background once they are older than <code>refreshAfterWrite</code>; the
+ * stale object keeps being returned until the refresh completes.
+ */
+public class LoadingCache<T extends Cacheable> extends Cache<T> {
+    @Getter
+    private final CacheLoader<T> loader;
+
+    @Getter
+    private final Executor executor;
+
+    /**
+     * Time in milliseconds after which objects are reloaded in the background on
+     * their next read, or 0 to never refresh.
+     *
+     * @return {@link Long}
+     */
+    @Getter
+    private long refreshAfterWrite = 0;
+
+    private final ConcurrentHashMap<String, CompletableFuture<T>> loading = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<T>> refreshing = new ConcurrentHashMap<>();
+
+    /**
+     * Create a loading cache that runs asynchronous loads and refreshes on
+     * {@link StickyAPI#getPool()}.
+     *
+     * @param clazz  The type of object to cache
+     * @param loader The loader for missing objects
+     */
+    public LoadingCache(Class<T> clazz, @NotNull CacheLoader<T> loader) {
+        this(clazz, loader, StickyAPI.getPool());
+    }
+
+    /**
+     * Create a loading cache that runs asynchronous loads and refreshes on the
+     * given executor.
+     *
+     * @param clazz    The type of object to cache
+     * @param loader   The loader for missing objects
+     * @param executor The executor to load on
+     */
+    public LoadingCache(Class<T> clazz, @NotNull CacheLoader<T> loader, @NotNull Executor executor) {
+        super(clazz);
+        this.loader = loader;
+        this.executor = executor;
+    }
+
+    /**
+     * Set the time after which objects are reloaded in the background on their
+     * next read.
+     *
+     * @param duration The duration, or 0 to never refresh
+     * @param unit     The unit of the duration
+     */
+    public void setRefreshAfterWrite(long duration, @NotNull TimeUnit unit) {
+        this.refreshAfterWrite = Math.max(0, unit.toMillis(duration));
+    }
+
+    /**
+     * Retrieve an object from the cache, loading it on the calling thread if it
+     * is missing. If another thread is already loading the key, this waits for it
+     * instead.
+     *
+     * @param key The key of the object
+     * @return The requested object, or null if the loader has none
+     * @throws CompletionException If the loader threw an exception
+     */
+    @Override
+    public T get(@NotNull String key) {
+        T object = super.get(key);
+        if (object != null) {
+            maybeRefresh(key);
+            return object;
+        }
+
+        CompletableFuture<T> promise = new CompletableFuture<>();
+        CompletableFuture<T> existing = loading.putIfAbsent(key, promise);
+        if (existing != null) {
+            return existing.join();
+        }
+
+        long start = System.nanoTime();
+        try {
+            T loaded = loader.load(key);
+            recordLoad(true, System.nanoTime() - start);
+            store(key, loaded, promise);
+            return loaded;
+        } catch (Throwable e) {
+            recordLoad(false, System.nanoTime() - start);
+            throw fail(Collections.singletonMap(key, promise), e);
+        }
+    }
+
+    /**
+     * Retrieve an object from the cache, loading it asynchronously if it is
+     * missing.
+     *
+     * @param key The key of the object
+     * @return A future completing with the requested object, or null if the loader
+     *         has none
+     */
+    public CompletableFuture<T> getAsync(@NotNull String key) {
+        T object = super.get(key);
+        if (object != null) {
+            maybeRefresh(key);
+            return CompletableFuture.completedFuture(object);
+        }
+
+        CompletableFuture<T> promise = new CompletableFuture<>();
+        CompletableFuture<T> existing = loading.putIfAbsent(key, promise);
+        if (existing != null) {
+            return existing;
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = loader.asyncLoad(key, executor);
+        } catch (Throwable e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((loaded, error) -> {
+            recordLoad(error == null, System.nanoTime() - start);
+            if (error != null) {
+                loading.remove(key, promise);
+                promise.completeExceptionally(error);
+            } else {
+                store(key, loaded, promise);
+            }
+        });
+        return promise;
+    }
+
+    /**
+     * Retrieve many objects from the cache, loading every missing key with a
+     * single call to {@link CacheLoader#loadAll(Collection)}. Keys already being
+     * loaded by another thread are waited for instead.
+     *
+     * @param keys The keys of the objects
+     * @return A map of keys to objects, leaving out keys the loader has no object
+     *         for
+     * @throws CompletionException If the loader threw an exception
+     */
+    public Map<String, T> getAll(@NotNull Collection<String> keys) {
+        Map<String, T> result = new LinkedHashMap<>();
+        Map<String, CompletableFuture<T>> waiting = new HashMap<>();
+        Map<String, CompletableFuture<T>> claimed = new LinkedHashMap<>();
+
+        for (String key : keys) {
+            if (result.containsKey(key) || waiting.containsKey(key) || claimed.containsKey(key)) {
+                continue;
+            }
+            T object = super.get(key);
+            if (object != null) {
+                maybeRefresh(key);
+                result.put(key, object);
+                continue;
+            }
+
+            CompletableFuture<T> promise = new CompletableFuture<>();
+            CompletableFuture<T> existing = loading.putIfAbsent(key, promise);
+            if (existing != null) {
+                waiting.put(key, existing);
+            } else {
+                claimed.put(key, promise);
+            }
+        }
+
+        if (!claimed.isEmpty()) {
+            Map<String, T> loaded;
+            long start = System.nanoTime();
+            try {
+                loaded = loader.loadAll(new ArrayList<>(claimed.keySet()));
+                recordLoad(true, System.nanoTime() - start);
+            } catch (Throwable e) {
+                recordLoad(false, System.nanoTime() - start);
+                throw fail(claimed, e);
+            }
+
+            try {
+                claimed.forEach((key, promise) -> {
+                    T object = loaded == null ? null : loaded.get(key);
+                    store(key, object, promise);
+                    if (object != null) {
+                        result.put(key, object);
+                    }
+                });
+            } catch (Throwable e) {
+                // Don't leave the keys after the failed one loading forever
+                throw fail(claimed, e);
+            }
+        }
+
+        waiting.forEach((key, future) -> {
+            T object = future.join();
+            if (object != null) {
+                result.put(key, object);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Reload an object in the background, keeping the current one until the reload
+     * completes. If the key is missing, it is loaded instead.
+     *
+     * @param key The key of the object
+     * @return A future completing with the new object
+     */
+    public CompletableFuture<T> refresh(@NotNull String key) {
+        T current = peek(key);
+        if (current == null) {
+            return getAsync(key);
+        }
+
+        CompletableFuture<T> promise = new CompletableFuture<>();
+        CompletableFuture<T> existing = refreshing.putIfAbsent(key, promise);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    T reloaded = loader.reload(key, current);
+                    recordLoad(true, System.nanoTime() - start);
+                    if (reloaded != null) {
+                        replace(reloaded);
+                    }
+                    refreshing.remove(key, promise);
+                    promise.complete(reloaded == null ? current : reloaded);
+                } catch (Throwable e) {
+                    recordLoad(false, System.nanoTime() - start);
+                    refreshing.remove(key, promise);
+                    promise.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.remove(key, promise);
+            promise.completeExceptionally(e);
+        }
+        return promise;
+    }
+
+    /**
+     * Start a background refresh if the entry for the key is due for one.
+     */
+    private void maybeRefresh(String key) {
+        if (refreshAfterWrite <= 0 || refreshing.containsKey(key)) {
+            return;
+        }
+        CacheEntry<T> entry = getEntryIfPresent(key);
+        if (entry != null && System.currentTimeMillis() - entry.getInsertionTime() >= refreshAfterWrite) {
+            refresh(key);
+        }
+    }
+
+    /**
+     * Fail the loads of every key that isn't loaded yet, so threads waiting on
+     * them don't block forever. Errors are rethrown as they are, anything else is
+     * returned wrapped in a {@link CompletionException} for the caller to throw.
+     */
+    private CompletionException fail(Map<String, CompletableFuture<T>> promises, Throwable e) {
+        CompletionException wrapped = e instanceof CompletionException ? (CompletionException) e
+                : new CompletionException(e);
+        promises.forEach((key, promise) -> {
+            if (!promise.isDone()) {
+                loading.remove(key, promise);
+                promise.completeExceptionally(wrapped);
+            }
+        });
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return wrapped;
+    }
+
+    /**
+     * Insert a loaded object, then release everyone waiting on its load. The
+     * object is inserted before the in-flight load is removed, so that no caller
+     * can miss in between and load it a second time.
+     */
+    private void store(String key, T object, CompletableFuture<T> promise) {
+        try {
+            if (object != null) {
+                replace(object);
+            }
+        } finally {
+            loading.remove(key, promise);
+            promise.complete(object);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Least-recently-used eviction - evicts the entry that has gone the longest
+ * without being read or inserted.
+ */
+public class LruPolicy<T extends Cacheable> extends FifoPolicy<T> {
+    @Override
+    public void onAccess(@NotNull CacheEntry<T> entry) {
+        entry.policyMoveToTail(head);
+    }
+}
@@ -0,0 +1,558 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.dumbdogdiner.stickyapi.StickyAPI;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+
+/**
+ * A memory-mapped file that stores objects evicted from a {@link Cache}, see
+ * {@link Cache#setOverflowTier(OverflowTier)}.
+ * <p>
+ * Objects are appended to the file as serialized records, so they take up no
+ * heap space - only their keys and file positions are kept in memory. The file
+ * is mapped in fixed-size segments, leaving paging to the operating system.
+ * Removals are appended as tombstones, and the file is compacted on
+ * {@link StickyAPI#getPool()} once more than half of it is garbage.
+ * <p>
+ * Since every change is recorded in the file, reopening the same file after a
+ * restart brings back every object that was in the tier, for a warm start.
+ */
+public class OverflowTier<T extends Cacheable> implements Closeable {
+    private static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Record length, type, expiration time and key length.
+     */
+    private static final int HEADER = 4 + 1 + 8 + 4;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    /**
+     * The file backing this tier.
+     *
+     * @return {@link File}
+     */
+    @Getter
+    private final File file;
+
+    private final Serializer<T> serializer;
+    private final int segmentSize;
+
+    private Log log;
+
+    /**
+     * The position of the latest record of every stored key.
+     */
+    private Map<String, Long> index = new HashMap<>();
+
+    private boolean compacting = false;
+
+    /**
+     * The amount of garbage to wait for before compacting again after a
+     * compaction failed.
+     */
+    private long retryAtGarbage = 0;
+
+    /**
+     * Open (or create) a tier backed by the given file, mapped in segments of
+     * 16 MB.
+     *
+     * @param file       The file to store objects in
+     * @param serializer The serializer converting objects to bytes
+     * @throws IOException If the file could not be opened
+     */
+    public OverflowTier(@NotNull File file, @NotNull Serializer<T> serializer) throws IOException {
+        this(file, serializer, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Open (or create) a tier backed by the given file. A file must always be
+     * reopened with the segment size it was created with.
+     *
+     * @param file        The file to store objects in
+     * @param serializer  The serializer converting objects to bytes
+     * @param segmentSize The size of each mapped segment in bytes, which is also
+     *                    the maximum size of a stored object
+     * @throws IOException If the file could not be opened
+     */
+    public OverflowTier(@NotNull File file, @NotNull Serializer<T> serializer, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER) {
+            throw new IllegalArgumentException("Segment size must be larger than " + HEADER + " bytes");
+        }
+        this.file = file;
+        this.serializer = serializer;
+        this.segmentSize = segmentSize;
+        this.log = new Log(file);
+        load();
+    }
+
+    /**
+     * Get the number of objects in this tier.
+     *
+     * @return {@link Integer}
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Check whether this tier holds an object for the given key.
+     *
+     * @param key The key to check
+     * @return {@link Boolean}
+     */
+    public synchronized boolean contains(@NotNull String key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Store an object, replacing any object stored under the same key. Objects
+     * too large to fit in a segment are not stored.
+     *
+     * @param object         The object to store
+     * @param expirationTime The time the object expires, in milliseconds since the
+     *                       epoch, or {@link Long#MAX_VALUE} if it never does
+     * @return True if the object was stored
+     */
+    public synchronized boolean put(@NotNull T object, long expirationTime) {
+        byte[] key = object.getKey().getBytes(StandardCharsets.UTF_8);
+        byte[] value = serializer.serialize(object);
+        if ((long) HEADER + key.length + value.length > segmentSize) {
+            remove(object.getKey());
+            return false;
+        }
+
+        long position = log.append(PUT, expirationTime, key, value);
+        Long previous = index.put(object.getKey(), position);
+        if (previous != null) {
+            log.discard(previous);
+        }
+        log.liveBytes += HEADER + key.length + value.length;
+        compactIfWasteful();
+        return true;
+    }
+
+    /**
+     * Get the object stored under a key, without removing it.
+     *
+     * @param key The key of the object
+     * @return The object, or null if there is none or it has expired
+     */
+    @Nullable
+    public synchronized T get(@NotNull String key) {
+        Long position = index.get(key);
+        if (position == null) {
+            return null;
+        }
+
+        MappedByteBuffer segment = log.segments.get((int) (position / segmentSize));
+        int offset = (int) (position % segmentSize);
+        if (segment.getLong(offset + 5) <= System.currentTimeMillis()) {
+            remove(key);
+            return null;
+        }
+
+        int length = segment.getInt(offset);
+        int keyLength = segment.getInt(offset + 13);
+        byte[] value = new byte[length - HEADER - keyLength];
+        ByteBuffer view = segment.duplicate();
+        view.position(offset + HEADER + keyLength);
+        view.get(value);
+
+        try {
+            return serializer.deserialize(value);
+        } catch (RuntimeException e) {
+            StickyAPI.getLogger().warning("Dropping unreadable object " + key + " from " + file + ": " + e);
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Get the time at which the object stored under a key expires.
+     *
+     * @param key The key of the object
+     * @return The expiration time, or 0 if there is no such object
+     */
+    public synchronized long getExpirationTime(@NotNull String key) {
+        Long position = index.get(key);
+        if (position == null) {
+            return 0;
+        }
+        return log.segments.get((int) (position / segmentSize)).getLong((int) (position % segmentSize) + 5);
+    }
+
+    /**
+     * Remove the object stored under a key.
+     *
+     * @param key The key of the object
+     * @return True if there was an object to remove
+     */
+    public synchronized boolean remove(@NotNull String key) {
+        Long position = index.remove(key);
+        if (position == null) {
+            return false;
+        }
+
+        log.discard(position);
+        log.discard(log.append(REMOVE, 0, key.getBytes(StandardCharsets.UTF_8), new byte[0]));
+        compactIfWasteful();
+        return true;
+    }
+
+    /**
+     * Remove every object from this tier, truncating its file. Waits for a
+     * running compaction to finish first.
+     *
+     * @throws IOException If the file could not be truncated
+     */
+    public synchronized void clear() throws IOException {
+        awaitCompaction();
+        log.segments.clear();
+        log.channel.truncate(0);
+        log.writePosition = 0;
+        log.liveBytes = 0;
+        log.garbageBytes = 0;
+        index = new HashMap<>();
+    }
+
+    /**
+     * Rewrite the file so that it only contains the latest record of every stored
+     * object, dropping replaced, removed and expired objects. Waits for a running
+     * compaction to finish first.
+     * <p>
+     * The tier can still be used while the file is rewritten - objects stored or
+     * removed in the meantime are carried over to the new file once it is done.
+     *
+     * @throws IOException If the file could not be rewritten
+     */
+    public void compact() throws IOException {
+        synchronized (this) {
+            awaitCompaction();
+            compacting = true;
+        }
+        rewrite();
+    }
+
+    /**
+     * Write any changes to disk.
+     */
+    public synchronized void force() {
+        log.force();
+    }
+
+    /**
+     * Write any changes to disk and close the file. Waits for a running
+     * compaction to finish first.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        awaitCompaction();
+        log.force();
+        log.segments.clear();
+        log.channel.close();
+    }
+
+    /**
+     * Wait for a running compaction to finish.
+     */
+    synchronized void awaitCompaction() {
+        boolean interrupted = false;
+        while (compacting) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static FileChannel open(File file) throws IOException {
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Map the existing file, and rebuild the index by replaying its records.
+     */
+    private void load() throws IOException {
+        long size = log.channel.size();
+        int count = (int) ((size + segmentSize - 1) / segmentSize);
+        for (int i = 0; i < count; i++) {
+            log.segments.add(log.map(i));
+        }
+
+        for (int i = 0; i < count; i++) {
+            MappedByteBuffer segment = log.segments.get(i);
+            int offset = 0;
+            while (offset + HEADER <= segmentSize) {
+                int length = segment.getInt(offset);
+                if (length < HEADER || offset + length > segmentSize) {
+                    // The rest of the segment is unused (or was torn by a crash)
+                    break;
+                }
+
+                long position = (long) i * segmentSize + offset;
+                String name = new String(key(segment, offset), StandardCharsets.UTF_8);
+
+                Long previous;
+                if (segment.get(offset + 4) == PUT) {
+                    previous = index.put(name, position);
+                    log.liveBytes += length;
+                } else {
+                    previous = index.remove(name);
+                    log.garbageBytes += length;
+                }
+                if (previous != null) {
+                    log.discard(previous);
+                }
+
+                offset += length;
+                log.writePosition = position + length;
+            }
+        }
+    }
+
+    private static byte[] key(MappedByteBuffer segment, int offset) {
+        byte[] key = new byte[segment.getInt(offset + 13)];
+        ByteBuffer view = segment.duplicate();
+        view.position(offset + HEADER);
+        view.get(key);
+        return key;
+    }
+
+    /**
+     * Compact the file on the pool if more than half of it is garbage, rather than
+     * on the thread writing to it - which may be holding the lock of a cache.
+     */
+    private void compactIfWasteful() {
+        if (compacting || log.garbageBytes <= segmentSize || log.garbageBytes <= log.liveBytes
+                || log.garbageBytes <= retryAtGarbage) {
+            return;
+        }
+
+        compacting = true;
+        try {
+            StickyAPI.getPool().execute(() -> {
+                try {
+                    rewrite();
+                } catch (IOException | RuntimeException e) {
+                    StickyAPI.getLogger().warning("Could not compact " + file + ": " + e);
+                    synchronized (this) {
+                        retryAtGarbage = log.garbageBytes + segmentSize;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // The pool is shut down, try again on the next write
+            compacting = false;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Copy the live records to a new file and swap it in. The lock of this tier is
+     * only held to take a snapshot of the index, and to carry over the records
+     * written while copying.
+     */
+    private void rewrite() throws IOException {
+        File temporary = new File(file.getPath() + ".compact");
+        Log compacted = null;
+        try {
+            Map<String, Long> snapshot;
+            List<MappedByteBuffer> segments;
+            long copied;
+            synchronized (this) {
+                snapshot = new HashMap<>(index);
+                segments = new ArrayList<>(log.segments);
+                copied = log.writePosition;
+            }
+
+            // Records are never changed once written, so they can be read without the lock
+            compacted = new Log(temporary);
+            compacted.channel.truncate(0);
+            Map<String, Long> compactedIndex = new HashMap<>();
+            long now = System.currentTimeMillis();
+            for (Map.Entry<String, Long> entry : snapshot.entrySet()) {
+                MappedByteBuffer segment = segments.get((int) (entry.getValue() / segmentSize));
+                int offset = (int) (entry.getValue() % segmentSize);
+                if (segment.getLong(offset + 5) > now) {
+                    compactedIndex.put(entry.getKey(), compacted.copy(segment, offset));
+                }
+            }
+
+            synchronized (this) {
+                long position = copied;
+                while (position < log.writePosition) {
+                    MappedByteBuffer segment = log.segments.get((int) (position / segmentSize));
+                    int offset = (int) (position % segmentSize);
+                    int length = offset + HEADER <= segmentSize ? segment.getInt(offset) : 0;
+                    if (length < HEADER) {
+                        // The record did not fit, so it was written to the next segment
+                        position += segmentSize - offset;
+                        continue;
+                    }
+
+                    byte[] key = key(segment, offset);
+                    String name = new String(key, StandardCharsets.UTF_8);
+                    Long latest = index.get(name);
+                    if (latest == null) {
+                        Long previous = compactedIndex.remove(name);
+                        if (previous != null) {
+                            compacted.discard(previous);
+                            compacted.discard(compacted.append(REMOVE, 0, key, new byte[0]));
+                        }
+                    } else if (latest == position) {
+                        Long previous = compactedIndex.put(name, compacted.copy(segment, offset));
+                        if (previous != null) {
+                            compacted.discard(previous);
+                        }
+                    }
+                    position += length;
+                }
+
+                compacted.force();
+                Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                // Only closed once replaced, so the tier keeps working if the move fails
+                Log replaced = log;
+                log = compacted;
+                index = compactedIndex;
+                retryAtGarbage = 0;
+                compacted = null;
+                replaced.channel.close();
+            }
+        } finally {
+            synchronized (this) {
+                compacting = false;
+                notifyAll();
+            }
+            if (compacted != null) {
+                compacted.channel.close();
+                Files.deleteIfExists(temporary.toPath());
+            }
+        }
+    }
+
+    /**
+     * A file of records, mapped in segments.
+     */
+    private final class Log {
+        private final FileChannel channel;
+        private final List<MappedByteBuffer> segments = new ArrayList<>();
+        private long writePosition = 0;
+        private long liveBytes = 0;
+        private long garbageBytes = 0;
+
+        Log(File file) throws IOException {
+            this.channel = open(file);
+        }
+
+        /**
+         * Append a record, moving on to a new segment if it does not fit in the
+         * current one.
+         *
+         * @return The position of the record
+         */
+        long append(byte type, long expirationTime, byte[] key, byte[] value) {
+            int length = HEADER + key.length + value.length;
+            int offset = (int) (writePosition % segmentSize);
+            if (offset + length > segmentSize) {
+                garbageBytes += segmentSize - offset;
+                writePosition += segmentSize - offset;
+                offset = 0;
+            }
+
+            int segmentIndex = (int) (writePosition / segmentSize);
+            while (segments.size() <= segmentIndex) {
+                try {
+                    segments.add(map(segments.size()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            MappedByteBuffer segment = segments.get(segmentIndex);
+            segment.put(offset + 4, type);
+            segment.putLong(offset + 5, expirationTime);
+            segment.putInt(offset + 13, key.length);
+            ByteBuffer view = segment.duplicate();
+            view.position(offset + HEADER);
+            view.put(key);
+            view.put(value);
+            // Written last, so that a torn record is never read back as complete
+            segment.putInt(offset, length);
+
+            long position = writePosition;
+            writePosition += length;
+            return position;
+        }
+
+        /**
+         * Append a copy of a stored object's record from another file.
+         *
+         * @return The position of the copy
+         */
+        long copy(MappedByteBuffer segment, int offset) {
+            int length = segment.getInt(offset);
+            byte[] key = key(segment, offset);
+            byte[] value = new byte[length - HEADER - key.length];
+            ByteBuffer view = segment.duplicate();
+            view.position(offset + HEADER + key.length);
+            view.get(value);
+
+            long position = append(PUT, segment.getLong(offset + 5), key, value);
+            liveBytes += length;
+            return position;
+        }
+
+        MappedByteBuffer map(int segment) throws IOException {
+            return channel.map(FileChannel.MapMode.READ_WRITE, (long) segment * segmentSize, segmentSize);
+        }
+
+        /**
+         * Account for a record that is no longer live.
+         */
+        void discard(long position) {
+            MappedByteBuffer segment = segments.get((int) (position / segmentSize));
+            int offset = (int) (position % segmentSize);
+            int length = segment.getInt(offset);
+            if (segment.get(offset + 4) == PUT) {
+                liveBytes -= length;
+            }
+            garbageBytes += length;
+        }
+
+        void force() {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+/**
+ * The reason an object was removed from a {@link Cache}.
+ */
+public enum RemovalCause {
+    /**
+     * The object was removed by a call to <code>remove</code>, e.g.
+     * {@link Cache#removeKey(String)}.
+     */
+    EXPLICIT,
+
+    /**
+     * The object was replaced by a call to {@link Cache#update(Cacheable)}.
+     */
+    REPLACED,
+
+    /**
+     * The object's time to live ran out.
+     */
+    EXPIRED,
+
+    /**
+     * The object was evicted because the cache exceeded its
+     * <code>maxSize</code>.
+     */
+    SIZE,
+
+    /**
+     * The object was evicted because the cache exceeded its
+     * <code>maxWeight</code>.
+     */
+    WEIGHT;
+
+    /**
+     * Whether removals for this cause were decided by the cache itself, rather
+     * than by a caller.
+     *
+     * @return {@link Boolean}
+     */
+    public boolean isEviction() {
+        return this == EXPIRED || this == SIZE || this == WEIGHT;
+    }
+}
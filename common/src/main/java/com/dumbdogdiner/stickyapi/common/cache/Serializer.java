@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Converts cached objects to and from bytes, so they can be stored in an
+ * {@link OverflowTier}.
+ */
+public interface Serializer<T extends Cacheable> {
+    /**
+     * Convert an object to bytes.
+     * 
+     * @param object The object to serialize
+     * @return The serialized object
+     */
+    byte[] serialize(@NotNull T object);
+
+    /**
+     * Convert bytes back into an object.
+     * 
+     * @param bytes Bytes produced by {@link #serialize(Cacheable)}
+     * @return The deserialized object
+     */
+    @NotNull
+    T deserialize(byte[] bytes);
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import com.dumbdogdiner.stickyapi.StickyAPI;
+
+/**
+ * A hierarchical timer wheel used to expire {@link Cache} entries.
+ * <p>
+ * Entries are hashed into buckets by their expiration time. Each level of the
+ * wheel has coarser buckets than the last, covering roughly a minute, an hour,
+ * a day and a week respectively, with a single overflow bucket for anything
+ * further out. Advancing the wheel only visits the buckets whose time has
+ * passed; entries in them are either expired, or cascaded down into a finer
+ * level if they are not yet due. Scheduling and descheduling are constant
+ * time.
+ * <p>
+ * A single wheel is shared by every cache, and is ticked by one daemon thread.
+ * Entries only hold their cache weakly, so a cache that is no longer used can
+ * be collected while its entries are still scheduled - they never expire, and
+ * are dropped the next time the wheel passes over their bucket.
+ */
+final class TimerWheel {
+    private static final int[] BUCKETS = { 64, 64, 32, 4, 1 };
+
+    /**
+     * Bucket widths of each level, in milliseconds (1.02s, 1.09m, 1.17h, 1.55d,
+     * 6.21d).
+     */
+    private static final long[] SPANS = { 1L << 10, 1L << 16, 1L << 22, 1L << 27, 1L << 29, 1L << 29 };
+    private static final int[] SHIFT = { 10, 16, 22, 27, 29 };
+
+    private static final TimerWheel SHARED = new TimerWheel(System.currentTimeMillis());
+
+    private final CacheEntry<?>[][] wheel;
+    private long currentTime;
+
+    private volatile ScheduledExecutorService ticker;
+
+    TimerWheel(long currentTime) {
+        this.currentTime = currentTime;
+        wheel = new CacheEntry<?>[BUCKETS.length][];
+        for (int i = 0; i < BUCKETS.length; i++) {
+            wheel[i] = new CacheEntry<?>[BUCKETS[i]];
+            for (int j = 0; j < BUCKETS[i]; j++) {
+                wheel[i][j] = CacheEntry.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Returns the wheel shared by all caches, starting its ticker thread if it is
+     * not already running.
+     */
+    static TimerWheel shared() {
+        SHARED.ensureTicking();
+        return SHARED;
+    }
+
+    private void ensureTicking() {
+        if (ticker != null) {
+            return;
+        }
+        synchronized (this) {
+            if (ticker == null) {
+                ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "StickyAPI Cache Timer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                executor.scheduleAtFixedRate(this::tick, SPANS[0], SPANS[0], TimeUnit.MILLISECONDS);
+                ticker = executor;
+            }
+        }
+    }
+
+    /**
+     * Advance the wheel to the current time, and expire every entry that is due.
+     */
+    void tick() {
+        // Expire outside of the wheel's lock, since expiring takes the owning
+        // cache's lock - which is held while that cache (de)schedules entries.
+        for (CacheEntry<?> entry : advance(System.currentTimeMillis())) {
+            try {
+                entry.expire();
+            } catch (RuntimeException e) {
+                StickyAPI.getLogger().log(Level.SEVERE, "Could not expire cache entry " + entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * Schedule an entry to be expired at its expiration time, replacing any
+     * existing schedule. Entries that never expire are simply descheduled.
+     *
+     * @param entry The entry to schedule
+     */
+    synchronized void schedule(CacheEntry<?> entry) {
+        unlink(entry);
+
+        long time = entry.getExpirationTime();
+        if (time == Long.MAX_VALUE) {
+            return;
+        }
+
+        link(findBucket(time), entry);
+    }
+
+    /**
+     * Remove an entry from the wheel, if it is scheduled.
+     *
+     * @param entry The entry to deschedule
+     */
+    synchronized void deschedule(CacheEntry<?> entry) {
+        unlink(entry);
+    }
+
+    /**
+     * Advance the wheel to the given time.
+     *
+     * @param time The current time, in milliseconds
+     * @return Every entry whose expiration time has passed
+     */
+    synchronized List<CacheEntry<?>> advance(long time) {
+        List<CacheEntry<?>> expired = new ArrayList<>();
+        long previousTime = currentTime;
+        currentTime = time;
+
+        for (int i = 0; i < SHIFT.length; i++) {
+            long previousTicks = previousTime >>> SHIFT[i];
+            long delta = (time >>> SHIFT[i]) - previousTicks;
+            if (delta <= 0) {
+                break;
+            }
+            expireBuckets(i, previousTicks, delta, expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Visit every bucket of a level that the wheel has passed over, collecting due
+     * entries and cascading the rest.
+     */
+    private void expireBuckets(int level, long previousTicks, long delta, List<CacheEntry<?>> expired) {
+        CacheEntry<?>[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(1 + delta, buckets.length);
+        int start = (int) (previousTicks & mask);
+
+        for (int i = start; i < start + steps; i++) {
+            CacheEntry<?> sentinel = buckets[i & mask];
+            CacheEntry<?> entry = sentinel.wheelNext;
+            sentinel.wheelPrev = sentinel;
+            sentinel.wheelNext = sentinel;
+
+            while (entry != sentinel) {
+                CacheEntry<?> next = entry.wheelNext;
+                entry.wheelPrev = null;
+                entry.wheelNext = null;
+
+                long expirationTime = entry.getExpirationTime();
+                if (expirationTime == Long.MAX_VALUE) {
+                    // No longer expires, e.g. after the ttl was disabled
+                } else if (expirationTime > currentTime) {
+                    link(findBucket(expirationTime), entry);
+                } else {
+                    expired.add(entry);
+                }
+                entry = next;
+            }
+        }
+    }
+
+    /**
+     * Find the bucket an expiration time belongs in, relative to the wheel's
+     * current time.
+     */
+    private CacheEntry<?> findBucket(long time) {
+        long duration = time - currentTime;
+        int length = wheel.length - 1;
+        for (int i = 0; i < length; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = time >>> SHIFT[i];
+                int index = (int) (ticks & (wheel[i].length - 1));
+                return wheel[i][index];
+            }
+        }
+        return wheel[length][0];
+    }
+
+    private static void link(CacheEntry<?> sentinel, CacheEntry<?> entry) {
+        entry.wheelPrev = sentinel.wheelPrev;
+        entry.wheelNext = sentinel;
+        sentinel.wheelPrev.wheelNext = entry;
+        sentinel.wheelPrev = entry;
+    }
+
+    private static void unlink(CacheEntry<?> entry) {
+        if (entry.wheelNext == null) {
+            return;
+        }
+        entry.wheelPrev.wheelNext = entry.wheelNext;
+        entry.wheelNext.wheelPrev = entry.wheelPrev;
+        entry.wheelPrev = null;
+        entry.wheelNext = null;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Window TinyLFU eviction.
+ * <p>
+ * New entries land in a small LRU "window" (1% of the cache). Entries that
+ * overflow the window become candidates for the main area, which is a
+ * segmented LRU split into a probation and a protected (80%) segment. When
+ * the cache is full, the candidate only replaces the main area's victim if a
+ * {@link FrequencySketch} estimates that it has been requested more often -
+ * which keeps one-hit wonders from flushing out popular entries, and gives a
+ * considerably better hit rate than plain LRU on skewed workloads.
+ */
+public class TinyLfuPolicy<T extends Cacheable> implements EvictionPolicy<T> {
+    private enum Queue {
+        WINDOW, PROBATION, PROTECTED
+    }
+
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final CacheEntry<T> window = CacheEntry.sentinel();
+    private final CacheEntry<T> probation = CacheEntry.sentinel();
+    private final CacheEntry<T> protectedQueue = CacheEntry.sentinel();
+
+    private final FrequencySketch sketch = new FrequencySketch();
+
+    private int windowSize;
+    private int probationSize;
+    private int protectedSize;
+
+    /**
+     * The entry most recently moved out of the window, which has yet to prove it
+     * deserves a place in the main area.
+     */
+    private CacheEntry<T> candidate;
+
+    @Override
+    public void onInsert(@NotNull CacheEntry<T> entry) {
+        sketch.ensureCapacity(size() + 1L);
+        sketch.increment(entry.key);
+
+        entry.policyLinkBefore(window);
+        entry.policyData = Queue.WINDOW;
+        windowSize++;
+
+        // Spill the window's oldest entry into probation - it becomes the
+        // candidate that competes against the main area's victim on eviction.
+        if (windowSize > windowMaximum()) {
+            CacheEntry<T> spilled = window.policyNext;
+            spilled.policyMoveToTail(probation);
+            spilled.policyData = Queue.PROBATION;
+            windowSize--;
+            probationSize++;
+            candidate = spilled;
+        }
+    }
+
+    @Override
+    public void onAccess(@NotNull CacheEntry<T> entry) {
+        sketch.increment(entry.key);
+
+        Queue queue = (Queue) entry.policyData;
+        if (queue == Queue.WINDOW) {
+            entry.policyMoveToTail(window);
+        } else if (queue == Queue.PROBATION) {
+            // Promote to protected, demoting protected's oldest entry if needed
+            entry.policyMoveToTail(protectedQueue);
+            entry.policyData = Queue.PROTECTED;
+            probationSize--;
+            protectedSize++;
+            // It has proven itself, so it no longer competes as the candidate
+            if (entry == candidate) {
+                candidate = null;
+            }
+
+            if (protectedSize > protectedMaximum()) {
+                CacheEntry<T> demoted = protectedQueue.policyNext;
+                demoted.policyMoveToTail(probation);
+                demoted.policyData = Queue.PROBATION;
+                protectedSize--;
+                probationSize++;
+            }
+        } else if (queue == Queue.PROTECTED) {
+            entry.policyMoveToTail(protectedQueue);
+        }
+    }
+
+    @Override
+    public void onRemove(@NotNull CacheEntry<T> entry) {
+        Queue queue = (Queue) entry.policyData;
+        if (queue == Queue.WINDOW) {
+            windowSize--;
+        } else if (queue == Queue.PROBATION) {
+            probationSize--;
+        } else if (queue == Queue.PROTECTED) {
+            protectedSize--;
+        }
+
+        entry.policyUnlink();
+        entry.policyData = null;
+
+        if (entry == candidate) {
+            candidate = null;
+        }
+    }
+
+    @Override
+    public @Nullable CacheEntry<T> victim() {
+        CacheEntry<T> victim = probation.policyNext;
+        if (victim == candidate) {
+            // The candidate is the only entry on probation - compete against the
+            // oldest protected entry instead.
+            victim = protectedQueue.policyNext != protectedQueue ? protectedQueue.policyNext : null;
+        }
+
+        if (victim == null || victim == probation) {
+            victim = firstOf(protectedQueue);
+            if (victim == null) {
+                victim = firstOf(window);
+            }
+            if (victim == null) {
+                return candidate;
+            }
+        }
+
+        if (candidate == null) {
+            return victim;
+        }
+
+        // Admit the candidate only if it is estimated to be more popular
+        return sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate;
+    }
+
+    @Override
+    public void clear() {
+        reset(window);
+        reset(probation);
+        reset(protectedQueue);
+        windowSize = 0;
+        probationSize = 0;
+        protectedSize = 0;
+        candidate = null;
+    }
+
+    private int size() {
+        return windowSize + probationSize + protectedSize;
+    }
+
+    private int windowMaximum() {
+        return Math.max(1, (int) (size() * WINDOW_RATIO));
+    }
+
+    private int protectedMaximum() {
+        return (int) ((size() - windowMaximum()) * PROTECTED_RATIO);
+    }
+
+    private static <T extends Cacheable> void reset(CacheEntry<T> sentinel) {
+        sentinel.policyPrev = sentinel;
+        sentinel.policyNext = sentinel;
+    }
+
+    private static <T extends Cacheable> CacheEntry<T> firstOf(CacheEntry<T> sentinel) {
+        return sentinel.policyNext == sentinel ? null : sentinel.policyNext;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import com.dumbdogdiner.stickyapi.common.util.MemoryUtil;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Calculates the weight of objects in a {@link Cache}, which is bounded by its
+ * <code>maxWeight</code>. Weights are calculated once, when an object is
+ * stored.
+ */
+@FunctionalInterface
+public interface Weigher<T extends Cacheable> {
+    /**
+     * Calculate the weight of an object.
+     * 
+     * @param object The object to weigh
+     * @return The weight of the object, which must not be negative
+     */
+    long weigh(@NotNull T object);
+
+    /**
+     * A weigher that weighs objects by their approximate retained size in bytes,
+     * see {@link MemoryUtil#getDeepSizeOf(Object)}.
+     * 
+     * @param <T> The type of object to weigh
+     * @return {@link Weigher}
+     */
+    static <T extends Cacheable> Weigher<T> memory() {
+        return MemoryUtil::getDeepSizeOf;
+    }
+
+    /**
+     * A weigher that gives every object a weight of 1, so that the weight of a
+     * cache is its size.
+     * 
+     * @param <T> The type of object to weigh
+     * @return {@link Weigher}
+     */
+    static <T extends Cacheable> Weigher<T> singleton() {
+        return object -> 1;
+    }
+}
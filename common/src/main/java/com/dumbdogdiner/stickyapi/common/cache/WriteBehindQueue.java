@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+
+import com.dumbdogdiner.stickyapi.StickyAPI;
+
+/**
+ * Batches the writes of a {@link Cache} for its {@link CacheWriter}.
+ * <p>
+ * Only the latest change to each key is kept, so a key updated many times
+ * between flushes is written once. The queue is flushed on
+ * {@link StickyAPI#getPool()} once it holds <code>batchSize</code> keys, and
+ * periodically every <code>interval</code>. Only one flush runs at a time.
+ * <p>
+ * If the writer fails, the failed batch is put back and filling the queue no
+ * longer starts a flush - the periodic flush retries it instead, so a failing
+ * backend isn't retried in a loop.
+ */
+final class WriteBehindQueue<T extends Cacheable> {
+    /**
+     * Marks a pending delete.
+     */
+    private static final Object DELETE = new Object();
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "StickyAPI Cache Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final CacheWriter<T> writer;
+    private final int batchSize;
+    private final ScheduledFuture<?> timer;
+
+    /**
+     * The latest pending change of each key - an object to write, or
+     * {@link #DELETE}.
+     */
+    private final ConcurrentHashMap<String, Object> pending = new ConcurrentHashMap<>();
+
+    /**
+     * The running flush, or null.
+     */
+    private final AtomicReference<CompletableFuture<Void>> running = new AtomicReference<>();
+
+    /**
+     * Whether the last flush failed, so only the periodic flush retries.
+     */
+    private volatile boolean failed = false;
+
+    WriteBehindQueue(CacheWriter<T> writer, int batchSize, long interval, TimeUnit unit) {
+        this.writer = writer;
+        this.batchSize = Math.max(1, batchSize);
+        this.timer = TIMER.scheduleWithFixedDelay(this::flushAsync, interval, interval, unit);
+    }
+
+    void write(T object) {
+        pending.put(object.getKey(), object);
+        flushIfFull();
+    }
+
+    void delete(String key) {
+        pending.put(key, DELETE);
+        flushIfFull();
+    }
+
+    int size() {
+        return pending.size();
+    }
+
+    /**
+     * Stop the periodic flush, and flush everything that is still pending.
+     */
+    CompletableFuture<Void> close() {
+        timer.cancel(false);
+        return flush();
+    }
+
+    /**
+     * Flush every pending change on the pool, after a running flush has finished.
+     * The future completes exceptionally if the writer failed.
+     */
+    CompletableFuture<Void> flush() {
+        CompletableFuture<Void> flush = startFlush();
+        if (flush != null) {
+            return flush;
+        }
+        CompletableFuture<Void> current = running.get();
+        if (current == null) {
+            // It finished in the meantime
+            return flush();
+        }
+        return current.handle((result, error) -> null).thenCompose(ignored -> flush());
+    }
+
+    private void flushIfFull() {
+        if (!failed && pending.size() >= batchSize) {
+            flushAsync();
+        }
+    }
+
+    /**
+     * Start a flush on the pool, unless one is already running.
+     */
+    private void flushAsync() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        CompletableFuture<Void> flush = startFlush();
+        if (flush == null) {
+            return;
+        }
+        flush.whenComplete((result, error) -> {
+            if (error != null) {
+                StickyAPI.getLogger().log(Level.WARNING,
+                        "Failed to write cache entries - retrying on the next periodic flush", error);
+            } else {
+                // Changes may have piled up while flushing
+                flushIfFull();
+            }
+        });
+    }
+
+    /**
+     * Drain the queue on the pool.
+     *
+     * @return The flush, or null if one is already running
+     */
+    private CompletableFuture<Void> startFlush() {
+        CompletableFuture<Void> flush = new CompletableFuture<>();
+        if (!running.compareAndSet(null, flush)) {
+            return null;
+        }
+        try {
+            StickyAPI.getPool().execute(() -> {
+                Throwable error = null;
+                try {
+                    drain();
+                } catch (Throwable e) {
+                    error = e;
+                }
+                finish(flush, error);
+            });
+        } catch (RuntimeException e) {
+            finish(flush, e);
+        }
+        return flush;
+    }
+
+    private void finish(CompletableFuture<Void> flush, Throwable error) {
+        failed = error != null;
+        // Clear it first, so flushes waiting on this one can start
+        running.set(null);
+        if (error != null) {
+            flush.completeExceptionally(error);
+        } else {
+            flush.complete(null);
+        }
+    }
+
+    /**
+     * Write out pending changes in batches until the queue is empty. If the writer
+     * fails, the failed batch is put back in the queue. Must only be called by the
+     * running flush.
+     */
+    @SuppressWarnings("unchecked")
+    private void drain() throws Exception {
+        while (!pending.isEmpty()) {
+            List<T> writes = new ArrayList<>();
+            List<String> deletes = new ArrayList<>();
+            Map<String, Object> batch = new HashMap<>();
+
+            for (Map.Entry<String, Object> change : pending.entrySet()) {
+                if (batch.size() >= batchSize) {
+                    break;
+                }
+                // Only take the change if it was not replaced in the meantime
+                if (pending.remove(change.getKey(), change.getValue())) {
+                    batch.put(change.getKey(), change.getValue());
+                    if (change.getValue() == DELETE) {
+                        deletes.add(change.getKey());
+                    } else {
+                        writes.add((T) change.getValue());
+                    }
+                }
+            }
+
+            try {
+                if (!writes.isEmpty()) {
+                    writer.writeAll(writes);
+                }
+                if (!deletes.isEmpty()) {
+                    writer.deleteAll(deletes);
+                }
+            } catch (Throwable e) {
+                // Requeue, unless a newer change was made since
+                batch.forEach(pending::putIfAbsent);
+                throw e;
+            }
+        }
+    }
+}
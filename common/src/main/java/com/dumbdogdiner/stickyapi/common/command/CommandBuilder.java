@@ -7,6 +7,11 @@ package com.dumbdogdiner.stickyapi.common.command;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.dumbdogdiner.stickyapi.common.arguments.ArgumentPlan;
+import com.dumbdogdiner.stickyapi.common.arguments.ArgumentSchema;
+import com.dumbdogdiner.stickyapi.common.util.RadixTrie;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -32,7 +37,17 @@ public abstract class CommandBuilder<T extends CommandBuilder<T>> {
     @Getter
     Long cooldown = 0L;
     @Getter
+    CooldownTracker cooldowns = new CooldownTracker();
+    @Getter
     HashMap<String, T> subCommands = new HashMap<>();
+    /**
+     * Sub-commands by their names and aliases.
+     */
+    RadixTrie<T> subCommandLabels = new RadixTrie<>();
+    @Getter
+    ArgumentSchema argumentSchema;
+    @Getter
+    ArgumentPlan argumentPlan;
 
     /**
      * Create a new [@link CommandBuilder} instance
@@ -73,6 +88,39 @@ public abstract class CommandBuilder<T extends CommandBuilder<T>> {
      */
     public T cooldown(@NotNull Long cooldown) {
         this.cooldown = cooldown;
+        if (cooldown > 0) {
+            this.cooldowns.cooldown("default", cooldown, TimeUnit.MILLISECONDS);
+        } else {
+            this.cooldowns.removeBucket("default");
+        }
+        return (T) this;
+    }
+
+    /**
+     * Add a named cooldown to this command, on top of any others. A sender can
+     * only run the command once every cooldown has passed.
+     * 
+     * @param bucket   the name of the cooldown
+     * @param cooldown in milliseconds
+     * @return {@link CommandBuilder}
+     */
+    public T cooldown(@NotNull String bucket, long cooldown) {
+        this.cooldowns.cooldown(bucket, cooldown, TimeUnit.MILLISECONDS);
+        return (T) this;
+    }
+
+    /**
+     * Limit how often this command can be run, on top of any cooldowns. A sender
+     * can run the command up to <code>uses</code> times at once, and gets the uses
+     * back evenly over the period.
+     * 
+     * @param bucket the name of the rate limit
+     * @param uses   the most uses at once
+     * @param period in milliseconds
+     * @return {@link CommandBuilder}
+     */
+    public T rateLimit(@NotNull String bucket, int uses, long period) {
+        this.cooldowns.rateLimit(bucket, uses, period, TimeUnit.MILLISECONDS);
         return (T) this;
     }
 
@@ -173,6 +221,73 @@ public abstract class CommandBuilder<T extends CommandBuilder<T>> {
     public T subCommand(@NotNull T builder) {
         builder.synchronous = this.synchronous;
         this.subCommands.put(builder.name, builder);
+        this.subCommandLabels.put(builder.name, builder);
+        for (var alias : builder.aliases) {
+            this.subCommandLabels.put(alias, builder);
+        }
         return (T) this;
     }
+
+    /**
+     * Get the sub-command with the given name or alias. Aliases of a sub-command
+     * are only known if they were added before the sub-command was.
+     * 
+     * @param label The name or alias of the sub-command
+     * @return The sub-command, or null if there is none
+     */
+    public T getSubCommand(@NotNull String label) {
+        return subCommandLabels.get(label);
+    }
+
+    /**
+     * Get the names and aliases of every sub-command starting with a prefix, for
+     * tab completion.
+     * 
+     * @param prefix The prefix
+     * @return {@link List}
+     */
+    public List<String> completeSubCommand(@NotNull String prefix) {
+        return subCommandLabels.keys(prefix);
+    }
+
+    /**
+     * Set the schema of this command's arguments. It is compiled into a parse plan
+     * once, when the command is built.
+     * 
+     * @param schema to set
+     * @return {@link CommandBuilder}
+     */
+    public T arguments(@NotNull ArgumentSchema schema) {
+        this.argumentSchema = schema;
+        return (T) this;
+    }
+
+    /**
+     * Compile the argument schemas of this command and its sub-commands into
+     * parse plans, checking that they are valid.
+     * 
+     * @throws IllegalStateException If a schema is invalid
+     */
+    protected void compileArguments() {
+        argumentPlan = argumentSchema == null ? null : argumentSchema.compile();
+        for (var subCommand : subCommands.values()) {
+            subCommand.compileArguments();
+        }
+    }
+
+    /**
+     * Get the usage of this command, generated from its argument schema.
+     * 
+     * @return {@link String}
+     */
+    public String getUsage() {
+        if (argumentSchema == null) {
+            return name;
+        }
+        if (argumentPlan == null) {
+            compileArguments();
+        }
+        String usage = argumentPlan.getUsage();
+        return usage.isEmpty() ? name : name + " " + usage;
+    }
 }
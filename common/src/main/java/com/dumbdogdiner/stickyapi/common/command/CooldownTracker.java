@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.command;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+
+/**
+ * Tracks cooldowns and rate limits of users, by their unique ID, in any number
+ * of named buckets.
+ * <p>
+ * Every bucket is a token bucket: it holds up to a number of uses, and gives
+ * back one use at a steady rate. A cooldown is a bucket holding a single use.
+ * Each user's bucket is stored as a single number - the time at which it will be
+ * full again - which is updated with a compare-and-set, so checking and taking a
+ * use never blocks. Once a user's buckets are full again, they are forgotten,
+ * so users that stop using a command do not build up.
+ * 
+ * <pre>
+ * CooldownTracker tracker = new CooldownTracker();
+ * tracker.cooldown("default", 5, TimeUnit.SECONDS);
+ * tracker.rateLimit("burst", 3, 1, TimeUnit.MINUTES);
+ * long remaining = tracker.tryAcquire(player.getUniqueId());
+ * </pre>
+ */
+public class CooldownTracker {
+    /**
+     * How often users whose buckets are full are forgotten.
+     */
+    private static final long EXPIRE_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * Marks a state that was removed from its bucket, and must not be updated.
+     */
+    private static final long EXPIRED = Long.MIN_VALUE;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+    private final long origin;
+    private final AtomicLong lastExpired;
+
+    /**
+     * Create a new cooldown tracker without any buckets.
+     */
+    public CooldownTracker() {
+        this(System::nanoTime);
+    }
+
+    CooldownTracker(LongSupplier clock) {
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+        this.lastExpired = new AtomicLong(0);
+    }
+
+    /**
+     * The time, in nanoseconds since this tracker was created.
+     */
+    private long now() {
+        return clock.getAsLong() - origin;
+    }
+
+    /**
+     * Add a cooldown bucket, replacing any bucket with the same name. Each use
+     * starts a cooldown of the given duration.
+     * 
+     * @param name     The name of the bucket
+     * @param duration The length of the cooldown
+     * @param unit     The unit of the duration
+     * @return {@link Bucket}
+     */
+    @NotNull
+    public Bucket cooldown(@NotNull String name, long duration, @NotNull TimeUnit unit) {
+        return rateLimit(name, 1, duration, unit);
+    }
+
+    /**
+     * Add a rate limit bucket, replacing any bucket with the same name. Up to the
+     * given number of uses can be made at once, and uses are given back evenly
+     * over the period - so a limit of 3 uses per minute gives back a use every
+     * 20 seconds.
+     * 
+     * @param name   The name of the bucket
+     * @param uses   The most uses that can be made at once
+     * @param period The time it takes to give back every use
+     * @param unit   The unit of the period
+     * @return {@link Bucket}
+     */
+    @NotNull
+    public Bucket rateLimit(@NotNull String name, int uses, long period, @NotNull TimeUnit unit) {
+        if (uses < 1) {
+            throw new IllegalArgumentException("A bucket must allow at least 1 use");
+        }
+        if (period < 0) {
+            throw new IllegalArgumentException("The period of a bucket cannot be negative");
+        }
+        Bucket bucket = new Bucket(name, uses, unit.toNanos(period) / uses);
+        buckets.put(name, bucket);
+        return bucket;
+    }
+
+    /**
+     * Get a bucket by its name.
+     * 
+     * @param name The name of the bucket
+     * @return The bucket, or null if there is none with this name
+     */
+    @Nullable
+    public Bucket getBucket(@NotNull String name) {
+        return buckets.get(name);
+    }
+
+    /**
+     * Get every bucket of this tracker.
+     * 
+     * @return An unmodifiable view of the buckets
+     */
+    @NotNull
+    public Collection<Bucket> getBuckets() {
+        return Collections.unmodifiableCollection(buckets.values());
+    }
+
+    /**
+     * Remove a bucket, forgetting the uses made of it.
+     * 
+     * @param name The name of the bucket
+     */
+    public void removeBucket(@NotNull String name) {
+        buckets.remove(name);
+    }
+
+    /**
+     * Take a use from every bucket, if every bucket has one available. If any
+     * bucket has none, no use is taken from any of them.
+     * 
+     * @param id The unique ID of the user
+     * @return 0 if the uses were taken, otherwise the number of milliseconds
+     *         until every bucket has a use available
+     */
+    public long tryAcquire(@NotNull UUID id) {
+        long now = now();
+        expireEvery(now);
+
+        List<Bucket> taken = new ArrayList<>(buckets.size());
+        for (Bucket bucket : buckets.values()) {
+            long remaining = bucket.acquire(id, now);
+            if (remaining > 0) {
+                // Give back the uses already taken from the other buckets
+                for (Bucket other : taken) {
+                    other.release(id);
+                }
+                for (Bucket other : buckets.values()) {
+                    remaining = Math.max(remaining, other.remaining(id, now));
+                }
+                return toMillis(remaining);
+            }
+            taken.add(bucket);
+        }
+        return 0;
+    }
+
+    /**
+     * Get how long it will be until every bucket has a use available.
+     * 
+     * @param id The unique ID of the user
+     * @return The number of milliseconds, or 0 if every bucket has a use
+     *         available now
+     */
+    public long getRemaining(@NotNull UUID id) {
+        long now = now();
+        long remaining = 0;
+        for (Bucket bucket : buckets.values()) {
+            remaining = Math.max(remaining, bucket.remaining(id, now));
+        }
+        return toMillis(remaining);
+    }
+
+    /**
+     * Give back every use of every bucket to a user.
+     * 
+     * @param id The unique ID of the user
+     */
+    public void reset(@NotNull UUID id) {
+        for (Bucket bucket : buckets.values()) {
+            bucket.reset(id);
+        }
+    }
+
+    /**
+     * Forget the users whose buckets are full. This happens every minute on its
+     * own.
+     */
+    public void expire() {
+        long now = now();
+        lastExpired.set(now);
+        for (Bucket bucket : buckets.values()) {
+            bucket.expire(now);
+        }
+    }
+
+    private void expireEvery(long now) {
+        long last = lastExpired.get();
+        if (now - last >= EXPIRE_INTERVAL && lastExpired.compareAndSet(last, now)) {
+            for (Bucket bucket : buckets.values()) {
+                bucket.expire(now);
+            }
+        }
+    }
+
+    private static long toMillis(long nanos) {
+        return (nanos + 999_999) / 1_000_000;
+    }
+
+    /**
+     * A named token bucket of a {@link CooldownTracker}.
+     */
+    public final class Bucket {
+        /**
+         * The name of this bucket.
+         * 
+         * @return {@link String}
+         */
+        @Getter
+        private final String name;
+
+        /**
+         * The most uses that can be made at once.
+         * 
+         * @return {@link Integer}
+         */
+        @Getter
+        private final int capacity;
+
+        /**
+         * How long it takes to give back one use, in nanoseconds.
+         */
+        private final long interval;
+
+        /**
+         * How far ahead of now the time a user's bucket is full again may be for a
+         * use to still be available.
+         */
+        private final long tolerance;
+
+        /**
+         * The time at which each user's bucket is full again.
+         */
+        private final ConcurrentHashMap<UUID, AtomicLong> states = new ConcurrentHashMap<>();
+
+        private Bucket(String name, int capacity, long interval) {
+            this.name = name;
+            this.capacity = capacity;
+            this.interval = interval;
+            this.tolerance = interval * (capacity - 1);
+        }
+
+        /**
+         * Take a use from this bucket, if one is available.
+         * 
+         * @param id The unique ID of the user
+         * @return 0 if a use was taken, otherwise the number of milliseconds until
+         *         one is available
+         */
+        public long tryAcquire(@NotNull UUID id) {
+            long now = now();
+            expireEvery(now);
+            return toMillis(acquire(id, now));
+        }
+
+        /**
+         * Get how long it will be until a use is available.
+         * 
+         * @param id The unique ID of the user
+         * @return The number of milliseconds, or 0 if a use is available now
+         */
+        public long getRemaining(@NotNull UUID id) {
+            return toMillis(remaining(id, now()));
+        }
+
+        /**
+         * Give back every use to a user.
+         * 
+         * @param id The unique ID of the user
+         */
+        public void reset(@NotNull UUID id) {
+            AtomicLong state = states.get(id);
+            if (state != null) {
+                state.set(EXPIRED);
+                states.remove(id, state);
+            }
+        }
+
+        /**
+         * Get the number of users currently tracked by this bucket.
+         * 
+         * @return {@link Integer}
+         */
+        public int size() {
+            return states.size();
+        }
+
+        private long remaining(UUID id, long now) {
+            AtomicLong state = states.get(id);
+            long full = state == null ? EXPIRED : state.get();
+            return full == EXPIRED ? 0 : Math.max(0, full - tolerance - now);
+        }
+
+        /**
+         * @return 0 if a use was taken, otherwise the nanoseconds until one is
+         *         available
+         */
+        private long acquire(UUID id, long now) {
+            while (true) {
+                AtomicLong state = states.get(id);
+                if (state == null) {
+                    state = new AtomicLong(now + interval);
+                    if (states.putIfAbsent(id, state) == null) {
+                        return 0;
+                    }
+                    continue;
+                }
+
+                long full = state.get();
+                if (full == EXPIRED) {
+                    // Removed while we were looking at it - start over with a new state
+                    states.remove(id, state);
+                    continue;
+                }
+                long start = Math.max(full, now);
+                if (start - now > tolerance) {
+                    return start - tolerance - now;
+                }
+                if (state.compareAndSet(full, start + interval)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Give back a use taken with {@link #acquire(UUID, long)}.
+         */
+        private void release(UUID id) {
+            AtomicLong state = states.get(id);
+            if (state == null) {
+                return;
+            }
+            while (true) {
+                long full = state.get();
+                // Nothing to give back if every use was given back in the meantime
+                if (full == EXPIRED || state.compareAndSet(full, full - interval)) {
+                    return;
+                }
+            }
+        }
+
+        private void expire(long now) {
+            for (var entry : states.entrySet()) {
+                AtomicLong state = entry.getValue();
+                long full = state.get();
+                if (full != EXPIRED && full <= now && state.compareAndSet(full, EXPIRED)) {
+                    states.remove(entry.getKey(), state);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.command;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.dumbdogdiner.stickyapi.common.util.RadixTrie;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A thread-safe, case-insensitive prefix index of names, such as the names of
+ * online players, for tab completion. Completing a prefix takes time
+ * proportional to the length of the prefix and the number of names found,
+ * rather than to the number of names in the index.
+ */
+public class NameIndex {
+    private final RadixTrie<String> names = new RadixTrie<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Add a name to the index. Replaces any name differing only in case.
+     * 
+     * @param name The name to add
+     */
+    public void add(@NotNull String name) {
+        lock.writeLock().lock();
+        try {
+            names.put(key(name), name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a name from the index, ignoring case.
+     * 
+     * @param name The name to remove
+     */
+    public void remove(@NotNull String name) {
+        lock.writeLock().lock();
+        try {
+            names.remove(key(name));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove every name from the index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            names.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Check whether a name is in the index, ignoring case.
+     * 
+     * @param name The name to look for
+     * @return {@link Boolean}
+     */
+    public boolean contains(@NotNull String name) {
+        lock.readLock().lock();
+        try {
+            return names.containsKey(key(name));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of names in the index.
+     * 
+     * @return {@link Integer}
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get every name starting with a prefix, ignoring case, sorted without regard
+     * to case.
+     * 
+     * @param prefix The prefix
+     * @return {@link List}
+     */
+    @NotNull
+    public List<String> complete(@NotNull String prefix) {
+        lock.readLock().lock();
+        try {
+            return names.values(key(prefix));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.scheduler;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+
+/**
+ * A standard five-field cron expression -
+ * <code>minute hour day-of-month month day-of-week</code>.
+ * <p>
+ * Each field accepts <code>*</code>, single values, ranges (<code>1-5</code>),
+ * steps (<code>*&#47;15</code>, <code>0-30/10</code>) and comma separated lists
+ * of these. Months and days of the week may also be given by their English
+ * three letter names (<code>JAN</code>, <code>MON</code>), and Sunday may be
+ * written as either 0 or 7. As in cron, if both the day-of-month and the
+ * day-of-week are restricted, a day matching either of them matches.
+ * <p>
+ * The macros <code>@yearly</code>, <code>@annually</code>,
+ * <code>@monthly</code>, <code>@weekly</code>, <code>@daily</code>,
+ * <code>@midnight</code> and <code>@hourly</code> are supported too.
+ */
+public final class CronExpression {
+    private static final String[] MONTHS = { "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT",
+            "NOV", "DEC" };
+    private static final String[] DAYS = { "SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT" };
+
+    /**
+     * How far ahead to look for a matching time before giving up, for
+     * expressions such as <code>0 0 30 2 *</code> that never match.
+     */
+    private static final int MAX_YEARS = 8;
+
+    /**
+     * The expression, as it was given.
+     *
+     * @return {@link String}
+     */
+    @Getter
+    private final String expression;
+
+    /**
+     * The time zone the expression is evaluated in.
+     *
+     * @return {@link ZoneId}
+     */
+    @Getter
+    private final ZoneId zone;
+
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    private final boolean anyDayOfMonth;
+    private final boolean anyDayOfWeek;
+
+    private CronExpression(String expression, ZoneId zone, String[] fields) {
+        this.expression = expression;
+        this.zone = zone;
+        this.minutes = parseField(fields[0], 0, 59, null);
+        this.hours = parseField(fields[1], 0, 23, null);
+        this.daysOfMonth = parseField(fields[2], 1, 31, null);
+        this.months = parseField(fields[3], 1, 12, MONTHS);
+        long days = parseField(fields[4], 0, 7, DAYS);
+        // Sunday is both 0 and 7
+        this.daysOfWeek = (days & (1L << 7)) != 0 ? (days | 1L) & ~(1L << 7) : days;
+        this.anyDayOfMonth = fields[2].startsWith("*");
+        this.anyDayOfWeek = fields[4].startsWith("*");
+    }
+
+    /**
+     * Parse a cron expression, evaluated in the system's default time zone.
+     *
+     * @param expression The expression to parse
+     * @return {@link CronExpression}
+     * @throws IllegalArgumentException If the expression is invalid
+     */
+    public static CronExpression parse(@NotNull String expression) {
+        return parse(expression, ZoneId.systemDefault());
+    }
+
+    /**
+     * Parse a cron expression, evaluated in the given time zone.
+     *
+     * @param expression The expression to parse
+     * @param zone       The time zone to evaluate the expression in
+     * @return {@link CronExpression}
+     * @throws IllegalArgumentException If the expression is invalid
+     */
+    public static CronExpression parse(@NotNull String expression, @NotNull ZoneId zone) {
+        String[] fields = expandMacro(expression.trim()).split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException(
+                    "Cron expression '" + expression + "' must have 5 fields, but has " + fields.length);
+        }
+        return new CronExpression(expression, zone, fields);
+    }
+
+    /**
+     * Get the first time matching this expression that is strictly after the
+     * given time.
+     *
+     * @param after The time to start searching from
+     * @return The next matching time, or null if this expression never matches
+     */
+    @Nullable
+    public ZonedDateTime next(@NotNull ZonedDateTime after) {
+        ZonedDateTime time = after.withZoneSameInstant(zone).truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        int lastYear = time.getYear() + MAX_YEARS;
+
+        while (time.getYear() <= lastYear) {
+            if (!matches(months, time.getMonthValue())) {
+                time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!matchesDay(time)) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!matches(hours, time.getHour())) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!matches(minutes, time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                return time;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the first time matching this expression that is strictly after the
+     * given time.
+     *
+     * @param after The time to start searching from, in milliseconds since the
+     *              epoch
+     * @return The next matching time in milliseconds since the epoch, or -1 if
+     *         this expression never matches
+     */
+    public long next(long after) {
+        ZonedDateTime next = next(Instant.ofEpochMilli(after).atZone(zone));
+        return next == null ? -1 : next.toInstant().toEpochMilli();
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private boolean matchesDay(ZonedDateTime time) {
+        boolean dayOfMonth = matches(daysOfMonth, time.getDayOfMonth());
+        // DayOfWeek counts from Monday = 1 to Sunday = 7
+        boolean dayOfWeek = matches(daysOfWeek, time.getDayOfWeek().getValue() % 7);
+        if (anyDayOfMonth || anyDayOfWeek) {
+            return dayOfMonth && dayOfWeek;
+        }
+        return dayOfMonth || dayOfWeek;
+    }
+
+    private static boolean matches(long field, int value) {
+        return (field & (1L << value)) != 0;
+    }
+
+    private static String expandMacro(String expression) {
+        switch (expression.toLowerCase(Locale.ROOT)) {
+        case "@yearly":
+        case "@annually":
+            return "0 0 1 1 *";
+        case "@monthly":
+            return "0 0 1 * *";
+        case "@weekly":
+            return "0 0 * * 0";
+        case "@daily":
+        case "@midnight":
+            return "0 0 * * *";
+        case "@hourly":
+            return "0 * * * *";
+        default:
+            return expression;
+        }
+    }
+
+    /**
+     * Parse one field into a bit set of the values it matches.
+     */
+    private static long parseField(String field, int min, int max, String[] names) {
+        long bits = 0;
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseValue(part.substring(slash + 1), 1, max, null, field);
+                part = part.substring(0, slash);
+            }
+
+            int from;
+            int to;
+            if (part.equals("*")) {
+                from = min;
+                to = max;
+            } else {
+                int dash = part.indexOf('-');
+                if (dash >= 0) {
+                    from = parseValue(part.substring(0, dash), min, max, names, field);
+                    to = parseValue(part.substring(dash + 1), min, max, names, field);
+                    if (from > to) {
+                        throw new IllegalArgumentException(
+                                "Invalid range '" + part + "' in cron field '" + field + "'");
+                    }
+                } else {
+                    from = parseValue(part, min, max, names, field);
+                    // "5/15" means every 15 starting from 5
+                    to = slash >= 0 ? max : from;
+                }
+            }
+
+            for (int value = from; value <= to; value += step) {
+                bits |= 1L << value;
+            }
+        }
+        return bits;
+    }
+
+    private static int parseValue(String value, int min, int max, String[] names, String field) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equalsIgnoreCase(value)) {
+                    // Months are named from 1, days of the week from 0
+                    return i + min;
+                }
+            }
+        }
+
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value '" + value + "' in cron field '" + field + "'");
+        }
+        if (parsed < min || parsed > max) {
+            throw new IllegalArgumentException(
+                    "Value " + parsed + " in cron field '" + field + "' is not between " + min + " and " + max);
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.scheduler;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+import com.dumbdogdiner.stickyapi.StickyAPI;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The kinds of executor that {@link StickyAPI#getPool()} can be backed by, see
+ * {@link StickyAPI#setExecutorStrategy(ExecutorStrategy)}.
+ * <p>
+ * The default strategy can be chosen with the <code>stickyapi.executor</code>
+ * system property, and the size of the bounded pool with
+ * <code>stickyapi.executor.threads</code> and
+ * <code>stickyapi.executor.queue</code>. How long a full bounded pool makes
+ * submitters wait for room, in milliseconds, can be set with
+ * <code>stickyapi.executor.wait</code>.
+ */
+public enum ExecutorStrategy {
+    /**
+     * A new virtual thread for every task, on runtimes that support them (Java 21
+     * and up). Blocking work such as database queries then costs next to nothing
+     * while it waits. Falls back to {@link #BOUNDED} elsewhere.
+     */
+    VIRTUAL,
+    /**
+     * A fixed number of platform threads with a bounded queue. Once the queue is
+     * full, submitting threads wait a short while for room and are then rejected
+     * with a {@link RejectedExecutionException} - the server thread (see
+     * {@link #setServerThread(Thread)}) and the pool's own workers are rejected
+     * straight away. Tasks never run on the thread submitting them, nor on extra
+     * threads.
+     */
+    BOUNDED,
+    /**
+     * An unbounded, cached pool of platform threads, which starts a new thread
+     * whenever all others are busy. This was the only option before executor
+     * strategies were introduced.
+     */
+    CACHED,
+    /**
+     * {@link #VIRTUAL} if the runtime supports virtual threads, otherwise
+     * {@link #BOUNDED}.
+     */
+    AUTO;
+
+    private static final int DEFAULT_THREADS = Integer.getInteger("stickyapi.executor.threads",
+            Math.max(8, Runtime.getRuntime().availableProcessors() * 4));
+    private static final int DEFAULT_QUEUE = Integer.getInteger("stickyapi.executor.queue", 1024);
+    private static final long DEFAULT_WAIT = Long.getLong("stickyapi.executor.wait", 1000);
+
+    private static volatile Thread serverThread = null;
+
+    /**
+     * Creates an executor starting a virtual thread per task, or null if virtual
+     * threads are not available.
+     */
+    private static final Method VIRTUAL_EXECUTOR = findVirtualExecutor();
+
+    /**
+     * Check whether this runtime supports virtual threads.
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * Set the server's main thread. A full bounded pool rejects tasks submitted
+     * from it straight away, rather than freezing the server while waiting for
+     * room.
+     *
+     * @param thread The server thread, or null to forget it
+     */
+    public static void setServerThread(@Nullable Thread thread) {
+        serverThread = thread;
+    }
+
+    /**
+     * Get the strategy named by the <code>stickyapi.executor</code> system
+     * property, or {@link #AUTO} if it is not set or invalid.
+     *
+     * @return {@link ExecutorStrategy}
+     */
+    @NotNull
+    public static ExecutorStrategy fromSystemProperty() {
+        String name = System.getProperty("stickyapi.executor");
+        if (name == null) {
+            return AUTO;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            StickyAPI.getLogger().warning("Unknown executor strategy '" + name + "', using AUTO");
+            return AUTO;
+        }
+    }
+
+    /**
+     * Get the strategy this one resolves to on the current runtime - {@link #AUTO}
+     * and {@link #VIRTUAL} resolve to {@link #BOUNDED} if virtual threads are not
+     * supported.
+     *
+     * @return {@link ExecutorStrategy}
+     */
+    @NotNull
+    public ExecutorStrategy resolve() {
+        if (this == AUTO || this == VIRTUAL) {
+            return isVirtualThreadSupported() ? VIRTUAL : BOUNDED;
+        }
+        return this;
+    }
+
+    /**
+     * Create a new executor following this strategy.
+     *
+     * @return {@link ExecutorService}
+     */
+    @NotNull
+    public ExecutorService create() {
+        switch (resolve()) {
+        case VIRTUAL:
+            try {
+                return (ExecutorService) VIRTUAL_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                StickyAPI.getLogger().log(Level.WARNING, "Could not create a virtual thread executor", e);
+                return newBoundedPool(DEFAULT_THREADS, DEFAULT_QUEUE);
+            }
+        case CACHED:
+            return Executors.newCachedThreadPool(new NamedThreadFactory());
+        case BOUNDED:
+        default:
+            return newBoundedPool(DEFAULT_THREADS, DEFAULT_QUEUE);
+        }
+    }
+
+    /**
+     * Create a pool of at most <code>threads</code> platform threads, queueing up
+     * to <code>queueCapacity</code> tasks. Threads submitting a task while the
+     * queue is full wait up to a second for room (see {@link #BOUNDED}). Idle
+     * threads are stopped after a minute.
+     *
+     * @param threads       The maximum number of threads
+     * @param queueCapacity The maximum number of queued tasks
+     * @return {@link ThreadPoolExecutor}
+     */
+    @NotNull
+    public static ThreadPoolExecutor newBoundedPool(int threads, int queueCapacity) {
+        return newBoundedPool(threads, queueCapacity, DEFAULT_WAIT, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Create a pool of at most <code>threads</code> platform threads, queueing up
+     * to <code>queueCapacity</code> tasks. Threads submitting a task while the
+     * queue is full wait up to the given time for room, and the task is then
+     * rejected with a {@link RejectedExecutionException}. A warning is logged the
+     * first time the queue is full. Idle threads are stopped after a minute.
+     *
+     * @param threads       The maximum number of threads
+     * @param queueCapacity The maximum number of queued tasks
+     * @param wait          How long submitters may wait for room
+     * @param unit          The unit of the wait
+     * @return {@link ThreadPoolExecutor}
+     */
+    @NotNull
+    public static ThreadPoolExecutor newBoundedPool(int threads, int queueCapacity, long wait,
+            @NotNull TimeUnit unit) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory(),
+                new BackpressurePolicy(unit.toNanos(wait)));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    @Nullable
+    private static Method findVirtualExecutor() {
+        // Virtual threads were a preview feature before Java 21
+        if (Runtime.version().feature() < 21) {
+            return null;
+        }
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            // Make sure they can actually be started
+            ((ExecutorService) method.invoke(null)).shutdown();
+            return method;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Makes threads submitting to a full bounded pool wait for room in its queue,
+     * rejecting the task if none frees up in time.
+     */
+    private static final class BackpressurePolicy implements RejectedExecutionHandler {
+        private final long wait;
+        private final AtomicBoolean warned = new AtomicBoolean();
+
+        BackpressurePolicy(long wait) {
+            this.wait = wait;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor pool) {
+            if (pool.isShutdown()) {
+                throw new RejectedExecutionException("The StickyAPI pool has been shut down");
+            }
+            if (warned.compareAndSet(false, true)) {
+                StickyAPI.getLogger().warning("The StickyAPI pool is full (" + pool.getMaximumPoolSize()
+                        + " threads, " + pool.getQueue().size() + " queued tasks) - submitters have to wait");
+            }
+
+            // Waiting would freeze the server, or deadlock a worker waiting on its own pool
+            Thread current = Thread.currentThread();
+            if (wait > 0 && current != serverThread && !(current instanceof WorkerThread)) {
+                try {
+                    if (pool.getQueue().offer(task, wait, TimeUnit.NANOSECONDS)) {
+                        if (pool.isShutdown() && pool.remove(task)) {
+                            throw new RejectedExecutionException("The StickyAPI pool has been shut down");
+                        }
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    current.interrupt();
+                }
+            }
+            throw new RejectedExecutionException("The StickyAPI pool is full (" + pool.getMaximumPoolSize()
+                    + " threads, " + pool.getQueue().size() + " queued tasks)");
+        }
+    }
+
+    /**
+     * Names threads "StickyAPI Worker #n", so they can be told apart in thread
+     * dumps.
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private static final AtomicInteger COUNT = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NotNull Runnable runnable) {
+            return new WorkerThread(runnable, "StickyAPI Worker #" + COUNT.incrementAndGet());
+        }
+    }
+
+    /**
+     * A thread of a StickyAPI pool.
+     */
+    private static final class WorkerThread extends Thread {
+        WorkerThread(Runnable runnable, String name) {
+            super(runnable, name);
+        }
+    }
+}
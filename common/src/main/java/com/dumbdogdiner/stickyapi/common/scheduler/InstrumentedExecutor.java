@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.scheduler;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.NotNull;
+
+import lombok.Getter;
+
+/**
+ * An executor that runs every task through a {@link TaskMonitor} before
+ * handing it to another executor, to see what is queued and what is slow.
+ */
+public class InstrumentedExecutor extends AbstractExecutorService {
+    /**
+     * The executor that runs the tasks.
+     *
+     * @return {@link ExecutorService}
+     */
+    @Getter
+    private final ExecutorService delegate;
+
+    /**
+     * The monitor recording the tasks.
+     *
+     * @return {@link TaskMonitor}
+     */
+    @Getter
+    private final TaskMonitor monitor;
+
+    /**
+     * Wrap an executor.
+     *
+     * @param name     The name of the executor, used when logging
+     * @param delegate The executor to run tasks on
+     */
+    public InstrumentedExecutor(@NotNull String name, @NotNull ExecutorService delegate) {
+        this.delegate = delegate;
+        this.monitor = new TaskMonitor(name);
+        if (delegate instanceof ThreadPoolExecutor) {
+            // Exact, even when queued tasks are removed
+            BlockingQueue<Runnable> queue = ((ThreadPoolExecutor) delegate).getQueue();
+            monitor.setQueueDepth(queue::size);
+        }
+    }
+
+    @Override
+    public void execute(@NotNull Runnable command) {
+        try {
+            delegate.execute(monitor.wrap(command));
+        } catch (RejectedExecutionException e) {
+            monitor.rejected();
+            throw e;
+        }
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new TaskMonitor.NamedFutureTask<T>(TaskMonitor.nameOf(runnable), runnable, value);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new TaskMonitor.NamedFutureTask<T>(TaskMonitor.nameOf(callable), callable);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @NotNull
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return "InstrumentedExecutor{" + monitor + ", " + delegate + "}";
+    }
+}
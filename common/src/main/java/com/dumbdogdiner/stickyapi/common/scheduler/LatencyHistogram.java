@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.scheduler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A lock-free histogram of durations in nanoseconds, with log-linear buckets
+ * in the style of an HDR histogram.
+ * <p>
+ * Values below 32 get a bucket each; above that, every power of two is split
+ * into 16 equally sized buckets. Percentiles are therefore accurate to within
+ * about 6% across the whole range of a <code>long</code>, in a fixed 8 KB of
+ * memory, and recording a value is a couple of shifts and an atomic increment.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKETS = 16;
+    private static final int LINEAR = SUB_BUCKETS * 2;
+    private static final int BUCKETS = (64 - 5) * SUB_BUCKETS + LINEAR;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos The duration in nanoseconds; negative values count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Get the number of recorded durations.
+     *
+     * @return {@link Long}
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the longest recorded duration.
+     *
+     * @param unit The unit to return the duration in
+     * @return {@link Long}
+     */
+    public long getMax(@NotNull TimeUnit unit) {
+        return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the mean of the recorded durations.
+     *
+     * @param unit The unit to return the duration in
+     * @return {@link Double}
+     */
+    public double getMean(@NotNull TimeUnit unit) {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n / unit.toNanos(1);
+    }
+
+    /**
+     * Get the duration that the given percentage of recorded durations are at or
+     * below, e.g. 99 for the 99th percentile.
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @param unit       The unit to return the duration in
+     * @return {@link Long}, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile, @NotNull TimeUnit unit) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                // The largest value in the bucket, but never above the real maximum
+                return unit.convert(Math.min(highestValueIn(i), max.get()), TimeUnit.NANOSECONDS);
+            }
+        }
+        return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Clear every recorded duration. Values recorded while this runs may or may
+     * not be kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    @Override
+    public String toString() {
+        TimeUnit ms = TimeUnit.MILLISECONDS;
+        TimeUnit us = TimeUnit.MICROSECONDS;
+        return String.format("count=%d, mean=%.2fms, p50=%.2fms, p99=%.2fms, max=%.2fms", getCount(), getMean(ms),
+                getPercentile(50, us) / 1000.0, getPercentile(99, us) / 1000.0, getMax(us) / 1000.0);
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        // Keep the 5 most significant bits: 16 to 31, shifted right by "shift"
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 4;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.scheduler;
+
+/**
+ * What a {@link RepeatingTask} does about runs it missed, because the previous
+ * run or the thread it runs on was busy for longer than the time between runs.
+ */
+public enum MissedRunPolicy {
+    /**
+     * Drop missed runs - a run that comes up a full period or more late is not
+     * run at all, and the task carries on with the next run of the original
+     * schedule that is still ahead.
+     */
+    SKIP,
+    /**
+     * Make up every missed run, back to back, until the task is back on
+     * schedule.
+     */
+    CATCH_UP,
+    /**
+     * Merge all missed runs into a single run as soon as possible, then carry on
+     * with the original schedule.
+     */
+    COALESCE
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.scheduler;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Processes every item of a collection in parallel, for bulk jobs such as
+ * going over all online players or all cached records.
+ *
+ * <pre>
+ * ParallelJob.over(records).parallelism(4)
+ *         .map(record -&gt; record.recalculate())
+ *         .applySync(scheduler.getSyncExecutor(), 50, result -&gt; result.apply());
+ * </pre>
+ *
+ * The items are split into chunks that run on a fork/join pool, so idle
+ * threads steal work from busy ones. A pool is shared by all jobs with the
+ * same parallelism, which caps how many threads those jobs use at once.
+ * Parallelism is capped at the number of processors, so only a few pools are
+ * ever created.
+ */
+public final class ParallelJob<T> {
+    private static final ConcurrentHashMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private static final int MAX_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    private final Object[] items;
+    private int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private int chunkSize = 0;
+
+    private ParallelJob(Object[] items) {
+        this.items = items;
+    }
+
+    /**
+     * Create a job over a collection. The collection is copied, so it may change
+     * while the job runs.
+     *
+     * @param items The items to process
+     * @return {@link ParallelJob}
+     */
+    @NotNull
+    public static <T> ParallelJob<T> over(@NotNull Collection<? extends T> items) {
+        return new ParallelJob<>(items.toArray());
+    }
+
+    /**
+     * Set the most threads to process items on at once. Defaults to one less than
+     * the number of processors, leaving one free for the main thread. Values above
+     * the number of processors are lowered to it.
+     *
+     * @param parallelism The number of threads
+     * @return {@link ParallelJob}
+     */
+    @NotNull
+    public ParallelJob<T> parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = Math.min(parallelism, MAX_PARALLELISM);
+        return this;
+    }
+
+    /**
+     * Set the most items processed as a single chunk. Defaults to splitting the
+     * items into about four chunks per thread.
+     *
+     * @param chunkSize The number of items
+     * @return {@link ParallelJob}
+     */
+    @NotNull
+    public ParallelJob<T> chunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Start applying a function to every item. The results are kept in the order
+     * of the items.
+     *
+     * @param fn The function to apply
+     * @return {@link ParallelTask}
+     */
+    @NotNull
+    public <R> ParallelTask<T, R> map(@NotNull Function<? super T, ? extends R> fn) {
+        int size = chunkSize > 0 ? chunkSize : Math.max(1, items.length / (parallelism * 4));
+        ParallelTask<T, R> task = new ParallelTask<>(items, fn, size);
+        poolFor(parallelism).execute(task.root());
+        return task;
+    }
+
+    /**
+     * Start running an action for every item.
+     *
+     * @param action The action to run
+     * @return {@link ParallelTask}
+     */
+    @NotNull
+    public ParallelTask<T, Void> forEach(@NotNull Consumer<? super T> action) {
+        return map(item -> {
+            action.accept(item);
+            return null;
+        });
+    }
+
+    private static ForkJoinPool poolFor(int parallelism) {
+        return POOLS.computeIfAbsent(parallelism, p -> new ForkJoinPool(p, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("StickyAPI Parallel #" + THREADS.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false));
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.scheduler;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A running {@link ParallelJob}.
+ * <p>
+ * If applying the function to any item throws, the remaining chunks are
+ * cancelled and the results complete exceptionally with that exception.
+ * Cancelling the task, or the future returned by {@link #getResults()}, stops
+ * it between items.
+ */
+public final class ParallelTask<T, R> {
+    private final Object[] items;
+    private final Function<? super T, ? extends R> fn;
+    private final int chunkSize;
+    private final Object[] results;
+
+    private final CompletableFuture<List<R>> future = new CompletableFuture<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final LongAdder completed = new LongAdder();
+    private volatile boolean stopped = false;
+
+    ParallelTask(Object[] items, Function<? super T, ? extends R> fn, int chunkSize) {
+        this.items = items;
+        this.fn = fn;
+        this.chunkSize = chunkSize;
+        this.results = new Object[items.length];
+        // Also stops the chunks if the results are cancelled or completed directly
+        future.whenComplete((list, error) -> stopped = true);
+    }
+
+    /**
+     * Get the results, in the order of the items. Completes with a
+     * {@link CancellationException} if the task is cancelled.
+     *
+     * @return An unmodifiable list of results
+     */
+    @NotNull
+    public CompletableFuture<List<R>> getResults() {
+        return future;
+    }
+
+    /**
+     * Get the number of items processed so far.
+     *
+     * @return {@link Long}
+     */
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    /**
+     * Get the number of items to process.
+     *
+     * @return {@link Integer}
+     */
+    public int getSize() {
+        return items.length;
+    }
+
+    /**
+     * Stop processing items. Items that are being processed are finished first.
+     *
+     * @return False if the task had already completed
+     */
+    public boolean cancel() {
+        stopped = true;
+        return future.cancel(false);
+    }
+
+    /**
+     * Check whether this task was cancelled.
+     *
+     * @return {@link Boolean}
+     */
+    public boolean isCancelled() {
+        return future.isCancelled();
+    }
+
+    /**
+     * Once every item is processed, run an action with each result on the
+     * synchronous executor, at most <code>perTick</code> results at a time. Each
+     * batch is submitted once the previous one has finished, so a synchronous
+     * executor that runs tasks on the next tick spreads the results across
+     * ticks.
+     *
+     * @param syncExecutor The executor to run the action on
+     * @param perTick      The most results to handle in a single task
+     * @param action       The action to run for each result
+     * @return A future completing once every result was handled
+     */
+    @NotNull
+    public CompletableFuture<Void> applySync(@NotNull Executor syncExecutor, int perTick,
+            @NotNull Consumer<? super R> action) {
+        if (perTick < 1) {
+            throw new IllegalArgumentException("Results per tick must be at least 1");
+        }
+        CompletableFuture<Void> applied = new CompletableFuture<>();
+        future.whenComplete((list, error) -> {
+            if (error != null) {
+                applied.completeExceptionally(error);
+            } else {
+                applyBatch(list, 0, syncExecutor, perTick, action, applied);
+            }
+        });
+        return applied;
+    }
+
+    private void applyBatch(List<R> list, int from, Executor syncExecutor, int perTick, Consumer<? super R> action,
+            CompletableFuture<Void> applied) {
+        try {
+            syncExecutor.execute(() -> {
+                if (applied.isDone()) {
+                    return;
+                }
+                int to = Math.min(list.size(), from + perTick);
+                try {
+                    for (int i = from; i < to; i++) {
+                        action.accept(list.get(i));
+                    }
+                } catch (Throwable e) {
+                    applied.completeExceptionally(e);
+                    return;
+                }
+
+                if (to == list.size()) {
+                    applied.complete(null);
+                } else {
+                    applyBatch(list, to, syncExecutor, perTick, action, applied);
+                }
+            });
+        } catch (RuntimeException e) {
+            applied.completeExceptionally(e);
+        }
+    }
+
+    RecursiveAction root() {
+        return new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                try {
+                    new Chunk(0, items.length).compute();
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+
+                Throwable error = failure.get();
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else if (stopped) {
+                    future.cancel(false);
+                } else {
+                    @SuppressWarnings("unchecked")
+                    List<R> list = (List<R>) Collections.unmodifiableList(Arrays.asList(results));
+                    future.complete(list);
+                }
+            }
+        };
+    }
+
+    /**
+     * Processes a range of items, splitting it in half until it is no larger than
+     * the chunk size.
+     */
+    private final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        Chunk(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void compute() {
+            if (stopped) {
+                return;
+            }
+            if (to - from > chunkSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Chunk(from, middle), new Chunk(middle, to));
+                return;
+            }
+
+            for (int i = from; i < to && !stopped; i++) {
+                try {
+                    results[i] = fn.apply((T) items[i]);
+                } catch (Throwable e) {
+                    // Stop the other chunks too
+                    failure.compareAndSet(null, e);
+                    stopped = true;
+                    return;
+                }
+                completed.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.scheduler;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import com.dumbdogdiner.stickyapi.StickyAPI;
+
+import lombok.Getter;
+
+/**
+ * A handle to a task that a {@link Scheduler} runs repeatedly - at a fixed rate,
+ * with a fixed delay between runs, or whenever a {@link CronExpression}
+ * matches.
+ * <p>
+ * Only one run of a task is ever pending: the next run is scheduled once the
+ * previous one has finished, so runs never overlap. If a run throws, the
+ * exception is logged and the task keeps repeating. Synchronous tasks run at
+ * most once per tick.
+ */
+public final class RepeatingTask {
+    private final Scheduler scheduler;
+    private final Runnable task;
+
+    /**
+     * Whether this task runs on the synchronous queue rather than the thread
+     * pool.
+     *
+     * @return {@link Boolean}
+     */
+    @Getter
+    private final boolean synchronous;
+
+    /**
+     * What this task does about runs it missed.
+     *
+     * @return {@link MissedRunPolicy}
+     */
+    @Getter
+    private final MissedRunPolicy policy;
+
+    /**
+     * The time between runs in nanoseconds, if this task does not follow a cron
+     * expression.
+     */
+    private final long period;
+    private final boolean fixedDelay;
+    private final CronExpression cron;
+
+    /**
+     * The time the next run was scheduled for by the schedule itself - in
+     * {@link System#nanoTime()} for fixed rates and delays, or in milliseconds
+     * since the epoch for cron expressions. The run may actually happen later
+     * (when coalescing missed runs).
+     */
+    private long slot;
+
+    private final AtomicLong runs = new AtomicLong();
+    private volatile Future<?> pending;
+
+    /**
+     * Whether this task was cancelled.
+     *
+     * @return {@link Boolean}
+     */
+    @Getter
+    private volatile boolean cancelled = false;
+
+    private RepeatingTask(Scheduler scheduler, Runnable task, boolean synchronous, MissedRunPolicy policy,
+            long period, boolean fixedDelay, CronExpression cron) {
+        this.scheduler = scheduler;
+        this.task = task;
+        this.synchronous = synchronous;
+        this.policy = policy;
+        this.period = period;
+        this.fixedDelay = fixedDelay;
+        this.cron = cron;
+    }
+
+    static RepeatingTask atFixedRate(Scheduler scheduler, Runnable task, boolean synchronous, long initialDelay,
+            long period, TimeUnit unit, MissedRunPolicy policy) {
+        RepeatingTask repeating = new RepeatingTask(scheduler, task, synchronous, policy, positive(period, unit),
+                false, null);
+        repeating.start(System.nanoTime() + unit.toNanos(Math.max(0, initialDelay)));
+        return repeating;
+    }
+
+    static RepeatingTask withFixedDelay(Scheduler scheduler, Runnable task, boolean synchronous, long initialDelay,
+            long delay, TimeUnit unit) {
+        RepeatingTask repeating = new RepeatingTask(scheduler, task, synchronous, MissedRunPolicy.SKIP,
+                positive(delay, unit), true, null);
+        repeating.start(System.nanoTime() + unit.toNanos(Math.max(0, initialDelay)));
+        return repeating;
+    }
+
+    static RepeatingTask cron(Scheduler scheduler, Runnable task, boolean synchronous, CronExpression cron,
+            MissedRunPolicy policy) {
+        RepeatingTask repeating = new RepeatingTask(scheduler, task, synchronous, policy, 0, false, cron);
+        long first = cron.next(System.currentTimeMillis());
+        if (first < 0) {
+            throw new IllegalArgumentException("Cron expression '" + cron + "' never matches");
+        }
+        repeating.start(first);
+        return repeating;
+    }
+
+    /**
+     * Get the number of times this task has run.
+     *
+     * @return {@link Long}
+     */
+    public long getRunCount() {
+        return runs.get();
+    }
+
+    /**
+     * Stop this task from running again. A run that is already in progress is not
+     * interrupted.
+     *
+     * @return False if this task was already cancelled
+     */
+    public boolean cancel() {
+        if (cancelled) {
+            return false;
+        }
+        cancelled = true;
+        Future<?> next = pending;
+        if (next != null) {
+            next.cancel(false);
+        }
+        return true;
+    }
+
+    private static long positive(long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        return unit.toNanos(period);
+    }
+
+    private synchronized void start(long first) {
+        slot = first;
+        submit(first);
+    }
+
+    /**
+     * Run the task, then schedule the next run.
+     */
+    private void fire() {
+        if (cancelled) {
+            return;
+        }
+
+        synchronized (this) {
+            long now = now();
+            long next = following(slot);
+            // Late by a full period or more, so runs were missed. Compared by their
+            // difference, since System.nanoTime() may be negative or overflow.
+            if (!fixedDelay && policy != MissedRunPolicy.CATCH_UP && exists(next) && next - now <= 0) {
+                if (policy == MissedRunPolicy.SKIP) {
+                    slot = firstSlotAfter(now);
+                    submit(slot);
+                    return;
+                }
+                // This run stands in for every missed one
+                slot = lastSlotBefore(now);
+            }
+        }
+
+        try {
+            task.run();
+        } catch (Throwable e) {
+            StickyAPI.getLogger().log(Level.SEVERE, "Repeating task " + task + " threw an exception", e);
+        }
+        runs.incrementAndGet();
+
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            slot = fixedDelay ? now() + period : following(slot);
+            if (exists(slot)) {
+                submit(slot);
+            }
+        }
+    }
+
+    /**
+     * Get the first slot of the schedule strictly after the given time.
+     */
+    private long firstSlotAfter(long now) {
+        return cron == null ? slot + ((now - slot) / period + 1) * period : cron.next(now);
+    }
+
+    /**
+     * Get the last slot of the schedule at or before the given time.
+     */
+    private long lastSlotBefore(long now) {
+        // The next cron slot after now is the same as after the last missed slot
+        return cron == null ? slot + (now - slot) / period * period : now;
+    }
+
+    /**
+     * Check whether a slot returned by {@link #following(long)} exists - only a
+     * cron expression can run out of slots, marked by a negative time.
+     */
+    private boolean exists(long slot) {
+        return cron == null || slot >= 0;
+    }
+
+    private long following(long time) {
+        return cron == null ? time + period : cron.next(time);
+    }
+
+    private long now() {
+        return cron == null ? System.nanoTime() : System.currentTimeMillis();
+    }
+
+    private void submit(long runAt) {
+        long delay = cron == null ? runAt - System.nanoTime()
+                : TimeUnit.MILLISECONDS.toNanos(runAt - System.currentTimeMillis());
+        if (synchronous) {
+            pending = scheduler.scheduleSynchronous(() -> {
+                fire();
+                return null;
+            }, delay, TimeUnit.NANOSECONDS);
+        } else {
+            delay = Math.max(0, delay);
+            Runnable run = scheduler.monitor.wrap(this::fire, TaskMonitor.nameOf(task), System.nanoTime() + delay);
+            pending = scheduler.pool.schedule(run, delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public String toString() {
+        String schedule;
+        if (cron != null) {
+            schedule = "cron '" + cron + "'";
+        } else {
+            schedule = (fixedDelay ? "fixed delay " : "fixed rate ") + TimeUnit.NANOSECONDS.toMillis(period) + "ms";
+        }
+        return "RepeatingTask{" + task + ", " + schedule + ", runs=" + runs.get() + (cancelled ? ", cancelled" : "")
+                + "}";
+    }
+}
@@ -6,33 +6,54 @@ package com.dumbdogdiner.stickyapi.common.scheduler;
 
 import java.time.DateTimeException;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
 import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.Date;
 import java.util.Queue;
-import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.NotNull;
 
 import lombok.Getter;
 import lombok.Setter;
 
 /**
  * Schedule async or sync runnables
+ * <p>
+ * Synchronous tasks may be scheduled from any thread, and are run by whichever
+ * thread calls {@link #schedule()} - usually the application's main thread, once
+ * per tick. Tasks due now are kept in a lock-free queue, and tasks scheduled
+ * for later in a queue ordered by their due time, from which they are only
+ * taken once due.
+ * <p>
+ * Each call to {@link #schedule()} only runs the tasks that were due when it
+ * started, and stops early once it has used up its <code>tickBudget</code>,
+ * leaving the remaining tasks for the next tick.
  */
-// TODO: Make this... better...
 public class Scheduler {
 	/**
 	 * Array of tasks to be run on the main thread or synchronously
 	 */
 	@Getter
-	protected Queue<RunnableFuture<?>> synchronous = new ArrayDeque<RunnableFuture<?>>();
+	protected Queue<RunnableFuture<?>> synchronous = new ConcurrentLinkedQueue<RunnableFuture<?>>();
 	/**
 	 * Array of tasks to be run as part of a thread pool.
 	 */
 	@Getter
-	protected Queue<RunnableFuture<?>> asynchronous = new ArrayDeque<RunnableFuture<?>>();
+	protected Queue<RunnableFuture<?>> asynchronous = new ConcurrentLinkedQueue<RunnableFuture<?>>();
+
+	/**
+	 * Synchronous tasks scheduled for later, ordered by the time they are due.
+	 */
+	protected DelayQueue<DelayedTask<?>> delayed = new DelayQueue<DelayedTask<?>>();
 
 	/**
 	 * The thread pool to use for executing tasks.
@@ -40,41 +61,92 @@ public class Scheduler {
 	@Setter
 	protected ScheduledThreadPoolExecutor pool;
 
+	/**
+	 * The monitor recording the tasks run on the thread pool - their queue depth,
+	 * wait and run times, and counts per task.
+	 *
+	 * @return {@link TaskMonitor}
+	 */
+	@Getter
+	protected final TaskMonitor monitor = new TaskMonitor("Scheduler");
+
+	/**
+	 * The time in nanoseconds that a single call to {@link #schedule()} may spend
+	 * running tasks before leaving the rest for the next call, or 0 for no limit.
+	 * At least one task is always run.
+	 *
+	 * @return {@link Long}
+	 */
+	@Getter
+	private volatile long tickBudget = 0;
+
+	/**
+	 * Queued at the start of each tick, marking where the tasks scheduled during
+	 * the tick begin.
+	 */
+	private final RunnableFuture<?> tickMarker = new FutureTask<Void>(() -> null);
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	/**
+	 * Runs tasks in the synchronous thread, on the next tick.
+	 *
+	 * @return {@link Executor}
+	 */
+	@Getter
+	private final Executor syncExecutor = task -> this.synchronous.add(new FutureTask<Void>(task, null));
+
+	/**
+	 * Runs tasks on the thread pool, recording them on the monitor.
+	 *
+	 * @return {@link Executor}
+	 */
+	@Getter
+	private final Executor asyncExecutor = task -> this.pool.execute(this.monitor.wrap(task));
+
 	public Scheduler(int poolsz) {
 		this.pool = new ScheduledThreadPoolExecutor(poolsz);
+		this.monitor.setQueueDepth(this::countDueTasks);
+	}
+
+	/**
+	 * Set the time that a single call to {@link #schedule()} may spend running
+	 * tasks before leaving the rest for the next call.
+	 *
+	 * @param budget the maximum time, or 0 for no limit
+	 * @param unit   the unit of the budget
+	 */
+	public void setTickBudget(long budget, @NotNull TimeUnit unit) {
+		this.tickBudget = Math.max(0, unit.toNanos(budget));
 	}
 
 	/**
 	 * Execute a function/task immediately asynchronously
-	 * 
+	 *
 	 * @param task to execute
 	 */
 	public <V> Future<V> scheduleThreaded(Callable<V> task) {
-		RunnableFuture<V> t = new FutureTask<V>(task);
-		this.pool.execute(t);
-		return (FutureTask<V>) t;
+		RunnableFuture<V> t = new TaskMonitor.NamedFutureTask<V>(TaskMonitor.nameOf(task), task);
+		this.pool.execute(this.monitor.wrap(t, TaskMonitor.nameOf(task), System.nanoTime()));
+		return t;
 	}
 
 	/**
 	 * Schedule a function/task to run asynchronously at a certain datetime
-	 * 
+	 *
 	 * @param task to run
 	 * @param time to execute the task
 	 */
 	public <T> Future<T> scheduleThreaded(Callable<T> task, Date time) {
-		long future = time.getTime();
-		long now = System.currentTimeMillis();
-		if (future <= now)
-			throw new DateTimeException("Get the time machine, morty! We're going back to the future!");
-
-		long delay = future - now;
-		return this.pool.schedule(task, delay, TimeUnit.MILLISECONDS);
+		long delay = delayUntil(time);
+		long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+		return this.pool.schedule(this.monitor.wrap(task, TaskMonitor.nameOf(task), due), delay, TimeUnit.MILLISECONDS);
 	}
 
 	/**
 	 * Execute a task in the synchronous thread, scheduled for the next available
 	 * tick.
-	 * 
+	 *
 	 * @param task to run
 	 */
 	public <T> Future<T> scheduleSynchronous(Callable<T> task) {
@@ -85,23 +157,246 @@ public class Scheduler {
 
 	/**
 	 * Schedule a function/task to run synchronously at a certain datetime
-	 * 
+	 *
 	 * @param task to run
 	 * @param time to execute the task
 	 */
 	public <T> Future<T> scheduleSynchronous(Callable<T> task, Date time) {
-		// TODO: Make synchronous version of this?
-		return new FutureTask<T>(task);
+		return scheduleSynchronous(task, delayUntil(time), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Schedule a function/task to run synchronously, on the first tick after a
+	 * delay has passed.
+	 *
+	 * @param task  to run
+	 * @param delay before the task is run
+	 * @param unit  of the delay
+	 */
+	public <T> Future<T> scheduleSynchronous(Callable<T> task, long delay, TimeUnit unit) {
+		if (delay <= 0)
+			return scheduleSynchronous(task);
+
+		DelayedTask<T> t = new DelayedTask<T>(task, System.nanoTime() + unit.toNanos(delay),
+				sequence.getAndIncrement());
+		this.delayed.add(t);
+		return t;
+	}
+
+	/**
+	 * Compute a value on the thread pool, returning a future that further stages
+	 * can be chained onto, in either thread.
+	 *
+	 * @param supplier to compute the value with
+	 * @return {@link TaskFuture}
+	 */
+	public <T> TaskFuture<T> supplyAsync(@NotNull Supplier<T> supplier) {
+		return TaskFuture.supplyAsync(supplier, this.asyncExecutor, this.syncExecutor);
+	}
+
+	/**
+	 * Run a task on the thread pool, returning a future that further stages can be
+	 * chained onto, in either thread.
+	 *
+	 * @param task to run
+	 * @return {@link TaskFuture}
+	 */
+	public TaskFuture<Void> runAsync(@NotNull Runnable task) {
+		return TaskFuture.runAsync(task, this.asyncExecutor, this.syncExecutor);
+	}
+
+	/**
+	 * Compute a value in the synchronous thread on the next tick, returning a
+	 * future that further stages can be chained onto, in either thread.
+	 *
+	 * @param supplier to compute the value with
+	 * @return {@link TaskFuture}
+	 */
+	public <T> TaskFuture<T> supplySync(@NotNull Supplier<T> supplier) {
+		return TaskFuture.supplySync(supplier, this.asyncExecutor, this.syncExecutor);
+	}
+
+	/**
+	 * Run a task in the synchronous thread on the next tick, returning a future
+	 * that further stages can be chained onto, in either thread.
+	 *
+	 * @param task to run
+	 * @return {@link TaskFuture}
+	 */
+	public TaskFuture<Void> runSync(@NotNull Runnable task) {
+		return TaskFuture.runSync(task, this.asyncExecutor, this.syncExecutor);
+	}
+
+	/**
+	 * Run a task on the thread pool repeatedly, at a fixed rate.
+	 *
+	 * @param task         to run
+	 * @param initialDelay before the first run
+	 * @param period       between the start of one run and the next
+	 * @param unit         of the delay and period
+	 * @param policy       for runs missed while the pool was busy
+	 * @return {@link RepeatingTask}
+	 */
+	public RepeatingTask scheduleThreadedAtFixedRate(@NotNull Runnable task, long initialDelay, long period,
+			@NotNull TimeUnit unit, @NotNull MissedRunPolicy policy) {
+		return RepeatingTask.atFixedRate(this, task, false, initialDelay, period, unit, policy);
+	}
+
+	/**
+	 * Run a task on the thread pool repeatedly, with a fixed delay between the end
+	 * of one run and the start of the next.
+	 *
+	 * @param task         to run
+	 * @param initialDelay before the first run
+	 * @param delay        between runs
+	 * @param unit         of the delays
+	 * @return {@link RepeatingTask}
+	 */
+	public RepeatingTask scheduleThreadedWithFixedDelay(@NotNull Runnable task, long initialDelay, long delay,
+			@NotNull TimeUnit unit) {
+		return RepeatingTask.withFixedDelay(this, task, false, initialDelay, delay, unit);
+	}
+
+	/**
+	 * Run a task on the thread pool whenever a cron expression matches.
+	 *
+	 * @param task   to run
+	 * @param cron   expression to follow
+	 * @param policy for runs missed while the pool was busy
+	 * @return {@link RepeatingTask}
+	 */
+	public RepeatingTask scheduleThreadedCron(@NotNull Runnable task, @NotNull CronExpression cron,
+			@NotNull MissedRunPolicy policy) {
+		return RepeatingTask.cron(this, task, false, cron, policy);
+	}
+
+	/**
+	 * Run a task in the synchronous thread repeatedly, at a fixed rate. The task
+	 * runs on the first tick after each run is due.
+	 *
+	 * @param task         to run
+	 * @param initialDelay before the first run
+	 * @param period       between the start of one run and the next
+	 * @param unit         of the delay and period
+	 * @param policy       for runs missed while ticks were late
+	 * @return {@link RepeatingTask}
+	 */
+	public RepeatingTask scheduleSynchronousAtFixedRate(@NotNull Runnable task, long initialDelay, long period,
+			@NotNull TimeUnit unit, @NotNull MissedRunPolicy policy) {
+		return RepeatingTask.atFixedRate(this, task, true, initialDelay, period, unit, policy);
+	}
+
+	/**
+	 * Run a task in the synchronous thread repeatedly, with a fixed delay between
+	 * the end of one run and the start of the next.
+	 *
+	 * @param task         to run
+	 * @param initialDelay before the first run
+	 * @param delay        between runs
+	 * @param unit         of the delays
+	 * @return {@link RepeatingTask}
+	 */
+	public RepeatingTask scheduleSynchronousWithFixedDelay(@NotNull Runnable task, long initialDelay, long delay,
+			@NotNull TimeUnit unit) {
+		return RepeatingTask.withFixedDelay(this, task, true, initialDelay, delay, unit);
 	}
 
 	/**
-	 * Run all pending synchronous calls until they're finished. NOTE: This should
-	 * be called in the application's eventloop or in a single thread.
+	 * Run a task in the synchronous thread whenever a cron expression matches.
+	 *
+	 * @param task   to run
+	 * @param cron   expression to follow
+	 * @param policy for runs missed while ticks were late
+	 * @return {@link RepeatingTask}
+	 */
+	public RepeatingTask scheduleSynchronousCron(@NotNull Runnable task, @NotNull CronExpression cron,
+			@NotNull MissedRunPolicy policy) {
+		return RepeatingTask.cron(this, task, true, cron, policy);
+	}
+
+	/**
+	 * Run pending synchronous calls - every task that was due when this call
+	 * started, or as many as fit in the tick budget. Tasks scheduled while this
+	 * runs are left for the next call. NOTE: This should be called in the
+	 * application's eventloop or in a single thread.
 	 */
 	public void schedule() {
-		RunnableFuture<?> task = null;
-		while ((task = this.synchronous.poll()) != null)
+		long start = System.nanoTime();
+		long budget = this.tickBudget;
+
+		// Move delayed tasks that are now due over to the synchronous queue, in the
+		// order they were due
+		DelayedTask<?> due;
+		while ((due = this.delayed.poll()) != null)
+			this.synchronous.add(due);
+
+		this.synchronous.add(tickMarker);
+		RunnableFuture<?> task;
+		while ((task = this.synchronous.poll()) != null) {
+			if (task == tickMarker)
+				return;
+
 			task.run();
+
+			if (budget > 0 && System.nanoTime() - start >= budget)
+				break;
+		}
+
+		// Out of time - the marker is still queued
+		this.synchronous.remove(tickMarker);
+	}
+
+	/**
+	 * Count the tasks in the thread pool's queue that are due to run.
+	 */
+	private long countDueTasks() {
+		long due = 0;
+		for (Runnable task : this.pool.getQueue()) {
+			if (!(task instanceof Delayed) || ((Delayed) task).getDelay(TimeUnit.NANOSECONDS) <= 0)
+				due++;
+		}
+		return due;
 	}
 
+	private static long delayUntil(Date time) {
+		long future = time.getTime();
+		long now = System.currentTimeMillis();
+		if (future <= now)
+			throw new DateTimeException("Get the time machine, morty! We're going back to the future!");
+
+		return future - now;
+	}
+
+	/**
+	 * A synchronous task that is due at a certain time.
+	 */
+	protected static class DelayedTask<T> extends FutureTask<T> implements Delayed {
+		private final long time;
+		private final long sequence;
+
+		DelayedTask(Callable<T> task, long time, long sequence) {
+			super(task);
+			this.time = time;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(time - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			if (other == this)
+				return 0;
+			if (other instanceof DelayedTask) {
+				DelayedTask<?> task = (DelayedTask<?>) other;
+				long diff = time - task.time;
+				if (diff != 0)
+					return diff < 0 ? -1 : 1;
+				return sequence < task.sequence ? -1 : 1;
+			}
+			return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+		}
+	}
 }
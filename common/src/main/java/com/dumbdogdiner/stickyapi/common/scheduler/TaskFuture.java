@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.scheduler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.NotNull;
+
+import lombok.Getter;
+
+/**
+ * A {@link CompletableFuture} that knows both a thread pool and a synchronous
+ * (main thread) executor, so that chains of work can hop between the two
+ * without ever blocking:
+ *
+ * <pre>
+ * scheduler.supplyAsync(() -&gt; database.load(uuid))
+ *         .thenSync(data -&gt; applyToPlayer(player, data))
+ *         .thenRunAsync(() -&gt; database.markSeen(uuid));
+ * </pre>
+ *
+ * Every stage chained onto a task future is a task future with the same
+ * executors, and the plain <code>...Async</code> methods without an executor
+ * run on the thread pool rather than the common fork/join pool.
+ */
+public class TaskFuture<T> extends CompletableFuture<T> {
+    /**
+     * The executor running the <code>...Async</code> stages.
+     *
+     * @return {@link Executor}
+     */
+    @Getter
+    private final Executor asyncExecutor;
+
+    /**
+     * The executor running the <code>...Sync</code> stages.
+     *
+     * @return {@link Executor}
+     */
+    @Getter
+    private final Executor syncExecutor;
+
+    /**
+     * Create an incomplete task future.
+     *
+     * @param asyncExecutor The executor running the <code>...Async</code> stages
+     * @param syncExecutor  The executor running the <code>...Sync</code> stages
+     */
+    public TaskFuture(@NotNull Executor asyncExecutor, @NotNull Executor syncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+        this.syncExecutor = syncExecutor;
+    }
+
+    /**
+     * Compute a value on the thread pool.
+     *
+     * @param supplier      The function computing the value
+     * @param asyncExecutor The thread pool
+     * @param syncExecutor  The synchronous executor
+     * @return {@link TaskFuture}
+     */
+    @NotNull
+    public static <T> TaskFuture<T> supplyAsync(@NotNull Supplier<T> supplier, @NotNull Executor asyncExecutor,
+            @NotNull Executor syncExecutor) {
+        TaskFuture<T> future = new TaskFuture<>(asyncExecutor, syncExecutor);
+        future.completeAsync(supplier, asyncExecutor);
+        return future;
+    }
+
+    /**
+     * Run a task on the thread pool.
+     *
+     * @param task          The task to run
+     * @param asyncExecutor The thread pool
+     * @param syncExecutor  The synchronous executor
+     * @return {@link TaskFuture}
+     */
+    @NotNull
+    public static TaskFuture<Void> runAsync(@NotNull Runnable task, @NotNull Executor asyncExecutor,
+            @NotNull Executor syncExecutor) {
+        return supplyAsync(() -> {
+            task.run();
+            return null;
+        }, asyncExecutor, syncExecutor);
+    }
+
+    /**
+     * Compute a value on the synchronous executor.
+     *
+     * @param supplier      The function computing the value
+     * @param asyncExecutor The thread pool
+     * @param syncExecutor  The synchronous executor
+     * @return {@link TaskFuture}
+     */
+    @NotNull
+    public static <T> TaskFuture<T> supplySync(@NotNull Supplier<T> supplier, @NotNull Executor asyncExecutor,
+            @NotNull Executor syncExecutor) {
+        TaskFuture<T> future = new TaskFuture<>(asyncExecutor, syncExecutor);
+        future.completeAsync(supplier, syncExecutor);
+        return future;
+    }
+
+    /**
+     * Run a task on the synchronous executor.
+     *
+     * @param task          The task to run
+     * @param asyncExecutor The thread pool
+     * @param syncExecutor  The synchronous executor
+     * @return {@link TaskFuture}
+     */
+    @NotNull
+    public static TaskFuture<Void> runSync(@NotNull Runnable task, @NotNull Executor asyncExecutor,
+            @NotNull Executor syncExecutor) {
+        return supplySync(() -> {
+            task.run();
+            return null;
+        }, asyncExecutor, syncExecutor);
+    }
+
+    /**
+     * Turn any completion stage into a task future, completing when it does.
+     *
+     * @param stage         The stage to follow
+     * @param asyncExecutor The thread pool
+     * @param syncExecutor  The synchronous executor
+     * @return {@link TaskFuture}
+     */
+    @NotNull
+    public static <T> TaskFuture<T> of(@NotNull CompletionStage<T> stage, @NotNull Executor asyncExecutor,
+            @NotNull Executor syncExecutor) {
+        TaskFuture<T> future = new TaskFuture<>(asyncExecutor, syncExecutor);
+        stage.whenComplete((value, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(value);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Apply a function to the result on the synchronous executor.
+     *
+     * @param fn The function to apply
+     * @return {@link TaskFuture}
+     */
+    @NotNull
+    public <U> TaskFuture<U> thenSync(@NotNull Function<? super T, ? extends U> fn) {
+        return (TaskFuture<U>) this.<U>thenApplyAsync(fn, syncExecutor);
+    }
+
+    /**
+     * Consume the result on the synchronous executor.
+     *
+     * @param action The action to run
+     * @return {@link TaskFuture}
+     */
+    @NotNull
+    public TaskFuture<Void> thenAcceptSync(@NotNull Consumer<? super T> action) {
+        return (TaskFuture<Void>) thenAcceptAsync(action, syncExecutor);
+    }
+
+    /**
+     * Run a task on the synchronous executor once this completes normally.
+     *
+     * @param action The task to run
+     * @return {@link TaskFuture}
+     */
+    @NotNull
+    public TaskFuture<Void> thenRunSync(@NotNull Runnable action) {
+        return (TaskFuture<Void>) thenRunAsync(action, syncExecutor);
+    }
+
+    /**
+     * Continue with another stage, started on the synchronous executor.
+     *
+     * @param fn The function returning the next stage
+     * @return {@link TaskFuture}
+     */
+    @NotNull
+    public <U> TaskFuture<U> thenComposeSync(@NotNull Function<? super T, ? extends CompletionStage<U>> fn) {
+        return (TaskFuture<U>) thenComposeAsync(fn, syncExecutor);
+    }
+
+    /**
+     * Apply a function to the result on the thread pool.
+     *
+     * @param fn The function to apply
+     * @return {@link TaskFuture}
+     */
+    @NotNull
+    public <U> TaskFuture<U> thenAsync(@NotNull Function<? super T, ? extends U> fn) {
+        return (TaskFuture<U>) this.<U>thenApplyAsync(fn, asyncExecutor);
+    }
+
+    /**
+     * Handle the result or failure on the synchronous executor.
+     *
+     * @param fn The function to apply to the result or failure
+     * @return {@link TaskFuture}
+     */
+    @NotNull
+    public <U> TaskFuture<U> handleSync(@NotNull BiFunction<? super T, Throwable, ? extends U> fn) {
+        return (TaskFuture<U>) this.<U>handleAsync(fn, syncExecutor);
+    }
+
+    /**
+     * Run an action with the result or failure on the synchronous executor,
+     * passing the outcome on unchanged.
+     *
+     * @param action The action to run
+     * @return {@link TaskFuture}
+     */
+    @NotNull
+    public TaskFuture<T> whenCompleteSync(@NotNull BiConsumer<? super T, ? super Throwable> action) {
+        return (TaskFuture<T>) whenCompleteAsync(action, syncExecutor);
+    }
+
+    /**
+     * Recover from a failure on the synchronous executor.
+     *
+     * @param fn The function computing a result from the failure
+     * @return {@link TaskFuture}
+     */
+    @NotNull
+    public TaskFuture<T> exceptionallySync(@NotNull Function<Throwable, ? extends T> fn) {
+        return handleSync((value, error) -> error == null ? value : fn.apply(error));
+    }
+
+    @Override
+    public Executor defaultExecutor() {
+        return asyncExecutor;
+    }
+
+    // Every dependent stage is created here, which is what makes casting the
+    // stages returned by CompletableFuture to TaskFuture safe.
+    @Override
+    public <U> CompletableFuture<U> newIncompleteFuture() {
+        return new TaskFuture<>(asyncExecutor, syncExecutor);
+    }
+}
@@ -0,0 +1,512 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.scheduler;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+
+import com.dumbdogdiner.stickyapi.StickyAPI;
+
+import org.jetbrains.annotations.NotNull;
+
+import lombok.Getter;
+
+/**
+ * Records what the tasks of an executor are doing - how many are queued and
+ * running, how long they waited and ran for, and how often each kind of task
+ * ran - and logs tasks that run for too long.
+ * <p>
+ * Tasks are recorded by running them through {@link #wrap(Runnable)}, as
+ * {@link InstrumentedExecutor} does. They are grouped by name: tasks wrapped
+ * with {@link #named(String, Runnable)} use the given name, and all other tasks
+ * the name of their class (for lambdas, the class they were written in).
+ * <p>
+ * A task that runs for longer than the slow task threshold is logged with the
+ * stack trace of the thread running it, while it is still running, so the log
+ * shows what it is stuck on.
+ */
+public final class TaskMonitor {
+    /**
+     * The most task names to keep counters for; any further names are counted
+     * under "other".
+     */
+    private static final int MAX_NAMES = 1024;
+
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "StickyAPI Task Watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The name of the monitored executor.
+     *
+     * @return {@link String}
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * How long tasks waited between being submitted (or becoming due) and
+     * starting to run.
+     *
+     * @return {@link LatencyHistogram}
+     */
+    @Getter
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+
+    /**
+     * How long tasks ran for.
+     *
+     * @return {@link LatencyHistogram}
+     */
+    @Getter
+    private final LatencyHistogram runTime = new LatencyHistogram();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final ConcurrentHashMap<String, TaskStats> tasks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Run, Boolean> running = new ConcurrentHashMap<>();
+
+    private volatile LongSupplier queueDepth = () -> submitted.sum() - started.sum();
+    private volatile long slowTaskThreshold = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * Create a monitor for an executor.
+     *
+     * @param name The name of the executor, used when logging
+     */
+    public TaskMonitor(@NotNull String name) {
+        this.name = name;
+        watch(new WeakReference<>(this));
+    }
+
+    /**
+     * Wrap a task with the given name, so that it is counted under that name by
+     * any monitor it is submitted through.
+     *
+     * @param name The name of the task
+     * @param task The task
+     * @return {@link Runnable}
+     */
+    @NotNull
+    public static Runnable named(@NotNull String name, @NotNull Runnable task) {
+        return new NamedRunnable(name, task);
+    }
+
+    /**
+     * Get the name that a task is counted under.
+     *
+     * @param task The task
+     * @return {@link String}
+     */
+    @NotNull
+    public static String nameOf(@NotNull Object task) {
+        if (task instanceof NamedRunnable) {
+            return ((NamedRunnable) task).name;
+        }
+        if (task instanceof NamedFutureTask) {
+            return ((NamedFutureTask<?>) task).name;
+        }
+        String name = task.getClass().getName();
+        int lambda = name.indexOf("$$Lambda");
+        return lambda < 0 ? name : name.substring(0, lambda);
+    }
+
+    /**
+     * Wrap a task that is submitted now, so that it is recorded when it runs.
+     *
+     * @param task The task
+     * @return {@link Runnable}
+     */
+    @NotNull
+    public Runnable wrap(@NotNull Runnable task) {
+        return wrap(task, nameOf(task), System.nanoTime());
+    }
+
+    /**
+     * Wrap a task that becomes due at a certain time, so that it is recorded when
+     * it runs.
+     *
+     * @param task The task
+     * @param name The name to count the task under
+     * @param due  The time the task becomes due, in {@link System#nanoTime()}
+     * @return {@link Runnable}
+     */
+    @NotNull
+    public Runnable wrap(@NotNull Runnable task, @NotNull String name, long due) {
+        submitted.increment();
+        return () -> {
+            Run run = start(name, due);
+            Throwable error = null;
+            try {
+                task.run();
+                if (task instanceof NamedFutureTask) {
+                    // Futures catch what their task throws, so it is taken from them instead
+                    error = ((NamedFutureTask<?>) task).failure;
+                }
+            } catch (Throwable e) {
+                error = e;
+                throw e;
+            } finally {
+                finish(run, error);
+            }
+        };
+    }
+
+    /**
+     * Wrap a task that becomes due at a certain time, so that it is recorded when
+     * it runs.
+     *
+     * @param task The task
+     * @param name The name to count the task under
+     * @param due  The time the task becomes due, in {@link System#nanoTime()}
+     * @return {@link Callable}
+     */
+    @NotNull
+    public <V> Callable<V> wrap(@NotNull Callable<V> task, @NotNull String name, long due) {
+        submitted.increment();
+        return () -> {
+            Run run = start(name, due);
+            Throwable error = null;
+            try {
+                return task.call();
+            } catch (Throwable e) {
+                error = e;
+                throw e;
+            } finally {
+                finish(run, error);
+            }
+        };
+    }
+
+    /**
+     * Get the number of tasks that are waiting to run.
+     *
+     * @return {@link Long}
+     */
+    public long getQueueDepth() {
+        return Math.max(0, queueDepth.getAsLong());
+    }
+
+    /**
+     * Set how the queue depth is measured. By default it is the number of wrapped
+     * tasks that have not started yet, which counts tasks that were cancelled
+     * before running as queued forever.
+     *
+     * @param queueDepth Returns the number of queued tasks
+     */
+    public void setQueueDepth(@NotNull LongSupplier queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * Get the number of tasks that are running right now.
+     *
+     * @return {@link Integer}
+     */
+    public int getRunning() {
+        return running.size();
+    }
+
+    /**
+     * Get the number of tasks that were submitted.
+     *
+     * @return {@link Long}
+     */
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    /**
+     * Get the number of tasks that finished running without throwing.
+     *
+     * @return {@link Long}
+     */
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    /**
+     * Get the number of tasks that threw an exception.
+     *
+     * @return {@link Long}
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Get the counters of each task name.
+     *
+     * @return An unmodifiable live view, by task name
+     */
+    @NotNull
+    public Map<String, TaskStats> getTaskStats() {
+        return Collections.unmodifiableMap(tasks);
+    }
+
+    /**
+     * Get how long a task may run before it is logged as slow.
+     *
+     * @param unit The unit to return the threshold in
+     * @return {@link Long}, or 0 if slow tasks are not logged
+     */
+    public long getSlowTaskThreshold(@NotNull TimeUnit unit) {
+        return unit.convert(slowTaskThreshold, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Set how long a task may run before it is logged as slow. Defaults to 5
+     * seconds.
+     *
+     * @param threshold The threshold, or 0 to not log slow tasks
+     * @param unit      The unit of the threshold
+     */
+    public void setSlowTaskThreshold(long threshold, @NotNull TimeUnit unit) {
+        this.slowTaskThreshold = Math.max(0, unit.toNanos(threshold));
+    }
+
+    /**
+     * Reset the histograms and counters. Tasks that are queued or running are
+     * still recorded.
+     */
+    public void reset() {
+        waitTime.reset();
+        runTime.reset();
+        completed.reset();
+        failed.reset();
+        tasks.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "TaskMonitor{" + name + ", queued=" + getQueueDepth() + ", running=" + getRunning() + ", completed="
+                + getCompleted() + ", failed=" + getFailed() + ", wait=[" + waitTime + "], run=[" + runTime + "]}";
+    }
+
+    /**
+     * Undo the bookkeeping of a wrapped task that was rejected by its executor.
+     */
+    void rejected() {
+        submitted.decrement();
+    }
+
+    private Run start(String task, long due) {
+        long now = System.nanoTime();
+        started.increment();
+        waitTime.record(now - due);
+        Run run = new Run(task, Thread.currentThread(), now);
+        running.put(run, Boolean.TRUE);
+        return run;
+    }
+
+    private void finish(Run run, Throwable error) {
+        long elapsed = System.nanoTime() - run.start;
+        running.remove(run);
+        runTime.record(elapsed);
+
+        TaskStats stats = tasks.get(run.task);
+        if (stats == null) {
+            stats = tasks.size() < MAX_NAMES ? tasks.computeIfAbsent(run.task, TaskStats::new)
+                    : tasks.computeIfAbsent("other", TaskStats::new);
+        }
+        stats.count.increment();
+        stats.runTime.add(elapsed);
+
+        if (error == null) {
+            completed.increment();
+        } else {
+            failed.increment();
+            stats.failures.increment();
+        }
+
+        long threshold = slowTaskThreshold;
+        if (threshold > 0 && elapsed >= threshold && !run.reported) {
+            StickyAPI.getLogger().warning("Slow task " + run.task + " on " + name + " took "
+                    + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms");
+        }
+    }
+
+    /**
+     * Log the stack trace of every task that has been running for longer than the
+     * threshold, and has not been logged yet.
+     */
+    private void checkSlowTasks() {
+        long threshold = slowTaskThreshold;
+        if (threshold <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Run run : running.keySet()) {
+            if (!run.reported && now - run.start >= threshold) {
+                run.reported = true;
+                Throwable stack = new Throwable("Stack trace of " + run.thread.getName());
+                stack.setStackTrace(run.thread.getStackTrace());
+                StickyAPI.getLogger().log(Level.WARNING, "Slow task " + run.task + " on " + name
+                        + " has been running for " + TimeUnit.NANOSECONDS.toMillis(now - run.start) + "ms", stack);
+            }
+        }
+    }
+
+    /**
+     * Check for slow tasks every quarter of the threshold (clamped to between 10ms
+     * and a second), until the monitor is garbage collected.
+     */
+    private static void watch(WeakReference<TaskMonitor> reference) {
+        TaskMonitor monitor = reference.get();
+        if (monitor == null) {
+            return;
+        }
+        long threshold = monitor.slowTaskThreshold;
+        long period = threshold <= 0 ? TimeUnit.SECONDS.toNanos(1)
+                : Math.min(TimeUnit.SECONDS.toNanos(1), Math.max(TimeUnit.MILLISECONDS.toNanos(10), threshold / 4));
+        monitor = null;
+
+        WATCHDOG.schedule(() -> {
+            TaskMonitor current = reference.get();
+            if (current != null) {
+                try {
+                    current.checkSlowTasks();
+                } catch (RuntimeException e) {
+                    StickyAPI.getLogger().log(Level.WARNING, "Failed to check for slow tasks", e);
+                }
+                watch(reference);
+            }
+        }, period, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The counters of one task name.
+     */
+    public static final class TaskStats {
+        /**
+         * The name of the task.
+         *
+         * @return {@link String}
+         */
+        @Getter
+        private final String name;
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder runTime = new LongAdder();
+
+        private TaskStats(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Get the number of times the task ran.
+         *
+         * @return {@link Long}
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Get the number of times the task threw an exception.
+         *
+         * @return {@link Long}
+         */
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * Get the total time the task ran for.
+         *
+         * @param unit The unit to return the time in
+         * @return {@link Long}
+         */
+        public long getTotalRunTime(@NotNull TimeUnit unit) {
+            return unit.convert(runTime.sum(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public String toString() {
+            return "TaskStats{" + name + ", count=" + getCount() + ", failures=" + getFailures() + ", runTime="
+                    + getTotalRunTime(TimeUnit.MILLISECONDS) + "ms}";
+        }
+    }
+
+    /**
+     * A task that is running.
+     */
+    private static final class Run {
+        final String task;
+        final Thread thread;
+        final long start;
+        volatile boolean reported = false;
+
+        Run(String task, Thread thread, long start) {
+            this.task = task;
+            this.thread = thread;
+            this.start = start;
+        }
+    }
+
+    private static final class NamedRunnable implements Runnable {
+        final String name;
+        private final Runnable task;
+
+        NamedRunnable(String name, Runnable task) {
+            this.name = name;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * A future that keeps the name of the task it runs, see
+     * {@link InstrumentedExecutor}.
+     */
+    static final class NamedFutureTask<V> extends FutureTask<V> {
+        final String name;
+
+        /**
+         * What the task threw, if it failed.
+         */
+        volatile Throwable failure;
+
+        NamedFutureTask(String name, Callable<V> task) {
+            super(task);
+            this.name = name;
+        }
+
+        NamedFutureTask(String name, Runnable task, V result) {
+            super(task, result);
+            this.name = name;
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            failure = t;
+            super.setException(t);
+        }
+    }
+}
@@ -5,12 +5,17 @@
 package com.dumbdogdiner.stickyapi.common.translation;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.dumbdogdiner.stickyapi.common.config.FileConfiguration;
 import com.dumbdogdiner.stickyapi.common.config.providers.YamlProvider;
 import com.dumbdogdiner.stickyapi.common.util.Debugger;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import lombok.Getter;
 
@@ -29,6 +34,8 @@ public class Locale {
     @Getter
     FileConfiguration localeConfig;
 
+    private Map<String, MessageTemplate> templates = new HashMap<>();
+
     /**
      * Create a new locale object
      * <p>
@@ -38,8 +45,10 @@ public class Locale {
      */
     public Locale(@NotNull File localeFile) {
         this.localeFile = localeFile;
-        try {
-            localeConfig = new YamlProvider(localeFile);
+        // Close the file once it's parsed, so it can be edited and reloaded
+        try (InputStream stream = new FileInputStream(localeFile)) {
+            localeConfig = new YamlProvider(stream);
+            compileTemplates();
             isValid = true;
         } catch (Exception e) {
             e.printStackTrace();
@@ -56,10 +65,42 @@ public class Locale {
      * @return {@link java.lang.String}
      */
     public String get(@NotNull String node) {
-        debug.reset().print("fetching node " + node);
-        debug.print("node value: " + localeConfig.getString(node));
+        debug.reset().print("fetching node %s", node);
+        debug.print(() -> "node value: " + localeConfig.getString(node));
 
         return localeConfig.getString(node);
     }
 
+    /**
+     * Get the compiled template of a locale value.
+     * <p>
+     * Returns the template if the node exists
+     * 
+     * @param node The node to get
+     * @return {@link MessageTemplate}
+     */
+    @Nullable
+    public MessageTemplate getTemplate(@NotNull String node) {
+        return templates.get(node);
+    }
+
+    /**
+     * Get the compiled templates of every value, by node.
+     */
+    Map<String, MessageTemplate> getTemplates() {
+        return templates;
+    }
+
+    /**
+     * Compile every value once, so messages aren't parsed each time they are sent.
+     */
+    private void compileTemplates() {
+        for (String node : localeConfig.getKeys()) {
+            String value = localeConfig.getString(node);
+            if (value != null)
+                templates.put(node, MessageTemplate.compile(value));
+        }
+        debug.print("compiled %s templates", templates.size());
+    }
+
 }
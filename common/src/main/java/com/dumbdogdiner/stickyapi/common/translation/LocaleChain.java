@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.translation;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.dumbdogdiner.stickyapi.common.util.Debugger;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+
+/**
+ * A list of locales to look nodes up in, from the most specific one to the
+ * default locale, such as <code>pt_br</code>, <code>pt</code>, then
+ * <code>en_us</code>.
+ * <p>
+ * The nodes of every locale are merged into a single table when the chain is
+ * created, so looking a node up takes a single hash lookup however long the
+ * chain is. Chains are created by {@link LocaleProvider#forLocale(String)}.
+ */
+public final class LocaleChain {
+    private static final Debugger debug = new Debugger(LocaleChain.class);
+
+    /**
+     * The locales in this chain, from the most specific one to the default
+     * locale.
+     *
+     * @return An unmodifiable list of locales
+     */
+    @Getter
+    private final List<Locale> locales;
+
+    private final Map<String, MessageTemplate> templates;
+
+    private final Function<String, MessageTemplate> nodes;
+
+    LocaleChain(@NotNull List<Locale> locales) {
+        this.locales = Collections.unmodifiableList(locales);
+
+        Map<String, MessageTemplate> merged = new HashMap<>();
+        // Start with the least specific locale, so more specific ones override it
+        for (int i = locales.size() - 1; i >= 0; i--) {
+            merged.putAll(locales.get(i).getTemplates());
+        }
+        this.templates = merged;
+        this.nodes = merged::get;
+    }
+
+    /**
+     * Get the compiled template of a node from the first locale that has it.
+     *
+     * @param node The configuration node to retrieve
+     * @return {@link MessageTemplate}
+     */
+    @Nullable
+    public MessageTemplate getTemplate(@NotNull String node) {
+        return templates.get(node);
+    }
+
+    /**
+     * Get a node from the first locale that has it.
+     * <p>
+     * Returns A configured node string before interpolation of variables has been
+     * performed
+     *
+     * @param node The configuration node to retrieve
+     * @return {@link java.lang.String}
+     */
+    @Nullable
+    public String get(@NotNull String node) {
+        MessageTemplate template = templates.get(node);
+        return template == null ? null : template.getSource();
+    }
+
+    /**
+     * Translate a node with the given variables. Nodes referenced by the message
+     * are looked up in this chain too.
+     * <p>
+     * Returns The configured node string, with vars interpolated when required
+     *
+     * @param node The configuration node to retrieve
+     * @param vars A map of variables to interpolate into the configured node value
+     * @return {@link java.lang.String}
+     */
+    @Nullable
+    public String translate(@NotNull String node, @NotNull Map<String, String> vars) {
+        MessageTemplate template = lookup(node);
+        return template == null ? null : template.renderColored(nodes, vars);
+    }
+
+    /**
+     * Translate a node without color.
+     * <p>
+     * Returns The configured node string without color, with vars interpolated when
+     * required
+     *
+     * @param node The configuration node to retrieve
+     * @param vars A map of variables to interpolate into the configured node value
+     * @return {@link java.lang.String}
+     */
+    @Nullable
+    public String translateNoColor(@NotNull String node, @NotNull Map<String, String> vars) {
+        MessageTemplate template = lookup(node);
+        return template == null ? null : template.render(nodes, vars);
+    }
+
+    private MessageTemplate lookup(String node) {
+        debug.reset();
+
+        if (node == null || node.equals("")) {
+            debug.print("invalid node name");
+            return null;
+        }
+
+        MessageTemplate template = templates.get(node);
+        if (template == null)
+            debug.print("node does not exist");
+
+        return template;
+    }
+}
@@ -5,19 +5,34 @@
 package com.dumbdogdiner.stickyapi.common.translation;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.Map;
 import java.util.TreeMap;
 
+import com.dumbdogdiner.stickyapi.StickyAPI;
+import com.dumbdogdiner.stickyapi.common.scheduler.ParallelJob;
 import com.dumbdogdiner.stickyapi.common.util.Debugger;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import lombok.Getter;
 import lombok.Setter;
 
 /**
  * Provides an interface between locale files and your plugin.
+ * <p>
+ * Messages can be translated in the language of each player with
+ * {@link #forLocale(String)}, which picks locales by the tag at the end of
+ * their name - <code>messages.pt_br.yml</code> is used for clients set to
+ * <code>pt_BR</code>, falling back to <code>messages.pt.yml</code> and then the
+ * default locale for nodes it doesn't have.
  */
 public class LocaleProvider {
     Debugger debug = new Debugger(getClass());
@@ -35,7 +50,15 @@ public class LocaleProvider {
      * @return {@link Locale}
      */
     @Getter
-    private Locale defaultLocale;
+    private volatile Locale defaultLocale;
+
+    /**
+     * The locale chains, replaced whenever a locale is loaded or the default
+     * locale changes.
+     */
+    private volatile Chains chains = new Chains(Collections.emptyMap(), null);
+
+    private LocaleWatcher watcher;
 
     /**
      * Construct a new LocaleProvider using the target folder for storing/loading
@@ -73,15 +96,17 @@ public class LocaleProvider {
      * @return {@link java.lang.Boolean}
      */
     public boolean loadLocale(@NotNull File file) {
-        debug.reset().print("Looking for localization in " + file.getName() + "...");
+        debug.reset().print("Looking for localization in %s...", file.getName());
 
         if (!file.exists() || file.isDirectory()) {
             debug.print("Could not find file - does not exist, or is directory");
             return false;
         }
 
+        String name = localeName(file);
+
         // Ensure the same locale isn't loaded twice.
-        if (loadedLocales.containsKey(file.getName().substring(0, file.getName().length() - 4))) {
+        if (loadedLocales.containsKey(name)) {
             debug.print("Skipping loading locale - already loaded");
             return false;
         }
@@ -92,12 +117,115 @@ public class LocaleProvider {
             return false;
         }
 
-        loadedLocales.put(file.getName().substring(0, file.getName().length() - 4), locale);
-        debug.print("Successfully loaded locale '" + file.getName().substring(0, file.getName().length() - 4) + "'");
+        // The watcher may have loaded it in the meantime
+        if (loadedLocales.putIfAbsent(name, locale) != null) {
+            debug.print("Skipping loading locale - already loaded");
+            return false;
+        }
+        rebuildChains();
+        debug.print("Successfully loaded locale '%s'", name);
 
         return true;
     }
 
+    /**
+     * Reload a locale with the given name, or load it if it isn't loaded yet.
+     * <p>
+     * Returns True if the reload was successful
+     * 
+     * @param name The name of the locale to reload
+     * @return {@link java.lang.Boolean}
+     * @see #reloadLocale(File)
+     */
+    public boolean reloadLocale(@NotNull String name) {
+        if (!name.endsWith(".yml"))
+            name += ".yml";
+
+        return reloadLocale(new File(localeFolder, name));
+    }
+
+    /**
+     * Reload a locale using a file, or load it if it isn't loaded yet.
+     * <p>
+     * The file is parsed and its messages are compiled before the loaded locale
+     * is replaced, so translations keep using the previous version until the new
+     * one is ready. If the file can't be parsed, the previous version is kept.
+     * <p>
+     * Returns True if the reload was successful
+     * 
+     * @param file The file containing the locale configuration
+     * @return {@link java.lang.Boolean}
+     */
+    public boolean reloadLocale(@NotNull File file) {
+        debug.reset().print("Reloading localization from %s...", file.getName());
+
+        if (!file.exists() || file.isDirectory()) {
+            debug.print("Could not find file - does not exist, or is directory");
+            return false;
+        }
+
+        String name = localeName(file);
+
+        Locale locale = new Locale(file);
+        if (!locale.getIsValid()) {
+            debug.print("Encountered an error while loading the locale configuration - keeping the loaded locale");
+            return false;
+        }
+
+        synchronized (this) {
+            Locale previous = loadedLocales.put(name, locale);
+            if (previous != null && previous == defaultLocale)
+                defaultLocale = locale;
+            rebuildChains();
+        }
+        debug.print("Successfully reloaded locale '%s'", name);
+
+        return true;
+    }
+
+    /**
+     * Start watching the locale folder, reloading locale files as they are
+     * created or edited. Files are parsed on a separate thread.
+     * <p>
+     * Returns True if the folder is now being watched
+     * 
+     * @return {@link java.lang.Boolean}
+     * @see #stopWatching()
+     */
+    public synchronized boolean watch() {
+        if (watcher != null)
+            return true;
+
+        try {
+            watcher = new LocaleWatcher(this, localeFolder);
+        } catch (IOException e) {
+            debug.print("Could not watch the locale folder: %s", e.getMessage());
+            return false;
+        }
+        watcher.start();
+        return true;
+    }
+
+    /**
+     * Stop watching the locale folder. This should be called when the plugin is
+     * disabled.
+     */
+    public synchronized void stopWatching() {
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
+    }
+
+    /**
+     * Check whether the locale folder is being watched.
+     * 
+     * @return {@link java.lang.Boolean}
+     */
+    public synchronized boolean isWatching() {
+        return watcher != null;
+    }
+
     /**
      * Load all available locales.
      * <p>
@@ -106,20 +234,84 @@ public class LocaleProvider {
      * @return {@link java.lang.Integer}
      */
     public int loadAllLocales() {
-        int accumulator = 0;
+        return loadAllLocales(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
 
-        for (File file : this.localeFolder.listFiles()) {
-            if (!file.getName().endsWith(".yml"))
+    /**
+     * Load all available locales, parsing up to <code>parallelism</code> files at
+     * once. Blocks until every file is loaded.
+     * <p>
+     * Returns The number of new locales loaded.
+     * 
+     * @param parallelism The most files to parse at once, at least 1
+     * @return {@link java.lang.Integer}
+     */
+    public int loadAllLocales(int parallelism) {
+        debug.reset();
+
+        File[] files = this.localeFolder.listFiles();
+        List<File> pending = new ArrayList<>();
+        for (File file : files == null ? new File[0] : files) {
+            if (!file.getName().endsWith(".yml") || file.isDirectory())
+                continue;
+
+            // Ensure the same locale isn't loaded twice.
+            if (loadedLocales.containsKey(localeName(file))) {
+                debug.print("Skipping loading locale %s - already loaded", file.getName());
                 continue;
+            }
+            pending.add(file);
+        }
 
-            if (loadLocale(file))
+        if (pending.isEmpty()) {
+            debug.print("Loaded 0 locales");
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        // Passed on as is, since ParallelJob keeps a pool for every parallelism it is given
+        long[] parseTimes = new long[pending.size()];
+        List<Integer> indices = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++)
+            indices.add(i);
+        List<Locale> locales = ParallelJob.over(indices).parallelism(parallelism).chunkSize(1).map(i -> {
+            long fileStart = System.nanoTime();
+            Locale locale = new Locale(pending.get(i));
+            parseTimes[i] = System.nanoTime() - fileStart;
+            return locale;
+        }).getResults().join();
+
+        StringBuilder timings = new StringBuilder();
+        int accumulator = 0;
+        for (int i = 0; i < locales.size(); i++) {
+            Locale locale = locales.get(i);
+            String name = localeName(locale.getLocaleFile());
+            timings.append(i == 0 ? "" : ", ").append(pending.get(i).getName()).append(' ')
+                    .append(TimeUnit.NANOSECONDS.toMillis(parseTimes[i])).append("ms");
+            if (!locale.getIsValid()) {
+                debug.print("Encountered an error while loading locale '%s' - skipping load", name);
+                continue;
+            }
+
+            if (loadedLocales.putIfAbsent(name, locale) == null)
                 ++accumulator;
         }
+        // Rebuild once for every locale rather than once per locale
+        rebuildChains();
 
-        debug.print("Loaded " + accumulator + " locales");
+        StickyAPI.getLogger().info("Loaded " + accumulator + " locales in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms (" + timings + ")");
         return accumulator;
     }
 
+    /**
+     * Get the name of the locale in a file, which is its name without the
+     * <code>.yml</code> extension.
+     */
+    private static String localeName(File file) {
+        return file.getName().substring(0, file.getName().length() - 4);
+    }
+
     /**
      * Translate a localization with the given variables.
      * <p>
@@ -130,20 +322,7 @@ public class LocaleProvider {
      * @return {@link java.lang.String}
      */
     public String translate(@NotNull String node, @NotNull Map<String, String> vars) {
-        debug.reset();
-
-        if (node == null || node.equals("")) {
-            debug.print("invalid node name");
-            return null;
-        }
-
-        String message = get(node);
-        if (message == null) {
-            debug.print("node does not exist");
-            return null;
-        }
-
-        return Translation.translate(this, message, "&", vars);
+        return chains.fallback.translate(node, vars);
     }
 
     /**
@@ -157,14 +336,43 @@ public class LocaleProvider {
      * @return {@link java.lang.String}
      */
     public String translateNoColor(@NotNull String node, @NotNull Map<String, String> vars) {
-        if (node == null || node.equals(""))
-            return null;
+        return chains.fallback.translateNoColor(node, vars);
+    }
 
-        String message = get(node);
-        if (message == null)
-            return null;
+    /**
+     * Get the chain of locales to translate messages for a client locale with,
+     * such as the one returned by <code>Player#getLocale()</code>.
+     * <p>
+     * For <code>pt_BR</code>, nodes are looked up in the locale tagged
+     * <code>pt_br</code>, then <code>pt</code>, then the default locale. Tags
+     * are case insensitive, and <code>-</code> may be used instead of
+     * <code>_</code>.
+     * 
+     * @param tag The client locale, or null for the default locale
+     * @return {@link LocaleChain}
+     */
+    @NotNull
+    public LocaleChain forLocale(@Nullable String tag) {
+        Chains chains = this.chains;
+        if (tag == null)
+            return chains.fallback;
+        return chains.get(normalizeTag(tag));
+    }
 
-        return Translation.translateVariables(this, message, vars);
+    /**
+     * Get the chain of locales to translate messages for a client locale with.
+     * 
+     * @param locale The client locale, or null for the default locale
+     * @return {@link LocaleChain}
+     * @see #forLocale(String)
+     */
+    @NotNull
+    public LocaleChain forLocale(@Nullable java.util.Locale locale) {
+        if (locale == null)
+            return chains.fallback;
+        if (locale.getCountry().isEmpty())
+            return forLocale(locale.getLanguage());
+        return forLocale(locale.getLanguage() + "_" + locale.getCountry());
     }
 
     /**
@@ -180,6 +388,19 @@ public class LocaleProvider {
         return defaultLocale == null ? null : defaultLocale.get(node);
     }
 
+    /**
+     * Get the compiled template of a localized value using the default locale.
+     * <p>
+     * Returns The template of a configured node string, or null if it does not
+     * exist
+     * 
+     * @param node The configuration node to retrieve
+     * @return {@link MessageTemplate}
+     */
+    public MessageTemplate getTemplate(@NotNull String node) {
+        return chains.fallback.getTemplate(node);
+    }
+
     /**
      * Get a localized value using an enum of node values.
      * <p>
@@ -251,6 +472,7 @@ public class LocaleProvider {
         }
 
         defaultLocale = loadedLocales.get(name);
+        rebuildChains();
         return true;
     }
 
@@ -263,6 +485,75 @@ public class LocaleProvider {
             throw new IllegalArgumentException("Locale " + name + " is not loaded");
     }
 
+    /**
+     * Index the loaded locales by their tag and resolve a chain for each of them.
+     */
+    private synchronized void rebuildChains() {
+        Map<String, Locale> byTag = new HashMap<>();
+        // Sorted, so the same locale wins if several share a tag
+        for (Map.Entry<String, Locale> entry : new TreeMap<>(loadedLocales).entrySet()) {
+            String name = entry.getKey();
+            byTag.putIfAbsent(normalizeTag(name.substring(name.lastIndexOf('.') + 1)), entry.getValue());
+        }
+
+        Chains chains = new Chains(byTag, defaultLocale);
+        for (String tag : byTag.keySet())
+            chains.get(tag);
+        this.chains = chains;
+    }
+
+    private static String normalizeTag(String tag) {
+        return tag.trim().toLowerCase(java.util.Locale.ROOT).replace('-', '_');
+    }
+
+    /**
+     * The chains resolved for one set of loaded locales.
+     */
+    private static final class Chains {
+        private final Map<String, Locale> byTag;
+        private final Locale defaultLocale;
+        private final LocaleChain fallback;
+        private final ConcurrentHashMap<String, LocaleChain> resolved = new ConcurrentHashMap<>();
+
+        Chains(Map<String, Locale> byTag, Locale defaultLocale) {
+            this.byTag = byTag;
+            this.defaultLocale = defaultLocale;
+            this.fallback = new LocaleChain(
+                    defaultLocale == null ? Collections.emptyList() : Collections.singletonList(defaultLocale));
+        }
+
+        LocaleChain get(String tag) {
+            LocaleChain chain = resolved.get(tag);
+            if (chain != null)
+                return chain;
+
+            chain = resolve(tag);
+            // Don't remember every unknown tag a client sends
+            if (chain != fallback)
+                resolved.putIfAbsent(tag, chain);
+            return chain;
+        }
+
+        private LocaleChain resolve(String tag) {
+            List<Locale> locales = new ArrayList<>();
+            for (String candidate = tag; !candidate.isEmpty();) {
+                Locale locale = byTag.get(candidate);
+                if (locale != null && !locales.contains(locale))
+                    locales.add(locale);
+
+                int separator = candidate.lastIndexOf('_');
+                candidate = separator == -1 ? "" : candidate.substring(0, separator);
+            }
+
+            if (defaultLocale != null && !locales.contains(defaultLocale))
+                locales.add(defaultLocale);
+
+            if (locales.size() == fallback.getLocales().size())
+                return fallback;
+            return new LocaleChain(locales);
+        }
+    }
+
     /**
      * Convenience function for getting a new TreeMap
      * <p>
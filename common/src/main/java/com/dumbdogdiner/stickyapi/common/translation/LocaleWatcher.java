@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.translation;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import com.dumbdogdiner.stickyapi.StickyAPI;
+
+/**
+ * Watches the locale folder of a {@link LocaleProvider} on its own thread,
+ * reloading locale files as they are changed.
+ * <p>
+ * Editors often write a file in several steps, so a file is only reloaded once
+ * it hasn't changed for {@link #QUIET_PERIOD} milliseconds.
+ */
+final class LocaleWatcher implements Runnable {
+    static final long QUIET_PERIOD = 250;
+
+    private final LocaleProvider provider;
+    private final File folder;
+    private final WatchService service;
+    private final Thread thread;
+
+    LocaleWatcher(LocaleProvider provider, File folder) throws IOException {
+        this.provider = provider;
+        this.folder = folder;
+        this.service = FileSystems.getDefault().newWatchService();
+        try {
+            folder.toPath().register(service, ENTRY_CREATE, ENTRY_MODIFY);
+        } catch (IOException | RuntimeException e) {
+            service.close();
+            throw e;
+        }
+
+        this.thread = new Thread(this, "StickyAPI Locale Watcher");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void stop() {
+        try {
+            // Wakes the thread up with a ClosedWatchServiceException
+            service.close();
+        } catch (IOException e) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        Set<String> changed = new LinkedHashSet<>();
+        try {
+            while (true) {
+                WatchKey key = changed.isEmpty() ? service.take()
+                        : service.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS);
+
+                if (key == null) {
+                    // Nothing changed during the quiet period
+                    for (String name : changed) {
+                        try {
+                            provider.reloadLocale(new File(folder, name));
+                        } catch (RuntimeException e) {
+                            // Keep watching, so the file can still be fixed
+                            StickyAPI.getLogger().log(Level.WARNING, "Could not reload locale " + name, e);
+                        }
+                    }
+                    changed.clear();
+                    continue;
+                }
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        // Events were lost, so reload everything
+                        String[] names = folder.list();
+                        for (String name : names == null ? new String[0] : names)
+                            if (name.endsWith(".yml"))
+                                changed.add(name);
+                        continue;
+                    }
+
+                    String name = ((Path) event.context()).getFileName().toString();
+                    if (name.endsWith(".yml"))
+                        changed.add(name);
+                }
+
+                if (!key.reset()) {
+                    StickyAPI.getLogger()
+                            .warning("Locale folder " + folder + " is no longer accessible - stopped watching it");
+                    break;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+}
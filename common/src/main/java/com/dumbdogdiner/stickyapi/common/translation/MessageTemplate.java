@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.translation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+
+/**
+ * A message compiled into literal text, variables and function calls, so that
+ * it can be rendered without scanning it again.
+ * <p>
+ * Placeholders use the format described in {@link Translation#functions}:
+ * <code>{VARIABLE}</code> is replaced with the value of the variable, and
+ * <code>{VARIABLE|function:"argument"}</code> with the result of the function.
+ * A variable that isn't given is looked up as a locale node, and a node is
+ * rendered with the same variables, so nodes may refer to other nodes. Values
+ * of variables are inserted as they are. Placeholders that can't be resolved
+ * are left in the message.
+ * <p>
+ * Templates can also be rendered with <code>&amp;</code> color codes
+ * translated, see {@link Translation#translateColors(String, CharSequence, StringBuilder)}.
+ * The literal text is translated when the template is compiled, and only the
+ * inserted values are translated as the message is rendered. Color codes can't
+ * be split across a placeholder.
+ */
+public final class MessageTemplate {
+    /**
+     * How deep locale nodes may refer to other nodes, to stop nodes that refer
+     * to themselves.
+     */
+    private static final int MAX_DEPTH = 8;
+
+    private static final String COLOR_CHARS = "&";
+
+    /**
+     * The message this template was compiled from.
+     *
+     * @return {@link String}
+     */
+    @Getter
+    private final String source;
+
+    private final String coloredSource;
+
+    private final Segment[] segments;
+
+    private MessageTemplate(String source, Segment[] segments) {
+        this.source = source;
+        this.coloredSource = Translation.translateColors(COLOR_CHARS, source);
+        this.segments = segments;
+    }
+
+    /**
+     * Compile a message.
+     *
+     * @param message The message to compile
+     * @return {@link MessageTemplate}
+     */
+    @NotNull
+    public static MessageTemplate compile(@NotNull String message) {
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int pos = 0;
+        while (pos < message.length()) {
+            int open = message.indexOf('{', pos);
+            int close = open == -1 ? -1 : message.indexOf('}', open + 1);
+            if (close == -1) {
+                break;
+            }
+            // Use the innermost opening brace, so "{{name}" keeps the first brace as text
+            open = message.lastIndexOf('{', close);
+
+            literal.append(message, pos, open);
+            Segment placeholder = placeholder(message.substring(open, close + 1));
+            if (placeholder != null) {
+                if (literal.length() > 0) {
+                    segments.add(new Literal(literal.toString()));
+                    literal.setLength(0);
+                }
+                segments.add(placeholder);
+            } else {
+                literal.append(message, open, close + 1);
+            }
+            pos = close + 1;
+        }
+
+        literal.append(message, pos, message.length());
+        if (literal.length() > 0) {
+            segments.add(new Literal(literal.toString()));
+        }
+        return new MessageTemplate(message, segments.toArray(new Segment[0]));
+    }
+
+    /**
+     * Check whether this template has no placeholders, and so always renders to
+     * its source.
+     *
+     * @return {@link Boolean}
+     */
+    public boolean isStatic() {
+        return segments.length == 0 || (segments.length == 1 && segments[0] instanceof Literal);
+    }
+
+    /**
+     * Render this template.
+     *
+     * @param nodes     Looks up the templates of locale nodes, or null to only use
+     *                  the variables
+     * @param variables The variables to replace placeholders with
+     * @return {@link String}
+     */
+    @NotNull
+    public String render(@Nullable Function<String, MessageTemplate> nodes, @Nullable Map<String, String> variables) {
+        if (isStatic() || variables == null) {
+            return source;
+        }
+        StringBuilder out = new StringBuilder(source.length() + 16 * segments.length);
+        render(out, nodes, variables, 0, false);
+        return out.toString();
+    }
+
+    /**
+     * Render this template, translating <code>&amp;</code> color codes.
+     *
+     * @param nodes     Looks up the templates of locale nodes, or null to only use
+     *                  the variables
+     * @param variables The variables to replace placeholders with
+     * @return {@link String}
+     */
+    @NotNull
+    public String renderColored(@Nullable Function<String, MessageTemplate> nodes,
+            @Nullable Map<String, String> variables) {
+        if (isStatic() || variables == null) {
+            return coloredSource;
+        }
+        StringBuilder out = new StringBuilder(source.length() + 16 * segments.length);
+        render(out, nodes, variables, 0, true);
+        return out.toString();
+    }
+
+    /**
+     * Render this template, appending it to a buffer.
+     *
+     * @param out       The buffer to append to
+     * @param nodes     Looks up the templates of locale nodes, or null to only use
+     *                  the variables
+     * @param variables The variables to replace placeholders with
+     */
+    public void render(@NotNull StringBuilder out, @Nullable Function<String, MessageTemplate> nodes,
+            @Nullable Map<String, String> variables) {
+        if (variables == null) {
+            out.append(source);
+        } else {
+            render(out, nodes, variables, 0, false);
+        }
+    }
+
+    /**
+     * Render this template, translating <code>&amp;</code> color codes and
+     * appending it to a buffer.
+     *
+     * @param out       The buffer to append to
+     * @param nodes     Looks up the templates of locale nodes, or null to only use
+     *                  the variables
+     * @param variables The variables to replace placeholders with
+     */
+    public void renderColored(@NotNull StringBuilder out, @Nullable Function<String, MessageTemplate> nodes,
+            @Nullable Map<String, String> variables) {
+        if (variables == null) {
+            out.append(coloredSource);
+        } else {
+            render(out, nodes, variables, 0, true);
+        }
+    }
+
+    private void render(StringBuilder out, Function<String, MessageTemplate> nodes, Map<String, String> variables,
+            int depth, boolean colors) {
+        for (Segment segment : segments) {
+            segment.render(out, nodes, variables, depth, colors);
+        }
+    }
+
+    private static void append(StringBuilder out, String value, boolean colors) {
+        if (colors) {
+            Translation.translateColors(COLOR_CHARS, value, out);
+        } else {
+            out.append(value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    /**
+     * Parse a placeholder, including its braces.
+     */
+    private static Segment placeholder(String raw) {
+        String inner = raw.substring(1, raw.length() - 1);
+        int bar = inner.indexOf('|');
+        if (bar == -1) {
+            return inner.isEmpty() ? null : new Variable(raw, inner);
+        }
+
+        String name = inner.substring(0, bar).trim();
+        int end = inner.indexOf('|', bar + 1);
+        String call = inner.substring(bar + 1, end == -1 ? inner.length() : end);
+
+        String argument = "";
+        int colon = call.indexOf(':');
+        if (colon != -1) {
+            argument = unquote(call.substring(colon + 1).trim());
+            call = call.substring(0, colon);
+        }
+        call = call.trim();
+        return call.isEmpty() ? null : new Call(raw, name, call, argument);
+    }
+
+    private static String unquote(String argument) {
+        if (argument.length() >= 2) {
+            char quote = argument.charAt(0);
+            if ((quote == '"' || quote == '\'') && argument.charAt(argument.length() - 1) == quote) {
+                return argument.substring(1, argument.length() - 1);
+            }
+        }
+        return argument;
+    }
+
+    private abstract static class Segment {
+        abstract void render(StringBuilder out, Function<String, MessageTemplate> nodes,
+                Map<String, String> variables, int depth, boolean colors);
+    }
+
+    private static final class Literal extends Segment {
+        private final String text;
+        private final String colored;
+
+        Literal(String text) {
+            this.text = text;
+            this.colored = Translation.translateColors(COLOR_CHARS, text);
+        }
+
+        @Override
+        void render(StringBuilder out, Function<String, MessageTemplate> nodes, Map<String, String> variables,
+                int depth, boolean colors) {
+            out.append(colors ? colored : text);
+        }
+    }
+
+    private static final class Variable extends Segment {
+        private final String raw;
+        private final String name;
+
+        Variable(String raw, String name) {
+            this.raw = raw;
+            this.name = name;
+        }
+
+        @Override
+        void render(StringBuilder out, Function<String, MessageTemplate> nodes, Map<String, String> variables,
+                int depth, boolean colors) {
+            String value = variables.get(name);
+            if (value != null) {
+                append(out, value, colors);
+                return;
+            }
+
+            MessageTemplate node = nodes == null ? null : nodes.apply(name);
+            if (node == null) {
+                append(out, raw, colors);
+            } else if (depth < MAX_DEPTH) {
+                node.render(out, nodes, variables, depth + 1, colors);
+            } else {
+                out.append(colors ? node.coloredSource : node.source);
+            }
+        }
+    }
+
+    private static final class Call extends Segment {
+        private final String raw;
+        private final String name;
+        private final String function;
+        private final String argument;
+
+        Call(String raw, String name, String function, String argument) {
+            this.raw = raw;
+            this.name = name;
+            this.function = function;
+            this.argument = argument;
+        }
+
+        @Override
+        void render(StringBuilder out, Function<String, MessageTemplate> nodes, Map<String, String> variables,
+                int depth, boolean colors) {
+            // Looked up on every render, as functions may be added at any time
+            BiFunction<String, String, String> fn = Translation.functions.get(function);
+            if (fn == null) {
+                append(out, raw, colors);
+                return;
+            }
+
+            String value = variables.get(name);
+            if (value == null && nodes != null) {
+                MessageTemplate node = nodes.apply(name);
+                value = node == null ? null : node.source;
+            }
+            append(out, String.valueOf(fn.apply(value, argument)), colors);
+        }
+    }
+}
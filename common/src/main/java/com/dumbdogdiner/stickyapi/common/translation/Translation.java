@@ -13,6 +13,8 @@ import java.util.TreeMap;
 
 import com.dumbdogdiner.stickyapi.common.util.TimeUtil;
 
+import org.jetbrains.annotations.NotNull;
+
 /**
  * A class for parsing configurations
  */
@@ -140,6 +142,19 @@ public class Translation {
 
     public static final char SPECIAL_CHAR = '\u00A7';
 
+    // Flags for each ASCII character, so the translator can tell what follows a
+    // color prefix with a single array lookup.
+    private static final byte LEGACY_CODE = 1;
+    private static final byte HEX_DIGIT = 2;
+    private static final byte[] COLOR_TABLE = new byte[128];
+
+    static {
+        for (char ch : "0123456789abcdefklmnorABCDEFKLMNOR".toCharArray())
+            COLOR_TABLE[ch] |= LEGACY_CODE;
+        for (char ch : "0123456789abcdefABCDEF".toCharArray())
+            COLOR_TABLE[ch] |= HEX_DIGIT;
+    }
+
     /**
      * Replace the character sequence in `chars` to swap out with the minecraft
      * color char while also validating that the color code sequence is valid.
@@ -151,38 +166,130 @@ public class Translation {
      *                minecraft uses for color codes
      * @param message Message containing sequences of `chars` in it
      * @return {@link java.lang.String}.
+     * @see #translateColors(String, CharSequence, StringBuilder)
      */
     public static String translateColors(String chars, String message) {
         if (message == null)
             return null;
 
-        if (chars == null)
+        if (chars == null || chars.isEmpty())
             return message;
 
         // Don't allocate if we don't have to.
-        if (!message.contains(chars))
+        if (message.indexOf(chars) == -1)
             return message;
 
+        // Legacy codes keep the length of the message, so with the usual single
+        // character prefix they can be translated in place.
+        if (chars.length() == 1) {
+            String translated = translateLegacyColors(chars.charAt(0), message);
+            if (translated != null)
+                return translated;
+        }
+
+        // Each hex color grows by 8 characters, leave room for one
+        StringBuilder retstr = new StringBuilder(message.length() + 8);
+        translateColors(chars, message, retstr);
+        return retstr.toString();
+    }
+
+    /**
+     * Translate the legacy codes of a message by swapping out their prefix.
+     * 
+     * @return The translated message, or null if it has hex colors
+     */
+    private static String translateLegacyColors(char prefix, String message) {
+        int length = message.length();
         StringBuilder retstr = new StringBuilder(message);
-        for (int pos = message.indexOf(chars); pos != -1; pos = message.indexOf(chars, pos)) {
-            if (pos + 1 > message.length())
+        for (int pos = message.indexOf(prefix); pos != -1 && pos + 1 < length; pos = message.indexOf(prefix, pos)) {
+            char ch = message.charAt(pos + 1);
+            if (ch < 128 && (COLOR_TABLE[ch] & LEGACY_CODE) != 0)
+                retstr.setCharAt(pos, SPECIAL_CHAR);
+            else if (ch == '#' && isHexColor(message, pos + 2))
+                return null;
+            // Skip over the code, valid or not.
+            pos += 2;
+        }
+        return retstr.toString();
+    }
+
+    /**
+     * Replace the character sequence in `chars` with the section character
+     * Minecraft uses for color codes, appending the result to a buffer.
+     * <p>
+     * The message is translated in a single pass. Legacy codes (<code>&amp;c</code>,
+     * <code>&amp;l</code>, <code>&amp;r</code>...) become <code>\u00A7c</code>,
+     * and hex colors written as <code>&amp;#RRGGBB</code> become the
+     * <code>\u00A7x\u00A7R\u00A7R\u00A7G\u00A7G\u00A7B\u00A7B</code> form clients
+     * understand. Invalid sequences are left untouched.
+     * 
+     * @param chars   Character sequence to replace with the section character
+     *                minecraft uses for color codes
+     * @param message Message containing sequences of `chars` in it
+     * @param out     The buffer to append the translated message to
+     */
+    public static void translateColors(@NotNull String chars, @NotNull CharSequence message,
+            @NotNull StringBuilder out) {
+        int length = message.length();
+        int prefixLength = chars.length();
+        if (prefixLength == 0) {
+            out.append(message);
+            return;
+        }
+
+        char first = chars.charAt(0);
+        int copied = 0;
+        for (int pos = 0; pos < length; pos++) {
+            if (message.charAt(pos) != first || !startsWith(message, chars, pos))
+                continue;
+
+            int code = pos + prefixLength;
+            if (code >= length)
                 break;
 
-            // Make sure the next char is valid hex as Minecraft uses a hexidecimal number
-            if (Translation.isxdigit(message.charAt(pos + 1))) {
-                // Now we replace the starting char with our special char.
-                retstr.setCharAt(pos, SPECIAL_CHAR);
-                pos += 2;
-            } else // Skip 2 characters, invalid sequence.
-                pos += 2;
+            char ch = message.charAt(code);
+            if (ch < 128 && (COLOR_TABLE[ch] & LEGACY_CODE) != 0) {
+                out.append(message, copied, pos).append(SPECIAL_CHAR).append(ch);
+                copied = code + 1;
+            } else if (ch == '#' && isHexColor(message, code + 1)) {
+                out.append(message, copied, pos).append(SPECIAL_CHAR).append('x');
+                for (int i = code + 1; i < code + 7; i++)
+                    out.append(SPECIAL_CHAR).append(message.charAt(i));
+                copied = code + 7;
+                code += 6;
+            }
+            // Skip over the code, valid or not.
+            pos = code;
         }
+        out.append(message, copied, length);
+    }
 
-        return retstr.toString();
+    private static boolean startsWith(CharSequence message, String prefix, int pos) {
+        if (pos + prefix.length() > message.length())
+            return false;
+        for (int i = 1; i < prefix.length(); i++) {
+            if (message.charAt(pos + i) != prefix.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isHexColor(CharSequence message, int start) {
+        if (start + 6 > message.length())
+            return false;
+        for (int i = start; i < start + 6; i++) {
+            char ch = message.charAt(i);
+            if (ch >= 128 || (COLOR_TABLE[ch] & HEX_DIGIT) == 0)
+                return false;
+        }
+        return true;
     }
 
     // Used to replace variables inside of strings.
     // {Player} has been banned by {Executioner}: {Reason}
     // {Player has been banned by CONSOLE: fuck you.
+    // Messages from a locale are compiled once when it is loaded, see
+    // LocaleProvider#getTemplate.
     /**
      * Replace all placeholders in a string, executing placeholder functions in the
      * process to format strings with variables provided.
@@ -201,53 +308,7 @@ public class Translation {
         if (!message.contains("{") || Variables == null)
             return message;
 
-        String retstr = message;
-        // Try and iterate over all our variables.
-        for (int pos = retstr.indexOf("{"), pos2 = retstr.indexOf("}", pos); pos != -1
-                && pos2 != -1; pos = retstr.indexOf("{", pos + 1), pos2 = retstr.indexOf("}", pos + 1)) {
-            // If we're longer than we should be.
-            if (pos + 1 > retstr.length() || pos2 + 1 > retstr.length())
-                break;
-
-            // Substring.
-            String variable = retstr.substring(pos + 1, pos2);
-            String replacement = null;
-
-            // If the variable contains a | (verticle bar), then we tokenize on `|` and
-            // treat the lvalue as a variable and the rvalue as a function name. The
-            // functions are stored as a hashmap and only take one string argument
-            // ("dereferenced" value of the lvalue map name.). This allows us to do things
-            // like conditionally pluralize words and such in the config.
-            if (variable.contains("|")) {
-                String values[] = variable.split("\\|");
-                String rvalue = values[1], lvalue = values[0].trim();
-
-                // Allow recursive locale nodes.
-                String value = Variables.get(lvalue);
-                if (value == null)
-                    value = locale.get(lvalue);
-
-                if (rvalue.contains(":")) {
-                    int nextsplit = rvalue.indexOf(":");
-                    rvalue = rvalue.substring(0, nextsplit);
-                    String argument = values[1].substring(nextsplit + 2, values[1].length() - 1);
-
-                    replacement = functions.get(rvalue.trim()).apply(value, argument);
-                } else // (Functions.containsKey(rvalue.trim()) &&
-                       // Variables.containsKey(lvalue.trim()))
-                    replacement = functions.get(rvalue.trim()).apply(value, "");
-            } else if (Variables.containsKey(variable) || locale.get(variable) != null) {
-                // Now we replace it with our value from the map.
-                if (Variables.containsKey(variable))
-                    replacement = Variables.get(variable);
-                else
-                    replacement = locale.get(variable);
-            }
-
-            if (replacement != null)
-                retstr = retstr.substring(0, pos) + replacement + retstr.substring(pos2 + 1);
-        }
-        return retstr;
+        return MessageTemplate.compile(message).render(locale == null ? null : locale::getTemplate, Variables);
     }
 
     /**
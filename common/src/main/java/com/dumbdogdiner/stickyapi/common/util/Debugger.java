@@ -5,6 +5,7 @@
 package com.dumbdogdiner.stickyapi.common.util;
 
 import java.util.Random;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 import org.jetbrains.annotations.NotNull;
@@ -15,6 +16,18 @@ import lombok.Getter;
 
 /**
  * Utility class for debugging.
+ * <p>
+ * Debug calls on hot paths should not build their message unless debugging is
+ * enabled. Use the format overloads, which only format the message (and, for up
+ * to three arguments, only allocate) once the enabled check has passed:
+ * 
+ * <pre>
+ * debug.print("Got cached entry for %s with key %s", name, key);
+ * </pre>
+ * 
+ * or pass a {@link Supplier} for messages that are expensive to compute. Starting
+ * the JVM with <code>-Dstickyapi.debug.disabled=true</code> turns every call into
+ * a constant branch that the JIT removes entirely.
  */
 public class Debugger {
     /**
@@ -23,9 +36,14 @@ public class Debugger {
     @Setter
     private static Logger logger = Logger.getLogger("DEBUG");
 
+    /**
+     * Whether debugging can be enabled at all. As this is a constant, the JIT can
+     * drop debug calls entirely when it is false.
+     */
+    private static final boolean AVAILABLE = !Boolean.getBoolean("stickyapi.debug.disabled");
+
     @Setter
-    @Getter
-    private static boolean enabled = false;
+    private static volatile boolean enabled = false;
 
     /**
      * The time at which this debugger instance began logging.
@@ -60,6 +78,15 @@ public class Debugger {
         this.clazz = clazz;
     }
 
+    /**
+     * Check whether debug messages are printed.
+     * 
+     * @return {@link Boolean}
+     */
+    public static boolean isEnabled() {
+        return AVAILABLE && enabled;
+    }
+
     /**
      * Print a debug message.
      * 
@@ -67,23 +94,92 @@ public class Debugger {
      * @param args   to format the message with
      */
     public void print(@Nullable Object object, @Nullable Object... args) {
-        if (enabled) {
-            logger.info(String.format(COLOR + "[" + ++logCount + " | " + clazz.getSimpleName() + ".class: "
-                    + dddGetThisLineOfWhereverThisThingIsCalleduwu() + "] \u00A7r" + object + " | " // \u00A7 = section
-                                                                                                    // symbol
-                    + ((System.nanoTime() - startTime) / 1e3) + "μ", args));
+        if (isEnabled()) {
+            log(object, args);
+        }
+    }
+
+    /**
+     * Print a debug message.
+     * 
+     * @param object to print.
+     */
+    public void print(@Nullable Object object) {
+        if (isEnabled()) {
+            log(object);
+        }
+    }
+
+    /**
+     * Print a debug message, formatted with one argument.
+     * 
+     * @param format to format the argument with.
+     * @param arg    to format the message with
+     */
+    public void print(@Nullable String format, @Nullable Object arg) {
+        if (isEnabled()) {
+            log(format, arg);
+        }
+    }
+
+    /**
+     * Print a debug message, formatted with two arguments.
+     * 
+     * @param format to format the arguments with.
+     * @param arg1   to format the message with
+     * @param arg2   to format the message with
+     */
+    public void print(@Nullable String format, @Nullable Object arg1, @Nullable Object arg2) {
+        if (isEnabled()) {
+            log(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * Print a debug message, formatted with three arguments.
+     * 
+     * @param format to format the arguments with.
+     * @param arg1   to format the message with
+     * @param arg2   to format the message with
+     * @param arg3   to format the message with
+     */
+    public void print(@Nullable String format, @Nullable Object arg1, @Nullable Object arg2,
+            @Nullable Object arg3) {
+        if (isEnabled()) {
+            log(format, arg1, arg2, arg3);
         }
     }
 
+    /**
+     * Print a debug message that is only computed if debugging is enabled.
+     * 
+     * @param message supplying the message to print.
+     */
+    public void print(@NotNull Supplier<?> message) {
+        if (isEnabled()) {
+            log(message.get());
+        }
+    }
+
+    private void log(Object object, Object... args) {
+        logger.info(String.format(COLOR + "[" + ++logCount + " | " + clazz.getSimpleName() + ".class: "
+                + dddGetThisLineOfWhereverThisThingIsCalleduwu() + "] \u00A7r" + object + " | " // \u00A7 = section
+                                                                                                // symbol
+                + ((System.nanoTime() - startTime) / 1e3) + "μ", args));
+    }
+
     /**
      * Reset this debugger instance, setting <code>startTime</code> to the current
-     * time, and <code>logCount</code> to 0.
+     * time, and <code>logCount</code> to 0. Does nothing while debugging is
+     * disabled.
      * 
      * @return {@link Debugger}
      */
     public Debugger reset() {
-        startTime = System.nanoTime();
-        logCount = 0;
+        if (isEnabled()) {
+            startTime = System.nanoTime();
+            logCount = 0;
+        }
         return this;
     }
 
@@ -100,7 +196,7 @@ public class Debugger {
     // Thanks Brian! https://stackoverflow.com/a/26410435/11988998
     private int dddGetThisLineOfWhereverThisThingIsCalleduwu() {
         boolean thisOne = false;
-        int thisOneCountDown = 1;
+        int thisOneCountDown = 2;
         StackTraceElement[] elements = Thread.currentThread().getStackTrace();
         for (StackTraceElement element : elements) {
             String methodName = element.getMethodName();
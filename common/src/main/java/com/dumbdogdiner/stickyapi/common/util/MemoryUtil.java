@@ -4,8 +4,17 @@
  */
 package com.dumbdogdiner.stickyapi.common.util;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.dumbdogdiner.stickyapi.common.util.reflection.ReflectionUtil;
 
@@ -14,11 +23,42 @@ import com.dumbdogdiner.stickyapi.common.util.reflection.ReflectionUtil;
  * objects. This can never be 100% accurate, since the JVM creates some overhead
  * with each new object, but can be useful to measure the estimated size of an
  * object.
+ * <p>
+ * {@link #getDeepSizeOf(Object)} walks the object graph iteratively, visiting
+ * every object once, and estimates sizes from a per-class field layout that is
+ * only computed the first time a class is seen. It assumes a 64-bit JVM with
+ * compressed references, which is the default for heaps under 32 GB.
  */
 public final class MemoryUtil {
     private MemoryUtil() {
     }
 
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ALIGNMENT = 8;
+
+    /**
+     * The estimated layout of a class - its shallow size, and the reference fields
+     * to follow when measuring an instance.
+     */
+    private static final class Layout {
+        private final long shallowSize;
+        private final Field[] references;
+
+        private Layout(long shallowSize, Field[] references) {
+            this.shallowSize = shallowSize;
+            this.references = references;
+        }
+    }
+
+    private static final ClassValue<Layout> LAYOUTS = new ClassValue<Layout>() {
+        @Override
+        protected Layout computeValue(Class<?> clazz) {
+            return computeLayout(clazz);
+        }
+    };
+
     public enum Unit {
         BITS, BYTES, KILOBYTES, MEGABYTES
     }
@@ -57,12 +97,83 @@ public final class MemoryUtil {
         }
     }
 
+    /**
+     * Get the approximate retained size of an object in bytes - the object itself,
+     * plus everything reachable from it. Each object is counted once, no matter
+     * how often it is referenced, so cyclic graphs are fine.
+     * <p>
+     * Classes, enum constants, class loaders and threads reachable from the
+     * object are not counted, since they are shared. Objects of JDK classes are not reflected into;
+     * strings, arrays, collections and maps are measured through their public
+     * API instead.
+     * 
+     * @param object The object to get the size of
+     * @return {@link Long}
+     */
+    public static long getDeepSizeOf(Object object) {
+        if (object == null) {
+            return 0;
+        }
+
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayDeque<Object> pending = new ArrayDeque<>();
+        pending.push(object);
+        long size = 0;
+
+        while (!pending.isEmpty()) {
+            Object current = pending.pop();
+            if (!visited.add(current)) {
+                continue;
+            }
+
+            Class<?> clazz = current.getClass();
+            if (clazz.isArray()) {
+                size += sizeOfArray(current, pending);
+                continue;
+            }
+
+            Layout layout = LAYOUTS.get(clazz);
+            size += layout.shallowSize;
+
+            if (current instanceof String) {
+                // Assumes compact (one byte per character) strings
+                size += align(ARRAY_HEADER + ((String) current).length());
+            } else if (current instanceof Collection && layout.references == null) {
+                size += sizeOfElements(((Collection<?>) current).toArray(), pending);
+            } else if (current instanceof Map && layout.references == null) {
+                List<Object> contents = new ArrayList<>();
+                try {
+                    for (Map.Entry<?, ?> entry : ((Map<?, ?>) current).entrySet()) {
+                        contents.add(entry.getKey());
+                        contents.add(entry.getValue());
+                    }
+                } catch (RuntimeException e) {
+                    // Modified concurrently - measure what we have
+                }
+                size += sizeOfElements(contents.toArray(), pending);
+            } else if (layout.references != null) {
+                for (Field field : layout.references) {
+                    try {
+                        push(field.get(current), pending);
+                    } catch (IllegalAccessException e) {
+                        // Accessibility was granted when computing the layout
+                    }
+                }
+            }
+        }
+
+        return size;
+    }
+
     /**
      * Get the approximate size of the given object.
      * 
      * @param object The object to get the size of
      * @return {@link Integer}
+     * @deprecated Recurses into every field, overflowing the stack on cyclic
+     *             objects. Use {@link #getDeepSizeOf(Object)} instead.
      */
+    @Deprecated
     public static int getSizeOf(Object object) {
         if (object == null) {
             return 0;
@@ -119,4 +230,92 @@ public final class MemoryUtil {
             // how this could happen)
             return 0;
     }
+
+    /**
+     * Measure an array, queueing its elements if they are objects.
+     */
+    private static long sizeOfArray(Object array, ArrayDeque<Object> pending) {
+        Class<?> component = array.getClass().getComponentType();
+        int length = Array.getLength(array);
+        if (component.isPrimitive()) {
+            return align(ARRAY_HEADER + (long) length * sizeOfType(component));
+        }
+
+        Object[] elements = (Object[]) array;
+        for (Object element : elements) {
+            push(element, pending);
+        }
+        return align(ARRAY_HEADER + (long) length * REFERENCE);
+    }
+
+    /**
+     * Estimate the internal storage of a JDK collection holding the given
+     * elements, queueing the elements themselves.
+     */
+    private static long sizeOfElements(Object[] elements, ArrayDeque<Object> pending) {
+        for (Object element : elements) {
+            push(element, pending);
+        }
+        // A backing array or one node per element, at roughly a reference and a
+        // small header each
+        return align(ARRAY_HEADER + (long) elements.length * REFERENCE) + (long) elements.length * OBJECT_HEADER;
+    }
+
+    private static void push(Object object, ArrayDeque<Object> pending) {
+        if (object == null || object instanceof Class || object instanceof Enum || object instanceof ClassLoader
+                || object instanceof Thread) {
+            return;
+        }
+        pending.push(object);
+    }
+
+    /**
+     * Compute the layout of a class from its instance fields and those of its
+     * superclasses. JDK classes get no reference fields, since their internals
+     * are not open to reflection on newer Java versions.
+     */
+    private static Layout computeLayout(Class<?> clazz) {
+        boolean internal = clazz.getName().startsWith("java.") || clazz.getName().startsWith("javax.")
+                || clazz.getName().startsWith("jdk.") || clazz.getName().startsWith("sun.");
+        long size = OBJECT_HEADER;
+        List<Field> references = new ArrayList<>();
+
+        for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+
+                Class<?> type = field.getType();
+                size += sizeOfType(type);
+                if (!internal && !type.isPrimitive()) {
+                    try {
+                        field.setAccessible(true);
+                        references.add(field);
+                    } catch (RuntimeException e) {
+                        // Not open to us - count the reference, but not what it points to
+                    }
+                }
+            }
+        }
+
+        return new Layout(align(size), internal ? null : references.toArray(new Field[0]));
+    }
+
+    private static int sizeOfType(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == boolean.class || type == byte.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) & -ALIGNMENT;
+    }
 }
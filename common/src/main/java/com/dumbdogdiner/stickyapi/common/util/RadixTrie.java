@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A map from strings to values, stored as a radix trie - a tree whose edges are
+ * labelled with strings, where chains of nodes with a single child are merged
+ * into one edge.
+ * <p>
+ * Looking a key up takes time proportional to the length of the key, however
+ * many keys there are, and finding every key starting with a prefix takes time
+ * proportional to the length of the prefix plus the number of keys found. Keys
+ * are compared character by character, so callers wanting case-insensitive keys
+ * should convert them to one case first.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class RadixTrie<V> {
+    private final Node<V> root = new Node<>("");
+    private int size = 0;
+
+    private static final class Node<V> {
+        private String label;
+        private V value;
+        private boolean hasValue;
+
+        /**
+         * Children, sorted by the first character of their label. No two children
+         * start with the same character.
+         */
+        private final ArrayList<Node<V>> children = new ArrayList<>(0);
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private int indexOf(char first) {
+            int low = 0;
+            int high = children.size() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char c = children.get(middle).label.charAt(0);
+                if (c < first) {
+                    low = middle + 1;
+                } else if (c > first) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private Node<V> child(char first) {
+            int index = indexOf(first);
+            return index < 0 ? null : children.get(index);
+        }
+
+        private void setChild(Node<V> child) {
+            int index = indexOf(child.label.charAt(0));
+            if (index < 0) {
+                children.add(-(index + 1), child);
+            } else {
+                children.set(index, child);
+            }
+        }
+    }
+
+    /**
+     * Get the number of keys in this trie.
+     * 
+     * @return {@link Integer}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether this trie has no keys.
+     * 
+     * @return {@link Boolean}
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove every key from this trie.
+     */
+    public void clear() {
+        root.children.clear();
+        root.value = null;
+        root.hasValue = false;
+        size = 0;
+    }
+
+    /**
+     * Associate a value with a key, replacing any value it had before.
+     * 
+     * @param key   The key
+     * @param value The value
+     * @return The previous value, or null if there was none
+     */
+    @Nullable
+    public V put(@NotNull String key, @Nullable V value) {
+        Node<V> node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node<V> child = node.child(key.charAt(i));
+            if (child == null) {
+                Node<V> leaf = new Node<>(key.substring(i));
+                leaf.value = value;
+                leaf.hasValue = true;
+                node.setChild(leaf);
+                size++;
+                return null;
+            }
+
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge where the key leaves it
+                Node<V> split = new Node<>(child.label.substring(0, common));
+                node.setChild(split);
+                child.label = child.label.substring(common);
+                split.setChild(child);
+                child = split;
+            }
+            node = child;
+            i += common;
+        }
+
+        V previous = node.value;
+        if (!node.hasValue) {
+            size++;
+        }
+        node.value = value;
+        node.hasValue = true;
+        return previous;
+    }
+
+    /**
+     * Get the value of a key.
+     * 
+     * @param key The key
+     * @return The value, or null if the key is not in this trie
+     */
+    @Nullable
+    public V get(@NotNull String key) {
+        Node<V> node = find(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Check whether a key is in this trie.
+     * 
+     * @param key The key
+     * @return {@link Boolean}
+     */
+    public boolean containsKey(@NotNull String key) {
+        Node<V> node = find(key);
+        return node != null && node.hasValue;
+    }
+
+    /**
+     * Remove a key from this trie.
+     * 
+     * @param key The key
+     * @return The value it had, or null if it was not in this trie
+     */
+    @Nullable
+    public V remove(@NotNull String key) {
+        Node<V> parent = null;
+        Node<V> node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node<V> child = node.child(key.charAt(i));
+            if (child == null || !key.startsWith(child.label, i)) {
+                return null;
+            }
+            parent = node;
+            node = child;
+            i += child.label.length();
+        }
+        if (!node.hasValue) {
+            return null;
+        }
+
+        V previous = node.value;
+        node.value = null;
+        node.hasValue = false;
+        size--;
+
+        if (parent == null) {
+            return previous;
+        }
+        if (node.children.isEmpty()) {
+            parent.children.remove(parent.indexOf(node.label.charAt(0)));
+            // The parent may now be a needless node with a single child
+            if (parent != root && !parent.hasValue && parent.children.size() == 1) {
+                merge(parent);
+            }
+        } else if (node.children.size() == 1) {
+            merge(node);
+        }
+        return previous;
+    }
+
+    /**
+     * Get the values of every key starting with a prefix, in the order of their
+     * keys.
+     * 
+     * @param prefix The prefix
+     * @return {@link List}
+     */
+    @NotNull
+    public List<V> values(@NotNull String prefix) {
+        return values(prefix, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the values of the first keys starting with a prefix, in the order of
+     * their keys.
+     * 
+     * @param prefix The prefix
+     * @param limit  The most values to return
+     * @return {@link List}
+     */
+    @NotNull
+    public List<V> values(@NotNull String prefix, int limit) {
+        var values = new ArrayList<V>();
+        Node<V> node = findPrefix(prefix);
+        if (node != null) {
+            collectValues(node, values, limit);
+        }
+        return values;
+    }
+
+    /**
+     * Get every key starting with a prefix, in order.
+     * 
+     * @param prefix The prefix
+     * @return {@link List}
+     */
+    @NotNull
+    public List<String> keys(@NotNull String prefix) {
+        var keys = new ArrayList<String>();
+        // The node found may cover more than the prefix, so rebuild its key
+        Node<V> node = root;
+        var key = new StringBuilder();
+        int i = 0;
+        while (i < prefix.length()) {
+            Node<V> child = node.child(prefix.charAt(i));
+            if (child == null || !matchesPartly(child.label, prefix, i)) {
+                return keys;
+            }
+            node = child;
+            key.append(child.label);
+            i += child.label.length();
+        }
+        collectKeys(node, key, keys);
+        return keys;
+    }
+
+    private Node<V> find(String key) {
+        Node<V> node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node<V> child = node.child(key.charAt(i));
+            if (child == null || !key.startsWith(child.label, i)) {
+                return null;
+            }
+            node = child;
+            i += child.label.length();
+        }
+        return node;
+    }
+
+    /**
+     * Find the highest node whose keys all start with the prefix.
+     */
+    private Node<V> findPrefix(String prefix) {
+        Node<V> node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node<V> child = node.child(prefix.charAt(i));
+            if (child == null || !matchesPartly(child.label, prefix, i)) {
+                return null;
+            }
+            node = child;
+            i += child.label.length();
+        }
+        return node;
+    }
+
+    /**
+     * Check whether a label and the rest of a prefix agree for as long as both
+     * go on.
+     */
+    private static boolean matchesPartly(String label, String prefix, int offset) {
+        int length = Math.min(label.length(), prefix.length() - offset);
+        return prefix.regionMatches(offset, label, 0, length);
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int length = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Merge a node without a value into its only child.
+     */
+    private static <V> void merge(Node<V> node) {
+        Node<V> child = node.children.get(0);
+        node.label = node.label + child.label;
+        node.value = child.value;
+        node.hasValue = child.hasValue;
+        node.children.clear();
+        node.children.addAll(child.children);
+    }
+
+    private static <V> void collectValues(Node<V> node, List<V> values, int limit) {
+        if (node.hasValue && values.size() < limit) {
+            values.add(node.value);
+        }
+        for (int i = 0; i < node.children.size() && values.size() < limit; i++) {
+            collectValues(node.children.get(i), values, limit);
+        }
+    }
+
+    private static <V> void collectKeys(Node<V> node, StringBuilder key, List<String> keys) {
+        if (node.hasValue) {
+            keys.add(key.toString());
+        }
+        for (Node<V> child : node.children) {
+            int length = key.length();
+            key.append(child.label);
+            collectKeys(child, key, keys);
+            key.setLength(length);
+        }
+    }
+}
@@ -218,11 +218,28 @@ public final class TimeUtil {
      * @return {@link java.lang.String}
      */
     public static Optional<Long> duration(@NotNull String string) {
+        long duration = parseDuration(string, 0, string.length());
+        return duration < 0 ? Optional.empty() : Optional.of(duration);
+    }
+
+    /**
+     * Parse part of a sequence of characters as a duration string, without
+     * copying it into a string first.
+     * <p>
+     * Returns the duration converted to seconds, or -1 if it is not a valid
+     * duration string
+     * 
+     * @param chars the characters to parse
+     * @param start the index of the first character of the duration string
+     * @param end   the index after the last character of the duration string
+     * @return {@link java.lang.Long}
+     */
+    public static long parseDuration(@NotNull CharSequence chars, int start, int end) {
         var total = 0L;
         var subtotal = 0L;
 
-        for (var i = 0; i < string.length(); ++i) {
-            char ch = string.charAt(i);
+        for (var i = start; i < end; ++i) {
+            char ch = chars.charAt(i);
             if ((ch >= '0') && (ch <= '9'))
                 subtotal = (subtotal * 10) + (ch - '0');
             else {
@@ -231,7 +248,7 @@ public final class TimeUtil {
 
                 Long multiplier = TimeUtil.DURATION_CHARS.get(ch);
                 if (multiplier == null)
-                    return Optional.empty();
+                    return -1;
 
                 total += subtotal * multiplier;
 
@@ -239,7 +256,7 @@ public final class TimeUtil {
                 subtotal = 0;
             }
         }
-        return Optional.of(total);
+        return total;
     }
 
     /**
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.arguments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class ArgumentPlanTest {
+    private static final ArgumentPlan BAN = new ArgumentSchema().requiredString("player").optionalDuration("time")
+            .requiredSentence("reason").optionalFlag("silent", "-s").compile();
+
+    @Test
+    public void testUsage() {
+        assertEquals("<player> [time] <reason...> [-s]", BAN.getUsage());
+        assertEquals("[page]", new ArgumentSchema().optionalInt("page", 1).compile().getUsage());
+    }
+
+    @Test
+    public void testParse() {
+        ParsedArguments args = BAN.parse("Steve 1d -s being  rude");
+        assertTrue(args.valid());
+        assertEquals("Steve", args.getString("player"));
+        assertEquals(86400L, args.getDuration("time"));
+        assertEquals("1d", args.getString("time"));
+        assertEquals("being rude", args.getString("reason"));
+        assertTrue(args.getFlag("silent"));
+    }
+
+    @Test
+    public void testOptionalSkipped() {
+        ParsedArguments args = BAN.parse(List.of("Steve", "being", "rude"));
+        assertTrue(args.valid());
+        assertNull(args.getDuration("time"));
+        assertFalse(args.exists("time"));
+        assertEquals("being rude", args.getString("reason"));
+        assertFalse(args.getFlag("silent"));
+    }
+
+    @Test
+    public void testInvalid() {
+        ParsedArguments args = BAN.parse("Steve 1d");
+        assertFalse(args.valid());
+        assertEquals("reason", args.getInvalidatedBy());
+
+        args = new ArgumentSchema().requiredInt("amount").requiredUUID("id").compile().parse("ten");
+        assertFalse(args.valid());
+        assertEquals("amount", args.getInvalidatedBy());
+
+        args = new ArgumentSchema().requiredFlag("confirm", "--confirm").compile().parse("");
+        assertEquals("confirm", args.getInvalidatedBy());
+    }
+
+    @Test
+    public void testTypedValues() {
+        UUID uuid = UUID.randomUUID();
+        ArgumentPlan plan = new ArgumentSchema().requiredUUID("id").optionalInt("page", 1)
+                .required("target", name -> name.length() > 2 ? name.length() : null).optionalTimeString("until")
+                .compile();
+
+        ParsedArguments args = plan.parse(uuid + " Steve");
+        assertTrue(args.valid());
+        assertEquals(uuid, args.getUUID("id"));
+        assertEquals(1, args.getInt("page"));
+        assertEquals("1", args.getString("page"));
+        assertEquals(5, args.getValue("target", Integer.class));
+        assertNull(args.getTimestamp("until"));
+
+        args = plan.parse(uuid + " 3 Steve 1h");
+        assertEquals(3, args.getInt("page"));
+        assertTrue(args.getTimestamp("until").getTime() > System.currentTimeMillis());
+        assertEquals(String.valueOf(args.getTimestamp("until").getTime()), args.getString("until"));
+
+        assertFalse(plan.parse(uuid + " 3 ab").valid());
+    }
+
+    @Test
+    public void testUnknownName() {
+        ParsedArguments args = BAN.parse("Steve rude");
+        assertThrows(IllegalArgumentException.class, () -> args.getString("reasn"));
+    }
+
+    @Test
+    public void testValidation() {
+        assertThrows(IllegalStateException.class,
+                () -> new ArgumentSchema().requiredString("a").optionalInt("a").compile());
+        assertThrows(IllegalStateException.class,
+                () -> new ArgumentSchema().requiredSentence("reason").optionalString("extra").compile());
+        assertThrows(IllegalStateException.class,
+                () -> new ArgumentSchema().optionalString("reason").requiredString("player").compile());
+        // A flag may follow a sentence
+        new ArgumentSchema().requiredSentence("reason").optionalFlag("-s").compile();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.arguments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class ArgumentsTest {
+    @Test
+    public void testTokenizeLine() {
+        Arguments args = new Arguments("  ban   Steve 1d  ");
+        assertEquals(Arrays.asList("ban", "Steve", "1d"), args.getRawArgs());
+        assertEquals(Arrays.asList("ban", "Steve", "1d"), args.getUnparsedArgs());
+        assertTrue(new Arguments("   ").getRawArgs().isEmpty());
+    }
+
+    @Test
+    public void testFlags() {
+        Arguments args = new Arguments("Steve -s reason -p").optionalFlag("silent", "-s").optionalFlag("-p")
+                .optionalFlag("missing", "-m").requiredString("player").requiredString("reason");
+
+        assertTrue(args.valid());
+        assertTrue(args.getFlag("silent"));
+        assertTrue(args.getFlag("-p"));
+        assertFalse(args.getFlag("missing"));
+        assertEquals("Steve", args.getString("player"));
+        assertEquals("reason", args.getString("reason"));
+        assertEquals(Arrays.asList("Steve", "reason"), args.getUnparsedArgs());
+
+        Arguments missing = new Arguments(List.of("Steve")).requiredFlag("silent", "-s");
+        assertFalse(missing.valid());
+        assertEquals("silent", missing.getInvalidatedBy());
+    }
+
+    @Test
+    public void testInt() {
+        Arguments args = new Arguments("42 abc").requiredInt("amount").optionalInt("page", 1);
+        assertTrue(args.valid());
+        assertEquals(42, args.getInt("amount"));
+        assertEquals(42L, args.getLong("amount"));
+        assertEquals(42.0, args.getDouble("amount"));
+        assertEquals("42", args.getString("amount"));
+        assertEquals(1, args.getInt("page"));
+        assertEquals("1", args.getString("page"));
+
+        assertFalse(new Arguments("-5").requiredInt("amount").valid());
+        assertFalse(new Arguments("99999999999").requiredInt("amount").valid());
+        assertFalse(new Arguments("").requiredInt("amount").valid());
+        assertNull(new Arguments("abc").optionalInt("amount").getInt("amount"));
+    }
+
+    @Test
+    public void testDuration() {
+        Arguments args = new Arguments("1h30m -s").optionalDuration("time").optionalDuration("other");
+        assertEquals(5400L, args.getDuration("time"));
+        assertEquals("1h30m", args.getString("time"));
+        assertNull(args.getDuration("other"));
+        assertEquals(List.of("-s"), args.getUnparsedArgs());
+
+        assertFalse(new Arguments(List.of("1x")).requiredDuration("time").valid());
+    }
+
+    @Test
+    public void testTimeString() {
+        long before = System.currentTimeMillis() / 1000L * 1000L;
+        Arguments args = new Arguments("1d").requiredTimeString("until");
+        assertTrue(args.valid());
+        long until = args.getTimestamp("until").getTime();
+        assertTrue(until >= before + 86400000L);
+        assertEquals(String.valueOf(until), args.getString("until"));
+    }
+
+    @Test
+    public void testUUID() {
+        UUID uuid = UUID.randomUUID();
+        Arguments args = new Arguments("x " + uuid + " " + uuid.toString().toUpperCase()).requiredString("x")
+                .requiredUUID("first").optionalUUID("second");
+        assertTrue(args.valid());
+        assertEquals(uuid, args.getUUID("first"));
+        assertEquals(uuid, args.getUUID("second"));
+
+        assertFalse(new Arguments("not-a-uuid").requiredUUID("id").valid());
+        assertFalse(new Arguments("0123456789abcdef0123456789abcdef0123").requiredUUID("id").valid());
+    }
+
+    @Test
+    public void testParser() {
+        Arguments args = new Arguments("Steve nobody").required("player", name -> name.equals("Steve") ? 7 : null)
+                .optional("other", name -> name.equals("Steve") ? 7 : null);
+        assertTrue(args.valid());
+        assertEquals(7, args.getValue("player", Integer.class));
+        assertNull(args.getValue("player", String.class));
+        assertEquals("Steve", args.getString("player"));
+        assertFalse(args.exists("other"));
+
+        assertFalse(new Arguments("nobody").required("player", name -> null).valid());
+    }
+
+    @Test
+    public void testSentence() {
+        Arguments args = new Arguments(List.of("Steve", "you", "were", "warned")).requiredString("player")
+                .requiredSentence("reason");
+        assertEquals("you were warned", args.getString("reason"));
+
+        args = new Arguments("a  b c d").optionalSentence("first", 2).optionalSentence("rest", "none");
+        assertEquals("a b", args.getString("first"));
+        assertEquals("c d", args.getString("rest"));
+        assertTrue(args.getUnparsedArgs().isEmpty());
+
+        assertFalse(new Arguments("a").requiredSentence("reason", 2).valid());
+    }
+
+    @Test
+    public void testOptionalRemovesRequiredAdvances() {
+        Arguments args = new Arguments("a b c").requiredString("first").optionalString("second")
+                .requiredString("third").optionalString("missing", "default");
+        assertEquals("a", args.getString("first"));
+        assertEquals("b", args.getString("second"));
+        assertEquals("c", args.getString("third"));
+        assertEquals("default", args.getString("missing"));
+        assertEquals(Arrays.asList("a", "c"), args.getUnparsedArgs());
+    }
+}
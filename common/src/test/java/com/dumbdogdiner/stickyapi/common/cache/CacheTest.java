@@ -0,0 +1,624 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+public class CacheTest {
+    private static class Entry implements Cacheable {
+        private final String key;
+        private final String name;
+
+        Entry(String key) {
+            this(key, null);
+        }
+
+        Entry(String key, String name) {
+            this.key = key;
+            this.name = name;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+    }
+
+    @Test
+    public void testPutAndGet() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        Entry a = new Entry("a");
+        cache.put(a);
+
+        assertSame(a, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testPutSkipsExistingKey() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        Entry first = new Entry("a");
+        cache.put(first);
+        cache.put(new Entry("a"));
+
+        assertSame(first, cache.get("a"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testUpdateReplacesExistingKey() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        Entry second = new Entry("a");
+        cache.put(new Entry("a"));
+        cache.update(second);
+
+        assertSame(second, cache.get("a"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testMaxSizeEvictsOldest() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.setMaxSize(3);
+        for (int i = 0; i < 5; i++) {
+            cache.put(new Entry(String.valueOf(i)));
+        }
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get("0"));
+        assertNull(cache.get("1"));
+        assertEquals("2", cache.getOldestEntry().getKey());
+    }
+
+    @Test
+    public void testRemove() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        Entry a = new Entry("a");
+        cache.put(a);
+        cache.put(new Entry("b"));
+
+        assertSame(a, cache.removeKey("a"));
+        assertNull(cache.removeKey("a"));
+        assertEquals("b", cache.getOldestEntry().getKey());
+        assertEquals("b", cache.removeOldestEntry().getKey());
+        assertNull(cache.removeOldestEntry());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testGetAll() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.put(new Entry("a"));
+        cache.put(new Entry("b"));
+
+        List<String> keys = new ArrayList<>();
+        cache.getAll().forEach(entry -> keys.add(entry.getKey()));
+
+        assertEquals(2, cache.getAll().size());
+        assertTrue(keys.contains("a") && keys.contains("b"));
+    }
+
+    @Test
+    public void testConcurrentPutsRespectMaxSize() throws InterruptedException {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.setMaxSize(100);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                for (int i = 0; i < 2500; i++) {
+                    cache.put(new Entry(thread + ":" + i));
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(100, cache.size());
+    }
+
+    @Test
+    public void testLruPolicyEvictsLeastRecentlyUsed() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.setEvictionPolicy(new LruPolicy<>());
+        cache.setMaxSize(3);
+        cache.put(new Entry("a"));
+        cache.put(new Entry("b"));
+        cache.put(new Entry("c"));
+
+        cache.get("a");
+        cache.put(new Entry("d"));
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    public void testLfuPolicyEvictsLeastFrequentlyUsed() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.setEvictionPolicy(new LfuPolicy<>());
+        cache.setMaxSize(3);
+        cache.put(new Entry("a"));
+        cache.put(new Entry("b"));
+        cache.put(new Entry("c"));
+
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        cache.put(new Entry("d"));
+
+        assertNull(cache.get("c"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+    }
+
+    @Test
+    public void testTinyLfuPolicyKeepsPopularEntriesDuringScan() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.setEvictionPolicy(new TinyLfuPolicy<>());
+        cache.setMaxSize(100);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(new Entry("hot" + i));
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 100; i++) {
+                cache.get("hot" + i);
+            }
+        }
+
+        // A one-off scan of cold keys should not flush out the hot set
+        for (int i = 0; i < 1000; i++) {
+            cache.put(new Entry("cold" + i));
+        }
+
+        int survivors = 0;
+        for (int i = 0; i < 100; i++) {
+            if (cache.get("hot" + i) != null) {
+                survivors++;
+            }
+        }
+        assertEquals(100, cache.size());
+        assertTrue(survivors >= 90, "only " + survivors + " hot entries survived");
+    }
+
+    @Test
+    public void testFrequencySketchKeepsCountsWhenGrowing() {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.ensureCapacity(16);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("hot");
+        }
+        sketch.ensureCapacity(1024);
+        assertTrue(sketch.frequency("hot") >= 5);
+    }
+
+    @Test
+    public void testTinyLfuPolicyDoesNotEvictPromotedCandidate() {
+        TinyLfuPolicy<Entry> policy = new TinyLfuPolicy<>();
+        List<CacheEntry<Entry>> entries = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            CacheEntry<Entry> entry = new CacheEntry<>(null, "e" + i, new Entry("e" + i), CacheEntry.INHERIT_TTL);
+            entries.add(entry);
+            policy.onInsert(entry);
+        }
+        // e0 and e1 spilled into probation, e1 being the candidate
+        for (int i = 0; i < 4; i++) {
+            policy.onAccess(entries.get(0));
+        }
+        // Promotes the candidate, demoting e0 back to probation
+        policy.onAccess(entries.get(1));
+
+        assertSame(entries.get(0), policy.victim());
+    }
+
+    @Test
+    public void testSetEvictionPolicyKeepsEntries() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.setMaxSize(2);
+        cache.put(new Entry("a"));
+        cache.put(new Entry("b"));
+        cache.setEvictionPolicy(new LruPolicy<>());
+
+        cache.get("a");
+        cache.put(new Entry("c"));
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    public void testHitAndMissCounters() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.put(new Entry("a"));
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2.0 / 3.0, cache.getHitRate(), 1e-9);
+
+        cache.resetStats();
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1.0, cache.getHitRate());
+    }
+
+    @Test
+    public void testExpiredEntriesAreNotReturned() throws InterruptedException {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.setTtl(50L);
+        cache.put(new Entry("a"));
+        cache.put(new Entry("b"), 1, TimeUnit.HOURS);
+
+        Thread.sleep(100);
+
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+    }
+
+    @Test
+    public void testExpiredKeyCanBeReinserted() throws InterruptedException {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.setTtl(50L);
+        cache.put(new Entry("a"));
+
+        Thread.sleep(100);
+
+        Entry replacement = new Entry("a");
+        cache.put(replacement);
+        assertSame(replacement, cache.get("a"));
+    }
+
+    @Test
+    public void testExpireAfterAccess() throws InterruptedException {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.setTtl(0L);
+        cache.setExpireAfterAccess(200);
+        cache.put(new Entry("a"));
+        cache.put(new Entry("b"));
+
+        for (int i = 0; i < 4; i++) {
+            Thread.sleep(100);
+            assertNotNull(cache.get("a"));
+        }
+
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    public void testTimerWheelExpiresInBackground() throws InterruptedException {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.setTtl(100L);
+        for (int i = 0; i < 10; i++) {
+            cache.put(new Entry(String.valueOf(i)));
+        }
+        cache.put(new Entry("kept"), 1, TimeUnit.HOURS);
+
+        // Without any reads, the shared timer should remove the expired entries
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.size() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(1, cache.size());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void testIndexLookup() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.put(new Entry("1", "Notch"));
+        cache.addIndex("name", Entry::getName);
+        cache.put(new Entry("2", "jeb_"));
+        cache.put(new Entry("3", "Notch"));
+        cache.put(new Entry("4"));
+
+        assertEquals("1", cache.find("name", "Notch").getKey());
+        assertEquals("2", cache.find("name", "jeb_").getKey());
+        assertNull(cache.find("name", "Dinnerbone"));
+        assertEquals(2, cache.findAll("name", "Notch").size());
+        assertThrows(IllegalArgumentException.class, () -> cache.find("ip", "127.0.0.1"));
+        assertThrows(IllegalArgumentException.class, () -> cache.addIndex("name", Entry::getKey));
+    }
+
+    @Test
+    public void testIndexFollowsRemovalAndEviction() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.addIndex("name", Entry::getName);
+        cache.setMaxSize(2);
+        cache.put(new Entry("1", "Notch"));
+        cache.put(new Entry("2", "jeb_"));
+        cache.put(new Entry("3", "Notch"));
+
+        assertEquals("3", cache.find("name", "Notch").getKey());
+        assertEquals(1, cache.findAll("name", "Notch").size());
+
+        cache.removeKey("2");
+        assertNull(cache.find("name", "jeb_"));
+
+        cache.update(new Entry("3", "Dinnerbone"));
+        assertNull(cache.find("name", "Notch"));
+        assertEquals("3", cache.find("name", "Dinnerbone").getKey());
+    }
+
+    @Test
+    public void testRemoveIndex() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.addIndex("key", Entry::getKey);
+        cache.addIndex("name", Entry::getName);
+        cache.put(new Entry("1", "Notch"));
+
+        assertTrue(cache.removeIndex("key"));
+        assertFalse(cache.removeIndex("key"));
+        assertEquals("1", cache.find("name", "Notch").getKey());
+
+        cache.removeKey("1");
+        assertNull(cache.find("name", "Notch"));
+    }
+
+    @Test
+    public void testMaxWeightEvicts() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.setWeigher(entry -> entry.getKey().length());
+        cache.setMaxWeight(10);
+        cache.put(new Entry("aaaa"));
+        cache.put(new Entry("bbbb"));
+        assertEquals(8, cache.getWeight());
+
+        cache.put(new Entry("cccc"));
+        assertEquals(8, cache.getWeight());
+        assertNull(cache.get("aaaa"));
+
+        cache.removeKey("bbbb");
+        assertEquals(4, cache.getWeight());
+    }
+
+    @Test
+    public void testMaxWeightWeighsExistingEntries() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        for (int i = 0; i < 10; i++) {
+            cache.put(new Entry(String.valueOf(i), "name" + i));
+        }
+        assertEquals(0, cache.getWeight());
+
+        cache.setMaxWeight(1024 * 1024);
+        assertTrue(cache.getWeight() > 0);
+        assertEquals(10, cache.size());
+
+        cache.setMaxWeight(cache.getWeight() / 2);
+        assertTrue(cache.size() < 10);
+        assertTrue(cache.getWeight() <= cache.getMaxWeight());
+    }
+
+    @Test
+    public void testStatsCountRemovalsByCause() throws InterruptedException {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.setMaxSize(2);
+        cache.put(new Entry("a"));
+        cache.put(new Entry("b"));
+        cache.put(new Entry("c"));
+        cache.update(new Entry("b"));
+        cache.removeKey("c");
+        cache.put(new Entry("d"), 10, TimeUnit.MILLISECONDS);
+        Thread.sleep(50);
+        cache.get("d");
+
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getRemovalCount(RemovalCause.SIZE));
+        assertEquals(1, stats.getRemovalCount(RemovalCause.REPLACED));
+        assertEquals(1, stats.getRemovalCount(RemovalCause.EXPLICIT));
+        assertEquals(1, stats.getRemovalCount(RemovalCause.EXPIRED));
+        assertEquals(2, stats.getEvictionCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getSize());
+        assertEquals(2, stats.getMaxSize());
+
+        cache.resetStats();
+        assertEquals(0, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void testCachesAreRegistered() {
+        Cache<Entry> first = new Cache<>(Entry.class, "registryTest");
+        Cache<Entry> second = new Cache<>(Entry.class, "registryTest");
+        first.put(new Entry("a"));
+
+        assertEquals("registryTest", first.getName());
+        assertEquals("registryTest#2", second.getName());
+        assertSame(first, CacheRegistry.getCache("registryTest"));
+        assertTrue(CacheRegistry.dump().stream().anyMatch(line -> line.startsWith("registryTest: size=1")));
+
+        CacheRegistry.unregister("registryTest");
+        CacheRegistry.unregister("registryTest#2");
+        assertNull(CacheRegistry.getCache("registryTest"));
+    }
+
+    private static class RecordingWriter implements CacheWriter<Entry> {
+        final List<String> writes = new ArrayList<>();
+        final List<String> deletes = new ArrayList<>();
+        int batches = 0;
+
+        @Override
+        public synchronized void write(@NotNull Entry object) {
+            writes.add(object.getKey() + "=" + object.getName());
+        }
+
+        @Override
+        public synchronized void delete(@NotNull String key) {
+            deletes.add(key);
+        }
+
+        @Override
+        public synchronized void writeAll(@NotNull Collection<Entry> objects) throws Exception {
+            batches++;
+            CacheWriter.super.writeAll(objects);
+        }
+    }
+
+    @Test
+    public void testWriteThrough() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        RecordingWriter writer = new RecordingWriter();
+        cache.setWriter(writer);
+
+        cache.put(new Entry("a", "1"));
+        cache.put(new Entry("a", "2"));
+        cache.update(new Entry("a", "3"));
+        cache.removeKey("a");
+
+        assertEquals(Arrays.asList("a=1", "a=3"), writer.writes);
+        assertEquals(Arrays.asList("a"), writer.deletes);
+    }
+
+    @Test
+    public void testWriteBehindCoalescesUpdates() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        RecordingWriter writer = new RecordingWriter();
+        cache.setWriteBehind(writer, 100, 1, TimeUnit.HOURS);
+
+        cache.put(new Entry("a", "1"));
+        for (int i = 2; i <= 10; i++) {
+            cache.update(new Entry("a", String.valueOf(i)));
+        }
+        cache.put(new Entry("b", "1"));
+        cache.put(new Entry("c", "1"));
+        cache.removeKey("c");
+        assertTrue(writer.writes.isEmpty());
+
+        cache.flush().join();
+
+        assertEquals(1, writer.batches);
+        assertEquals(2, writer.writes.size());
+        assertTrue(writer.writes.contains("a=10") && writer.writes.contains("b=1"));
+        assertEquals(Arrays.asList("c"), writer.deletes);
+    }
+
+    @Test
+    public void testWriteBehindFlushesWhenBatchIsFull() throws InterruptedException {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        RecordingWriter writer = new RecordingWriter();
+        cache.setWriteBehind(writer, 10, 1, TimeUnit.HOURS);
+
+        for (int i = 0; i < 10; i++) {
+            cache.put(new Entry(String.valueOf(i)));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            synchronized (writer) {
+                if (writer.writes.size() == 10) {
+                    break;
+                }
+            }
+            Thread.sleep(10);
+        }
+        synchronized (writer) {
+            assertEquals(10, writer.writes.size());
+        }
+    }
+
+    @Test
+    public void testWriteBehindFailureIsNotRetriedInALoop() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicBoolean broken = new AtomicBoolean(true);
+        RecordingWriter writer = new RecordingWriter() {
+            @Override
+            public synchronized void writeAll(@NotNull Collection<Entry> objects) throws Exception {
+                attempts.incrementAndGet();
+                if (broken.get()) {
+                    throw new IllegalStateException("database is down");
+                }
+                super.writeAll(objects);
+            }
+        };
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.setWriteBehind(writer, 1, 1, TimeUnit.HOURS);
+
+        for (int i = 0; i < 5; i++) {
+            cache.put(new Entry(String.valueOf(i)));
+        }
+        Thread.sleep(200);
+        // The first failure stops flushes started by a full queue
+        assertTrue(attempts.get() <= 2, "retried " + attempts.get() + " times");
+
+        broken.set(false);
+        cache.flush().join();
+        synchronized (writer) {
+            assertEquals(5, writer.writes.size());
+        }
+    }
+
+    @Test
+    public void testWriteBehindRequeuesOnError() {
+        AtomicBoolean broken = new AtomicBoolean(true);
+        RecordingWriter writer = new RecordingWriter() {
+            @Override
+            public synchronized void writeAll(@NotNull Collection<Entry> objects) throws Exception {
+                if (broken.getAndSet(false)) {
+                    throw new LinkageError("driver went missing");
+                }
+                super.writeAll(objects);
+            }
+        };
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.setWriteBehind(writer, 100, 1, TimeUnit.HOURS);
+
+        cache.put(new Entry("a"));
+        cache.put(new Entry("b"));
+        assertThrows(CompletionException.class, () -> cache.flush().join());
+        // The failed batch was kept, and is written by the next flush
+        cache.flush().join();
+        synchronized (writer) {
+            assertEquals(2, writer.writes.size());
+        }
+    }
+
+    @Test
+    public void testScheduledEntriesDoNotRetainCache() throws InterruptedException {
+        WeakReference<Cache<Entry>> reference = createScheduledCache();
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(reference.get());
+    }
+
+    private static WeakReference<Cache<Entry>> createScheduledCache() {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.setTtl(TimeUnit.HOURS.toMillis(1));
+        for (int i = 0; i < 10; i++) {
+            cache.put(new Entry(String.valueOf(i)));
+        }
+        return new WeakReference<>(cache);
+    }
+}
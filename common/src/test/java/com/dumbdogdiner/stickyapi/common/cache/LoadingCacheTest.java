@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+public class LoadingCacheTest {
+    private static class Entry implements Cacheable {
+        private final String key;
+        private final int version;
+
+        Entry(String key, int version) {
+            this.key = key;
+            this.version = version;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+    }
+
+    @Test
+    public void testLoadsMissingKeys() {
+        LoadingCache<Entry> cache = new LoadingCache<>(Entry.class, key -> key.equals("none") ? null : new Entry(key, 0));
+
+        assertEquals("a", cache.get("a").getKey());
+        assertEquals(1, cache.size());
+        assertNull(cache.get("none"));
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getStats().getLoadSuccessCount());
+        assertEquals(2, cache.getStats().getMissCount());
+    }
+
+    @Test
+    public void testConcurrentLoadsAreCoalesced() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        LoadingCache<Entry> cache = new LoadingCache<>(Entry.class, key -> {
+            loads.incrementAndGet();
+            release.await();
+            return new Entry(key, 0);
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Entry> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            pool.execute(() -> {
+                Entry entry = cache.get("a");
+                synchronized (results) {
+                    results.add(entry);
+                }
+            });
+        }
+        Thread.sleep(100);
+        release.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1, loads.get());
+        assertEquals(8, results.size());
+        results.forEach(entry -> assertSame(results.get(0), entry));
+    }
+
+    @Test
+    public void testGetAllLoadsMissingKeysInOneCall() {
+        AtomicInteger bulkLoads = new AtomicInteger();
+        List<String> requested = new ArrayList<>();
+        LoadingCache<Entry> cache = new LoadingCache<>(Entry.class, new CacheLoader<Entry>() {
+            @Override
+            public Entry load(@NotNull String key) {
+                throw new AssertionError("single load");
+            }
+
+            @Override
+            public @NotNull Map<String, Entry> loadAll(@NotNull Collection<String> keys) {
+                bulkLoads.incrementAndGet();
+                requested.addAll(keys);
+                return Map.of("b", new Entry("b", 0), "c", new Entry("c", 0));
+            }
+        });
+        cache.put(new Entry("a", 0));
+
+        Map<String, Entry> result = cache.getAll(Arrays.asList("a", "b", "c", "d"));
+
+        assertEquals(1, bulkLoads.get());
+        assertEquals(Arrays.asList("b", "c", "d"), requested);
+        assertEquals(3, result.size());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testAsyncLoad() {
+        LoadingCache<Entry> cache = new LoadingCache<>(Entry.class,
+                CacheLoader.async((key, executor) -> CompletableFuture.supplyAsync(() -> new Entry(key, 0), executor)),
+                Runnable::run);
+
+        assertEquals("a", cache.getAsync("a").join().getKey());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testLoaderExceptionsArePropagated() {
+        LoadingCache<Entry> cache = new LoadingCache<>(Entry.class, key -> {
+            throw new IllegalStateException("database down");
+        });
+
+        CompletionException e = assertThrows(CompletionException.class, () -> cache.get("a"));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertThrows(CompletionException.class, () -> cache.getAsync("a").join());
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getStats().getLoadFailureCount());
+    }
+
+    @Test
+    public void testLoaderErrorsDoNotBlockLaterLoads() {
+        AtomicInteger loads = new AtomicInteger();
+        LoadingCache<Entry> cache = new LoadingCache<>(Entry.class, new CacheLoader<Entry>() {
+            @Override
+            public Entry load(@NotNull String key) {
+                if (loads.incrementAndGet() == 1) {
+                    throw new AssertionError("broken loader");
+                }
+                return new Entry(key, 0);
+            }
+
+            @Override
+            public @NotNull Map<String, Entry> loadAll(@NotNull Collection<String> keys) {
+                if (loads.incrementAndGet() == 3) {
+                    throw new NoClassDefFoundError("broken loader");
+                }
+                return Map.of("b", new Entry("b", 0));
+            }
+        });
+
+        assertThrows(AssertionError.class, () -> cache.get("a"));
+        assertEquals("a", assertTimeoutPreemptively(Duration.ofSeconds(5), () -> cache.get("a")).getKey());
+
+        assertThrows(NoClassDefFoundError.class, () -> cache.getAll(Arrays.asList("b")));
+        assertEquals(1, assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> cache.getAll(Arrays.asList("b"))).size());
+    }
+
+    @Test
+    public void testRefreshAfterWriteReturnsStaleValue() throws InterruptedException {
+        AtomicInteger version = new AtomicInteger();
+        LoadingCache<Entry> cache = new LoadingCache<>(Entry.class, key -> new Entry(key, version.getAndIncrement()),
+                Runnable::run);
+        cache.setRefreshAfterWrite(50, TimeUnit.MILLISECONDS);
+
+        assertEquals(0, cache.get("a").version);
+        Thread.sleep(100);
+
+        // The read that notices the entry is due still sees the old value
+        assertEquals(0, cache.get("a").version);
+        assertEquals(1, cache.get("a").version);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OverflowTierTest {
+    private static class Entry implements Cacheable {
+        private final String key;
+        private final String value;
+
+        Entry(String key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+    }
+
+    private static class EntrySerializer implements Serializer<Entry> {
+        @Override
+        public byte[] serialize(@NotNull Entry object) {
+            return (object.key + "\n" + object.value).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public @NotNull Entry deserialize(byte[] bytes) {
+            String[] parts = new String(bytes, StandardCharsets.UTF_8).split("\n", 2);
+            return new Entry(parts[0], parts[1]);
+        }
+    }
+
+    @TempDir
+    Path folder;
+
+    private OverflowTier<Entry> open(String name) throws IOException {
+        return new OverflowTier<>(new File(folder.toFile(), name), new EntrySerializer(), 4096);
+    }
+
+    @Test
+    public void testEvictedEntriesAreSpilledAndPromoted() throws IOException {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        cache.setMaxSize(2);
+        try (OverflowTier<Entry> tier = open("spill.db")) {
+            cache.setOverflowTier(tier);
+            cache.put(new Entry("a", "1"));
+            cache.put(new Entry("b", "2"));
+            cache.put(new Entry("c", "3"));
+
+            assertEquals(2, cache.size());
+            assertTrue(tier.contains("a"));
+
+            // Reading "a" brings it back, spilling the oldest remaining entry
+            assertEquals("1", cache.get("a").value);
+            assertFalse(tier.contains("a"));
+            assertTrue(tier.contains("b"));
+            assertEquals(0, cache.getMissCount());
+
+            cache.removeKey("b");
+            assertFalse(tier.contains("b"));
+            assertNull(cache.get("b"));
+        }
+    }
+
+    @Test
+    public void testReopenedTierKeepsEntries() throws IOException {
+        try (OverflowTier<Entry> tier = open("warm.db")) {
+            tier.put(new Entry("a", "1"), Long.MAX_VALUE);
+            tier.put(new Entry("b", "2"), Long.MAX_VALUE);
+            tier.put(new Entry("a", "3"), Long.MAX_VALUE);
+            tier.remove("b");
+        }
+
+        try (OverflowTier<Entry> tier = open("warm.db")) {
+            assertEquals(1, tier.size());
+            assertEquals("3", tier.get("a").value);
+            assertNull(tier.get("b"));
+        }
+    }
+
+    @Test
+    public void testWarmStartThroughCache() throws IOException {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        try (OverflowTier<Entry> tier = open("cache.db")) {
+            cache.setOverflowTier(tier);
+            cache.put(new Entry("a", "1"));
+            cache.put(new Entry("b", "2"), 1, TimeUnit.MILLISECONDS);
+            cache.spillAll();
+        }
+
+        Cache<Entry> restarted = new Cache<>(Entry.class);
+        try (OverflowTier<Entry> tier = open("cache.db")) {
+            restarted.setOverflowTier(tier);
+            assertNotNull(restarted.get("a"));
+            assertNull(restarted.get("b"));
+        }
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        try (OverflowTier<Entry> tier = open("compact.db")) {
+            for (int i = 0; i < 1000; i++) {
+                tier.put(new Entry("key", "value " + i), Long.MAX_VALUE);
+            }
+            tier.put(new Entry("other", "value"), Long.MAX_VALUE);
+            tier.awaitCompaction();
+
+            // Far more than a few segments were written, but only two records are live
+            assertTrue(tier.getFile().length() <= 4 * 4096, "file is " + tier.getFile().length() + " bytes");
+            assertEquals("value 999", tier.get("key").value);
+            assertEquals(2, tier.size());
+        }
+
+        try (OverflowTier<Entry> tier = open("compact.db")) {
+            assertEquals(2, tier.size());
+            assertEquals("value 999", tier.get("key").value);
+        }
+    }
+
+    @Test
+    public void testWritesDuringCompactionAreKept() throws Exception {
+        try (OverflowTier<Entry> tier = open("concurrent.db")) {
+            for (int i = 0; i < 200; i++) {
+                tier.put(new Entry("key" + i, "old"), Long.MAX_VALUE);
+            }
+
+            Thread compaction = new Thread(() -> {
+                try {
+                    tier.compact();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            compaction.start();
+            for (int i = 0; i < 200; i++) {
+                if (i % 2 == 0) {
+                    tier.put(new Entry("key" + i, "new"), Long.MAX_VALUE);
+                } else {
+                    tier.remove("key" + i);
+                }
+            }
+            compaction.join();
+            tier.awaitCompaction();
+
+            assertEquals(100, tier.size());
+            assertEquals("new", tier.get("key0").value);
+            assertNull(tier.get("key1"));
+        }
+
+        try (OverflowTier<Entry> tier = open("concurrent.db")) {
+            assertEquals(100, tier.size());
+            for (int i = 0; i < 200; i++) {
+                if (i % 2 == 0) {
+                    assertEquals("new", tier.get("key" + i).value);
+                } else {
+                    assertNull(tier.get("key" + i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTierFailuresDoNotFailPut() throws IOException {
+        Cache<Entry> cache = new Cache<>(Entry.class);
+        try (OverflowTier<Entry> tier = new OverflowTier<>(new File(folder.toFile(), "failing.db"),
+                new EntrySerializer(), 4096) {
+            @Override
+            public synchronized boolean remove(@NotNull String key) {
+                throw new UncheckedIOException(new IOException("disk full"));
+            }
+        }) {
+            cache.setOverflowTier(tier);
+            cache.put(new Entry("a", "1"));
+            assertEquals("1", cache.get("a").value);
+            assertNotNull(cache.remove(cache.get("a")));
+            assertNull(cache.get("a"));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class CooldownTrackerTest {
+    private final AtomicLong time = new AtomicLong(123);
+    private final CooldownTracker tracker = new CooldownTracker(time::get);
+    private final UUID steve = UUID.randomUUID();
+    private final UUID alex = UUID.randomUUID();
+
+    private void advance(long millis) {
+        time.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    public void testCooldown() {
+        tracker.cooldown("default", 5, TimeUnit.SECONDS);
+
+        assertEquals(0, tracker.tryAcquire(steve));
+        assertEquals(5000, tracker.tryAcquire(steve));
+        assertEquals(0, tracker.tryAcquire(alex));
+
+        advance(3000);
+        assertEquals(2000, tracker.getRemaining(steve));
+        assertEquals(2000, tracker.tryAcquire(steve));
+
+        advance(2000);
+        assertEquals(0, tracker.getRemaining(steve));
+        assertEquals(0, tracker.tryAcquire(steve));
+    }
+
+    @Test
+    public void testRateLimit() {
+        CooldownTracker.Bucket bucket = tracker.rateLimit("burst", 3, 30, TimeUnit.SECONDS);
+
+        assertEquals(0, bucket.tryAcquire(steve));
+        assertEquals(0, bucket.tryAcquire(steve));
+        assertEquals(0, bucket.tryAcquire(steve));
+        assertEquals(10000, bucket.tryAcquire(steve));
+
+        // One use is given back every 10 seconds
+        advance(10000);
+        assertEquals(0, bucket.tryAcquire(steve));
+        assertEquals(10000, bucket.tryAcquire(steve));
+
+        // Never more than the capacity
+        advance(120000);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(steve));
+        }
+        assertEquals(10000, bucket.getRemaining(steve));
+    }
+
+    @Test
+    public void testAllBuckets() {
+        tracker.cooldown("default", 1, TimeUnit.SECONDS);
+        tracker.rateLimit("burst", 2, 1, TimeUnit.MINUTES);
+
+        assertEquals(0, tracker.tryAcquire(steve));
+        advance(1000);
+        assertEquals(0, tracker.tryAcquire(steve));
+        advance(1000);
+        // The cooldown has passed, but the rate limit is used up
+        assertEquals(28000, tracker.tryAcquire(steve));
+        assertEquals(0, tracker.getBucket("default").getRemaining(steve));
+
+        tracker.reset(steve);
+        assertEquals(0, tracker.tryAcquire(steve));
+
+        tracker.removeBucket("burst");
+        assertNull(tracker.getBucket("burst"));
+        assertEquals(1, tracker.getBuckets().size());
+    }
+
+    @Test
+    public void testFailedAcquireGivesBackUses() {
+        String[] names = { "a", "b", "c", "d" };
+        for (String exhausted : names) {
+            AtomicLong time = new AtomicLong(123);
+            CooldownTracker tracker = new CooldownTracker(time::get);
+            for (String name : names) {
+                tracker.rateLimit(name, 2, 10, TimeUnit.SECONDS);
+            }
+            tracker.getBucket(exhausted).tryAcquire(steve);
+            tracker.getBucket(exhausted).tryAcquire(steve);
+
+            // Whichever order the buckets are tried in, the others keep both of their uses
+            assertEquals(5000, tracker.tryAcquire(steve));
+            for (String name : names) {
+                if (!name.equals(exhausted)) {
+                    CooldownTracker.Bucket bucket = tracker.getBucket(name);
+                    assertEquals(0, bucket.tryAcquire(steve));
+                    assertEquals(0, bucket.tryAcquire(steve));
+                    assertEquals(5000, bucket.tryAcquire(steve));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testExpiry() {
+        CooldownTracker.Bucket bucket = tracker.cooldown("default", 5, TimeUnit.SECONDS);
+        tracker.tryAcquire(steve);
+        advance(1000);
+        tracker.tryAcquire(alex);
+        assertEquals(2, bucket.size());
+
+        advance(4000);
+        tracker.expire();
+        assertEquals(1, bucket.size());
+
+        // Expiry also happens on its own once a minute
+        advance(60000);
+        tracker.tryAcquire(steve);
+        assertEquals(1, bucket.size());
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> tracker.rateLimit("none", 0, 1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testConcurrent() throws InterruptedException {
+        CooldownTracker tracker = new CooldownTracker();
+        tracker.rateLimit("burst", 100, 1, TimeUnit.HOURS);
+
+        AtomicInteger acquired = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(8);
+        for (int i = 0; i < 8; i++) {
+            new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    if (tracker.tryAcquire(steve) == 0) {
+                        acquired.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await(10, TimeUnit.SECONDS);
+        assertEquals(100, acquired.get());
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class NameIndexTest {
+    @Test
+    public void testComplete() {
+        NameIndex index = new NameIndex();
+        index.add("Steve");
+        index.add("stella");
+        index.add("Alex");
+        index.add("STEVEN");
+
+        assertEquals(List.of("stella", "Steve", "STEVEN"), index.complete("st"));
+        assertEquals(List.of("Steve", "STEVEN"), index.complete("STEV"));
+        assertEquals(4, index.complete("").size());
+        assertTrue(index.complete("z").isEmpty());
+        assertTrue(index.contains("alex"));
+
+        index.remove("steve");
+        assertFalse(index.contains("Steve"));
+        assertEquals(List.of("stella", "STEVEN"), index.complete("st"));
+        assertEquals(3, index.size());
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class CronExpressionTest {
+    // A Wednesday
+    private static final ZonedDateTime START = ZonedDateTime.of(2021, 3, 10, 12, 30, 15, 0, ZoneOffset.UTC);
+
+    private static ZonedDateTime next(String expression, ZonedDateTime after) {
+        return CronExpression.parse(expression, ZoneOffset.UTC).next(after);
+    }
+
+    private static ZonedDateTime at(int month, int day, int hour, int minute) {
+        return ZonedDateTime.of(2021, month, day, hour, minute, 0, 0, ZoneOffset.UTC);
+    }
+
+    @Test
+    public void testEveryMinute() {
+        assertEquals(at(3, 10, 12, 31), next("* * * * *", START));
+        assertEquals(at(3, 10, 12, 32), next("* * * * *", at(3, 10, 12, 31)));
+    }
+
+    @Test
+    public void testStepsAndRanges() {
+        assertEquals(at(3, 10, 12, 45), next("*/15 * * * *", START));
+        assertEquals(at(3, 10, 13, 0), next("0-30/10 * * * *", START));
+        assertEquals(at(3, 10, 12, 35), next("5/10 * * * *", START));
+        assertEquals(at(3, 10, 17, 0), next("0 9,17 * * *", START));
+    }
+
+    @Test
+    public void testDayAndMonth() {
+        assertEquals(at(4, 1, 0, 0), next("@monthly", START));
+        assertEquals(at(3, 11, 0, 0), next("@daily", START));
+        assertEquals(at(6, 15, 8, 0), next("0 8 15 JUN *", START));
+    }
+
+    @Test
+    public void testDayOfWeek() {
+        assertEquals(at(3, 14, 0, 0), next("0 0 * * SUN", START));
+        assertEquals(at(3, 14, 0, 0), next("0 0 * * 7", START));
+        assertEquals(at(3, 12, 0, 0), next("0 0 * * mon-fri/2", START.plusDays(1)));
+    }
+
+    @Test
+    public void testDayOfMonthOrDayOfWeek() {
+        // Both restricted - either matches
+        assertEquals(at(3, 13, 0, 0), next("0 0 15 * SAT", at(3, 12, 23, 0)));
+        assertEquals(at(3, 15, 0, 0), next("0 0 15 * SAT", at(3, 13, 0, 0)));
+        assertEquals(at(3, 20, 0, 0), next("0 0 15 * SAT", at(3, 15, 0, 0)));
+    }
+
+    @Test
+    public void testNeverMatches() {
+        assertNull(next("0 0 30 2 *", START));
+        assertEquals(-1, CronExpression.parse("0 0 31 4 *").next(System.currentTimeMillis()));
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("* * * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("60 * * * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("* * * FOO *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("5-1 * * * *"));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+public class ExecutorStrategyTest {
+    @Test
+    public void testResolve() {
+        ExecutorStrategy expected = ExecutorStrategy.isVirtualThreadSupported() ? ExecutorStrategy.VIRTUAL
+                : ExecutorStrategy.BOUNDED;
+        assertEquals(expected, ExecutorStrategy.AUTO.resolve());
+        assertEquals(expected, ExecutorStrategy.VIRTUAL.resolve());
+        assertEquals(ExecutorStrategy.CACHED, ExecutorStrategy.CACHED.resolve());
+    }
+
+    @Test
+    public void testCreateRunsTasks() throws Exception {
+        for (ExecutorStrategy strategy : ExecutorStrategy.values()) {
+            ExecutorService pool = strategy.create();
+            assertEquals(1, pool.submit(() -> 1).get(5, TimeUnit.SECONDS));
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testBoundedPoolAppliesBackpressure() throws Exception {
+        ThreadPoolExecutor pool = ExecutorStrategy.newBoundedPool(1, 1, 50, TimeUnit.MILLISECONDS);
+        CountDownLatch release = new CountDownLatch(1);
+        pool.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        // Fills the queue
+        pool.execute(() -> {
+        });
+
+        // Waits for room, then gives up - without starting another thread
+        Thread caller = Thread.currentThread();
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        assertThrows(RejectedExecutionException.class, () -> pool.execute(() -> ranOn.set(caller)));
+        assertEquals(1, pool.getLargestPoolSize());
+
+        // A submitter that is still waiting gets in once there is room
+        CountDownLatch ran = new CountDownLatch(1);
+        ThreadPoolExecutor patient = ExecutorStrategy.newBoundedPool(1, 1, 5, TimeUnit.SECONDS);
+        CountDownLatch busy = new CountDownLatch(1);
+        patient.execute(() -> {
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        patient.execute(() -> {
+        });
+        Thread submitter = new Thread(() -> patient.execute(ran::countDown));
+        submitter.start();
+        Thread.sleep(50);
+        busy.countDown();
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        submitter.join();
+        assertEquals(1, patient.getLargestPoolSize());
+
+        assertNull(ranOn.get());
+        release.countDown();
+        pool.shutdown();
+        patient.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(patient.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testServerThreadIsNotBlocked() {
+        ThreadPoolExecutor pool = ExecutorStrategy.newBoundedPool(1, 1, 10, TimeUnit.SECONDS);
+        CountDownLatch release = new CountDownLatch(1);
+        pool.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        pool.execute(() -> {
+        });
+
+        ExecutorStrategy.setServerThread(Thread.currentThread());
+        try {
+            long start = System.nanoTime();
+            assertThrows(RejectedExecutionException.class, () -> pool.execute(() -> {
+            }));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        } finally {
+            ExecutorStrategy.setServerThread(null);
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+}
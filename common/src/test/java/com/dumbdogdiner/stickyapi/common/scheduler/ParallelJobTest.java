@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class ParallelJobTest {
+    private static List<Integer> range(int size) {
+        return IntStream.range(0, size).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    public void testMapKeepsOrder() throws Exception {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        ParallelTask<Integer, Integer> task = ParallelJob.over(range(10000)).parallelism(2).chunkSize(100)
+                .map(i -> {
+                    threads.add(Thread.currentThread());
+                    return i * 2;
+                });
+
+        List<Integer> results = task.getResults().get(5, TimeUnit.SECONDS);
+        assertEquals(10000, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i * 2, results.get(i));
+        }
+        assertEquals(10000, task.getCompleted());
+        assertTrue(threads.size() <= 2);
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        assertTrue(ParallelJob.over(new ArrayList<Integer>()).map(i -> i).getResults().get(5, TimeUnit.SECONDS)
+                .isEmpty());
+    }
+
+    @Test
+    public void testFailureStopsJob() {
+        ParallelTask<Integer, Integer> task = ParallelJob.over(range(1000)).chunkSize(10).map(i -> {
+            if (i == 500) {
+                throw new IllegalStateException("Expected");
+            }
+            return i;
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> task.getResults().get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        ParallelTask<Integer, Void> task = ParallelJob.over(range(1000)).parallelism(1).chunkSize(1).forEach(i -> {
+            started.countDown();
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(task.cancel());
+        assertTrue(task.isCancelled());
+        assertThrows(CancellationException.class, () -> task.getResults().get());
+        Thread.sleep(50);
+        assertTrue(task.getCompleted() < task.getSize());
+    }
+
+    @Test
+    public void testCancelResults() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        ParallelTask<Integer, Void> task = ParallelJob.over(range(1000)).parallelism(1).chunkSize(1).forEach(i -> {
+            started.countDown();
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(task.getResults().cancel(true));
+        assertTrue(task.isCancelled());
+        Thread.sleep(50);
+        long completed = task.getCompleted();
+        Thread.sleep(50);
+        // Nothing is processed once the results are cancelled
+        assertEquals(completed, task.getCompleted());
+        assertTrue(completed < task.getSize());
+    }
+
+    @Test
+    public void testApplySyncInBatches() throws Exception {
+        Scheduler scheduler = new Scheduler(1);
+        List<Integer> applied = new ArrayList<>();
+        ParallelTask<Integer, Integer> task = ParallelJob.over(range(25)).map(i -> i);
+        task.getResults().get(5, TimeUnit.SECONDS);
+
+        CompletableFuture<Void> done = task.applySync(scheduler.getSyncExecutor(), 10, applied::add);
+        scheduler.schedule();
+        assertEquals(10, applied.size());
+        scheduler.schedule();
+        assertEquals(20, applied.size());
+        assertFalse(done.isDone());
+        scheduler.schedule();
+        assertEquals(range(25), applied);
+        assertTrue(done.isDone());
+    }
+}
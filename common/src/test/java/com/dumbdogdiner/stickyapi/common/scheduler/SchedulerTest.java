@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class SchedulerTest {
+    @Test
+    public void testScheduleSynchronousRunsInOrder() throws Exception {
+        Scheduler scheduler = new Scheduler(1);
+        List<Integer> ran = new ArrayList<>();
+        Future<Integer> first = scheduler.scheduleSynchronous(() -> {
+            ran.add(1);
+            return 1;
+        });
+        scheduler.scheduleSynchronous(() -> ran.add(2));
+
+        assertFalse(first.isDone());
+        scheduler.schedule();
+        assertEquals(Arrays.asList(1, 2), ran);
+        assertEquals(1, first.get());
+    }
+
+    @Test
+    public void testScheduleLeavesTasksScheduledDuringTick() {
+        Scheduler scheduler = new Scheduler(1);
+        AtomicInteger ran = new AtomicInteger();
+        scheduler.scheduleSynchronous(() -> scheduler.scheduleSynchronous(ran::incrementAndGet));
+
+        scheduler.schedule();
+        assertEquals(0, ran.get());
+        scheduler.schedule();
+        assertEquals(1, ran.get());
+    }
+
+    @Test
+    public void testScheduleTickBudget() {
+        Scheduler scheduler = new Scheduler(1);
+        scheduler.setTickBudget(1, TimeUnit.NANOSECONDS);
+        AtomicInteger ran = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            scheduler.scheduleSynchronous(ran::incrementAndGet);
+        }
+
+        scheduler.schedule();
+        assertEquals(1, ran.get());
+        scheduler.schedule();
+        assertEquals(2, ran.get());
+        scheduler.setTickBudget(0, TimeUnit.NANOSECONDS);
+        scheduler.schedule();
+        assertEquals(3, ran.get());
+        assertTrue(scheduler.getSynchronous().isEmpty());
+    }
+
+    @Test
+    public void testScheduleSynchronousDelayed() throws Exception {
+        Scheduler scheduler = new Scheduler(1);
+        List<Integer> ran = new ArrayList<>();
+        scheduler.scheduleSynchronous(() -> ran.add(2), 60, TimeUnit.MILLISECONDS);
+        scheduler.scheduleSynchronous(() -> ran.add(1), 30, TimeUnit.MILLISECONDS);
+        Future<Boolean> never = scheduler.scheduleSynchronous(() -> ran.add(3), 1, TimeUnit.HOURS);
+
+        scheduler.schedule();
+        assertTrue(ran.isEmpty());
+
+        Thread.sleep(100);
+        scheduler.schedule();
+        assertEquals(Arrays.asList(1, 2), ran);
+        assertFalse(never.isDone());
+    }
+
+    @Test
+    public void testScheduleSynchronousDate() throws Exception {
+        Scheduler scheduler = new Scheduler(1);
+        Future<Integer> future = scheduler.scheduleSynchronous(() -> 1, new Date(System.currentTimeMillis() + 20));
+        assertThrows(DateTimeException.class,
+                () -> scheduler.scheduleSynchronous(() -> 1, new Date(System.currentTimeMillis() - 1000)));
+
+        Thread.sleep(50);
+        scheduler.schedule();
+        assertEquals(1, future.get());
+    }
+
+    @Test
+    public void testScheduleSynchronousFromManyThreads() throws Exception {
+        Scheduler scheduler = new Scheduler(1);
+        AtomicInteger ran = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(4);
+        for (int i = 0; i < 4; i++) {
+            new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    scheduler.scheduleSynchronous(ran::incrementAndGet);
+                }
+                done.countDown();
+            }).start();
+        }
+
+        while (done.getCount() > 0) {
+            scheduler.schedule();
+        }
+        scheduler.schedule();
+        assertEquals(4000, ran.get());
+    }
+
+    @Test
+    public void testThreadedAtFixedRate() throws Exception {
+        Scheduler scheduler = new Scheduler(1);
+        CountDownLatch ran = new CountDownLatch(3);
+        RepeatingTask task = scheduler.scheduleThreadedAtFixedRate(ran::countDown, 0, 10, TimeUnit.MILLISECONDS,
+                MissedRunPolicy.SKIP);
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertTrue(task.cancel());
+        assertFalse(task.cancel());
+        long runs = task.getRunCount();
+        Thread.sleep(50);
+        assertTrue(task.getRunCount() <= runs + 1);
+    }
+
+    @Test
+    public void testThreadedWithFixedDelayKeepsRunningAfterException() throws Exception {
+        Scheduler scheduler = new Scheduler(1);
+        CountDownLatch ran = new CountDownLatch(3);
+        RepeatingTask task = scheduler.scheduleThreadedWithFixedDelay(() -> {
+            ran.countDown();
+            throw new IllegalStateException("Expected");
+        }, 0, 1, TimeUnit.MILLISECONDS);
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        task.cancel();
+        assertTrue(task.isCancelled());
+    }
+
+    private static int runLateTicks(MissedRunPolicy policy) throws Exception {
+        Scheduler scheduler = new Scheduler(1);
+        AtomicInteger ran = new AtomicInteger();
+        RepeatingTask task = scheduler.scheduleSynchronousAtFixedRate(ran::incrementAndGet, 0, 20,
+                TimeUnit.MILLISECONDS, policy);
+
+        scheduler.schedule();
+        assertEquals(1, ran.get());
+
+        // Miss around five runs, then tick quickly
+        Thread.sleep(110);
+        for (int i = 0; i < 10; i++) {
+            scheduler.schedule();
+        }
+        task.cancel();
+        return ran.get() - 1;
+    }
+
+    @Test
+    public void testSynchronousMissedRunPolicies() throws Exception {
+        assertEquals(0, runLateTicks(MissedRunPolicy.SKIP));
+        assertEquals(1, runLateTicks(MissedRunPolicy.COALESCE));
+        assertTrue(runLateTicks(MissedRunPolicy.CATCH_UP) >= 5);
+    }
+
+    @Test
+    public void testSynchronousCancel() {
+        Scheduler scheduler = new Scheduler(1);
+        AtomicInteger ran = new AtomicInteger();
+        RepeatingTask task = scheduler.scheduleSynchronousWithFixedDelay(ran::incrementAndGet, 0, 1,
+                TimeUnit.NANOSECONDS);
+
+        scheduler.schedule();
+        task.cancel();
+        scheduler.schedule();
+        assertEquals(1, ran.get());
+    }
+
+    @Test
+    public void testCronNeverMatches() {
+        Scheduler scheduler = new Scheduler(1);
+        assertThrows(IllegalArgumentException.class, () -> scheduler.scheduleThreadedCron(() -> {
+        }, CronExpression.parse("0 0 30 2 *"), MissedRunPolicy.SKIP));
+    }
+}
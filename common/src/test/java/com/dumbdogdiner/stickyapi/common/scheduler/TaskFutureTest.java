@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskFutureTest {
+    /**
+     * Tick the scheduler until the future completes.
+     */
+    private static <T> T tickUntilDone(Scheduler scheduler, CompletableFuture<T> future) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!future.isDone() && System.nanoTime() < deadline) {
+            scheduler.schedule();
+            Thread.sleep(1);
+        }
+        return future.get(0, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testAsyncThenSync() throws Exception {
+        Scheduler scheduler = new Scheduler(1);
+        Thread main = Thread.currentThread();
+        AtomicReference<Thread> asyncThread = new AtomicReference<>();
+
+        TaskFuture<Integer> future = scheduler.supplyAsync(() -> {
+            asyncThread.set(Thread.currentThread());
+            return 20;
+        }).thenSync(value -> {
+            assertSame(main, Thread.currentThread());
+            return value + 1;
+        }).thenAsync(value -> {
+            assertNotSame(main, Thread.currentThread());
+            return value * 2;
+        });
+
+        assertEquals(42, tickUntilDone(scheduler, future));
+        assertNotSame(main, asyncThread.get());
+    }
+
+    @Test
+    public void testSyncWaitsForTick() throws Exception {
+        Scheduler scheduler = new Scheduler(1);
+        TaskFuture<Void> future = scheduler.runSync(() -> {
+        });
+        assertFalse(future.isDone());
+        scheduler.schedule();
+        assertTrue(future.isDone());
+    }
+
+    @Test
+    public void testChainedStagesUsePool() throws Exception {
+        Scheduler scheduler = new Scheduler(1);
+        Thread main = Thread.currentThread();
+        // Plain CompletableFuture methods keep returning task futures
+        CompletableFuture<Integer> future = scheduler.runSync(() -> {
+        }).thenApplyAsync(ignored -> {
+            assertNotSame(main, Thread.currentThread());
+            return 1;
+        });
+        assertTrue(future instanceof TaskFuture);
+        assertEquals(1, tickUntilDone(scheduler, future));
+    }
+
+    @Test
+    public void testExceptionallySync() throws Exception {
+        Scheduler scheduler = new Scheduler(1);
+        TaskFuture<String> future = scheduler.<String>supplyAsync(() -> {
+            throw new IllegalStateException("Expected");
+        }).exceptionallySync(error -> "recovered");
+        assertEquals("recovered", tickUntilDone(scheduler, future));
+    }
+}
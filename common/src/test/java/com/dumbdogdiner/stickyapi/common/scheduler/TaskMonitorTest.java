@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import com.dumbdogdiner.stickyapi.StickyAPI;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskMonitorTest {
+    @Test
+    public void testHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMax(TimeUnit.MICROSECONDS));
+        assertEquals(500.5, histogram.getMean(TimeUnit.MICROSECONDS), 0.01);
+        long median = histogram.getPercentile(50, TimeUnit.MICROSECONDS);
+        assertTrue(median >= 500 && median <= 500 * 1.07, "median " + median);
+        long p99 = histogram.getPercentile(99, TimeUnit.MICROSECONDS);
+        assertTrue(p99 >= 990 && p99 <= 1000, "p99 " + p99);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50, TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        for (long value : new long[] { 0, 1, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE }) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.highestValueIn(bucket) >= value);
+            if (bucket > 0) {
+                assertTrue(LatencyHistogram.highestValueIn(bucket - 1) < value);
+            }
+        }
+    }
+
+    @Test
+    public void testInstrumentedExecutor() throws Exception {
+        InstrumentedExecutor executor = new InstrumentedExecutor("Test", Executors.newFixedThreadPool(2));
+        TaskMonitor monitor = executor.getMonitor();
+
+        executor.submit(TaskMonitor.named("ok", () -> {
+        })).get();
+        executor.submit(() -> 1).get();
+        assertThrows(ExecutionException.class, () -> executor.submit(() -> {
+            throw new IllegalStateException("Expected");
+        }).get());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(3, monitor.getSubmitted());
+        assertEquals(3, monitor.getRunTime().getCount());
+        assertEquals(3, monitor.getWaitTime().getCount());
+        assertEquals(0, monitor.getQueueDepth());
+        assertEquals(0, monitor.getRunning());
+        assertEquals(1, monitor.getTaskStats().get("ok").getCount());
+        // Lambdas are named after the class they were written in
+        assertEquals(2, monitor.getTaskStats().get(TaskMonitorTest.class.getName()).getCount());
+    }
+
+    @Test
+    public void testFailedCallablesAreCounted() throws Exception {
+        InstrumentedExecutor executor = new InstrumentedExecutor("Failing", Executors.newFixedThreadPool(2));
+        TaskMonitor monitor = executor.getMonitor();
+
+        Callable<Integer> failing = () -> {
+            throw new IllegalStateException("Expected");
+        };
+        assertThrows(ExecutionException.class, () -> executor.submit(failing).get());
+        for (Future<Integer> future : executor.invokeAll(Arrays.asList(failing, () -> 1))) {
+            assertTrue(future.isDone());
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(3, monitor.getCompleted() + monitor.getFailed());
+        assertEquals(2, monitor.getFailed());
+
+        Scheduler scheduler = new Scheduler(1);
+        assertThrows(ExecutionException.class, () -> scheduler.scheduleThreaded(failing).get());
+        // Recorded just after the future completes
+        long deadline = System.currentTimeMillis() + 5000;
+        while (scheduler.getMonitor().getFailed() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, scheduler.getMonitor().getFailed());
+    }
+
+    @Test
+    public void testSlowTaskIsLoggedWithStack() throws Exception {
+        TaskMonitor monitor = new TaskMonitor("Slow");
+        monitor.setSlowTaskThreshold(20, TimeUnit.MILLISECONDS);
+        CountDownLatch logged = new CountDownLatch(1);
+        Logger logger = StickyAPI.getLogger();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getMessage().contains("has been running") && record.getThrown() != null
+                        && record.getThrown().getStackTrace().length > 0) {
+                    logged.countDown();
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        logger.addHandler(handler);
+        try {
+            Runnable task = monitor.wrap(() -> {
+                try {
+                    logged.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            Thread thread = new Thread(task);
+            thread.start();
+            assertTrue(logged.await(5, TimeUnit.SECONDS));
+            thread.join();
+        } finally {
+            logger.removeHandler(handler);
+        }
+    }
+
+    @Test
+    public void testStickyAPIPoolIsInstrumented() throws Exception {
+        long before = StickyAPI.getPoolMonitor().getSubmitted();
+        StickyAPI.getPool().submit(() -> {
+        }).get();
+        assertTrue(StickyAPI.getPoolMonitor().getSubmitted() > before);
+    }
+
+    @Test
+    public void testSchedulerPoolIsInstrumented() throws Exception {
+        Scheduler scheduler = new Scheduler(1);
+        assertEquals(1, scheduler.scheduleThreaded(() -> 1).get());
+        assertEquals(1, scheduler.getMonitor().getSubmitted());
+        assertEquals(0, scheduler.getMonitor().getQueueDepth());
+    }
+}
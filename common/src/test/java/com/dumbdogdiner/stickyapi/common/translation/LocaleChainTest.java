@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.translation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class LocaleChainTest {
+
+    private static final File localeDirectoryGroup2 = new File("src/test/resources/localeprovider/group2");
+
+    private LocaleProvider provider;
+
+    private Map<String, String> vars;
+
+    @BeforeAll
+    public void setup() {
+        provider = new LocaleProvider(localeDirectoryGroup2);
+        assertEquals(3, provider.loadAllLocales());
+        assertTrue(provider.setDefaultLocale("messages.en_us"));
+
+        vars = provider.newVariables();
+        vars.put("player", "Notch");
+    }
+
+    @Test
+    public void testChainOrder() {
+        assertEquals(Arrays.asList(provider.getLocale("messages.pt_br"), provider.getLocale("messages.pt"),
+                provider.getLocale("messages.en_us")), provider.forLocale("pt_BR").getLocales());
+        assertEquals(Arrays.asList(provider.getLocale("messages.pt"), provider.getLocale("messages.en_us")),
+                provider.forLocale("pt_PT").getLocales());
+    }
+
+    @Test
+    public void testFallback() {
+        LocaleChain chain = provider.forLocale("pt_br");
+        // From pt_br, which also overrides the prefix
+        assertEquals("§b[Servidor] §fFalou, Notch!", chain.translate("farewell", vars));
+        // From pt, still with the pt_br prefix
+        assertEquals("§b[Servidor] §fOlá, Notch!", chain.translate("greeting", vars));
+        // From the default locale
+        assertEquals("English only", chain.translate("only-english", vars));
+        assertNull(chain.translate("non-existent", vars));
+    }
+
+    @Test
+    public void testTagFormats() {
+        assertSame(provider.forLocale("pt_BR"), provider.forLocale("pt-br"));
+        assertSame(provider.forLocale("pt_BR"), provider.forLocale(new java.util.Locale("pt", "BR")));
+        assertSame(provider.forLocale("pt"), provider.forLocale(new java.util.Locale("pt")));
+    }
+
+    @Test
+    public void testUnknownLocale() {
+        assertSame(provider.forLocale((String) null), provider.forLocale("de_de"));
+        assertEquals("&b[Server] &fHello, Notch!", provider.forLocale("de_de").translateNoColor("greeting", vars));
+        assertEquals(provider.translate("greeting", vars), provider.forLocale("en_us").translate("greeting", vars));
+    }
+
+    @Test
+    public void testNoDefaultLocale() {
+        LocaleProvider empty = new LocaleProvider(localeDirectoryGroup2);
+        assertTrue(empty.forLocale("pt_br").getLocales().isEmpty());
+        assertNull(empty.forLocale("pt_br").get("greeting"));
+    }
+}
@@ -256,4 +256,19 @@ public class LocaleProviderTest {
         assertEquals(1, localeProvider.loadAllLocales());
     }
 
+    @Test
+    public void testLoadAllLocalesInParallel() {
+        LocaleProvider localeProvider = new LocaleProvider(new File("src/test/resources/localeprovider/group2"));
+        assertTrue(localeProvider.loadLocale("messages.pt"));
+
+        // The locale loaded already is skipped
+        assertEquals(2, localeProvider.loadAllLocales(4));
+        assertEquals(3, localeProvider.getLoadedLocales().size());
+        assertEquals(0, localeProvider.loadAllLocales(4));
+
+        // Chains are rebuilt once everything is loaded
+        assertTrue(localeProvider.setDefaultLocale("messages.en_us"));
+        assertEquals(3, localeProvider.forLocale("pt_BR").getLocales().size());
+    }
+
 }
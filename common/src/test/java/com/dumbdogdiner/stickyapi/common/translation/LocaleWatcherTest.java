@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.translation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LocaleWatcherTest {
+
+    @TempDir
+    Path folder;
+
+    private LocaleProvider provider;
+
+    private void write(String name, String content) throws IOException {
+        Files.write(folder.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @BeforeEach
+    public void setup() throws IOException {
+        write("messages.en_us.yml", "greeting: \"Hello, {player}!\"\n");
+        provider = new LocaleProvider(folder.toFile());
+        assertEquals(1, provider.loadAllLocales());
+        assertTrue(provider.setDefaultLocale("messages.en_us"));
+    }
+
+    @AfterEach
+    public void teardown() {
+        provider.stopWatching();
+    }
+
+    private String greeting(String tag) {
+        return provider.forLocale(tag).translate("greeting", new HashMap<String, String>() {{
+            put("player", "Notch");
+        }});
+    }
+
+    @Test
+    public void testReloadLocale() throws IOException {
+        Locale before = provider.getDefaultLocale();
+        write("messages.en_us.yml", "greeting: \"Hi there, {player}!\"\n");
+
+        assertTrue(provider.reloadLocale("messages.en_us"));
+        assertNotSame(before, provider.getDefaultLocale());
+        assertSame(provider.getLocale("messages.en_us"), provider.getDefaultLocale());
+        assertEquals("Hi there, Notch!", provider.translate("greeting", new HashMap<String, String>() {{
+            put("player", "Notch");
+        }}));
+    }
+
+    @Test
+    public void testReloadInvalidKeepsLocale() throws IOException {
+        Locale before = provider.getDefaultLocale();
+        write("messages.en_us.yml", "greeting: [unclosed\n");
+
+        assertFalse(provider.reloadLocale("messages.en_us"));
+        assertSame(before, provider.getLocale("messages.en_us"));
+        assertEquals("Hello, Notch!", greeting(null));
+    }
+
+    @Test
+    public void testWatch() throws Exception {
+        assertTrue(provider.watch());
+        assertTrue(provider.isWatching());
+
+        write("messages.en_us.yml", "greeting: \"Howdy, {player}!\"\n");
+        write("messages.fr.yml", "greeting: \"Bonjour, {player} !\"\n");
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline
+                && !("Howdy, Notch!".equals(greeting(null)) && "Bonjour, Notch !".equals(greeting("fr_FR"))))
+            Thread.sleep(50);
+
+        assertEquals("Howdy, Notch!", greeting(null));
+        assertEquals("Bonjour, Notch !", greeting("fr_FR"));
+
+        provider.stopWatching();
+        assertFalse(provider.isWatching());
+    }
+
+    @Test
+    public void testWatchSurvivesFailedReload() throws Exception {
+        provider.stopWatching();
+        provider = new LocaleProvider(folder.toFile()) {
+            @Override
+            public boolean reloadLocale(@NotNull File file) {
+                if (file.getName().startsWith("broken")) {
+                    throw new IllegalStateException("Expected");
+                }
+                return super.reloadLocale(file);
+            }
+        };
+        assertEquals(1, provider.loadAllLocales());
+        assertTrue(provider.setDefaultLocale("messages.en_us"));
+        assertTrue(provider.watch());
+
+        write("broken.yml", "greeting: \"Oops\"\n");
+        write("messages.en_us.yml", "greeting: \"Howdy, {player}!\"\n");
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline && !"Howdy, Notch!".equals(greeting(null)))
+            Thread.sleep(50);
+        assertEquals("Howdy, Notch!", greeting(null));
+
+        // Still watching after the failure
+        write("messages.en_us.yml", "greeting: \"Hey, {player}!\"\n");
+        deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline && !"Hey, Notch!".equals(greeting(null)))
+            Thread.sleep(50);
+        assertEquals("Hey, Notch!", greeting(null));
+    }
+
+    @Test
+    public void testWatchMissingFolder() {
+        File missing = folder.resolve("missing").toFile();
+        LocaleProvider other = new LocaleProvider(missing);
+        assertTrue(missing.delete());
+        assertFalse(other.watch());
+    }
+}
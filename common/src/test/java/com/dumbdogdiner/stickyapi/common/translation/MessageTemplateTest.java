@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.translation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+public class MessageTemplateTest {
+
+    private static Map<String, String> vars(String... pairs) {
+        Map<String, String> vars = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < pairs.length; i += 2) {
+            vars.put(pairs[i], pairs[i + 1]);
+        }
+        return vars;
+    }
+
+    @Test
+    public void testStatic() {
+        MessageTemplate template = MessageTemplate.compile("&bNo placeholders here");
+        assertTrue(template.isStatic());
+        assertSame(template.getSource(), template.render(null, vars()));
+    }
+
+    @Test
+    public void testVariables() {
+        MessageTemplate template = MessageTemplate.compile("{player} was banned by {executioner}: {reason}");
+        assertFalse(template.isStatic());
+        assertEquals("Notch was banned by CONSOLE: griefing",
+                template.render(null, vars("player", "Notch", "executioner", "CONSOLE", "reason", "griefing")));
+    }
+
+    @Test
+    public void testUnresolvedPlaceholdersAreKept() {
+        MessageTemplate template = MessageTemplate.compile("{a} {missing} {} {b|nosuchfunction} {unclosed");
+        assertEquals("1 {missing} {} {b|nosuchfunction} {unclosed", template.render(null, vars("a", "1")));
+    }
+
+    @Test
+    public void testInnermostBrace() {
+        assertEquals("{Notch", MessageTemplate.compile("{{player}").render(null, vars("player", "Notch")));
+    }
+
+    @Test
+    public void testNullVariables() {
+        assertEquals("{player}", MessageTemplate.compile("{player}").render(null, null));
+    }
+
+    @Test
+    public void testFunctions() {
+        assertEquals("&aOnline / &cOffline",
+                MessageTemplate.compile("{a|yesno:'&aOnline,&cOffline'} / {b | yesno:\"&aOnline,&cOffline\"}")
+                        .render(null, vars("a", "true", "b", "false")));
+        assertEquals("NOTCH", MessageTemplate.compile("{player|upper}").render(null, vars("player", "Notch")));
+    }
+
+    @Test
+    public void testValuesAreNotParsed() {
+        assertEquals("said {reason}",
+                MessageTemplate.compile("said {message}").render(null, vars("message", "{reason}", "reason", "x")));
+    }
+
+    @Test
+    public void testRenderAppends() {
+        StringBuilder out = new StringBuilder("> ");
+        MessageTemplate.compile("{player}!").render(out, null, vars("player", "Notch"));
+        assertEquals("> Notch!", out.toString());
+    }
+
+    @Test
+    public void testRenderColored() {
+        MessageTemplate template = MessageTemplate.compile("&c{player} &#ff0000{message}");
+        assertEquals("§cNotch §x§f§f§0§0§0§0hi §lthere",
+                template.renderColored(null, vars("player", "Notch", "message", "hi &lthere")));
+        // The uncolored render is unaffected
+        assertEquals("&cNotch &#ff0000hi", template.render(null, vars("player", "Notch", "message", "hi")));
+        assertEquals("§aStatic", MessageTemplate.compile("&aStatic").renderColored(null, vars()));
+    }
+
+    @Test
+    public void testLocaleNodes() {
+        LocaleProvider provider = new LocaleProvider(new File("src/test/resources/localeprovider/group1"));
+        assertTrue(provider.loadLocale("messages.en_us"));
+        assertTrue(provider.setDefaultLocale("messages.en_us"));
+
+        // prefix refers to the newline node
+        assertEquals("&b&lStickyCommands &8&l» &bWoosh! You're at the top!",
+                provider.getTemplate("top-message").render(provider::getTemplate, new HashMap<>()));
+        // Given variables take precedence over nodes
+        assertEquals("> &bWoosh! You're at the top!",
+                provider.getTemplate("top-message").render(provider::getTemplate, vars("prefix", "> ")));
+        assertEquals(provider.translateNoColor("top-message", new HashMap<>()),
+                Translation.translateVariables(provider, provider.get("top-message"), new HashMap<>()));
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.translation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+public class TranslationTest {
+
+    @Test
+    public void testTranslateColors() {
+        assertEquals("§cError! §lBold§r and §Aupper", Translation.translateColors("&", "&cError! &lBold&r and &Aupper"));
+    }
+
+    @Test
+    public void testTranslateColorsUnchanged() {
+        String message = "No colors here";
+        assertSame(message, Translation.translateColors("&", message));
+        assertSame(message, Translation.translateColors(null, message));
+        assertNull(Translation.translateColors("&", null));
+    }
+
+    @Test
+    public void testTranslateColorsInvalid() {
+        assertEquals("&z &g &&c R§D", Translation.translateColors("&", "&z &g &&c R&D"));
+        assertEquals("§a&", Translation.translateColors("&", "&a&"));
+    }
+
+    @Test
+    public void testTranslateHexColors() {
+        assertEquals("§x§f§f§8§8§0§0Orange §x§A§B§C§D§E§F!",
+                Translation.translateColors("&", "&#ff8800Orange &#ABCDEF!"));
+        // Not six hex digits
+        assertEquals("&#ff88 &#ff880g", Translation.translateColors("&", "&#ff88 &#ff880g"));
+    }
+
+    @Test
+    public void testTranslateColorsLongPrefix() {
+        assertEquals("§cred and %c", Translation.translateColors("%%", "%%cred and %c"));
+    }
+
+    @Test
+    public void testTranslateColorsIntoBuffer() {
+        StringBuilder out = new StringBuilder("> ");
+        Translation.translateColors("&", new StringBuilder("&bhello"), out);
+        assertEquals("> §bhello", out.toString());
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class DebuggerTest {
+    @AfterEach
+    public void disable() {
+        Debugger.setEnabled(false);
+    }
+
+    @Test
+    public void testSupplierOnlyCalledWhenEnabled() {
+        Debugger debug = new Debugger(getClass());
+        AtomicInteger calls = new AtomicInteger();
+
+        Debugger.setEnabled(false);
+        assertFalse(Debugger.isEnabled());
+        debug.print(() -> "message " + calls.incrementAndGet());
+        assertEquals(0, calls.get());
+
+        Debugger.setEnabled(true);
+        assertTrue(Debugger.isEnabled());
+        debug.print(() -> "message " + calls.incrementAndGet());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testFormatOverloadsCountLogs() {
+        Debugger debug = new Debugger(getClass());
+        Debugger.setEnabled(true);
+
+        debug.print("no arguments");
+        debug.print("one %s", 1);
+        debug.print("two %s %s", 1, 2);
+        debug.print("three %s %s %s", 1, 2, 3);
+        debug.print("four %s %s %s %s", 1, 2, 3, 4);
+        assertEquals(5, debug.getLogCount());
+
+        debug.reset();
+        assertEquals(0, debug.getLogCount());
+    }
+}
@@ -7,6 +7,10 @@ package com.dumbdogdiner.stickyapi.common.util;
 import static com.dumbdogdiner.stickyapi_tests_common.TestsCommon.superficialEnumCodeCoverage;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -37,4 +41,45 @@ public class MemoryUtilTest {
     public void testFormatMegabytes() {
         assertEquals(MemoryUtil.formatBits(8000000, Unit.MEGABYTES), 1);
     }
+
+    private static class Node {
+        private Node next;
+        private final long[] payload = new long[16];
+    }
+
+    @Test
+    public void testDeepSizeOfNull() {
+        assertEquals(0, MemoryUtil.getDeepSizeOf(null));
+    }
+
+    @Test
+    public void testDeepSizeOfCycle() {
+        Node a = new Node();
+        Node b = new Node();
+        a.next = b;
+        b.next = a;
+
+        long single = MemoryUtil.getDeepSizeOf(new Node());
+        // 16 longs of payload each, plus headers - and no stack overflow
+        assertTrue(single >= 16 * 8);
+        assertEquals(2 * single, MemoryUtil.getDeepSizeOf(a));
+    }
+
+    @Test
+    public void testDeepSizeOfCountsSharedObjectsOnce() {
+        Node shared = new Node();
+        List<Node> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(shared);
+        }
+
+        long size = MemoryUtil.getDeepSizeOf(list);
+        assertTrue(size > MemoryUtil.getDeepSizeOf(shared));
+        assertTrue(size < 2 * MemoryUtil.getDeepSizeOf(shared) + 100 * 16);
+    }
+
+    @Test
+    public void testDeepSizeOfString() {
+        assertTrue(MemoryUtil.getDeepSizeOf("a".repeat(1000)) >= 1000);
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2020-2021 DumbDogDiner <dumbdogdiner.com>. All rights reserved.
+ * Licensed under the MIT license, see LICENSE for more information...
+ */
+package com.dumbdogdiner.stickyapi.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+public class RadixTrieTest {
+    @Test
+    public void testPutGet() {
+        RadixTrie<Integer> trie = new RadixTrie<>();
+        assertNull(trie.put("test", 1));
+        assertNull(trie.put("team", 2));
+        assertNull(trie.put("te", 3));
+        assertNull(trie.put("toast", 4));
+        assertEquals(1, trie.put("test", 5));
+
+        assertEquals(4, trie.size());
+        assertEquals(5, trie.get("test"));
+        assertEquals(2, trie.get("team"));
+        assertEquals(3, trie.get("te"));
+        assertNull(trie.get("t"));
+        assertNull(trie.get("tests"));
+        assertFalse(trie.containsKey("tea"));
+        assertTrue(trie.containsKey("toast"));
+    }
+
+    @Test
+    public void testPrefix() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        for (String key : List.of("kick", "ban", "banlist", "tempban", "bandana", "b")) {
+            trie.put(key, key.toUpperCase());
+        }
+
+        assertEquals(List.of("b", "ban", "bandana", "banlist"), trie.keys("b"));
+        assertEquals(List.of("ban", "bandana", "banlist"), trie.keys("ba"));
+        assertEquals(List.of("bandana"), trie.keys("band"));
+        assertEquals(List.of("BANDANA"), trie.values("band"));
+        assertEquals(List.of("B", "BAN"), trie.values("b", 2));
+        assertTrue(trie.keys("x").isEmpty());
+        assertTrue(trie.keys("bans").isEmpty());
+        assertEquals(6, trie.keys("").size());
+    }
+
+    @Test
+    public void testRemove() {
+        RadixTrie<Integer> trie = new RadixTrie<>();
+        trie.put("romane", 1);
+        trie.put("romanus", 2);
+        trie.put("romulus", 3);
+        trie.put("rom", 4);
+
+        assertEquals(4, trie.remove("rom"));
+        assertNull(trie.remove("rom"));
+        assertNull(trie.remove("roman"));
+        assertEquals(3, trie.size());
+        assertEquals(2, trie.remove("romanus"));
+        assertEquals(1, trie.get("romane"));
+        assertEquals(List.of("romane", "romulus"), trie.keys("ro"));
+
+        trie.clear();
+        assertTrue(trie.isEmpty());
+        assertNull(trie.get("romane"));
+    }
+
+    @Test
+    public void testMatchesTreeMap() {
+        Random random = new Random(42);
+        RadixTrie<Integer> trie = new RadixTrie<>();
+        TreeMap<String, Integer> map = new TreeMap<>();
+
+        for (int i = 0; i < 5000; i++) {
+            var key = new StringBuilder();
+            int length = random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                key.append((char) ('a' + random.nextInt(3)));
+            }
+            if (random.nextInt(3) == 0) {
+                assertEquals(map.remove(key.toString()), trie.remove(key.toString()));
+            } else {
+                assertEquals(map.put(key.toString(), i), trie.put(key.toString(), i));
+            }
+        }
+
+        assertEquals(map.size(), trie.size());
+        for (String prefix : List.of("", "a", "ab", "cab", "bbb")) {
+            var expected = new ArrayList<String>();
+            for (String key : map.keySet()) {
+                if (key.startsWith(prefix)) {
+                    expected.add(key);
+                }
+            }
+            assertEquals(expected, trie.keys(prefix));
+        }
+    }
+}
@@ -4,6 +4,8 @@
  */
 package com.dumbdogdiner.stickyapi.common.config;
 
+import java.util.Set;
+
 /**
  * Base interface for a configuration.
  */
@@ -22,4 +24,13 @@ public interface Configuration {
      * @return The requested string, or null.
      */
     public String getString(String path);
+
+    /**
+     * Gets the paths of every top-level value in this configuration.
+     * @return An unmodifiable view of the paths.
+     * @throws UnsupportedOperationException If this configuration cannot list its paths.
+     */
+    public default Set<String> getKeys() {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support listing its keys");
+    }
 }
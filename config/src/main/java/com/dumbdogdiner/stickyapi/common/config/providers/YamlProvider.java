@@ -10,7 +10,9 @@ import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.dumbdogdiner.stickyapi.common.config.FileConfiguration;
@@ -60,6 +62,11 @@ public class YamlProvider implements FileConfiguration {
         return (value != null) ? value.toString() : null;
 	}
 
+    @Override
+    public Set<String> getKeys() {
+        return Collections.unmodifiableSet(this.data.keySet());
+    }
+
     @Override
     public boolean save(String path) {
         FileWriter fileWriter;